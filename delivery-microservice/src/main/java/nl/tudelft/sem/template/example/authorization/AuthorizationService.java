@@ -1,17 +1,30 @@
 package nl.tudelft.sem.template.example.authorization;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
+import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
 import nl.tudelft.sem.template.example.external.UsersMicroservice;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.model.Delivery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 
 @Service
 public class AuthorizationService {
+    /**
+     * Prefix of the request attribute that holds the role of a user during a request.
+     */
+    static final String ROLE_ATTRIBUTE = AuthorizationService.class.getName() + ".role.";
+
     private final UsersMicroservice usersMicroservice;
 
     private final DeliveryRepository deliveryRepository;
@@ -38,7 +51,18 @@ public class AuthorizationService {
      * @return {@code true} if the user is involved in the order; otherwise, {@code false}.
      */
     public Boolean isInvolvedInOrder(Long authorizationId, String role, Long orderId) {
-        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
+        return isInvolvedInDelivery(authorizationId, role, deliveryRepository.findDeliveryByOrder_OrderId(orderId));
+    }
+
+    /**
+     * Checks whether the user making the call to the endpoint is involved in a delivery that was already loaded.
+     *
+     * @param authorizationId The id of the user making the request.
+     * @param role The role of the user with the provided id.
+     * @param delivery The delivery for which the request is made.
+     * @return {@code true} if the user is involved in the delivery; otherwise, {@code false}.
+     */
+    public Boolean isInvolvedInDelivery(Long authorizationId, String role, Delivery delivery) {
         if (role.equals("admin")) {
             return true;
         }
@@ -61,6 +85,8 @@ public class AuthorizationService {
 
     /**
      * Retrieves the role of the user with the specified authorization id from the user microservice.
+     * During a web request the role is kept in the request, so every check made while handling the
+     * request looks the role up only once.
      *
      * @param authorizationId The id of the user for whom the role is retrieved.
      * @return The role of the user.
@@ -68,11 +94,123 @@ public class AuthorizationService {
      *         or if the user type could not be found.
      */
     public String getUserRole(Long authorizationId) throws MicroserviceCommunicationException {
-        Optional<String> userType = usersMicroservice.getUserType(authorizationId);
+        String known = getKnownRole(authorizationId);
+        if (known != null) {
+            return known;
+        }
+        return rememberRole(authorizationId, usersMicroservice.getUserType(authorizationId));
+    }
+
+    /**
+     * Returns the role of the user that was already retrieved during this web request.
+     *
+     * @param authorizationId The id of the user.
+     * @return The role, or null if it was not retrieved yet or outside a web request.
+     */
+    private String getKnownRole(Long authorizationId) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request == null ? null
+                : (String) request.getAttribute(ROLE_ATTRIBUTE + authorizationId, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Turns the user type into a role and, during a web request, keeps it in the request.
+     *
+     * @param authorizationId The id of the user.
+     * @param userType The user type from the user microservice.
+     * @return The role of the user.
+     * @throws MicroserviceCommunicationException If the user type could not be found.
+     */
+    private String rememberRole(Long authorizationId, Optional<String> userType)
+            throws MicroserviceCommunicationException {
         if (userType.isEmpty()) {
             throw new MicroserviceCommunicationException("User type could not be found");
         }
-        return userType.get().replaceAll("\"", "");
+        String role = userType.get().replaceAll("\"", "");
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(ROLE_ATTRIBUTE + authorizationId, role, RequestAttributes.SCOPE_REQUEST);
+        }
+        return role;
+    }
+
+    /**
+     * The role of a user together with the delivery of the order the user makes a request for.
+     */
+    private static final class RoleAndDelivery {
+        private final String role;
+        private final Delivery delivery;
+
+        private RoleAndDelivery(String role, Delivery delivery) {
+            this.role = role;
+            this.delivery = delivery;
+        }
+    }
+
+    /**
+     * Retrieves the role of the user and reads the delivery of the order. When the role is not known yet, it is
+     * retrieved from the user microservice without blocking while the delivery is read from the database, so this
+     * takes about as long as the slower of the two rather than both together.
+     *
+     * @param authorizationId The id of the user.
+     * @param orderId The id of the order.
+     * @return The role and the delivery, which is null if the order has no delivery.
+     * @throws MicroserviceCommunicationException If the user type could not be found.
+     */
+    private RoleAndDelivery loadRoleAndDelivery(Long authorizationId, Long orderId)
+            throws MicroserviceCommunicationException {
+        String known = getKnownRole(authorizationId);
+        if (known != null) {
+            return new RoleAndDelivery(known, deliveryRepository.findDeliveryByOrder_OrderId(orderId));
+        }
+        CompletableFuture<Optional<String>> userType = usersMicroservice.getUserTypeAsync(authorizationId);
+        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
+        try {
+            return new RoleAndDelivery(rememberRole(authorizationId, userType.join()), delivery);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether the role of the user permits an action on the given order and the user is involved in it.
+     *
+     * @param authorizationId The id of the user for whom the permission is checked.
+     * @param orderId The id of the order for which the permission is checked.
+     * @param rolePermits Whether the role permits the action.
+     * @return {@code true} if the role permits the action and the user is involved in the order.
+     * @throws MicroserviceCommunicationException If the user type could not be found.
+     */
+    private Boolean isPermittedForOrder(Long authorizationId, Long orderId, Predicate<String> rolePermits)
+            throws MicroserviceCommunicationException {
+        RoleAndDelivery loaded = loadRoleAndDelivery(authorizationId, orderId);
+        return rolePermits.test(loaded.role) && isInvolvedInDelivery(authorizationId, loaded.role, loaded.delivery);
+    }
+
+    /**
+     * Loads the delivery of the given order if the role of the user permits an action on it and the user is
+     * involved in it. The caller works on the returned delivery, so the request reads it only once.
+     *
+     * @param authorizationId The id of the user for whom the permission is checked.
+     * @param orderId The id of the order for which the permission is checked.
+     * @param rolePermits Whether the role permits the action.
+     * @return The delivery, or empty if the user is not permitted.
+     * @throws MicroserviceCommunicationException If the user type could not be found.
+     * @throws OrderNotFoundException If the order has no delivery.
+     */
+    private Optional<Delivery> findPermittedDelivery(Long authorizationId, Long orderId, Predicate<String> rolePermits)
+            throws MicroserviceCommunicationException, OrderNotFoundException {
+        RoleAndDelivery loaded = loadRoleAndDelivery(authorizationId, orderId);
+        if (loaded.delivery == null) {
+            throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
+        }
+        if (!rolePermits.test(loaded.role) || !isInvolvedInDelivery(authorizationId, loaded.role, loaded.delivery)) {
+            return Optional.empty();
+        }
+        return Optional.of(loaded.delivery);
     }
 
     /**
@@ -85,8 +223,44 @@ public class AuthorizationService {
      *         or if the user type could not be found.
      */
     public Boolean canViewDeliveryDetails(Long authorizationId, Long orderId) throws MicroserviceCommunicationException {
+        return isPermittedForOrder(authorizationId, orderId, role -> true);
+    }
+
+    /**
+     * Loads the delivery of the given order if the user with the specified authorization id can view its details.
+     *
+     * @param authorizationId The id of the user for whom the permission is checked.
+     * @param orderId The id of the order for which the permission is checked.
+     * @return The delivery, or empty if the user is not allowed to view delivery details.
+     * @throws MicroserviceCommunicationException If communication with the user microservice fails
+     *         or if the user type could not be found.
+     * @throws OrderNotFoundException If the order has no delivery.
+     */
+    public Optional<Delivery> findViewableDelivery(Long authorizationId, Long orderId)
+            throws MicroserviceCommunicationException, OrderNotFoundException {
+        return findPermittedDelivery(authorizationId, orderId, role -> true);
+    }
+
+    /**
+     * Selects the deliveries whose details the user with the specified authorization id can view. The role of
+     * the user is retrieved once for all deliveries, instead of once per delivery.
+     *
+     * @param authorizationId The id of the user for whom the permission is checked.
+     * @param deliveries The deliveries for which the permission is checked.
+     * @return The deliveries the user is allowed to view, in the given order.
+     * @throws MicroserviceCommunicationException If communication with the user microservice fails
+     *         or if the user type could not be found.
+     */
+    public List<Delivery> filterViewableDeliveries(Long authorizationId, List<Delivery> deliveries)
+            throws MicroserviceCommunicationException {
         String role = getUserRole(authorizationId);
-        return isInvolvedInOrder(authorizationId, role, orderId);
+        List<Delivery> viewable = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries) {
+            if (isInvolvedInDelivery(authorizationId, role, delivery)) {
+                viewable.add(delivery);
+            }
+        }
+        return viewable;
     }
 
     /**
@@ -100,8 +274,22 @@ public class AuthorizationService {
      *         or if the user type could not be found.
      */
     public Boolean canUpdateDeliveryDetails(Long authorizationId, Long orderId) throws MicroserviceCommunicationException {
-        String role = getUserRole(authorizationId);
-        return !role.equals("customer") && isInvolvedInOrder(authorizationId, role, orderId);
+        return isPermittedForOrder(authorizationId, orderId, role -> !role.equals("customer"));
+    }
+
+    /**
+     * Loads the delivery of the given order if the user with the specified authorization id can update its details.
+     *
+     * @param authorizationId The id of the user for whom the permission is checked.
+     * @param orderId The id of the order for which the permission is checked.
+     * @return The delivery, or empty if the user is not allowed to update delivery details.
+     * @throws MicroserviceCommunicationException If communication with the user microservice fails
+     *         or if the user type could not be found.
+     * @throws OrderNotFoundException If the order has no delivery.
+     */
+    public Optional<Delivery> findUpdatableDelivery(Long authorizationId, Long orderId)
+            throws MicroserviceCommunicationException, OrderNotFoundException {
+        return findPermittedDelivery(authorizationId, orderId, role -> !role.equals("customer"));
     }
 
     /**
@@ -121,6 +309,21 @@ public class AuthorizationService {
         return role.equals("courier") && Objects.equals(authorizationId, courierId);
     }
 
+    /**
+     * Checks whether the user with the specified authorization id can report the position of the given courier,
+     * which only the courier itself can.
+     *
+     * @param authorizationId The id of the user for whom the permission is checked.
+     * @param courierId The id of the courier whose position is reported.
+     * @return {@code true} if the user is the courier; otherwise, {@code false}.
+     * @throws MicroserviceCommunicationException If communication with the user microservice fails
+     *         or if the user type could not be found.
+     */
+    public Boolean canReportCourierLocation(Long authorizationId, Long courierId) throws MicroserviceCommunicationException {
+        String role = getUserRole(authorizationId);
+        return role.equals("courier") && Objects.equals(authorizationId, courierId);
+    }
+
     /**
      * Checks whether the user with the specified authorization id has permission to change the rating of the given order.
      *
@@ -131,8 +334,7 @@ public class AuthorizationService {
      *         or if the user type could not be found.
      */
     public Boolean canChangeOrderRating(Long authorizationId, Long orderId) throws MicroserviceCommunicationException {
-        String role = getUserRole(authorizationId);
-        return role.equals("customer") && isInvolvedInOrder(authorizationId, role, orderId);
+        return isPermittedForOrder(authorizationId, orderId, role -> role.equals("customer"));
     }
 
     /**
@@ -0,0 +1,95 @@
+package nl.tudelft.sem.template.example.configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+/**
+ * Non-blocking HTTP client for calls to the other microservices. A call returns at once and
+ * no thread waits for the response: it completes the returned future when it arrives. A
+ * request thread can therefore do other work, such as reading the database, while a call is
+ * in flight. Failed calls complete the future with the same exceptions a RestTemplate throws,
+ * so callers handle errors of both clients alike.
+ */
+@Component
+public class AsyncHttpClient {
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    /**
+     * Creates the client.
+     *
+     * @param connectTimeout Time in milliseconds to make a connection
+     * @param readTimeout Time in milliseconds to wait for the response
+     */
+    @Autowired
+    public AsyncHttpClient(@Value("${delivery.http.connect-timeout-ms:2000}") int connectTimeout,
+                           @Value("${delivery.http.read-timeout-ms:5000}") int readTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+        this.readTimeout = Duration.ofMillis(readTimeout);
+    }
+
+    /**
+     * Sends a GET request.
+     *
+     * @param url The url of the resource
+     * @return The body of the response, or null if it is empty
+     */
+    public CompletableFuture<String> get(String url) {
+        return send(HttpRequest.newBuilder(URI.create(url)).GET());
+    }
+
+    private CompletableFuture<String> send(HttpRequest.Builder builder) {
+        HttpRequest request = builder.timeout(readTimeout).build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        if (cause instanceof IOException) {
+                            throw new ResourceAccessException("I/O error on " + request.method() + " request for \""
+                                    + request.uri() + "\": " + cause.getMessage(), (IOException) cause);
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    return readBody(response);
+                });
+    }
+
+    private static String readBody(HttpResponse<String> response) {
+        int code = response.statusCode();
+        String body = response.body();
+        if (code >= 200 && code < 300) {
+            return body.isEmpty() ? null : body;
+        }
+        HttpStatus status = HttpStatus.resolve(code);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (status != null && status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, status.getReasonPhrase(), new HttpHeaders(), bytes,
+                    StandardCharsets.UTF_8);
+        }
+        if (status != null && status.is5xxServerError()) {
+            throw HttpServerErrorException.create(status, status.getReasonPhrase(), new HttpHeaders(), bytes,
+                    StandardCharsets.UTF_8);
+        }
+        throw new UnknownHttpStatusCodeException(code, "", new HttpHeaders(), bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,7 +1,10 @@
 package nl.tudelft.sem.template.example.configuration;
 
+import nl.tudelft.sem.template.example.external.CircuitBreaker;
+import nl.tudelft.sem.template.example.external.ServiceGuard;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -16,8 +19,50 @@ public class ConfigurationProperties {
         this.defaultDeliveryZone = defaultDeliveryZone;
     }
 
+    /**
+     * RestTemplate for calls to the other microservices, sending requests over pooled connections.
+     *
+     * @param httpClientPool The pool of connections
+     * @return The RestTemplate
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpClientPool httpClientPool) {
+        return new RestTemplate(httpClientPool.getRequestFactory());
+    }
+
+    /**
+     * Guard of the calls to the users microservice.
+     *
+     * @param environment The environment holding the settings under delivery.users
+     * @return The guard
+     */
+    @Bean
+    public ServiceGuard usersServiceGuard(Environment environment) {
+        return serviceGuard("users", environment);
+    }
+
+    /**
+     * Guard of the calls to the orders microservice.
+     *
+     * @param environment The environment holding the settings under delivery.orders
+     * @return The guard
+     */
+    @Bean
+    public ServiceGuard ordersServiceGuard(Environment environment) {
+        return serviceGuard("orders", environment);
+    }
+
+    private static ServiceGuard serviceGuard(String name, Environment environment) {
+        String prefix = "delivery." + name + ".";
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                environment.getProperty(prefix + "breaker.window-size", Integer.class, 20),
+                environment.getProperty(prefix + "breaker.minimum-calls", Integer.class, 10),
+                environment.getProperty(prefix + "breaker.failure-rate-threshold", Double.class, 0.5),
+                environment.getProperty(prefix + "breaker.slow-call-ms", Long.class, 2000L),
+                environment.getProperty(prefix + "breaker.open-ms", Long.class, 10000L),
+                environment.getProperty(prefix + "breaker.half-open-calls", Integer.class, 3));
+        return new ServiceGuard(name, circuitBreaker,
+                environment.getProperty(prefix + "bulkhead.max-concurrent-calls", Integer.class, 10),
+                environment.getProperty(prefix + "bulkhead.max-wait-ms", Long.class, 100L));
     }
 }
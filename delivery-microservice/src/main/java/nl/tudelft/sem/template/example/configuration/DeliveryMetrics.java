@@ -0,0 +1,104 @@
+package nl.tudelft.sem.template.example.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import nl.tudelft.sem.template.example.external.ServiceGuard;
+import nl.tudelft.sem.template.example.external.UserRoleCache;
+import nl.tudelft.sem.template.example.service.routing.EtaCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the measurements of the connection pool, the caches and the guards of the other
+ * microservices as metrics, so they can be watched at /actuator/metrics. The meters read the
+ * counters the components keep anyway when the registry asks for them, so publishing adds no
+ * work to a request.
+ */
+@Component
+public class DeliveryMetrics implements MeterBinder {
+
+    private final HttpClientPool httpClientPool;
+    private final EtaCache etaCache;
+    private final UserRoleCache userRoleCache;
+    private final ServiceGuard usersServiceGuard;
+    private final ServiceGuard ordersServiceGuard;
+
+    /**
+     * Creates the metrics.
+     *
+     * @param httpClientPool The pool of connections to the other microservices
+     * @param etaCache The cache of estimated arrival times
+     * @param userRoleCache The cache of user roles
+     * @param usersServiceGuard The guard of the calls to the users microservice
+     * @param ordersServiceGuard The guard of the calls to the orders microservice
+     */
+    @Autowired
+    public DeliveryMetrics(HttpClientPool httpClientPool, EtaCache etaCache, UserRoleCache userRoleCache,
+                           @Qualifier("usersServiceGuard") ServiceGuard usersServiceGuard,
+                           @Qualifier("ordersServiceGuard") ServiceGuard ordersServiceGuard) {
+        this.httpClientPool = httpClientPool;
+        this.etaCache = etaCache;
+        this.userRoleCache = userRoleCache;
+        this.usersServiceGuard = usersServiceGuard;
+        this.ordersServiceGuard = ordersServiceGuard;
+    }
+
+    /**
+     * Registers the meters.
+     *
+     * @param registry The registry to add the meters to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("delivery.http.pool.saturation", httpClientPool, HttpClientPool::getSaturation)
+                .description("Fraction of the pooled connections that are in use")
+                .register(registry);
+        Gauge.builder("delivery.http.pool.pending", httpClientPool, HttpClientPool::getPendingRequests)
+                .description("Requests waiting for a connection")
+                .register(registry);
+        Gauge.builder("delivery.http.pool.wait.average", httpClientPool, HttpClientPool::getAverageWaitMillis)
+                .description("Average time a request waited for a connection")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("delivery.http.pool.wait.max", httpClientPool, HttpClientPool::getMaxWaitMillis)
+                .description("Longest time a request waited for a connection")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("delivery.http.pool.acquire.timeouts", httpClientPool,
+                        HttpClientPool::getAcquireTimeouts)
+                .description("Requests that gave up waiting for a connection")
+                .register(registry);
+
+        Gauge.builder("delivery.cache.hit.rate", etaCache, EtaCache::getHitRate)
+                .description("Fraction of the lookups answered from the cache")
+                .tag("cache", "eta")
+                .register(registry);
+        Gauge.builder("delivery.cache.hit.rate", userRoleCache, UserRoleCache::getHitRate)
+                .description("Fraction of the lookups answered from the cache")
+                .tag("cache", "user-role")
+                .register(registry);
+
+        bindServiceGuard(registry, "users", usersServiceGuard);
+        bindServiceGuard(registry, "orders", ordersServiceGuard);
+    }
+
+    private static void bindServiceGuard(MeterRegistry registry, String service, ServiceGuard guard) {
+        FunctionCounter.builder("delivery.service.rejections", guard, ServiceGuard::getBulkheadRejections)
+                .description("Calls refused because too many calls were in progress")
+                .tag("service", service)
+                .tag("reason", "bulkhead")
+                .register(registry);
+        FunctionCounter.builder("delivery.service.rejections", guard, ServiceGuard::getBreakerRejections)
+                .description("Calls refused because the circuit breaker was open")
+                .tag("service", service)
+                .tag("reason", "breaker")
+                .register(registry);
+        FunctionCounter.builder("delivery.service.failures", guard, ServiceGuard::getFailures)
+                .description("Calls that failed")
+                .tag("service", service)
+                .register(registry);
+    }
+}
@@ -0,0 +1,213 @@
+package nl.tudelft.sem.template.example.configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of HTTP connections to the other microservices. Connections are kept alive and reused,
+ * and every wait is bounded: for a connection from the pool, for the connection to be made and
+ * for the response to arrive. A slow microservice therefore holds a request thread for a
+ * bounded time only, and at most the connections of its route. The pool counts how long
+ * requests waited for a connection and how often they gave up, so saturation shows.
+ */
+@Component
+public class HttpClientPool {
+
+    private final MeasuredConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * Creates the pool.
+     *
+     * @param maxConnections Maximum number of open connections
+     * @param maxConnectionsPerRoute Maximum number of open connections to one host
+     * @param connectTimeout Time in milliseconds to make a connection
+     * @param readTimeout Time in milliseconds to wait for data of the response
+     * @param acquireTimeout Time in milliseconds to wait for a free connection in the pool
+     * @param keepAlive Time in milliseconds an idle connection is kept, unless the server asks for less
+     */
+    @Autowired
+    public HttpClientPool(@Value("${delivery.http.max-connections:100}") int maxConnections,
+                          @Value("${delivery.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+                          @Value("${delivery.http.connect-timeout-ms:2000}") int connectTimeout,
+                          @Value("${delivery.http.read-timeout-ms:5000}") int readTimeout,
+                          @Value("${delivery.http.acquire-timeout-ms:1000}") int acquireTimeout,
+                          @Value("${delivery.http.keep-alive-ms:30000}") long keepAlive) {
+        if (maxConnections < 1 || maxConnectionsPerRoute < 1 || keepAlive < 1) {
+            throw new IllegalArgumentException("Connection limits and keep-alive time must be positive");
+        }
+        connectionManager = new MeasuredConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(Math.min(maxConnectionsPerRoute, maxConnections));
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(acquireTimeout)
+                .build();
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return requested > 0 ? Math.min(requested, keepAlive) : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns a request factory that sends requests over the pooled connections.
+     *
+     * @return The request factory for a RestTemplate
+     */
+    public ClientHttpRequestFactory getRequestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Returns the number of connections that are in use.
+     *
+     * @return The number of leased connections
+     */
+    public int getLeasedConnections() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    /**
+     * Returns the number of idle connections that can be reused.
+     *
+     * @return The number of available connections
+     */
+    public int getAvailableConnections() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    /**
+     * Returns the number of requests waiting for a connection.
+     *
+     * @return The number of pending requests
+     */
+    public int getPendingRequests() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    /**
+     * Returns the fraction of the connections of the pool that are in use.
+     *
+     * @return The saturation between 0 and 1
+     */
+    public double getSaturation() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return (double) stats.getLeased() / stats.getMax();
+    }
+
+    /**
+     * Returns how often a connection was taken from the pool.
+     *
+     * @return The number of connections leased
+     */
+    public long getLeaseCount() {
+        return connectionManager.leases.sum();
+    }
+
+    /**
+     * Returns how often a request gave up waiting for a free connection.
+     *
+     * @return The number of timeouts
+     */
+    public long getAcquireTimeouts() {
+        return connectionManager.timeouts.sum();
+    }
+
+    /**
+     * Returns the average time a request waited for a connection.
+     *
+     * @return The average wait in milliseconds, or 0 before the first request
+     */
+    public double getAverageWaitMillis() {
+        long requests = connectionManager.leases.sum() + connectionManager.timeouts.sum();
+        return requests == 0 ? 0 : connectionManager.waitNanos.sum() / 1e6 / requests;
+    }
+
+    /**
+     * Returns the longest time a request waited for a connection.
+     *
+     * @return The longest wait in milliseconds
+     */
+    public double getMaxWaitMillis() {
+        return connectionManager.maxWaitNanos.get() / 1e6;
+    }
+
+    /**
+     * Closes all connections.
+     */
+    @PreDestroy
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close the HTTP connection pool", e);
+        }
+    }
+
+    /**
+     * Connection manager that measures how long every request waits for a connection.
+     */
+    private static final class MeasuredConnectionManager extends PoolingHttpClientConnectionManager {
+        private final LongAdder leases = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit unit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        HttpClientConnection connection = request.get(timeout, unit);
+                        leases.increment();
+                        return connection;
+                    } catch (ConnectionPoolTimeoutException e) {
+                        timeouts.increment();
+                        throw e;
+                    } finally {
+                        long waited = System.nanoTime() - start;
+                        waitNanos.add(waited);
+                        maxWaitNanos.accumulate(waited);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+}
@@ -8,7 +8,9 @@ import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
 import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
 import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.exception.UnknownStrategyException;
 import nl.tudelft.sem.template.example.service.CourierService;
+import nl.tudelft.sem.template.model.LocationPing;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -53,21 +55,44 @@ public class CourierController implements CourierApi {
 
     }
 
+    /**
+     * Returns the orders a courier still has to deliver, in the order in which they are visited.
+     *
+     * @path GET: /courier/delivery/{courier_id}/orders
+     * @param courierId Unique identifier of the courier (required)
+     * @param authorizationId Identification of the user who is making the request (required)
+     * @return list of Order Ids which are assigned to the courier
+     */
+    @Override
+    public ResponseEntity<List<Long>> courierDeliveryCourierIdOrdersGet(Long courierId, Integer authorizationId) {
+        try {
+            if (!authorizationService.canViewCourierAnalytics((long) authorizationId, courierId)) {
+                return new ResponseEntity<List<Long>>(HttpStatus.UNAUTHORIZED);
+            }
+            return ResponseEntity.ok(courierService.getAssignedOrderIds(courierId));
+        } catch (MicroserviceCommunicationException e) {
+            return new ResponseEntity<List<Long>>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
 
     /**
-     * Assigns a random order to a courier.
+     * Assigns an available order to a courier.
      *
      * @path PUT: /courier/delivery/{courier_id}/assign-any-order
      * @param courierId Unique identifier of the courier (required)
      * @param authorizationId Identification of the user who is making the request (required)
+     * @param strategy Name of the assignment strategy, the configured default when absent (optional)
      * @return Response code
      */
     @Override
-    public ResponseEntity<Void> courierDeliveryCourierIdAssignAnyOrderPut(Long courierId, Integer authorizationId)  {
+    public ResponseEntity<Void> courierDeliveryCourierIdAssignAnyOrderPut(Long courierId, Integer authorizationId,
+                                                                          String strategy)  {
         try {
-            courierService.assignCourierToRandomOrder(courierId);
-        } catch (DeliveryNotFoundException | NoAvailableOrdersException | OrderNotFoundException
-                 | CourierNotFoundException e) {
+            courierService.assignCourierToAnyOrder(courierId, strategy);
+        } catch (UnknownStrategyException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (DeliveryNotFoundException | NoAvailableOrdersException | CourierNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
         return ResponseEntity.ok().build();
@@ -94,4 +119,34 @@ public class CourierController implements CourierApi {
         }
     }
 
+    /**
+     * Stores GPS pings sent by a courier.
+     *
+     * @path POST: /courier/delivery/{courier_id}/location
+     * @param courierId Unique identifier of the courier (required)
+     * @param authorizationId Identification of the user who is making the request (required)
+     * @param pings The pings, oldest first (required)
+     * @return The number of pings that were stored
+     */
+    @Override
+    public ResponseEntity<Integer> courierDeliveryCourierIdLocationPost(Long courierId, Integer authorizationId,
+                                                                        List<LocationPing> pings) {
+        try {
+            if (!authorizationService.canReportCourierLocation((long) authorizationId, courierId)) {
+                return new ResponseEntity<Integer>(HttpStatus.FORBIDDEN);
+            }
+        } catch (MicroserviceCommunicationException e) {
+            return new ResponseEntity<Integer>(HttpStatus.UNAUTHORIZED);
+        }
+        if (pings == null || pings.isEmpty() || !pings.stream().allMatch(CourierController::isValidPing)) {
+            return new ResponseEntity<Integer>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(courierService.recordLocationPings(courierId, pings));
+    }
+
+    private static boolean isValidPing(LocationPing ping) {
+        return ping != null && ping.getLatitude() != null && ping.getLongitude() != null
+                && Math.abs(ping.getLatitude()) <= 90 && Math.abs(ping.getLongitude()) <= 180;
+    }
+
 }
@@ -3,6 +3,10 @@ package nl.tudelft.sem.template.example.controller;
 import static nl.tudelft.sem.template.model.Order.StatusEnum;
 
 import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import nl.tudelft.sem.template.api.DeliveryApi;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
 import nl.tudelft.sem.template.example.exception.CourierNotFoundException;
@@ -10,12 +14,14 @@ import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
 import nl.tudelft.sem.template.example.exception.IllegalOrderStatusException;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
 import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
 import nl.tudelft.sem.template.example.service.DeliveryService;
 import nl.tudelft.sem.template.example.service.OrderService;
 import nl.tudelft.sem.template.model.Delivery;
 import nl.tudelft.sem.template.model.DeliveryPostRequest;
 import nl.tudelft.sem.template.model.Issue;
 import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.OrderLocation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +33,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class DeliveryController implements DeliveryApi {
 
+    /**
+     * Maximum number of orders whose locations can be requested at once.
+     */
+    static final int MAX_LOCATION_BATCH = 1000;
+
     DeliveryService deliveryService;
 
     OrderService orderService;
@@ -101,7 +112,6 @@ public class DeliveryController implements DeliveryApi {
     @Override
     public ResponseEntity<String> deliveryOrderOrderIdStatusGet(Integer orderId, Integer authorizationId) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
             boolean isAuthorized = authorizationService.canViewDeliveryDetails(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
             if (!isAuthorized) {
@@ -119,13 +129,12 @@ public class DeliveryController implements DeliveryApi {
     @Override
     public ResponseEntity<OffsetDateTime> deliveryOrderOrderIdReadyTimeGet(Integer orderId, Integer authorizationId) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canViewDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findViewableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
-            OffsetDateTime readyTime = deliveryService.getReadyTime(Long.valueOf(orderId));
+            OffsetDateTime readyTime = deliveryService.getReadyTime(delivery.get());
             return readyTime == null ? ResponseEntity.status(HttpStatus.NOT_FOUND).build() : ResponseEntity.ok(readyTime);
         } catch (MicroserviceCommunicationException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -153,13 +162,12 @@ public class DeliveryController implements DeliveryApi {
     public ResponseEntity<Void> deliveryOrderOrderIdReadyTimePut(Integer orderId, Integer authorizationId,
                                                                  OffsetDateTime newReadyTime) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canUpdateDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findUpdatableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
-            deliveryService.updateReadyTime(Long.valueOf(orderId), newReadyTime);
+            deliveryService.updateReadyTime(delivery.get(), newReadyTime);
             return ResponseEntity.ok().build();
         } catch (MicroserviceCommunicationException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -194,13 +202,12 @@ public class DeliveryController implements DeliveryApi {
     @Override
     public ResponseEntity<OffsetDateTime> deliveryOrderOrderIdPickupTimeGet(Integer orderId, Integer authorizationId) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canViewDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findViewableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
-            OffsetDateTime pickupTime = deliveryService.getPickupTime(Long.valueOf(orderId));
+            OffsetDateTime pickupTime = deliveryService.getPickupTime(delivery.get());
             return pickupTime == null ? ResponseEntity.status(HttpStatus.NOT_FOUND).build() : ResponseEntity.ok(pickupTime);
         } catch (MicroserviceCommunicationException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -214,15 +221,14 @@ public class DeliveryController implements DeliveryApi {
     public ResponseEntity<Void> deliveryOrderOrderIdPickupTimePut(Integer orderId,
                                                                   Integer authorizationId, OffsetDateTime newPickupTime) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canUpdateDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findUpdatableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
 
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            deliveryService.updatePickupTime(Long.valueOf(orderId), newPickupTime);
+            deliveryService.updatePickupTime(delivery.get(), newPickupTime);
             return ResponseEntity.ok().build();
 
         } catch (MicroserviceCommunicationException e) {
@@ -237,13 +243,12 @@ public class DeliveryController implements DeliveryApi {
     @Override
     public ResponseEntity<OffsetDateTime> deliveryOrderOrderIdTodGet(Integer orderId, Integer authorizationId) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canViewDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findViewableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
-            OffsetDateTime deliveredTime = deliveryService.getDeliveredTime(Long.valueOf(orderId));
+            OffsetDateTime deliveredTime = deliveryService.getDeliveredTime(delivery.get());
             return deliveredTime == null ? ResponseEntity.status(HttpStatus.NOT_FOUND).build() :
                     ResponseEntity.ok(deliveredTime);
         } catch (MicroserviceCommunicationException e) {
@@ -257,13 +262,12 @@ public class DeliveryController implements DeliveryApi {
     public ResponseEntity<Void> deliveryOrderOrderIdTodPut(Integer orderId, Integer authorizationId,
                                                            OffsetDateTime newDeliveredTime) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canUpdateDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findUpdatableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
-            deliveryService.updateDeliveredTime(Long.valueOf(orderId), newDeliveredTime);
+            deliveryService.updateDeliveredTime(delivery.get(), newDeliveredTime);
             return ResponseEntity.ok().build();
 
         } catch (MicroserviceCommunicationException e) {
@@ -276,17 +280,18 @@ public class DeliveryController implements DeliveryApi {
     @Override
     public ResponseEntity<OffsetDateTime> deliveryOrderOrderIdEtaGet(Integer orderId, Integer authorizationId) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canViewDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findViewableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
 
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            OffsetDateTime eta = deliveryService.getEta(Long.valueOf(orderId));
+            OffsetDateTime eta = deliveryService.getEta(delivery.get());
             return eta == null ? ResponseEntity.status(HttpStatus.NOT_FOUND).build() : ResponseEntity.ok(eta);
 
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (MicroserviceCommunicationException | RuntimeException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 
@@ -339,15 +344,13 @@ public class DeliveryController implements DeliveryApi {
     @Override
     public ResponseEntity<Location> deliveryOrderOrderIdLocationGet(Integer orderId, Integer authorizationId) {
         try {
-            String userRole = authorizationService.getUserRole(Long.valueOf(authorizationId));
-            boolean isAuthorized = authorizationService.canViewDeliveryDetails(Long.valueOf(authorizationId),
+            Optional<Delivery> delivery = authorizationService.findViewableDelivery(Long.valueOf(authorizationId),
                     Long.valueOf(orderId));
-            if (!isAuthorized) {
+            if (delivery.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            Long deliveryId = deliveryService.getDeliveryIdByOrderId(orderId.longValue());
-            Location liveLocation = deliveryService.calculateLiveLocation(deliveryId);
+            Location liveLocation = deliveryService.calculateLiveLocation(delivery.get());
 
             return ResponseEntity.ok(liveLocation);
 
@@ -359,6 +362,32 @@ public class DeliveryController implements DeliveryApi {
         }
     }
 
+    /**
+     * Returns the current locations of several orders. The user is authorized once and the deliveries are
+     * loaded in one query, so a dashboard with many orders costs about as much as a single order.
+     * Orders that do not exist or that the user is not involved in are left out.
+     *
+     * @param authorizationId Identification of the user who is making the request. (required)
+     * @param orderIds The unique identifiers of the orders. (required)
+     * @return The current location of every order the user can view.
+     * @path POST: /delivery/order/locations
+     */
+    @Override
+    public ResponseEntity<List<OrderLocation>> deliveryOrderLocationsPost(Integer authorizationId, List<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty() || orderIds.size() > MAX_LOCATION_BATCH
+                || orderIds.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try {
+            List<Delivery> deliveries = deliveryService.getDeliveriesOfOrders(new LinkedHashSet<>(orderIds));
+            List<Delivery> viewable = authorizationService.filterViewableDeliveries(Long.valueOf(authorizationId),
+                    deliveries);
+            return ResponseEntity.ok(deliveryService.calculateLiveLocations(viewable));
+        } catch (MicroserviceCommunicationException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Returns the courier assigned to an order.
      *
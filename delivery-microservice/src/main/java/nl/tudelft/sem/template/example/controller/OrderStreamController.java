@@ -0,0 +1,84 @@
+package nl.tudelft.sem.template.example.controller;
+
+import static nl.tudelft.sem.template.model.Order.StatusEnum;
+
+import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
+import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.service.OrderService;
+import nl.tudelft.sem.template.example.service.tracking.OrderUpdateBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams the status, ETA and location of an order as server-sent events, so customers do not
+ * have to poll the separate endpoints. Streams are not part of the OpenAPI specification,
+ * because the generator has no notion of an event stream.
+ */
+@RestController
+public class OrderStreamController {
+
+    OrderService orderService;
+
+    AuthorizationService authorizationService;
+
+    OrderUpdateBroadcaster orderUpdateBroadcaster;
+
+    long timeout;
+
+    /**
+     * Simple constructor that handles dependency injection.
+     *
+     * @param orderService Instance of OrderService to look up the status of the order
+     * @param authorizationService Instance of AuthorizationService to check the subscriber
+     * @param orderUpdateBroadcaster Broadcaster pushing the updates of the order
+     * @param timeout Time in milliseconds after which a stream is closed
+     */
+    @Autowired
+    public OrderStreamController(OrderService orderService, AuthorizationService authorizationService,
+                                 OrderUpdateBroadcaster orderUpdateBroadcaster,
+                                 @Value("${delivery.stream.timeout-ms:1800000}") long timeout) {
+        this.orderService = orderService;
+        this.authorizationService = authorizationService;
+        this.orderUpdateBroadcaster = orderUpdateBroadcaster;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Opens a stream of the updates of an order. The user is authorized once, when the stream
+     * is opened. The stream sends "status" events with the status and ETA and "location" events
+     * with the position of the order, starting with the current values, and is closed once the
+     * order is delivered or rejected.
+     *
+     * @param orderId Unique identifier of the order (required)
+     * @param authorizationId Identification of the user who is making the request (required)
+     * @return The event stream
+     * @path GET: /delivery/order/{order_id}/stream
+     */
+    @GetMapping(value = "/delivery/order/{order_id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> deliveryOrderOrderIdStreamGet(@PathVariable("order_id") Integer orderId,
+                                                                    @RequestHeader("authorizationId")
+                                                                    Integer authorizationId) {
+        try {
+            if (!authorizationService.canViewDeliveryDetails(Long.valueOf(authorizationId), Long.valueOf(orderId))) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            StatusEnum status = orderService.getOrderStatus(orderId);
+            SseEmitter emitter = new SseEmitter(timeout);
+            orderUpdateBroadcaster.register(orderId, status, emitter);
+            return ResponseEntity.ok(emitter);
+        } catch (MicroserviceCommunicationException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (OrderNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+}
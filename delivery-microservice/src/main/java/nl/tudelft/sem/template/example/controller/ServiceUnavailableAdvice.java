@@ -0,0 +1,44 @@
+package nl.tudelft.sem.template.example.controller;
+
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers requests that needed a microservice which refused or failed the call, because its
+ * circuit breaker is open or its bulkhead is full, with 503 Service Unavailable. The response
+ * tells the client when to try again, so it does not retry while the breaker is still open.
+ */
+@RestControllerAdvice
+public class ServiceUnavailableAdvice {
+
+    private final long retryAfter;
+
+    /**
+     * Creates the advice.
+     *
+     * @param retryAfter Time in seconds after which the client may retry
+     */
+    @Autowired
+    public ServiceUnavailableAdvice(@Value("${delivery.http.retry-after-s:10}") long retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Answers a request that failed because a microservice is unavailable.
+     *
+     * @param e The exception
+     * @return Response with status 503 and a Retry-After header
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Void> handleServiceUnavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .build();
+    }
+}
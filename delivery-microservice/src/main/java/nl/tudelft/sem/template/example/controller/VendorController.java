@@ -79,6 +79,49 @@ public class VendorController implements VendorApi {
         }
     }
 
+    /**
+     * Retrieves the polygon a specific vendor delivers to.
+     *
+     * @param vendorId        Unique identifier of the vendor (required)
+     * @param authorizationId Identification of the user who is making the request (required)
+     * @return the vertices of the polygon, empty if the vendor uses its delivery zone radius
+     * @path GET: GET /vendor/delivery/{vendor_id}/delivery-area:
+     */
+    @Override
+    public ResponseEntity<List<Location>> vendorDeliveryVendorIdDeliveryAreaGet(Integer vendorId,
+                                                                              Integer authorizationId) {
+        try {
+            return ResponseEntity.ok(vendorService.getDeliveryArea((long) vendorId));
+        } catch (VendorNotFoundException e) {
+            return new ResponseEntity<List<Location>>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Updates the polygon a specific vendor delivers to, which replaces its delivery zone radius.
+     *
+     * @param vendorId        Unique identifier of the vendor (required)
+     * @param authorizationId Identification of the user who is making the request (required)
+     * @param vertices        The vertices of the polygon in order, empty to use the radius again
+     * @return the vertices of the polygon
+     * @path PUT: PUT /vendor/delivery/{vendor_id}/delivery-area:
+     */
+    @Override
+    public ResponseEntity<List<Location>> vendorDeliveryVendorIdDeliveryAreaPut(Integer vendorId,
+                                                                              Integer authorizationId,
+                                                                              List<Location> vertices) {
+        try {
+            if (authorizationService.cannotUpdateVendorDeliveryZone((long) authorizationId)) {
+                return new ResponseEntity<List<Location>>(HttpStatus.UNAUTHORIZED);
+            }
+            return ResponseEntity.ok(vendorService.updateDeliveryArea((long) vendorId, vertices));
+        } catch (VendorNotFoundException e) {
+            return new ResponseEntity<List<Location>>(HttpStatus.NOT_FOUND);
+        } catch (VendorHasNoCouriersException | MicroserviceCommunicationException | IllegalArgumentException e) {
+            return new ResponseEntity<List<Location>>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * Assigns the courier with ID courier_id to the vendor with ID vendor_id.
      *
@@ -117,8 +160,8 @@ public class VendorController implements VendorApi {
     @Override
     public ResponseEntity<List<Long>> vendorDeliveryVendorIdCouriersGet(Integer vendorId, Integer authorizationId) {
         try {
-            if (!authorizationService.getUserRole((long) authorizationId).equals("vendor")
-                    && !authorizationService.getUserRole((long) authorizationId).equals("admin")) {
+            String role = authorizationService.getUserRole((long) authorizationId);
+            if (!role.equals("vendor") && !role.equals("admin")) {
                 return new ResponseEntity<List<Long>>(HttpStatus.UNAUTHORIZED);
             }
             List<Long> courierIds = vendorService.getAssignedCouriers((long) vendorId);
@@ -143,4 +186,27 @@ public class VendorController implements VendorApi {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
+
+    /**
+     * Retrieves the vendors whose delivery zone contains the given location.
+     *
+     * @param authorizationId Identification of the user who is making the request (required)
+     * @param latitude Latitude of the location to deliver to (required)
+     * @param longitude Longitude of the location to deliver to (required)
+     * @return the ids of the vendors that deliver to the location
+     * @path GET: /vendor/delivery/coverage:
+     */
+    @Override
+    public ResponseEntity<List<Long>> vendorDeliveryCoverageGet(Integer authorizationId, Double latitude,
+                                                                Double longitude) {
+        try {
+            authorizationService.getUserRole((long) authorizationId);
+        } catch (MicroserviceCommunicationException e) {
+            return new ResponseEntity<List<Long>>(HttpStatus.UNAUTHORIZED);
+        }
+        if (latitude == null || longitude == null || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return new ResponseEntity<List<Long>>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(vendorService.getVendorsServing(new Location(latitude, longitude)));
+    }
 }
@@ -0,0 +1,7 @@
+package nl.tudelft.sem.template.example.exception;
+
+public class UnknownStrategyException extends Exception {
+    public UnknownStrategyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,166 @@
+package nl.tudelft.sem.template.example.external;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker of the calls to one microservice. While closed, the outcome of the latest
+ * calls is kept in a sliding window; once enough of them failed or were too slow the breaker
+ * opens and calls are refused without reaching the microservice. After a while it lets a few
+ * trial calls through: if they all succeed it closes again, otherwise it opens again.
+ */
+public class CircuitBreaker {
+
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThreshold;
+    private final long openDuration;
+    private final int trialCalls;
+    private final LongSupplier clock;
+
+    /**
+     * Outcome of the latest calls while closed, true for a failure.
+     */
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param windowSize Number of latest calls the failure rate is computed over
+     * @param minimumCalls Number of calls in the window before the breaker can open
+     * @param failureRateThreshold Fraction of failed calls in the window at which the breaker opens
+     * @param slowCallThreshold Time in milliseconds after which a successful call counts as failed
+     * @param openDuration Time in milliseconds the breaker stays open before trial calls are let through
+     * @param trialCalls Number of trial calls that must succeed to close the breaker again
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long slowCallThreshold,
+                          long openDuration, int trialCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallThreshold, openDuration, trialCalls,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a closed circuit breaker that reads the time from a clock.
+     *
+     * @param windowSize Number of latest calls the failure rate is computed over
+     * @param minimumCalls Number of calls in the window before the breaker can open
+     * @param failureRateThreshold Fraction of failed calls in the window at which the breaker opens
+     * @param slowCallThreshold Time in milliseconds after which a successful call counts as failed
+     * @param openDuration Time in milliseconds the breaker stays open before trial calls are let through
+     * @param trialCalls Number of trial calls that must succeed to close the breaker again
+     * @param clock Gives the current time in milliseconds
+     */
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long slowCallThreshold,
+                   long openDuration, int trialCalls, LongSupplier clock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || trialCalls < 1
+                || !(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.openDuration = openDuration;
+        this.trialCalls = trialCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * Asks whether a call may be made. Every permitted call must be followed by
+     * {@link #record(long, boolean)}.
+     *
+     * @return true if the call may be made, false if it must be refused
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDuration) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted == trialCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param duration Time in milliseconds the call took
+     * @param failed true if the call failed
+     */
+    public synchronized void record(long duration, boolean failed) {
+        boolean failure = failed || duration > slowCallThreshold;
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++trialsSucceeded == trialCalls) {
+                state = State.CLOSED;
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call that was permitted before the breaker opened
+            return;
+        }
+        if (recorded == window.length && window[next]) {
+            failures--;
+        }
+        window[next] = failure;
+        next = (next + 1) % window.length;
+        recorded = Math.min(recorded + 1, window.length);
+        if (failure) {
+            failures++;
+        }
+        if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    /**
+     * Returns the state of the breaker. An open breaker whose open time is over reports open
+     * until the next call is asked for.
+     *
+     * @return The state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the fraction of failed calls in the window.
+     *
+     * @return The failure rate between 0 and 1, or 0 without calls
+     */
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -1,6 +1,8 @@
 package nl.tudelft.sem.template.example.external;
 
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -9,11 +11,20 @@ import org.springframework.web.client.RestTemplate;
 public class OrdersMicroservice {
     private final RestTemplate restTemplate;
 
+    private final ServiceGuard serviceGuard;
+
     private final String ordersBaseUrl = "http://localhost:8082";
 
+    /**
+     * Creates the client of the orders microservice.
+     *
+     * @param restTemplate The RestTemplate to make the calls with
+     * @param serviceGuard The circuit breaker and bulkhead of the orders microservice
+     */
     @Autowired
-    public OrdersMicroservice(RestTemplate restTemplate) {
+    public OrdersMicroservice(RestTemplate restTemplate, @Qualifier("ordersServiceGuard") ServiceGuard serviceGuard) {
         this.restTemplate = restTemplate;
+        this.serviceGuard = serviceGuard;
     }
 
     /**
@@ -22,14 +33,18 @@ public class OrdersMicroservice {
      * @param orderId - The id of the order.
      * @param authorizationId - The id of the user who is making the request.
      * @param status - The status we will update the order with.
-     * @return True if the order status was updated successfully, false otherwise.
+     * @return True if the order status was updated successfully, false otherwise, also when the
+     *      OrdersMicroservice is unavailable.
      */
     public Boolean putOrderStatus(Long orderId, Long authorizationId, String status) {
         String path = ordersBaseUrl + "/order/" + orderId + "/status/" + authorizationId + "?status=" + status;
         try {
-            restTemplate.put(path, null);
+            serviceGuard.call(() -> {
+                restTemplate.put(path, null);
+                return null;
+            });
             return true;
-        } catch (HttpClientErrorException ex) {
+        } catch (HttpClientErrorException | ServiceUnavailableException ex) {
             return false;
         }
     }
@@ -0,0 +1,180 @@
+package nl.tudelft.sem.template.example.external;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Guards the calls to one microservice with a circuit breaker and a bulkhead. The bulkhead
+ * bounds the number of calls in progress, so a slow microservice holds a few request threads
+ * only, and the breaker stops calling a microservice that keeps failing. A refused or failed
+ * call throws {@link ServiceUnavailableException}, so the caller can fall back. A client error
+ * is an answer of a healthy microservice: it counts as a success and is thrown as it is.
+ */
+public class ServiceGuard {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final long maxWait;
+
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder breakerRejections = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Creates the guard of a microservice.
+     *
+     * @param name The name of the microservice, used in error messages
+     * @param circuitBreaker The circuit breaker of the microservice
+     * @param maxConcurrentCalls Maximum number of calls in progress
+     * @param maxWait Time in milliseconds a call waits for a place in the bulkhead
+     */
+    public ServiceGuard(String name, CircuitBreaker circuitBreaker, int maxConcurrentCalls, long maxWait) {
+        if (maxConcurrentCalls < 1 || maxWait < 0) {
+            throw new IllegalArgumentException("Concurrent calls must be positive and wait time not negative");
+        }
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Makes a call to the microservice, unless the bulkhead is full or the breaker is open.
+     *
+     * @param call The call
+     * @param <T> The type of the result
+     * @return The result of the call
+     * @throws ServiceUnavailableException if the call was refused or failed
+     */
+    public <T> T call(Supplier<T> call) {
+        if (!enterBulkhead()) {
+            bulkheadRejections.increment();
+            throw new ServiceUnavailableException("Too many calls to the " + name + " microservice in progress");
+        }
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                breakerRejections.increment();
+                throw new ServiceUnavailableException("Circuit breaker of the " + name + " microservice is open");
+            }
+            long start = System.currentTimeMillis();
+            try {
+                T result = call.get();
+                circuitBreaker.record(System.currentTimeMillis() - start, false);
+                return result;
+            } catch (RuntimeException e) {
+                throw onFailure(e, System.currentTimeMillis() - start);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Starts a non-blocking call to the microservice, unless the bulkhead is full or the breaker
+     * is open. The call holds its place in the bulkhead until it completes, not just until it
+     * started, so the bulkhead bounds the calls in flight.
+     *
+     * @param call Starts the call
+     * @param <T> The type of the result
+     * @return The result of the call, completed with {@link ServiceUnavailableException} if the
+     *      call was refused or failed
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        if (!enterBulkhead()) {
+            bulkheadRejections.increment();
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("Too many calls to the " + name + " microservice in progress"));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            breakerRejections.increment();
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("Circuit breaker of the " + name + " microservice is open"));
+        }
+        long start = System.currentTimeMillis();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.handle((value, error) -> {
+            bulkhead.release();
+            long duration = System.currentTimeMillis() - start;
+            if (error == null) {
+                circuitBreaker.record(duration, false);
+                return value;
+            }
+            throw onFailure(error instanceof CompletionException ? error.getCause() : error, duration);
+        });
+    }
+
+    /**
+     * Records a call that ended with an error and gives the exception to throw for it.
+     */
+    private RuntimeException onFailure(Throwable error, long duration) {
+        if (error instanceof HttpClientErrorException) {
+            circuitBreaker.record(duration, false);
+            return (HttpClientErrorException) error;
+        }
+        circuitBreaker.record(duration, true);
+        failures.increment();
+        if (error instanceof RestClientException) {
+            return new ServiceUnavailableException("Call to the " + name + " microservice failed", error);
+        }
+        return error instanceof RuntimeException ? (RuntimeException) error : new CompletionException(error);
+    }
+
+    private boolean enterBulkhead() {
+        try {
+            return bulkhead.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the state of the circuit breaker.
+     *
+     * @return The state
+     */
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Returns how often a call was refused because the bulkhead was full.
+     *
+     * @return The number of refused calls
+     */
+    public long getBulkheadRejections() {
+        return bulkheadRejections.sum();
+    }
+
+    /**
+     * Returns how often a call was refused because the circuit breaker was open.
+     *
+     * @return The number of refused calls
+     */
+    public long getBreakerRejections() {
+        return breakerRejections.sum();
+    }
+
+    /**
+     * Returns how often a call failed.
+     *
+     * @return The number of failed calls
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,202 @@
+package nl.tudelft.sem.template.example.external;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the role of every user, so checking a permission does not call the users
+ * microservice each time. Roles hardly ever change, so a role is kept until its time to live
+ * is over. That a user does not exist is cached as well, for a shorter time, so requests of an
+ * unknown user do not reach the users microservice either. The least recently used role is
+ * evicted once the cache is full.
+ */
+@Component
+public class UserRoleCache {
+
+    private final long timeToLive;
+    private final long notFoundTimeToLive;
+    private final int capacity;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<Long, CachedRole> roleOfUser;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param timeToLive Time in milliseconds a role is kept
+     * @param notFoundTimeToLive Time in milliseconds it is kept that a user does not exist
+     * @param capacity Maximum number of cached users
+     */
+    @Autowired
+    public UserRoleCache(@Value("${delivery.users.role-cache.ttl-ms:300000}") long timeToLive,
+                         @Value("${delivery.users.role-cache.not-found-ttl-ms:30000}") long notFoundTimeToLive,
+                         @Value("${delivery.users.role-cache.capacity:10000}") int capacity) {
+        this(timeToLive, notFoundTimeToLive, capacity, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates an empty cache that reads the time from a clock.
+     *
+     * @param timeToLive Time in milliseconds a role is kept
+     * @param notFoundTimeToLive Time in milliseconds it is kept that a user does not exist
+     * @param capacity Maximum number of cached users
+     * @param clock Gives the current time in milliseconds
+     */
+    UserRoleCache(long timeToLive, long notFoundTimeToLive, int capacity, LongSupplier clock) {
+        if (capacity < 1 || timeToLive < 0 || notFoundTimeToLive < 0) {
+            throw new IllegalArgumentException("Capacity must be positive and times to live not negative");
+        }
+        this.timeToLive = timeToLive;
+        this.notFoundTimeToLive = notFoundTimeToLive;
+        this.capacity = capacity;
+        this.clock = clock;
+        this.roleOfUser = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedRole> eldest) {
+                return size() > UserRoleCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached role of a user, or loads and caches it on a miss or once it expired.
+     * The role is loaded outside the lock, so two requests that miss at the same time may both
+     * load it. A load that throws caches nothing.
+     *
+     * @param userId The id of the user
+     * @param load Loads the role; an empty result means the user does not exist
+     * @return The role, or empty if the user does not exist
+     */
+    public Optional<String> getRole(long userId, LongFunction<Optional<String>> load) {
+        synchronized (this) {
+            CachedRole entry = roleOfUser.get(userId);
+            if (entry != null && clock.getAsLong() < entry.expiresAt) {
+                hits++;
+                return entry.role;
+            }
+            misses++;
+        }
+        Optional<String> role = load.apply(userId);
+        store(userId, role);
+        return role;
+    }
+
+    /**
+     * Returns the cached role of a user, or starts loading it on a miss or once it expired. A
+     * cached role gives a completed future, so only a miss waits for the load. A load that
+     * fails caches nothing.
+     *
+     * @param userId The id of the user
+     * @param load Starts loading the role; an empty result means the user does not exist
+     * @return The role, or empty if the user does not exist
+     */
+    public CompletableFuture<Optional<String>> getRoleAsync(long userId,
+                                                            LongFunction<CompletableFuture<Optional<String>>> load) {
+        synchronized (this) {
+            CachedRole entry = roleOfUser.get(userId);
+            if (entry != null && clock.getAsLong() < entry.expiresAt) {
+                hits++;
+                return CompletableFuture.completedFuture(entry.role);
+            }
+            misses++;
+        }
+        return load.apply(userId).thenApply(role -> {
+            store(userId, role);
+            return role;
+        });
+    }
+
+    private void store(long userId, Optional<String> role) {
+        long expiresAt = clock.getAsLong() + (role.isPresent() ? timeToLive : notFoundTimeToLive);
+        synchronized (this) {
+            roleOfUser.put(userId, new CachedRole(role, expiresAt));
+        }
+    }
+
+    /**
+     * Returns the role of a user that is still in the cache, even if it expired. Used when the
+     * users microservice is unavailable, as an old role is better than no answer.
+     *
+     * @param userId The id of the user
+     * @return The role, or empty if it is not in the cache or the user did not exist
+     */
+    public synchronized Optional<String> getLastKnownRole(long userId) {
+        CachedRole entry = roleOfUser.get(userId);
+        return entry == null ? Optional.empty() : entry.role;
+    }
+
+    /**
+     * Forgets the role of a user, for example after it changed.
+     *
+     * @param userId The id of the user
+     */
+    public synchronized void invalidate(long userId) {
+        roleOfUser.remove(userId);
+    }
+
+    /**
+     * Forgets the roles of all users.
+     */
+    public synchronized void invalidateAll() {
+        roleOfUser.clear();
+    }
+
+    /**
+     * Returns the number of cached users, including expired ones that were not evicted yet.
+     *
+     * @return The number of users
+     */
+    public synchronized int size() {
+        return roleOfUser.size();
+    }
+
+    /**
+     * Returns how often a role was found in the cache.
+     *
+     * @return The number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns how often a role had to be loaded.
+     *
+     * @return The number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of lookups that were answered from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 before the first lookup
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * A cached role and the time it expires.
+     */
+    private static final class CachedRole {
+        private final Optional<String> role;
+        private final long expiresAt;
+
+        private CachedRole(Optional<String> role, long expiresAt) {
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
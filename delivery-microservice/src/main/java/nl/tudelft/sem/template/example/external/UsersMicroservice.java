@@ -1,8 +1,13 @@
 package nl.tudelft.sem.template.example.external;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import nl.tudelft.sem.template.example.configuration.AsyncHttpClient;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
 import nl.tudelft.sem.template.model.Location;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -11,25 +16,115 @@ import org.springframework.web.client.RestTemplate;
 public class UsersMicroservice {
     private final RestTemplate restTemplate;
 
+    private final AsyncHttpClient asyncHttpClient;
+
+    private final UserRoleCache userRoleCache;
+
+    private final ServiceGuard serviceGuard;
+
     private final String usersBaseUrl = "http://localhost:8081";
 
+    /**
+     * Creates the client of the users microservice.
+     *
+     * @param restTemplate The RestTemplate to make the calls with
+     * @param asyncHttpClient The client to make non-blocking calls with
+     * @param userRoleCache The cache of user roles
+     * @param serviceGuard The circuit breaker and bulkhead of the users microservice
+     */
     @Autowired
-    public UsersMicroservice(RestTemplate restTemplate) {
+    public UsersMicroservice(RestTemplate restTemplate, AsyncHttpClient asyncHttpClient, UserRoleCache userRoleCache,
+                             @Qualifier("usersServiceGuard") ServiceGuard serviceGuard) {
         this.restTemplate = restTemplate;
+        this.asyncHttpClient = asyncHttpClient;
+        this.userRoleCache = userRoleCache;
+        this.serviceGuard = serviceGuard;
     }
 
     /**
-     * Get the User Type from the Users Microservice.
+     * Get the User Type from the Users Microservice, or from the cache of user roles. While the
+     * Users Microservice is unavailable, the last known role of the user is used, even if expired.
      *
      * @param userId The id of the user we want to check the type of (admin, vendor, courier, customer).
      * @return The type of user if it can be found or an empty optional otherwise.
+     * @throws ServiceUnavailableException if the Users Microservice is unavailable and the role is not cached
      */
     public Optional<String> getUserType(Long userId) {
+        try {
+            return userRoleCache.getRole(userId, this::fetchUserType);
+        } catch (HttpClientErrorException ex) {
+            return Optional.empty();
+        } catch (ServiceUnavailableException ex) {
+            Optional<String> lastKnownRole = userRoleCache.getLastKnownRole(userId);
+            if (lastKnownRole.isEmpty()) {
+                throw ex;
+            }
+            return lastKnownRole;
+        }
+    }
+
+    /**
+     * Get the User Type without blocking, like {@link #getUserType(Long)}. A cached role gives a
+     * completed future; otherwise the Users Microservice is called and no thread waits for it.
+     *
+     * @param userId The id of the user we want to check the type of (admin, vendor, courier, customer).
+     * @return The type of user if it can be found or an empty optional otherwise, completed with
+     *      {@link ServiceUnavailableException} if the Users Microservice is unavailable and the role is not cached.
+     */
+    public CompletableFuture<Optional<String>> getUserTypeAsync(Long userId) {
+        return userRoleCache.getRoleAsync(userId, this::fetchUserTypeAsync)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof HttpClientErrorException) {
+                        return Optional.empty();
+                    }
+                    if (cause instanceof ServiceUnavailableException) {
+                        Optional<String> lastKnownRole = userRoleCache.getLastKnownRole(userId);
+                        if (lastKnownRole.isPresent()) {
+                            return lastKnownRole;
+                        }
+                    }
+                    throw error instanceof CompletionException
+                            ? (CompletionException) error : new CompletionException(error);
+                });
+    }
+
+    /**
+     * Get the User Type from the Users Microservice without blocking. Only a user that does not
+     * exist gives an empty optional, so other client errors are not cached.
+     *
+     * @param userId The id of the user we want to check the type of.
+     * @return The type of user, or an empty optional if the user does not exist.
+     */
+    private CompletableFuture<Optional<String>> fetchUserTypeAsync(long userId) {
+        String path = usersBaseUrl + "/user/" + userId;
+        return serviceGuard.callAsync(() -> asyncHttpClient.get(path))
+                .handle((userType, error) -> {
+                    if (error == null) {
+                        return Optional.ofNullable(userType);
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof HttpClientErrorException.NotFound) {
+                        return Optional.empty();
+                    }
+                    throw error instanceof CompletionException
+                            ? (CompletionException) error : new CompletionException(error);
+                });
+    }
+
+    /**
+     * Get the User Type from the Users Microservice. Only a user that does not exist gives an
+     * empty optional, so other client errors are not cached.
+     *
+     * @param userId The id of the user we want to check the type of.
+     * @return The type of user, or an empty optional if the user does not exist.
+     */
+    private Optional<String> fetchUserType(long userId) {
         String path = usersBaseUrl + "/user/" + userId;
         try {
-            String userType = restTemplate.getForObject(path, String.class);
+            String userType = serviceGuard.call(() -> restTemplate.getForObject(path, String.class));
             return Optional.ofNullable(userType);
-        } catch (HttpClientErrorException ex) {
+        } catch (HttpClientErrorException.NotFound ex) {
             return Optional.empty();
         }
     }
@@ -43,9 +138,9 @@ public class UsersMicroservice {
     public Optional<Location> getVendorLocation(Long vendorId) {
         String path = usersBaseUrl + "/vendor/" + vendorId + "/location";
         try {
-            Location vendorLocation = restTemplate.getForObject(path, Location.class);
+            Location vendorLocation = serviceGuard.call(() -> restTemplate.getForObject(path, Location.class));
             return Optional.ofNullable(vendorLocation);
-        } catch (HttpClientErrorException ex) {
+        } catch (HttpClientErrorException | ServiceUnavailableException ex) {
             return Optional.empty();
         }
     }
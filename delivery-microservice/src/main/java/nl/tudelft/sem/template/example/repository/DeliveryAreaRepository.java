@@ -0,0 +1,7 @@
+package nl.tudelft.sem.template.example.repository;
+
+import nl.tudelft.sem.template.model.DeliveryArea;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DeliveryAreaRepository extends JpaRepository<DeliveryArea, Long> {
+}
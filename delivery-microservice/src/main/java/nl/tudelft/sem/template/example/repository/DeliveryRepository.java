@@ -1,7 +1,9 @@
 package nl.tudelft.sem.template.example.repository;
 
+import java.util.Collection;
 import java.util.List;
 import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
@@ -20,4 +22,28 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
      * @return A delivery
      */
     List<Delivery> findByCourierId(Long courierId);
+
+    /**
+     * Finds the deliveries that have no courier yet and whose order has one of the given statuses.
+     *
+     * @param statuses - The statuses of the order within the Delivery.
+     * @return The unassigned deliveries with those statuses.
+     */
+    List<Delivery> findByCourierIdIsNullAndOrder_StatusIn(Collection<Order.StatusEnum> statuses);
+
+    /**
+     * Finds the deliveries that have a courier and whose order does not have the given status.
+     *
+     * @param status - The status the order within the Delivery should not have.
+     * @return The assigned deliveries without that status.
+     */
+    List<Delivery> findByCourierIdIsNotNullAndOrder_StatusNot(Order.StatusEnum status);
+
+    /**
+     * Finds the deliveries of the given orders.
+     *
+     * @param orderIds - The order ids of the deliveries
+     * @return The deliveries of those orders that exist
+     */
+    List<Delivery> findByOrder_OrderIdIn(Collection<Long> orderIds);
 }
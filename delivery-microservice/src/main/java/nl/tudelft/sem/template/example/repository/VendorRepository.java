@@ -1,7 +1,25 @@
 package nl.tudelft.sem.template.example.repository;
 
+import java.util.List;
 import nl.tudelft.sem.template.model.Vendor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface VendorRepository extends JpaRepository<Vendor, Long> {
+    /**
+     * Finds every courier that is assigned to a vendor, without loading the vendors themselves.
+     *
+     * @return The (courier, vendor) pairs.
+     */
+    @Query("select c as courierId, v.id as vendorId from Vendor v join v.couriers c")
+    List<CourierAssignment> findCourierAssignments();
+
+    /**
+     * Projection of a courier assigned to a vendor.
+     */
+    interface CourierAssignment {
+        Long getCourierId();
+
+        Long getVendorId();
+    }
 }
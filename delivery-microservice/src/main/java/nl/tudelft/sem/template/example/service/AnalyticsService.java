@@ -27,6 +27,8 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class AnalyticsService {
+    private static final long SECONDS_PER_HOUR = 3600;
+
     private final DeliveryRepository deliveryRepository;
 
     private final VendorRepository vendorRepository;
@@ -174,7 +176,8 @@ public class AnalyticsService {
      * Calculates the efficiency of a specified courier.
      *
      * @param courierId The unique identifier of the courier.
-     * @return an integer that describes courier's efficiency
+     * @return the average speed of the courier over its successful deliveries, in metres per hour,
+     *         or 0 if the courier has no successful deliveries
      * @throws CourierNotFoundException If the courier with the given ID does not exist.
      */
     public Integer getCourierEfficiency(Long courierId) throws CourierNotFoundException {
@@ -190,6 +193,9 @@ public class AnalyticsService {
                 .reduce(Duration::plus)
                 .orElse(Duration.ZERO);
         long totalSeconds = totalDuration.toSeconds();
+        if (totalSeconds == 0) {
+            return 0;
+        }
 
         double totalDistance = successfulDeliveries.stream()
                 .map(delivery -> (deliveryService.calculateDistance(delivery.getOrder().getVendor().getAddress(),
@@ -197,7 +203,7 @@ public class AnalyticsService {
                 .mapToDouble(Double::doubleValue)
                 .sum();
 
-        return (int) (totalDistance * 100000 / totalSeconds);
+        return (int) Math.round(totalDistance * SECONDS_PER_HOUR / totalSeconds);
 
     }
 
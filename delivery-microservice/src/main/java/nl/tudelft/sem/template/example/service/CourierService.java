@@ -1,21 +1,28 @@
 package nl.tudelft.sem.template.example.service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 import nl.tudelft.sem.template.example.exception.CourierNotFoundException;
 import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
 import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
 import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.exception.UnknownStrategyException;
 import nl.tudelft.sem.template.example.external.UsersMicroservice;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
-import nl.tudelft.sem.template.example.repository.VendorRepository;
-import nl.tudelft.sem.template.example.service.strategy.AssignOrderContext;
-import nl.tudelft.sem.template.example.service.strategy.RandomOrderStrategy;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.strategy.AssignOrderStrategy;
+import nl.tudelft.sem.template.example.service.strategy.AssignOrderStrategyRegistry;
 import nl.tudelft.sem.template.example.service.strategy.SpecificOrderStrategy;
+import nl.tudelft.sem.template.example.service.tracking.CourierPingStore;
+import nl.tudelft.sem.template.example.service.tracking.LocationTraceStore;
 import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.LocationPing;
 import nl.tudelft.sem.template.model.Order;
-import nl.tudelft.sem.template.model.Vendor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
@@ -23,57 +30,114 @@ import org.springframework.stereotype.Service;
 @Service
 public class CourierService {
     DeliveryRepository deliveryRepository;
-    VendorRepository vendorRepository;
 
     UsersMicroservice usersMicroservice;
+    AvailableOrderIndex availableOrderIndex;
+    CourierVendorIndex courierVendorIndex;
+    SpecificOrderStrategy specificOrderStrategy;
+    AssignOrderStrategyRegistry strategyRegistry;
+    CourierRoutes courierRoutes;
+    CourierPingStore courierPingStore;
+    LocationTraceStore locationTraceStore;
+    int maxListedOrders;
     //private List<Long> courierList = new ArrayList<>();
-    AssignOrderContext assignOrderContext = new AssignOrderContext();
 
     /**
      * Constructor for handling dependency injection.
      *
      * @param deliveryRepository JPA repository holding the deliveries
-     * @param vendorRepository JPA repository holding the vendors
      * @param usersMicroservice External communication to Users microservice
+     * @param availableOrderIndex In-memory index of the orders that can still be picked up
+     * @param courierVendorIndex In-memory lookup of the vendor each courier belongs to
+     * @param specificOrderStrategy Strategy assigning the order the courier asked for
+     * @param strategyRegistry Strategies that can pick an order for the courier
+     * @param courierRoutes Visiting order of the bundles of the couriers
+     * @param courierPingStore Recent GPS pings of the couriers
+     * @param locationTraceStore Full location traces of the deliveries
+     * @param maxListedOrders Maximum number of available orders listed for a courier without a vendor
      */
     @Autowired
-    public CourierService(DeliveryRepository deliveryRepository, VendorRepository vendorRepository,
-                          UsersMicroservice usersMicroservice) {
+    public CourierService(DeliveryRepository deliveryRepository, UsersMicroservice usersMicroservice,
+                          AvailableOrderIndex availableOrderIndex, CourierVendorIndex courierVendorIndex,
+                          SpecificOrderStrategy specificOrderStrategy, AssignOrderStrategyRegistry strategyRegistry,
+                          CourierRoutes courierRoutes, CourierPingStore courierPingStore,
+                          LocationTraceStore locationTraceStore,
+                          @Value("${delivery.dispatch.max-listed-orders:100}") int maxListedOrders) {
         this.deliveryRepository = deliveryRepository;
-        this.vendorRepository = vendorRepository;
         this.usersMicroservice = usersMicroservice;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierVendorIndex = courierVendorIndex;
+        this.specificOrderStrategy = specificOrderStrategy;
+        this.strategyRegistry = strategyRegistry;
+        this.courierRoutes = courierRoutes;
+        this.courierPingStore = courierPingStore;
+        this.locationTraceStore = locationTraceStore;
+        this.maxListedOrders = maxListedOrders;
     }
 
     /**
-     * Gets ids of all available orders.
+     * Stores the GPS pings of a courier and makes the latest one the known position of the
+     * courier. Pings without a time get the current time. Stored pings are added to the traces
+     * of the orders the courier is delivering.
+     *
+     * @param courierId Unique identifier of the courier
+     * @param pings The pings, with valid coordinates
+     * @return The number of pings that were stored
+     */
+    public int recordLocationPings(Long courierId, List<LocationPing> pings) {
+        long now = System.currentTimeMillis();
+        int stored = 0;
+        for (LocationPing ping : pings) {
+            // A clock ahead of ours would keep every later ping out
+            long timestamp = ping.getTimestamp() == null ? now : Math.min(ping.getTimestamp(), now);
+            if (courierPingStore.record(courierId, ping.getLatitude(), ping.getLongitude(), timestamp)) {
+                locationTraceStore.append(courierId, ping.getLatitude(), ping.getLongitude(), timestamp);
+                stored++;
+            }
+        }
+        if (stored > 0) {
+            courierPingStore.publish(courierId);
+        }
+        return stored;
+    }
+
+    /**
+     * Gets ids of the available orders. A courier of a vendor gets all orders of its vendor, other
+     * couriers get the orders that are ready first, up to the maximum number of listed orders.
      *
      * @param courierId Unique identifier of the courier (required)
      * @return returns the list of the ids of available orders
      */
     public List<Long> getAvailableOrderIds(Long courierId) {
-        List<Order> filteredOrders = deliveryRepository.findAll()
-                .stream()
-                .filter(delivery -> delivery.getCourierId() == null)
-                .map(Delivery::getOrder)
-                .filter(order -> order.getStatus() == Order.StatusEnum.ACCEPTED)
-                .collect(Collectors.toList());
         try {
             Long vendorId = checkIfCourierIsAssignedToVendor(courierId);
-            filteredOrders = filteredOrders
-                    .stream()
-                    .filter(order -> vendorId.equals(order.getVendor().getId()))
-                    .collect(Collectors.toList());
+            return availableOrderIndex.getOrdersOfVendor(vendorId);
         } catch (CourierNotFoundException e) {
-            List<Long> vendorsWithCouriers = getVendorsThatHaveTheirOwnCouriers();
-            filteredOrders = filteredOrders
-                    .stream()
-                    .filter(order -> !vendorsWithCouriers.contains(order.getVendor().getId()))
-                    .collect(Collectors.toList());
+            return availableOrderIndex.getOrdersExcludingVendors(courierVendorIndex.getVendorsWithOwnCouriers(),
+                    maxListedOrders);
+        }
+    }
+
+    /**
+     * Gets ids of the orders the courier still has to deliver. Orders of the courier's bundle
+     * come first, in the order in which the courier visits them, followed by the other orders.
+     *
+     * @param courierId Unique identifier of the courier (required)
+     * @return returns the list of the ids of the assigned orders
+     */
+    public List<Long> getAssignedOrderIds(Long courierId) {
+        List<Long> route = courierRoutes.getRoute(courierId);
+        List<Long> orderIds = new ArrayList<>();
+        for (Delivery delivery : deliveryRepository.findByCourierId(courierId)) {
+            if (delivery.getOrder() != null && delivery.getOrder().getStatus() != Order.StatusEnum.DELIVERED) {
+                orderIds.add(delivery.getOrder().getOrderId());
+            }
         }
-        return  filteredOrders
-                .stream()
-                .map(Order::getOrderId)
-                .collect(Collectors.toList());
+        orderIds.sort(Comparator.<Long>comparingInt(orderId -> {
+            int stop = route.indexOf(orderId);
+            return stop == -1 ? route.size() : stop;
+        }).thenComparing(Comparator.naturalOrder()));
+        return orderIds;
     }
 
     /**
@@ -83,15 +147,11 @@ public class CourierService {
      * @return returns vendor id if courier is assigned to a vendor and -1 otherwise
      */
     public Long checkIfCourierIsAssignedToVendor(long courierId) throws CourierNotFoundException {
-        List<Vendor> allVendors = vendorRepository.findAll();
-        for (Vendor vendor : allVendors) {
-            for (Long id : vendor.getCouriers()) {
-                if (id == courierId) {
-                    return vendor.getId();
-                }
-            }
+        Long vendorId = courierVendorIndex.getVendorOfCourier(courierId);
+        if (vendorId == null) {
+            throw new CourierNotFoundException("Courier does not belong to vendor");
         }
-        throw new CourierNotFoundException("Courier does not belong to vendor");
+        return vendorId;
     }
 
     /**
@@ -100,11 +160,9 @@ public class CourierService {
      * @return returns the list of vendor ids
      */
     public List<Long> getVendorsThatHaveTheirOwnCouriers() {
-        return vendorRepository.findAll()
-                .stream()
-                .filter(vendor -> !vendor.getCouriers().isEmpty())
-                .map(Vendor::getId)
-                .collect(Collectors.toList());
+        List<Long> vendorIds = new ArrayList<>(courierVendorIndex.getVendorsWithOwnCouriers());
+        vendorIds.sort(null);
+        return vendorIds;
     }
 
     /**
@@ -120,25 +178,24 @@ public class CourierService {
         if (!usersMicroservice.getUserType(courierId).get().equals("courier")) {
             throw new CourierNotFoundException("Courier with id " + courierId + " not found.");
         }
-        assignOrderContext.setAssignOrderStrategy(new SpecificOrderStrategy(this.deliveryRepository));
-        assignOrderContext.assignOrder(courierId, orderId, getAvailableOrderIds(courierId));
+        // The strategy only looks at the requested order, so the available orders are not listed
+        specificOrderStrategy.assignOrder(courierId, orderId, List.of());
     }
 
-
-
     /**
-     * Assigns a courier to a random available order.
+     * Assigns a courier to an available order, chosen by the given strategy.
      *
      * @param courierId Unique identifier of the courier (required)
+     * @param strategyName Name of the assignment strategy, or null for the default strategy
+     * @throws UnknownStrategyException if there is no strategy with that name
      */
-    public void assignCourierToRandomOrder(Long courierId) throws DeliveryNotFoundException, NoAvailableOrdersException,
-            OrderNotFoundException, CourierNotFoundException {
+    public void assignCourierToAnyOrder(Long courierId, String strategyName) throws DeliveryNotFoundException,
+            NoAvailableOrdersException, CourierNotFoundException, UnknownStrategyException {
         if (!usersMicroservice.getUserType(courierId).get().equals("courier")) {
             throw new CourierNotFoundException("Courier with id " + courierId + " not found.");
         }
-        assignOrderContext.setAssignOrderStrategy(new RandomOrderStrategy(this.deliveryRepository));
-        assignOrderContext.assignOrder(courierId, null, getAvailableOrderIds(courierId));
-
+        AssignOrderStrategy strategy = strategyRegistry.getOrDefault(strategyName);
+        strategy.assignOrder(courierId, null, getAvailableOrderIds(courierId));
     }
 
 }
@@ -2,6 +2,9 @@ package nl.tudelft.sem.template.example.service;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import nl.tudelft.sem.template.example.configuration.ConfigurationProperties;
 import nl.tudelft.sem.template.example.exception.CourierNotFoundException;
 import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
@@ -11,11 +14,19 @@ import nl.tudelft.sem.template.example.exception.VendorNotFoundException;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.geo.DeliveryAreaIndex;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.example.service.routing.EtaCache;
+import nl.tudelft.sem.template.example.service.routing.RoutingEngine;
+import nl.tudelft.sem.template.example.service.routing.TravelSpeedModel;
+import nl.tudelft.sem.template.example.service.tracking.CourierPingStore;
 import nl.tudelft.sem.template.model.Delivery;
 import nl.tudelft.sem.template.model.DeliveryPostRequest;
 import nl.tudelft.sem.template.model.Issue;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.OrderLocation;
 import nl.tudelft.sem.template.model.Time;
 import nl.tudelft.sem.template.model.Vendor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +42,18 @@ public class DeliveryService {
 
     ConfigurationProperties configurationProperties;
 
+    AvailableOrderIndex availableOrderIndex;
+
+    RoutingEngine routingEngine;
+
+    EtaCache etaCache;
+
+    TravelSpeedModel travelSpeedModel;
+
+    CourierPingStore courierPingStore;
+
+    DeliveryAreaIndex deliveryAreaIndex;
+
     /**
      * Constructor for the Delivery Service that allow dependency injection.
      *
@@ -39,16 +62,30 @@ public class DeliveryService {
      * @param vendorRepository The repository where Vendor objects are saved in.
      * @param vendorService The service that handles the vendor interaction logic.
      * @param configurationProperties The configuration properties of the whole microservice
+     * @param availableOrderIndex The index of the orders that can be picked up by couriers
+     * @param routingEngine The engine that computes travel times over the road network
+     * @param etaCache The cache of travel times from vendors to destinations
+     * @param travelSpeedModel The speeds of past deliveries per vendor and hour of the day
+     * @param courierPingStore The recent GPS pings of the couriers
+     * @param deliveryAreaIndex The spatial index of the polygons vendors deliver to
      */
     @Autowired
     DeliveryService(DeliveryRepository deliveryRepository, OrderRepository orderRepository,
                     VendorRepository vendorRepository, VendorService vendorService,
-                    ConfigurationProperties configurationProperties) {
+                    ConfigurationProperties configurationProperties, AvailableOrderIndex availableOrderIndex,
+                    RoutingEngine routingEngine, EtaCache etaCache, TravelSpeedModel travelSpeedModel,
+                    CourierPingStore courierPingStore, DeliveryAreaIndex deliveryAreaIndex) {
         this.deliveryRepository = deliveryRepository;
         this.orderRepository = orderRepository;
         this.vendorRepository = vendorRepository;
         this.vendorService = vendorService;
         this.configurationProperties = configurationProperties;
+        this.availableOrderIndex = availableOrderIndex;
+        this.routingEngine = routingEngine;
+        this.etaCache = etaCache;
+        this.travelSpeedModel = travelSpeedModel;
+        this.courierPingStore = courierPingStore;
+        this.deliveryAreaIndex = deliveryAreaIndex;
     }
 
     /**
@@ -71,7 +108,7 @@ public class DeliveryService {
 
         Location destination = deliveryPostRequest.getDestination();
 
-        boolean isWithinZone = isWithinDeliveryZone(destination, vendor.getAddress(), vendor.getDeliveryZone());
+        boolean isWithinZone = isWithinDeliveryZone(destination, vendor);
 
         Order.StatusEnum status = isWithinZone ? Order.StatusEnum.PENDING : Order.StatusEnum.REJECTED;
         Order order = new Order(Long.valueOf(deliveryPostRequest.getOrderId()),
@@ -89,25 +126,58 @@ public class DeliveryService {
 
 
 
-    private boolean isWithinDeliveryZone(Location destination, Location vendorLocation, Long deliveryZoneRadius) {
-        double distance = calculateDistance(vendorLocation, destination);
-        return distance <= deliveryZoneRadius;
+    private static final double METRES_PER_KILOMETRE = 1000;
+
+    /**
+     * Checks whether a destination lies within the delivery zone of a vendor. A vendor that set a
+     * polygon delivers within it, any other vendor within the radius of its delivery zone.
+     *
+     * @param destination The destination of the order.
+     * @param vendor The vendor, with its address and the radius of its delivery zone in kilometres.
+     * @return true if the destination is inside the polygon or at most the radius away from the vendor.
+     */
+    private boolean isWithinDeliveryZone(Location destination, Vendor vendor) {
+        if (vendor.getId() != null && deliveryAreaIndex.hasArea(vendor.getId())) {
+            return deliveryAreaIndex.contains(vendor.getId(), destination);
+        }
+        double distance = calculateDistance(vendor.getAddress(), destination);
+        return distance <= vendor.getDeliveryZone() * METRES_PER_KILOMETRE;
     }
 
 
     /**
-     * Retrieves the ready time for a delivery.
+     * Retrieves the delivery of an order.
      *
      * @param orderId The id of the order corresponding to the Delivery
-     * @throws OrderNotFoundException If the retrieval of order (i.e. problem in the communication of the microservices)
-     *
+     * @return The delivery of the order
+     * @throws OrderNotFoundException when the order was not present in the repository
      */
-    public OffsetDateTime getReadyTime(Long orderId) throws OrderNotFoundException {
+    public Delivery getDelivery(Long orderId) throws OrderNotFoundException {
         Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
         if (delivery == null) {
             throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
         }
+        return delivery;
+    }
+
+    /**
+     * Retrieves the ready time for a delivery.
+     *
+     * @param orderId The id of the order corresponding to the Delivery
+     * @throws OrderNotFoundException If the retrieval of order (i.e. problem in the communication of the microservices)
+     *
+     */
+    public OffsetDateTime getReadyTime(Long orderId) throws OrderNotFoundException {
+        return getReadyTime(getDelivery(orderId));
+    }
 
+    /**
+     * Retrieves the ready time of a delivery that was already loaded.
+     *
+     * @param delivery The delivery
+     * @return ready time of the delivery
+     */
+    public OffsetDateTime getReadyTime(Delivery delivery) {
         // Extract and return the ready time
         Time time = delivery.getTime();
         return time != null ? time.getReadyTime() : null;
@@ -121,15 +191,23 @@ public class DeliveryService {
      * @throws OrderNotFoundException when the order was not present in the repository
      */
     public void updateReadyTime(Long orderId, OffsetDateTime newReadyTime) throws OrderNotFoundException {
-        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
-        if (delivery == null) {
-            throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
-        }
+        updateReadyTime(getDelivery(orderId), newReadyTime);
+    }
 
+    /**
+     * Updates the ready time of a delivery that was already loaded.
+     *
+     * @param delivery The delivery
+     * @param newReadyTime the new ready time
+     */
+    public void updateReadyTime(Delivery delivery, OffsetDateTime newReadyTime) {
         Time time = delivery.getTime() == null ? new Time() : delivery.getTime();
         delivery.setTime(time);
         time.setReadyTime(newReadyTime);
         deliveryRepository.save(delivery);
+        if (delivery.getOrder() != null) {
+            availableOrderIndex.updateReadyTime(delivery.getOrder().getOrderId(), newReadyTime);
+        }
     }
 
     /**
@@ -141,11 +219,16 @@ public class DeliveryService {
      *
      */
     public OffsetDateTime getPickupTime(Long orderId) throws OrderNotFoundException {
-        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
-        if (delivery == null) {
-            throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
-        }
+        return getPickupTime(getDelivery(orderId));
+    }
 
+    /**
+     * Retrieves the pickup time of a delivery that was already loaded.
+     *
+     * @param delivery The delivery
+     * @return pickup time for the delivery
+     */
+    public OffsetDateTime getPickupTime(Delivery delivery) {
         Time time = delivery.getTime();
         return time != null ? time.getPickUpTime() : null;
     }
@@ -158,11 +241,16 @@ public class DeliveryService {
      * @throws OrderNotFoundException when the order was not present in the repository
      */
     public void updatePickupTime(Long orderId, OffsetDateTime newPickUpTime) throws OrderNotFoundException {
-        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
-        if (delivery == null) {
-            throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
-        }
+        updatePickupTime(getDelivery(orderId), newPickUpTime);
+    }
 
+    /**
+     * Updates the pickup time of a delivery that was already loaded.
+     *
+     * @param delivery The delivery
+     * @param newPickUpTime the new pickup time
+     */
+    public void updatePickupTime(Delivery delivery, OffsetDateTime newPickUpTime) {
         Time time = delivery.getTime();
         if (time == null) {
             time = new Time();
@@ -180,35 +268,51 @@ public class DeliveryService {
      * @throws OrderNotFoundException when the order was not present in the repository
      */
     public OffsetDateTime getDeliveredTime(Long orderId) throws OrderNotFoundException {
-        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
-        if (delivery == null) {
-            throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
-        }
+        return getDeliveredTime(getDelivery(orderId));
+    }
 
+    /**
+     * Retrieves the delivered time of a delivery that was already loaded.
+     *
+     * @param delivery The delivery
+     * @return time the order was delivered
+     */
+    public OffsetDateTime getDeliveredTime(Delivery delivery) {
         Time time = delivery.getTime();
         return time != null ? time.getDeliveredTime() : null;
     }
 
     /**
-     * Updates the time for an order to be delivered.
+     * Updates the time for an order to be delivered. The first time a delivered order gets its
+     * delivery time, the delivery is added to the travel speed model.
      *
      * @param orderId The id of the order corresponding to the Delivery
      * @param newDeliveredTime new time to deliver an order
      * @throws OrderNotFoundException when the order was not present in the repository
      */
     public void updateDeliveredTime(Long orderId, OffsetDateTime newDeliveredTime) throws OrderNotFoundException {
-        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
-        if (delivery == null) {
-            throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
-        }
+        updateDeliveredTime(getDelivery(orderId), newDeliveredTime);
+    }
 
+    /**
+     * Updates the delivered time of a delivery that was already loaded, like
+     * {@link #updateDeliveredTime(Long, OffsetDateTime)}.
+     *
+     * @param delivery The delivery
+     * @param newDeliveredTime new time to deliver an order
+     */
+    public void updateDeliveredTime(Delivery delivery, OffsetDateTime newDeliveredTime) {
         Time time = delivery.getTime();
         if (time == null) {
             time = new Time();
             delivery.setTime(time);
         }
+        boolean completes = time.getDeliveredTime() == null;
         time.setDeliveredTime(newDeliveredTime);
         deliveryRepository.save(delivery);
+        if (completes) {
+            travelSpeedModel.record(delivery);
+        }
     }
 
     /**
@@ -219,27 +323,48 @@ public class DeliveryService {
      * @throws OrderNotFoundException when the order was not present in the repository
      */
     public OffsetDateTime getEta(Long orderId) throws OrderNotFoundException {
-        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
-        if (delivery == null) {
-            throw new OrderNotFoundException("Order with ID: " + orderId + " not found.");
-        }
+        return getEta(getDelivery(orderId));
+    }
 
-        OffsetDateTime eta = calculateEstimatedTime(delivery.getOrder().getVendor().getAddress(),
+    /**
+     * Retrieves the ETA (Estimated Time of Arrival) of a delivery that was already loaded.
+     *
+     * @param delivery The delivery
+     * @return ETA
+     */
+    public OffsetDateTime getEta(Delivery delivery) {
+        OffsetDateTime eta = calculateEstimatedTime(delivery.getOrder().getVendor(),
                 delivery.getOrder().getDestination());
         return eta;
     }
 
+    private static final Duration DEFAULT_TRAVEL_TIME = Duration.ofMinutes(30);
+
     /**
-     * Computes ETA.
+     * Computes ETA from the speed of earlier deliveries of the vendor at this hour of the day.
+     * Until the vendor has enough of those, the travel time over the road network is used,
+     * which is shared with other orders of the vendor towards the same area. Without both
+     * locations the default travel time is used.
      *
-     * @param vendorLocation Location of the vendor
+     * @param vendor The vendor of the order
      * @param destination Destination of delivery
      * @return ETA
      */
-    private OffsetDateTime calculateEstimatedTime(Location vendorLocation, Location destination) {
-        // TODO: Implement specific computation of the estimated time of arrival.
-        long estimatedTravelDurationInMinutes = 30;
-        return OffsetDateTime.now().plusMinutes(estimatedTravelDurationInMinutes);
+    private OffsetDateTime calculateEstimatedTime(Vendor vendor, Location destination) {
+        Location vendorLocation = vendor.getAddress();
+        OffsetDateTime now = OffsetDateTime.now();
+        if (vendorLocation == null || destination == null) {
+            return now.plus(DEFAULT_TRAVEL_TIME);
+        }
+        if (vendor.getId() == null) {
+            return now.plus(routingEngine.travelTime(vendorLocation, destination));
+        }
+        Duration learned = travelSpeedModel.estimate(vendor.getId(), vendorLocation, destination, now);
+        if (learned != null) {
+            return now.plus(learned);
+        }
+        return now.plus(etaCache.getTravelTime(vendor.getId(), destination, now,
+                () -> routingEngine.travelTime(vendorLocation, destination)));
     }
 
     /**
@@ -293,19 +418,17 @@ public class DeliveryService {
     }
 
     /**
-     * Calculates the distance between 2 locations.
+     * Calculates the distance between 2 locations along the surface of the earth.
      *
      * @param start The start location(vendor).
      * @param end The end location(destination).
-     * @return The distance between the 2 points.
+     * @return The distance between the 2 points in metres.
      */
     public double calculateDistance(Location start, Location end) {
-        double latDifference = end.getLatitude() - start.getLatitude();
-        double lonDifference = end.getLongitude() - start.getLongitude();
-        return Math.sqrt(latDifference * latDifference + lonDifference * lonDifference);
+        return DistanceEngine.distance(start, end, DistanceEngine.Precision.EXACT);
     }
 
-    private static final double COURIER_SPEED = 1; // meter per second
+    private static final double COURIER_SPEED = 4; // metres per second, about the speed of a cyclist
 
     /**
      * Estimates the current position.
@@ -349,7 +472,9 @@ public class DeliveryService {
     }
 
     /**
-     * Calculates current location.
+     * Calculates current location. While the courier carries the order, this is the position
+     * the courier app last reported, moved ahead if that report is getting old. Without reports
+     * the position is interpolated between the vendor and the destination.
      *
      * @param deliveryId The unique ID of the delivery.
      * @return The current live location of the delivery.
@@ -360,12 +485,66 @@ public class DeliveryService {
         if (delivery == null) {
             throw new OrderNotFoundException("Delivery with ID: " + deliveryId + " not found.");
         }
+        return calculateLiveLocation(delivery);
+    }
 
+    /**
+     * Calculates the current location of a delivery that was already loaded, like
+     * {@link #calculateLiveLocation(Long)}.
+     *
+     * @param delivery The delivery.
+     * @return The current live location of the delivery.
+     */
+    public Location calculateLiveLocation(Delivery delivery) {
+        return calculateLiveLocation(delivery, OffsetDateTime.now());
+    }
+
+    /**
+     * Loads the deliveries of several orders in one query.
+     *
+     * @param orderIds The ids of the orders.
+     * @return The deliveries of the orders that exist, in no particular order.
+     */
+    public List<Delivery> getDeliveriesOfOrders(Collection<Long> orderIds) {
+        return deliveryRepository.findByOrder_OrderIdIn(orderIds);
+    }
+
+    /**
+     * Calculates the current locations of deliveries that were already loaded, all at the same moment.
+     * Deliveries without a vendor address or destination have no location and are left out.
+     *
+     * @param deliveries The deliveries.
+     * @return The location of every delivery together with the id of its order.
+     */
+    public List<OrderLocation> calculateLiveLocations(List<Delivery> deliveries) {
+        OffsetDateTime currentTime = OffsetDateTime.now();
+        List<OrderLocation> locations = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries) {
+            Order order = delivery.getOrder();
+            if (order.getVendor() == null || order.getVendor().getAddress() == null || order.getDestination() == null) {
+                continue;
+            }
+            OrderLocation location = new OrderLocation();
+            location.setOrderId(order.getOrderId());
+            location.setLocation(calculateLiveLocation(delivery, currentTime));
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    private Location calculateLiveLocation(Delivery delivery, OffsetDateTime currentTime) {
         Order order = delivery.getOrder();
+        if (delivery.getCourierId() != null && (order.getStatus() == Order.StatusEnum.GIVEN_TO_COURIER
+                || order.getStatus() == Order.StatusEnum.ON_TRANSIT)) {
+            Location reported = courierPingStore.getPosition(delivery.getCourierId(),
+                    currentTime.toInstant().toEpochMilli());
+            if (reported != null) {
+                return reported;
+            }
+        }
         Location vendorLocation = order.getVendor().getAddress();
         Location destination = order.getDestination();
-        OffsetDateTime pickupTime = delivery.getTime().getPickUpTime();
-        OffsetDateTime currentTime = OffsetDateTime.now();
+        OffsetDateTime pickupTime = delivery.getTime() == null ? null : delivery.getTime().getPickUpTime();
 
         return estimatePosition(vendorLocation, destination, pickupTime, currentTime);
     }
@@ -7,7 +7,18 @@ import nl.tudelft.sem.template.example.exception.IllegalOrderStatusException;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
 import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
 import nl.tudelft.sem.template.example.external.OrdersMicroservice;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.routing.TravelSpeedModel;
+import nl.tudelft.sem.template.example.service.strategy.LeastLoadedFleetStrategy;
+import nl.tudelft.sem.template.example.service.tracking.LocationTraceStore;
+import nl.tudelft.sem.template.example.service.tracking.OrderUpdateBroadcaster;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -19,16 +30,57 @@ public class OrderService {
 
     OrdersMicroservice ordersMicroservice;
 
+    DeliveryRepository deliveryRepository;
+
+    AvailableOrderIndex availableOrderIndex;
+
+    CourierLocationRegistry courierLocationRegistry;
+
+    CourierLoadRegistry courierLoadRegistry;
+
+    LeastLoadedFleetStrategy leastLoadedFleetStrategy;
+
+    TravelSpeedModel travelSpeedModel;
+
+    OrderUpdateBroadcaster orderUpdateBroadcaster;
+
+    LocationTraceStore locationTraceStore;
+
+    CourierRoutes courierRoutes;
+
     /**
      * Simple constructor handling dependency injection.
      *
      * @param ordersMicroservice microservice responsible for handling orders
      * @param orderRepository JPA repository holding the orders
+     * @param deliveryRepository JPA repository holding the deliveries
+     * @param availableOrderIndex index of the orders that can be picked up by couriers
+     * @param courierLocationRegistry last known positions of the couriers
+     * @param courierLoadRegistry number of undelivered orders of every courier
+     * @param leastLoadedFleetStrategy strategy pushing new orders to the fleet of their vendor
+     * @param travelSpeedModel speeds of past deliveries per vendor and hour of the day
+     * @param orderUpdateBroadcaster pushes status changes to the clients streaming the order
+     * @param locationTraceStore full location traces of the deliveries
+     * @param courierRoutes visiting order of the bundles of the couriers
      */
     @Autowired
-    public OrderService(OrderRepository orderRepository, OrdersMicroservice ordersMicroservice) {
+    public OrderService(OrderRepository orderRepository, OrdersMicroservice ordersMicroservice,
+                        DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                        CourierLocationRegistry courierLocationRegistry, CourierLoadRegistry courierLoadRegistry,
+                        LeastLoadedFleetStrategy leastLoadedFleetStrategy, TravelSpeedModel travelSpeedModel,
+                        OrderUpdateBroadcaster orderUpdateBroadcaster, LocationTraceStore locationTraceStore,
+                        CourierRoutes courierRoutes) {
         this.orderRepository = orderRepository;
         this.ordersMicroservice = ordersMicroservice;
+        this.deliveryRepository = deliveryRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierLocationRegistry = courierLocationRegistry;
+        this.courierLoadRegistry = courierLoadRegistry;
+        this.leastLoadedFleetStrategy = leastLoadedFleetStrategy;
+        this.travelSpeedModel = travelSpeedModel;
+        this.orderUpdateBroadcaster = orderUpdateBroadcaster;
+        this.locationTraceStore = locationTraceStore;
+        this.courierRoutes = courierRoutes;
     }
 
     /**
@@ -72,6 +124,84 @@ public class OrderService {
         assertStatusFlowIsCorrect(order.getStatus(), newStatus);
         order.setStatus(newStatus);
         orderRepository.save(order);
+        updateAvailableOrders(order);
+        updateCourier(order);
+        if (newStatus == StatusEnum.DELIVERED) {
+            learnTravelSpeed(order);
+        }
+        orderUpdateBroadcaster.statusChanged(order.getOrderId(), newStatus);
+    }
+
+    /**
+     * Adds a delivered order to the travel speed model. An order that gets its delivery time
+     * only after it was marked delivered is added when the time is set instead.
+     *
+     * @param order The order that was delivered
+     */
+    private void learnTravelSpeed(Order order) {
+        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(order.getOrderId());
+        if (delivery != null) {
+            travelSpeedModel.record(delivery);
+        }
+    }
+
+    /**
+     * Keeps the index of available orders in sync with a status change. An order is
+     * available while it is accepted or being prepared and no courier claimed it.
+     *
+     * @param order The order whose status was changed
+     */
+    private void updateAvailableOrders(Order order) {
+        if (!AvailableOrderIndex.isAvailableStatus(order.getStatus())) {
+            availableOrderIndex.remove(order.getOrderId());
+            return;
+        }
+        if (availableOrderIndex.contains(order.getOrderId())) {
+            return;
+        }
+        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(order.getOrderId());
+        if (delivery != null && delivery.getCourierId() == null) {
+            availableOrderIndex.add(delivery);
+            leastLoadedFleetStrategy.dispatch(order.getVendor().getId());
+        }
+    }
+
+    /**
+     * Moves the courier of the order to the vendor when it picks the order up and to the
+     * destination once it is delivered, so the dispatcher knows where the courier is.
+     * A delivered order no longer counts in the load of the courier, so the fleet of the
+     * vendor can get a new order pushed, and it leaves the route of the courier. The location
+     * trace of the delivery runs from pickup until the order is delivered.
+     *
+     * @param order The order whose status was changed
+     */
+    private void updateCourier(Order order) {
+        Location location = switch (order.getStatus()) {
+            case GIVEN_TO_COURIER -> order.getVendor() == null ? null : order.getVendor().getAddress();
+            case DELIVERED -> order.getDestination();
+            default -> null;
+        };
+        if (order.getStatus() != StatusEnum.GIVEN_TO_COURIER && order.getStatus() != StatusEnum.DELIVERED) {
+            return;
+        }
+        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(order.getOrderId());
+        if (delivery == null || delivery.getCourierId() == null) {
+            return;
+        }
+        if (order.getStatus() == StatusEnum.GIVEN_TO_COURIER) {
+            locationTraceStore.start(order.getOrderId(), delivery.getCourierId());
+        }
+        if (location != null || order.getStatus() == StatusEnum.DELIVERED) {
+            courierLocationRegistry.update(delivery.getCourierId(), location);
+        }
+        if (order.getStatus() == StatusEnum.DELIVERED) {
+            locationTraceStore.finish(order.getOrderId());
+            courierLoadRegistry.decrement(delivery.getCourierId());
+            courierRoutes.removeOrder(delivery.getCourierId(), order.getOrderId());
+            if (order.getVendor() != null) {
+                leastLoadedFleetStrategy.dispatch(order.getVendor().getId());
+            }
+        }
     }
 
     /**
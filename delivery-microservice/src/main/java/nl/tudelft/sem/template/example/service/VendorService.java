@@ -9,7 +9,12 @@ import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationExcept
 import nl.tudelft.sem.template.example.exception.VendorHasNoCouriersException;
 import nl.tudelft.sem.template.example.exception.VendorNotFoundException;
 import nl.tudelft.sem.template.example.external.UsersMicroservice;
+import nl.tudelft.sem.template.example.repository.DeliveryAreaRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.geo.DeliveryAreaIndex;
+import nl.tudelft.sem.template.example.service.geo.VendorCoverageIndex;
+import nl.tudelft.sem.template.model.DeliveryArea;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Vendor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,21 +28,34 @@ public class VendorService {
     ConfigurationProperties configurationProperties;
 
     UsersMicroservice usersMicroservice;
-    CourierService courierService;
+    CourierVendorIndex courierVendorIndex;
+    VendorCoverageIndex vendorCoverageIndex;
+    DeliveryAreaRepository deliveryAreaRepository;
+    DeliveryAreaIndex deliveryAreaIndex;
 
     /**
      * Constructor for the Service allowing dependency injection.
      *
      * @param vendorRepository The JPA repository holding the Vendor entities.
      * @param configurationProperties The configurations holding the delivery zone.
+     * @param usersMicroservice External communication to Users microservice.
+     * @param courierVendorIndex The lookup of the vendor each courier belongs to.
+     * @param vendorCoverageIndex The spatial index of the delivery zones of the vendors.
+     * @param deliveryAreaRepository The JPA repository holding the polygons vendors deliver to.
+     * @param deliveryAreaIndex The spatial index of the polygons vendors deliver to.
      */
     @Autowired
     public VendorService(VendorRepository vendorRepository, ConfigurationProperties configurationProperties,
-                  UsersMicroservice usersMicroservice, CourierService courierService) {
+                  UsersMicroservice usersMicroservice, CourierVendorIndex courierVendorIndex,
+                  VendorCoverageIndex vendorCoverageIndex, DeliveryAreaRepository deliveryAreaRepository,
+                  DeliveryAreaIndex deliveryAreaIndex) {
         this.vendorRepository = vendorRepository;
         this.configurationProperties = configurationProperties;
         this.usersMicroservice = usersMicroservice;
-        this.courierService = courierService;
+        this.courierVendorIndex = courierVendorIndex;
+        this.vendorCoverageIndex = vendorCoverageIndex;
+        this.deliveryAreaRepository = deliveryAreaRepository;
+        this.deliveryAreaIndex = deliveryAreaIndex;
     }
 
     /**
@@ -74,6 +92,7 @@ public class VendorService {
         if (vendorAddress.isPresent()) {
             newVendor.setAddress(vendorAddress.get());
             vendorRepository.save(newVendor);
+            vendorCoverageIndex.update(newVendor);
         } else {
             throw new MicroserviceCommunicationException("The vendor address could not be retrieved");
         }
@@ -112,9 +131,59 @@ public class VendorService {
         }
         vendor.setDeliveryZone(deliveryZone);
         vendorRepository.save(vendor);
+        vendorCoverageIndex.update(vendor);
         return vendor;
     }
 
+    /**
+     * Retrieves the polygon the vendor with the given vendorId delivers to.
+     *
+     * @param vendorId The id of the vendor.
+     * @return The vertices of the polygon in order, or an empty list if the vendor uses its radius.
+     * @throws VendorNotFoundException If the vendor does not exist.
+     */
+    public List<Location> getDeliveryArea(Long vendorId) throws VendorNotFoundException {
+        if (!vendorRepository.existsById(vendorId)) {
+            throw new VendorNotFoundException("Vendor was not found");
+        }
+        return deliveryAreaRepository.findById(vendorId).map(DeliveryArea::getVertices).orElseGet(ArrayList::new);
+    }
+
+    /**
+     * Updates the polygon the vendor with the given vendorId delivers to, which replaces its
+     * delivery zone radius. An empty polygon removes it, so the radius is used again.
+     * Only vendor with its own couriers are able to update their delivery areas.
+     *
+     * @param vendorId The id of the vendor.
+     * @param vertices The vertices of the polygon in order, or an empty list.
+     * @return The vertices of the polygon.
+     * @throws VendorNotFoundException If the vendor does not exist.
+     * @throws VendorHasNoCouriersException If the vendor has no couriers of its own.
+     * @throws IllegalArgumentException If the vertices do not form a valid polygon.
+     */
+    public List<Location> updateDeliveryArea(Long vendorId, List<Location> vertices)
+            throws VendorNotFoundException, VendorHasNoCouriersException {
+        if (!vendorRepository.existsById(vendorId)) {
+            throw new VendorNotFoundException("Vendor was not found");
+        }
+        Vendor vendor = vendorRepository.findById(vendorId).get();
+        if (vendor.getCouriers() == null || vendor.getCouriers().size() < 1) {
+            throw new VendorHasNoCouriersException("Vendor must have their own set of couriers");
+        }
+        if (vertices == null || vertices.isEmpty()) {
+            if (deliveryAreaRepository.existsById(vendorId)) {
+                deliveryAreaRepository.deleteById(vendorId);
+            }
+            deliveryAreaIndex.remove(vendorId);
+            return new ArrayList<>();
+        }
+        DeliveryAreaIndex.validate(vertices);
+        DeliveryArea area = new DeliveryArea(vendorId, new ArrayList<>(vertices));
+        deliveryAreaRepository.save(area);
+        deliveryAreaIndex.update(area);
+        return area.getVertices();
+    }
+
     /**
      * Assigns courier to the given vendor.
      *
@@ -136,6 +205,7 @@ public class VendorService {
         currentCouriers.add(courierId);
         vendor.setCouriers(currentCouriers);
         vendorRepository.save(vendor);
+        courierVendorIndex.assign(courierId, vendorId);
         return vendor;
 
     }
@@ -177,4 +247,19 @@ public class VendorService {
 
         return location;
     }
+
+    /**
+     * Finds the vendors that deliver to a location.
+     *
+     * @param location The location to deliver to.
+     * @return The ids of the vendors whose delivery zone or area contains the location, in ascending order.
+     */
+    public List<Long> getVendorsServing(Location location) {
+        List<Long> vendorIds = vendorCoverageIndex.getVendorsServing(location);
+        // The area of a vendor replaces its radius
+        vendorIds.removeIf(deliveryAreaIndex::hasArea);
+        vendorIds.addAll(deliveryAreaIndex.getVendorsServing(location));
+        vendorIds.sort(null);
+        return vendorIds;
+    }
 }
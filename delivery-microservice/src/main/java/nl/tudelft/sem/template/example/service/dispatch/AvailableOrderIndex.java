@@ -0,0 +1,350 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of the orders that are ACCEPTED or PREPARING and not yet assigned to a courier,
+ * bucketed by the vendor that prepares them. Couriers only ever look at the bucket(s)
+ * they are allowed to serve, so polling does not require loading every delivery.
+ * Every bucket, as well as one queue over all vendors, is ordered by the time the food is ready,
+ * so the orders that can be picked up first are handed out first without sorting on each poll.
+ */
+@Component
+public class AvailableOrderIndex {
+    private static final Set<Order.StatusEnum> AVAILABLE_STATUSES =
+            Collections.unmodifiableSet(EnumSet.of(Order.StatusEnum.ACCEPTED, Order.StatusEnum.PREPARING));
+
+    private final DeliveryRepository deliveryRepository;
+
+    private final Map<Long, DispatchKey> keyOfOrder = new ConcurrentHashMap<>();
+
+    private final Map<Long, NavigableSet<DispatchKey>> ordersByVendor = new ConcurrentHashMap<>();
+
+    private final NavigableSet<DispatchKey> readyQueue = new ConcurrentSkipListSet<>();
+
+    private final Map<Long, Location> locationOfVendor = new ConcurrentHashMap<>();
+
+    private final PickupGrid pickupGrid = new PickupGrid();
+
+    @Autowired
+    public AvailableOrderIndex(DeliveryRepository deliveryRepository) {
+        this.deliveryRepository = deliveryRepository;
+    }
+
+    /**
+     * Rebuilds the index from the deliveries currently stored in the database.
+     */
+    @PostConstruct
+    public void reload() {
+        rebuild(deliveryRepository.findByCourierIdIsNullAndOrder_StatusIn(AVAILABLE_STATUSES));
+    }
+
+    /**
+     * Replaces the content of the index with the available orders among the given deliveries.
+     *
+     * @param deliveries The deliveries to index
+     */
+    public void rebuild(Collection<Delivery> deliveries) {
+        keyOfOrder.clear();
+        ordersByVendor.clear();
+        readyQueue.clear();
+        locationOfVendor.clear();
+        pickupGrid.clear();
+        for (Delivery delivery : deliveries) {
+            if (isAvailable(delivery)) {
+                add(delivery);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a delivery can still be picked up by a courier.
+     *
+     * @param delivery The delivery to check
+     * @return true if the order is accepted or being prepared and no courier was assigned yet
+     */
+    public static boolean isAvailable(Delivery delivery) {
+        return delivery.getCourierId() == null
+                && delivery.getOrder() != null
+                && isAvailableStatus(delivery.getOrder().getStatus());
+    }
+
+    /**
+     * Checks whether orders with the given status can be picked up by a courier.
+     *
+     * @param status The status of the order
+     * @return true if the order is accepted or being prepared
+     */
+    public static boolean isAvailableStatus(Order.StatusEnum status) {
+        return AVAILABLE_STATUSES.contains(status);
+    }
+
+    /**
+     * Adds the order of a delivery, ordered by the ready time of the delivery.
+     *
+     * @param delivery The delivery whose order became available
+     */
+    public void add(Delivery delivery) {
+        Time time = delivery.getTime();
+        add(delivery.getOrder(), time == null ? null : time.getReadyTime());
+    }
+
+    /**
+     * Adds an order whose ready time is not known yet. Such orders come after the ones with a ready time.
+     *
+     * @param order The order that became available
+     */
+    public void add(Order order) {
+        add(order, null);
+    }
+
+    /**
+     * Adds an order to the bucket of its vendor. Adding an order that is already present moves it
+     * to the position of the new ready time.
+     *
+     * @param order The order that became available
+     * @param readyTime The time the food is ready, or null if it is not known
+     */
+    public void add(Order order, OffsetDateTime readyTime) {
+        Long orderId = order.getOrderId();
+        Long vendorId = order.getVendor().getId();
+        Location address = order.getVendor().getAddress();
+        if (address != null) {
+            locationOfVendor.put(vendorId, address);
+        }
+        DispatchKey key = new DispatchKey(vendorId, readyAt(readyTime), orderId);
+        keyOfOrder.compute(orderId, (id, previous) -> {
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(key, address);
+            return key;
+        });
+    }
+
+    /**
+     * Moves an available order to the position of its new ready time.
+     *
+     * @param orderId The id of the order, orders without an id are never in the index
+     * @param readyTime The new time the food is ready
+     */
+    public void updateReadyTime(Long orderId, OffsetDateTime readyTime) {
+        if (orderId == null) {
+            return;
+        }
+        keyOfOrder.computeIfPresent(orderId, (id, previous) -> {
+            unlink(previous);
+            DispatchKey key = new DispatchKey(previous.vendorId, readyAt(readyTime), orderId);
+            link(key, locationOfVendor.get(previous.vendorId));
+            return key;
+        });
+    }
+
+    /**
+     * Removes an order from the index, e.g. because it was assigned or its status changed.
+     *
+     * @param orderId The id of the order
+     * @return true if the order was present in the index
+     */
+    public boolean remove(Long orderId) {
+        if (orderId == null) {
+            return false;
+        }
+        DispatchKey key = keyOfOrder.remove(orderId);
+        if (key == null) {
+            return false;
+        }
+        unlink(key);
+        return true;
+    }
+
+    /**
+     * Atomically claims an order for a courier. Only one caller can claim a given
+     * order: concurrent callers lose and should move on to another candidate.
+     *
+     * @param orderId The id of the order
+     * @return true if the caller won the order, false if it was already taken
+     */
+    public boolean tryClaim(Long orderId) {
+        return remove(orderId);
+    }
+
+    /**
+     * Makes a claimed order available again, e.g. because persisting the assignment failed.
+     *
+     * @param delivery The delivery of the order that was claimed
+     */
+    public void release(Delivery delivery) {
+        add(delivery);
+    }
+
+    /**
+     * Checks whether the order is currently available.
+     *
+     * @param orderId The id of the order
+     * @return true if the order is in the index
+     */
+    public boolean contains(Long orderId) {
+        return orderId != null && keyOfOrder.containsKey(orderId);
+    }
+
+    /**
+     * Retrieves the vendor of an available order.
+     *
+     * @param orderId The id of the order
+     * @return The id of the vendor, or null if the order is not available
+     */
+    public Long getVendorOfOrder(Long orderId) {
+        DispatchKey key = orderId == null ? null : keyOfOrder.get(orderId);
+        return key == null ? null : key.vendorId;
+    }
+
+    /**
+     * Retrieves the available orders of a single vendor.
+     *
+     * @param vendorId The id of the vendor
+     * @return The ids of the available orders, the ones that are ready first come first
+     */
+    public List<Long> getOrdersOfVendor(Long vendorId) {
+        NavigableSet<DispatchKey> orders = ordersByVendor.get(vendorId);
+        return orders == null ? new ArrayList<>() : orderIds(orders);
+    }
+
+    /**
+     * Retrieves the available orders that are ready first of every vendor except the given ones.
+     * The walk over the ready queue stops once the limit is reached, so a poll does not copy
+     * every available order.
+     *
+     * @param excludedVendors The ids of the vendors whose orders should be skipped
+     * @param limit Maximum number of orders to return
+     * @return The ids of the available orders, the ones that are ready first come first
+     */
+    public List<Long> getOrdersExcludingVendors(Set<Long> excludedVendors, int limit) {
+        List<Long> result = new ArrayList<>(Math.min(limit, 64));
+        Iterator<DispatchKey> keys = readyQueue.iterator();
+        while (result.size() < limit && keys.hasNext()) {
+            DispatchKey key = keys.next();
+            if (!excludedVendors.contains(key.vendorId)) {
+                result.add(key.orderId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Takes a snapshot of all available orders, grouped by vendor.
+     *
+     * @return The ids of the available orders per vendor id, the ones that are ready first come first
+     */
+    public Map<Long, List<Long>> getOrdersByVendor() {
+        Map<Long, List<Long>> snapshot = new HashMap<>();
+        ordersByVendor.forEach((vendorId, orders) -> snapshot.put(vendorId, orderIds(orders)));
+        return snapshot;
+    }
+
+    /**
+     * Retrieves the pickup location of a vendor that has (or had) available orders.
+     *
+     * @param vendorId The id of the vendor
+     * @return The address of the vendor, or null if it is unknown
+     */
+    public Location getVendorLocation(Long vendorId) {
+        return locationOfVendor.get(vendorId);
+    }
+
+    /**
+     * Finds the vendor with available orders whose pickup point is closest to a location.
+     *
+     * @param location The position to search from
+     * @param eligible Filter on the vendor ids that may be returned
+     * @return The id of the closest vendor, or null if no eligible vendor has available orders
+     */
+    public Long findNearestVendor(Location location, Predicate<Long> eligible) {
+        return pickupGrid.findNearest(location, eligible);
+    }
+
+    /**
+     * Returns the number of available orders.
+     *
+     * @return The size of the index
+     */
+    public int size() {
+        return keyOfOrder.size();
+    }
+
+    private void link(DispatchKey key, Location address) {
+        readyQueue.add(key);
+        ordersByVendor.compute(key.vendorId, (id, orders) -> {
+            if (orders == null && address != null) {
+                pickupGrid.add(key.vendorId, address);
+            }
+            NavigableSet<DispatchKey> bucket = orders == null ? new ConcurrentSkipListSet<>() : orders;
+            bucket.add(key);
+            return bucket;
+        });
+    }
+
+    private void unlink(DispatchKey key) {
+        readyQueue.remove(key);
+        ordersByVendor.computeIfPresent(key.vendorId, (id, orders) -> {
+            orders.remove(key);
+            if (orders.isEmpty()) {
+                pickupGrid.remove(key.vendorId);
+                return null;
+            }
+            return orders;
+        });
+    }
+
+    private static List<Long> orderIds(Collection<DispatchKey> keys) {
+        List<Long> orderIds = new ArrayList<>(keys.size());
+        keys.forEach(key -> orderIds.add(key.orderId));
+        return orderIds;
+    }
+
+    private static long readyAt(OffsetDateTime readyTime) {
+        return readyTime == null ? Long.MAX_VALUE : readyTime.toInstant().toEpochMilli();
+    }
+
+    /**
+     * Position of an order in the dispatch order: ready first, then oldest order first.
+     */
+    private static final class DispatchKey implements Comparable<DispatchKey> {
+        private final long vendorId;
+        private final long readyAt;
+        private final long orderId;
+
+        private DispatchKey(long vendorId, long readyAt, long orderId) {
+            this.vendorId = vendorId;
+            this.readyAt = readyAt;
+            this.orderId = orderId;
+        }
+
+        @Override
+        public int compareTo(DispatchKey other) {
+            int byReadyTime = Long.compare(readyAt, other.readyAt);
+            return byReadyTime != 0 ? byReadyTime : Long.compare(orderId, other.orderId);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Solves the courier/order assignment of one dispatch tick. A greedy pass takes the cheapest
+ * free pairs first, after which pairs of couriers swap their orders as long as that lowers
+ * the total cost. This stays close to the optimal assignment while running in
+ * O(pairs * log(pairs)) instead of the cubic time of the Hungarian method.
+ */
+public final class BatchAssignmentSolver {
+
+    /**
+     * Upper bound on the number of pairs that fit in one solve.
+     */
+    public static final int MAX_PAIRS = 4_000_000;
+
+    private static final int MAX_SWAP_PASSES = 3;
+
+    private BatchAssignmentSolver() {
+    }
+
+    /**
+     * Cost of giving an order to a courier.
+     */
+    @FunctionalInterface
+    public interface CostMatrix {
+        /**
+         * Computes the cost of a pair.
+         *
+         * @param courier Index of the courier
+         * @param order Index of the order
+         * @return A non-negative cost
+         */
+        double cost(int courier, int order);
+    }
+
+    /**
+     * Assigns at most one order to every courier and every order to at most one courier.
+     *
+     * @param couriers Number of couriers
+     * @param orders Number of orders
+     * @param costMatrix Cost of every pair
+     * @return For every courier the index of its order, or -1 if it did not get one
+     */
+    public static int[] solve(int couriers, int orders, CostMatrix costMatrix) {
+        if ((long) couriers * orders > MAX_PAIRS) {
+            throw new IllegalArgumentException("Too many pairs to solve at once: " + couriers + " x " + orders);
+        }
+        int[] orderOfCourier = new int[couriers];
+        Arrays.fill(orderOfCourier, -1);
+        if (couriers == 0 || orders == 0) {
+            return orderOfCourier;
+        }
+
+        // The bits of a non-negative float sort like the float itself, so packing them above the
+        // pair index lets a primitive sort order all pairs by cost without boxing.
+        long[] pairs = new long[couriers * orders];
+        for (int courier = 0; courier < couriers; courier++) {
+            for (int order = 0; order < orders; order++) {
+                int pair = courier * orders + order;
+                float cost = (float) Math.max(0.0, costMatrix.cost(courier, order));
+                pairs[pair] = ((long) Float.floatToIntBits(cost) << 32) | pair;
+            }
+        }
+        Arrays.sort(pairs);
+
+        boolean[] orderTaken = new boolean[orders];
+        int remaining = Math.min(couriers, orders);
+        for (int i = 0; i < pairs.length && remaining > 0; i++) {
+            int pair = (int) pairs[i];
+            int courier = pair / orders;
+            int order = pair % orders;
+            if (orderOfCourier[courier] == -1 && !orderTaken[order]) {
+                orderOfCourier[courier] = order;
+                orderTaken[order] = true;
+                remaining--;
+            }
+        }
+
+        improveBySwapping(orderOfCourier, costMatrix);
+        return orderOfCourier;
+    }
+
+    /**
+     * Swaps the orders of two couriers whenever that lowers their combined cost.
+     *
+     * @param orderOfCourier The assignment to improve in place
+     * @param costMatrix Cost of every pair
+     */
+    private static void improveBySwapping(int[] orderOfCourier, CostMatrix costMatrix) {
+        for (int pass = 0; pass < MAX_SWAP_PASSES; pass++) {
+            boolean improved = false;
+            for (int a = 0; a < orderOfCourier.length; a++) {
+                if (orderOfCourier[a] == -1) {
+                    continue;
+                }
+                for (int b = a + 1; b < orderOfCourier.length; b++) {
+                    int orderA = orderOfCourier[a];
+                    int orderB = orderOfCourier[b];
+                    if (orderB == -1) {
+                        continue;
+                    }
+                    double current = costMatrix.cost(a, orderA) + costMatrix.cost(b, orderB);
+                    double swapped = costMatrix.cost(a, orderB) + costMatrix.cost(b, orderA);
+                    if (swapped < current) {
+                        orderOfCourier[a] = orderB;
+                        orderOfCourier[b] = orderA;
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Number of orders every courier has been assigned but not yet delivered. Every courier has
+ * its own atomic counter, so updates for different couriers never contend with each other and
+ * reading the load of a courier does not need a query on its deliveries.
+ */
+@Component
+public class CourierLoadRegistry {
+    private final DeliveryRepository deliveryRepository;
+
+    private final Map<Long, AtomicInteger> loadOfCourier = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CourierLoadRegistry(DeliveryRepository deliveryRepository) {
+        this.deliveryRepository = deliveryRepository;
+    }
+
+    /**
+     * Rebuilds the loads from the deliveries currently stored in the database.
+     */
+    @PostConstruct
+    public void reload() {
+        rebuild(deliveryRepository.findByCourierIdIsNotNullAndOrder_StatusNot(Order.StatusEnum.DELIVERED));
+    }
+
+    /**
+     * Replaces the loads with the ones of the given deliveries.
+     *
+     * @param deliveries The deliveries to count
+     */
+    public void rebuild(Collection<Delivery> deliveries) {
+        loadOfCourier.clear();
+        for (Delivery delivery : deliveries) {
+            if (delivery.getCourierId() != null && delivery.getOrder() != null
+                    && delivery.getOrder().getStatus() != Order.StatusEnum.DELIVERED) {
+                increment(delivery.getCourierId());
+            }
+        }
+    }
+
+    /**
+     * Records that an order was assigned to a courier.
+     *
+     * @param courierId The id of the courier
+     */
+    public void increment(Long courierId) {
+        counter(courierId).incrementAndGet();
+    }
+
+    /**
+     * Records that an order was assigned to a courier, unless the courier already carries
+     * the maximum number of orders.
+     *
+     * @param courierId The id of the courier
+     * @param maxLoad The maximum number of undelivered orders of a courier
+     * @return true if the load was increased, false if the courier is full
+     */
+    public boolean tryIncrement(Long courierId, int maxLoad) {
+        AtomicInteger load = counter(courierId);
+        int current;
+        do {
+            current = load.get();
+            if (current >= maxLoad) {
+                return false;
+            }
+        } while (!load.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Records that a courier delivered an order, or that an assignment was undone.
+     *
+     * @param courierId The id of the courier
+     */
+    public void decrement(Long courierId) {
+        AtomicInteger load = loadOfCourier.get(courierId);
+        if (load != null) {
+            load.getAndUpdate(current -> Math.max(current - 1, 0));
+        }
+    }
+
+    /**
+     * Retrieves the number of undelivered orders of a courier.
+     *
+     * @param courierId The id of the courier
+     * @return The load of the courier, 0 if it has no orders
+     */
+    public int getLoad(Long courierId) {
+        AtomicInteger load = loadOfCourier.get(courierId);
+        return load == null ? 0 : load.get();
+    }
+
+    private AtomicInteger counter(Long courierId) {
+        return loadOfCourier.computeIfAbsent(courierId, id -> new AtomicInteger());
+    }
+}
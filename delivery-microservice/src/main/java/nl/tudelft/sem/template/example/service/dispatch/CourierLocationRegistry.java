@@ -0,0 +1,38 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.stereotype.Component;
+
+/**
+ * Last known position of every courier. Couriers are placed at the vendor when they pick
+ * up an order and at the destination once they delivered it.
+ */
+@Component
+public class CourierLocationRegistry {
+    private final Map<Long, Location> locationOfCourier = new ConcurrentHashMap<>();
+
+    /**
+     * Records the position of a courier.
+     *
+     * @param courierId The id of the courier
+     * @param location The position of the courier
+     */
+    public void update(Long courierId, Location location) {
+        if (courierId == null || location == null) {
+            return;
+        }
+        locationOfCourier.put(courierId, location);
+    }
+
+    /**
+     * Retrieves the last known position of a courier.
+     *
+     * @param courierId The id of the courier
+     * @return The position, or null if the courier was never seen
+     */
+    public Location getLocation(Long courierId) {
+        return locationOfCourier.get(courierId);
+    }
+}
@@ -0,0 +1,53 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Visiting order of the orders a courier carries as a bundle.
+ */
+@Component
+public class CourierRoutes {
+    private final Map<Long, List<Long>> routeOfCourier = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the route of a courier.
+     *
+     * @param courierId The id of the courier
+     * @param orderIds The ids of the orders, in visiting order
+     */
+    public void setRoute(Long courierId, List<Long> orderIds) {
+        routeOfCourier.put(courierId, List.copyOf(orderIds));
+    }
+
+    /**
+     * Retrieves the route of a courier.
+     *
+     * @param courierId The id of the courier
+     * @return The ids of the orders in visiting order, empty if the courier has no bundle
+     */
+    public List<Long> getRoute(Long courierId) {
+        return routeOfCourier.getOrDefault(courierId, List.of());
+    }
+
+    /**
+     * Removes a delivered order from the route of a courier. The route is forgotten once its
+     * last order is delivered.
+     *
+     * @param courierId The id of the courier
+     * @param orderId The id of the delivered order
+     */
+    public void removeOrder(Long courierId, Long orderId) {
+        routeOfCourier.computeIfPresent(courierId, (id, route) -> {
+            if (!route.contains(orderId)) {
+                return route;
+            }
+            List<Long> remaining = new ArrayList<>(route);
+            remaining.remove(orderId);
+            return remaining.isEmpty() ? null : List.copyOf(remaining);
+        });
+    }
+}
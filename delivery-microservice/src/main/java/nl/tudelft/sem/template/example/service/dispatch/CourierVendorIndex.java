@@ -0,0 +1,103 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.model.Vendor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reverse lookup from a courier to the vendor that employs it, together with the set
+ * of vendors that have their own fleet. Both are needed on every courier poll, so they
+ * are kept in memory instead of walking all vendors and their couriers.
+ */
+@Component
+public class CourierVendorIndex {
+    private final VendorRepository vendorRepository;
+
+    private final Map<Long, Long> vendorOfCourier = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Long>> couriersOfVendor = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CourierVendorIndex(VendorRepository vendorRepository) {
+        this.vendorRepository = vendorRepository;
+    }
+
+    /**
+     * Rebuilds the index from the courier assignments stored in the database.
+     */
+    @PostConstruct
+    public void reload() {
+        vendorOfCourier.clear();
+        couriersOfVendor.clear();
+        for (VendorRepository.CourierAssignment assignment : vendorRepository.findCourierAssignments()) {
+            assign(assignment.getCourierId(), assignment.getVendorId());
+        }
+    }
+
+    /**
+     * Replaces the content of the index with the couriers of the given vendors.
+     *
+     * @param vendors The vendors to index
+     */
+    public void rebuild(Collection<Vendor> vendors) {
+        vendorOfCourier.clear();
+        couriersOfVendor.clear();
+        for (Vendor vendor : vendors) {
+            if (vendor.getCouriers() == null) {
+                continue;
+            }
+            for (Long courierId : vendor.getCouriers()) {
+                assign(courierId, vendor.getId());
+            }
+        }
+    }
+
+    /**
+     * Records that a courier delivers for the given vendor.
+     *
+     * @param courierId The id of the courier
+     * @param vendorId The id of the vendor
+     */
+    public void assign(Long courierId, Long vendorId) {
+        if (vendorOfCourier.putIfAbsent(courierId, vendorId) == null) {
+            couriersOfVendor.computeIfAbsent(vendorId, id -> ConcurrentHashMap.newKeySet()).add(courierId);
+        }
+    }
+
+    /**
+     * Retrieves the vendor the courier is assigned to.
+     *
+     * @param courierId The id of the courier
+     * @return The id of the vendor, or null if the courier is not assigned to a vendor
+     */
+    public Long getVendorOfCourier(Long courierId) {
+        return vendorOfCourier.get(courierId);
+    }
+
+    /**
+     * Returns a read-only view of the vendors that have their own couriers.
+     *
+     * @return The ids of the vendors with their own fleet
+     */
+    public Set<Long> getVendorsWithOwnCouriers() {
+        return Collections.unmodifiableSet(couriersOfVendor.keySet());
+    }
+
+    /**
+     * Returns a read-only view of the couriers of a vendor fleet.
+     *
+     * @param vendorId The id of the vendor
+     * @return The ids of the couriers of the vendor, empty if it has no fleet
+     */
+    public Set<Long> getCouriersOfVendor(Long vendorId) {
+        Set<Long> couriers = couriersOfVendor.get(vendorId);
+        return couriers == null ? Set.of() : Collections.unmodifiableSet(couriers);
+    }
+}
@@ -0,0 +1,177 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Location;
+
+/**
+ * Uniform grid over the pickup points of the vendors that have available orders. A nearest
+ * neighbour query walks the cells in rings around the query point and stops as soon as no
+ * unvisited ring can hold a closer vendor, so it only touches the vendors around the courier.
+ * Cells are square in degrees, distances between points are compared in metres.
+ */
+public class PickupGrid {
+
+    /**
+     * Side of a grid cell in degrees.
+     */
+    public static final double DEFAULT_CELL_SIZE = 0.05;
+
+    private final double cellSize;
+
+    private final Map<Long, Set<Long>> vendorsOfCell = new ConcurrentHashMap<>();
+
+    private final Map<Long, Location> locationOfVendor = new ConcurrentHashMap<>();
+
+    public PickupGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public PickupGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds the pickup point of a vendor.
+     *
+     * @param vendorId The id of the vendor
+     * @param location The address of the vendor
+     */
+    public void add(Long vendorId, Location location) {
+        Location previous = locationOfVendor.put(vendorId, location);
+        if (previous != null) {
+            removeFromCell(vendorId, previous);
+        }
+        vendorsOfCell.computeIfAbsent(cellOf(location), cell -> ConcurrentHashMap.newKeySet()).add(vendorId);
+    }
+
+    /**
+     * Removes the pickup point of a vendor.
+     *
+     * @param vendorId The id of the vendor
+     */
+    public void remove(Long vendorId) {
+        Location location = locationOfVendor.remove(vendorId);
+        if (location != null) {
+            removeFromCell(vendorId, location);
+        }
+    }
+
+    /**
+     * Removes all pickup points.
+     */
+    public void clear() {
+        vendorsOfCell.clear();
+        locationOfVendor.clear();
+    }
+
+    /**
+     * Returns the number of pickup points in the grid.
+     *
+     * @return The number of vendors
+     */
+    public int size() {
+        return locationOfVendor.size();
+    }
+
+    /**
+     * Finds the vendor whose pickup point is closest to the given location.
+     *
+     * @param location The position to search from
+     * @param eligible Filter on the vendor ids that may be returned
+     * @return The id of the closest eligible vendor, or null if there is none
+     */
+    public Long findNearest(Location location, Predicate<Long> eligible) {
+        long row = cell(location.getLatitude());
+        long column = cell(location.getLongitude());
+        Nearest nearest = new Nearest(location);
+        for (long ring = 0; ; ring++) {
+            long side = 2 * ring + 1;
+            // Once a ring has more cells than there are occupied cells, scanning those is cheaper
+            if (side * side > vendorsOfCell.size()) {
+                vendorsOfCell.values().forEach(vendors -> nearest.offer(vendors, eligible));
+                return nearest.vendorId;
+            }
+            for (long c = column - ring; c <= column + ring; c++) {
+                offerCell(row - ring, c, nearest, eligible);
+                if (ring > 0) {
+                    offerCell(row + ring, c, nearest, eligible);
+                }
+            }
+            for (long r = row - ring + 1; r <= row + ring - 1; r++) {
+                offerCell(r, column - ring, nearest, eligible);
+                offerCell(r, column + ring, nearest, eligible);
+            }
+            if (nearest.vendorId != null && nearest.distance <= distanceOutside(location, ring, nearest.distance)) {
+                return nearest.vendorId;
+            }
+        }
+    }
+
+    /**
+     * Computes a lower bound on the distance to any point outside the ring that is closer than
+     * the best distance found so far. Such a point is at least `ring` cells away in latitude or in
+     * longitude, and a degree of longitude is shortest at the latitude furthest from the equator
+     * that the point can have.
+     */
+    private double distanceOutside(Location origin, long ring, double best) {
+        double furthestLatitude = Math.abs(origin.getLatitude()) + best / DistanceEngine.METRES_PER_DEGREE / 2;
+        return ring * cellSize * DistanceEngine.METRES_PER_DEGREE * DistanceEngine.cosineOfLatitude(furthestLatitude);
+    }
+
+    private void offerCell(long row, long column, Nearest nearest, Predicate<Long> eligible) {
+        Set<Long> vendors = vendorsOfCell.get(key(row, column));
+        if (vendors != null) {
+            nearest.offer(vendors, eligible);
+        }
+    }
+
+    private void removeFromCell(Long vendorId, Location location) {
+        vendorsOfCell.computeIfPresent(cellOf(location), (cell, vendors) -> {
+            vendors.remove(vendorId);
+            return vendors.isEmpty() ? null : vendors;
+        });
+    }
+
+    private long cellOf(Location location) {
+        return key(cell(location.getLatitude()), cell(location.getLongitude()));
+    }
+
+    private long cell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) ^ (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Keeps track of the closest vendor seen so far.
+     */
+    private final class Nearest {
+        private final Location origin;
+        private Long vendorId;
+        private double distance = Double.MAX_VALUE;
+
+        private Nearest(Location origin) {
+            this.origin = origin;
+        }
+
+        private void offer(Set<Long> vendors, Predicate<Long> eligible) {
+            for (Long candidate : vendors) {
+                Location pickup = locationOfVendor.get(candidate);
+                if (pickup == null || !eligible.test(candidate)) {
+                    continue;
+                }
+                double candidateDistance = DistanceEngine.distance(origin, pickup, DistanceEngine.Precision.FAST);
+                if (candidateDistance < distance) {
+                    distance = candidateDistance;
+                    vendorId = candidate;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import java.util.List;
+import java.util.function.ToDoubleBiFunction;
+import nl.tudelft.sem.template.model.Location;
+
+/**
+ * Orders the stops of a courier that carries several orders at once. The route is built
+ * with the nearest neighbour heuristic and then improved with 2-opt moves, which is
+ * optimal or close to it for the handful of stops in a bundle.
+ */
+public final class RoutePlanner {
+
+    private RoutePlanner() {
+    }
+
+    /**
+     * Computes the order in which the stops are visited.
+     *
+     * @param start The location the courier starts from
+     * @param stops The locations to visit
+     * @param distance The distance between two locations
+     * @return The indices of the stops, in visiting order
+     */
+    public static int[] plan(Location start, List<Location> stops, ToDoubleBiFunction<Location, Location> distance) {
+        int size = stops.size();
+        int[] route = new int[size];
+        boolean[] visited = new boolean[size];
+        Location current = start;
+        for (int position = 0; position < size; position++) {
+            int next = -1;
+            double best = Double.MAX_VALUE;
+            for (int stop = 0; stop < size; stop++) {
+                if (visited[stop]) {
+                    continue;
+                }
+                double candidate = distance.applyAsDouble(current, stops.get(stop));
+                if (next == -1 || candidate < best) {
+                    next = stop;
+                    best = candidate;
+                }
+            }
+            route[position] = next;
+            visited[next] = true;
+            current = stops.get(next);
+        }
+
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < size - 1; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    if (reversalGain(start, stops, route, i, j, distance) > 1e-12) {
+                        reverse(route, i, j);
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Computes how much shorter the route gets when the stops between i and j are visited in reverse.
+     * The route is open ended, so there is no edge after the last stop.
+     */
+    private static double reversalGain(Location start, List<Location> stops, int[] route, int i, int j,
+                                       ToDoubleBiFunction<Location, Location> distance) {
+        Location before = i == 0 ? start : stops.get(route[i - 1]);
+        Location first = stops.get(route[i]);
+        Location last = stops.get(route[j]);
+        double removed = distance.applyAsDouble(before, first);
+        double added = distance.applyAsDouble(before, last);
+        if (j + 1 < route.length) {
+            Location after = stops.get(route[j + 1]);
+            removed += distance.applyAsDouble(last, after);
+            added += distance.applyAsDouble(first, after);
+        }
+        return removed - added;
+    }
+
+    private static void reverse(int[] route, int i, int j) {
+        while (i < j) {
+            int swap = route[i];
+            route[i++] = route[j];
+            route[j--] = swap;
+        }
+    }
+}
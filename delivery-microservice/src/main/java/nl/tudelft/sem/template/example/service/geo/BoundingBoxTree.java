@@ -0,0 +1,121 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * R-tree over bounding boxes in latitude and longitude, packed at once with the
+ * sort-tile-recursive method: the boxes are sorted into vertical slices by longitude and each
+ * slice by latitude, so every leaf of {@link #NODE_SIZE} consecutive boxes covers a small area.
+ * Every level above groups the nodes below it the same way. All levels are flat arrays, so a
+ * lookup only reads arrays. The tree cannot be changed; it is built again when the boxes change.
+ */
+final class BoundingBoxTree {
+
+    static final int NODE_SIZE = 16;
+
+    /**
+     * The index of every box, in the order of the leaves.
+     */
+    private final int[] entries;
+
+    /**
+     * The boxes of the nodes per level, the boxes themselves at level 0. A node takes four
+     * values: minimum latitude, minimum longitude, maximum latitude and maximum longitude.
+     */
+    private final double[][] levels;
+
+    /**
+     * Builds the tree.
+     *
+     * @param boxes Four values per box: minimum latitude, minimum longitude, maximum latitude and
+     *     maximum longitude. A lookup reports a box by its position in this array.
+     */
+    BoundingBoxTree(double[] boxes) {
+        int count = boxes.length / 4;
+        entries = sortTileRecursive(boxes, count);
+
+        List<double[]> built = new ArrayList<>();
+        double[] level = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(boxes, entries[i] * 4, level, i * 4, 4);
+        }
+        built.add(level);
+        while (level.length > 4) {
+            int children = level.length / 4;
+            double[] parents = new double[((children + NODE_SIZE - 1) / NODE_SIZE) * 4];
+            for (int child = 0; child < children; child++) {
+                int parent = child / NODE_SIZE * 4;
+                if (child % NODE_SIZE == 0) {
+                    System.arraycopy(level, child * 4, parents, parent, 4);
+                } else {
+                    parents[parent] = Math.min(parents[parent], level[child * 4]);
+                    parents[parent + 1] = Math.min(parents[parent + 1], level[child * 4 + 1]);
+                    parents[parent + 2] = Math.max(parents[parent + 2], level[child * 4 + 2]);
+                    parents[parent + 3] = Math.max(parents[parent + 3], level[child * 4 + 3]);
+                }
+            }
+            built.add(parents);
+            level = parents;
+        }
+        levels = built.toArray(new double[0][]);
+    }
+
+    /**
+     * Reports every box that contains a point.
+     *
+     * @param latitude The latitude of the point
+     * @param longitude The longitude of the point
+     * @param consumer Gets the position of every box containing the point
+     */
+    void search(double latitude, double longitude, IntConsumer consumer) {
+        if (entries.length > 0) {
+            search(levels.length - 1, 0, latitude, longitude, consumer);
+        }
+    }
+
+    /**
+     * Returns the number of boxes.
+     *
+     * @return The number of boxes
+     */
+    int size() {
+        return entries.length;
+    }
+
+    private void search(int level, int node, double latitude, double longitude, IntConsumer consumer) {
+        double[] boxes = levels[level];
+        int offset = node * 4;
+        if (latitude < boxes[offset] || longitude < boxes[offset + 1]
+                || latitude > boxes[offset + 2] || longitude > boxes[offset + 3]) {
+            return;
+        }
+        if (level == 0) {
+            consumer.accept(entries[node]);
+            return;
+        }
+        int first = node * NODE_SIZE;
+        int last = Math.min(first + NODE_SIZE, levels[level - 1].length / 4);
+        for (int child = first; child < last; child++) {
+            search(level - 1, child, latitude, longitude, consumer);
+        }
+    }
+
+    private static int[] sortTileRecursive(double[] boxes, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> boxes[i * 4 + 1] + boxes[i * 4 + 3]));
+        int leaves = (count + NODE_SIZE - 1) / NODE_SIZE;
+        int sliceSize = (int) Math.ceil(Math.sqrt(leaves)) * NODE_SIZE;
+        for (int start = 0; start < count; start += sliceSize) {
+            Arrays.sort(order, start, Math.min(start + sliceSize, count),
+                    Comparator.comparingDouble((Integer i) -> boxes[i * 4] + boxes[i * 4 + 2]));
+        }
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+}
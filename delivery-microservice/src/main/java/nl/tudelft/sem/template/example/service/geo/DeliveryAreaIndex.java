@@ -0,0 +1,163 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.repository.DeliveryAreaRepository;
+import nl.tudelft.sem.template.model.DeliveryArea;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spatial index of the polygons vendors deliver to, for vendors whose delivery zone is not a
+ * circle. The bounding boxes of the polygons are kept in an R-tree, so a lookup only tests the
+ * polygons whose box contains the location. Polygons change rarely, so every change builds a
+ * new tree that replaces the previous one at once and lookups never wait for a change.
+ */
+@Component
+public class DeliveryAreaIndex {
+
+    private final DeliveryAreaRepository deliveryAreaRepository;
+
+    private final Map<Long, Polygon> areaOfVendor = new HashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new HashMap<>());
+
+    @Autowired
+    public DeliveryAreaIndex(DeliveryAreaRepository deliveryAreaRepository) {
+        this.deliveryAreaRepository = deliveryAreaRepository;
+    }
+
+    /**
+     * Checks whether vertices form a polygon that can be indexed.
+     *
+     * @param vertices The vertices in order
+     * @throws IllegalArgumentException if there are fewer than three vertices or a vertex is not
+     *     a valid location
+     */
+    public static void validate(List<Location> vertices) {
+        new Polygon(vertices);
+    }
+
+    /**
+     * Rebuilds the index from the areas stored in the database.
+     */
+    @PostConstruct
+    public void reload() {
+        rebuild(deliveryAreaRepository.findAll());
+    }
+
+    /**
+     * Replaces the content of the index with the given areas.
+     *
+     * @param areas The areas to index
+     */
+    public synchronized void rebuild(Collection<DeliveryArea> areas) {
+        areaOfVendor.clear();
+        for (DeliveryArea area : areas) {
+            areaOfVendor.put(area.getVendorId(), new Polygon(area.getVertices()));
+        }
+        snapshot = new Snapshot(areaOfVendor);
+    }
+
+    /**
+     * Adds the area of a vendor, or replaces it after it changed.
+     *
+     * @param area The area, with at least three vertices
+     * @throws IllegalArgumentException if the vertices do not form a valid polygon
+     */
+    public synchronized void update(DeliveryArea area) {
+        areaOfVendor.put(area.getVendorId(), new Polygon(area.getVertices()));
+        snapshot = new Snapshot(areaOfVendor);
+    }
+
+    /**
+     * Removes the area of a vendor, so its delivery zone radius is used again.
+     *
+     * @param vendorId The id of the vendor
+     */
+    public synchronized void remove(Long vendorId) {
+        if (areaOfVendor.remove(vendorId) != null) {
+            snapshot = new Snapshot(areaOfVendor);
+        }
+    }
+
+    /**
+     * Checks whether a vendor delivers to a polygon instead of a radius.
+     *
+     * @param vendorId The id of the vendor
+     * @return true if the vendor has an area
+     */
+    public boolean hasArea(long vendorId) {
+        return snapshot.areaOfVendor.containsKey(vendorId);
+    }
+
+    /**
+     * Checks whether a location lies within the area of a vendor.
+     *
+     * @param vendorId The id of the vendor
+     * @param location The location to deliver to
+     * @return true if the vendor has an area and it contains the location
+     */
+    public boolean contains(long vendorId, Location location) {
+        Polygon polygon = snapshot.areaOfVendor.get(vendorId);
+        return polygon != null && polygon.contains(location.getLatitude(), location.getLongitude());
+    }
+
+    /**
+     * Finds the vendors whose area contains the location.
+     *
+     * @param location The location to deliver to
+     * @return The ids of the vendors that deliver there, in no particular order
+     */
+    public List<Long> getVendorsServing(Location location) {
+        Snapshot current = snapshot;
+        double latitude = location.getLatitude();
+        double longitude = location.getLongitude();
+        List<Long> vendors = new ArrayList<>();
+        current.tree.search(latitude, longitude, index -> {
+            if (current.polygons[index].contains(latitude, longitude)) {
+                vendors.add(current.vendorIds[index]);
+            }
+        });
+        return vendors;
+    }
+
+    /**
+     * Returns the number of vendors with an area.
+     *
+     * @return The number of indexed areas
+     */
+    public int size() {
+        return snapshot.vendorIds.length;
+    }
+
+    /**
+     * The areas at one moment, with the R-tree over their bounding boxes.
+     */
+    private static final class Snapshot {
+        private final Map<Long, Polygon> areaOfVendor;
+        private final long[] vendorIds;
+        private final Polygon[] polygons;
+        private final BoundingBoxTree tree;
+
+        private Snapshot(Map<Long, Polygon> areas) {
+            areaOfVendor = Map.copyOf(areas);
+            vendorIds = new long[areas.size()];
+            polygons = new Polygon[areas.size()];
+            double[] boxes = new double[areas.size() * 4];
+            int index = 0;
+            for (Map.Entry<Long, Polygon> entry : areas.entrySet()) {
+                vendorIds[index] = entry.getKey();
+                polygons[index] = entry.getValue();
+                entry.getValue().writeBoundingBox(boxes, index);
+                index++;
+            }
+            tree = new BoundingBoxTree(boxes);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import nl.tudelft.sem.template.model.Location;
+
+/**
+ * Distances in metres between two points given in degrees of latitude and longitude. Callers
+ * choose between the exact great-circle distance and a faster approximation that is accurate
+ * to a fraction of a percent over the distances within a city.
+ */
+public final class DistanceEngine {
+
+    /**
+     * Mean radius of the earth in metres.
+     */
+    public static final double EARTH_RADIUS = 6_371_008.8;
+
+    /**
+     * Length of one degree of latitude in metres.
+     */
+    public static final double METRES_PER_DEGREE = EARTH_RADIUS * Math.PI / 180;
+
+    private static final int COSINE_STEPS_PER_DEGREE = 100;
+
+    private static final double[] COSINE_OF_LATITUDE = new double[180 * COSINE_STEPS_PER_DEGREE + 1];
+
+    static {
+        for (int i = 0; i < COSINE_OF_LATITUDE.length; i++) {
+            COSINE_OF_LATITUDE[i] = Math.cos(Math.toRadians((double) i / COSINE_STEPS_PER_DEGREE - 90));
+        }
+    }
+
+    /**
+     * How precise a distance has to be.
+     */
+    public enum Precision {
+        /**
+         * Haversine distance on a spherical earth, for values that are stored or shown.
+         */
+        EXACT,
+        /**
+         * Equirectangular projection around the mean latitude of the two points, for ranking
+         * and comparing the short distances of the dispatch code.
+         */
+        FAST
+    }
+
+    private DistanceEngine() {
+    }
+
+    /**
+     * Computes the distance between two locations.
+     *
+     * @param from The first location
+     * @param to The second location
+     * @param precision How precise the distance has to be
+     * @return The distance in metres
+     */
+    public static double distance(Location from, Location to, Precision precision) {
+        return distance(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude(), precision);
+    }
+
+    /**
+     * Computes the distance between two points.
+     *
+     * @param fromLatitude Latitude of the first point in degrees
+     * @param fromLongitude Longitude of the first point in degrees
+     * @param toLatitude Latitude of the second point in degrees
+     * @param toLongitude Longitude of the second point in degrees
+     * @param precision How precise the distance has to be
+     * @return The distance in metres
+     */
+    public static double distance(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude,
+                                  Precision precision) {
+        return precision == Precision.EXACT
+                ? haversine(fromLatitude, fromLongitude, toLatitude, toLongitude)
+                : equirectangular(fromLatitude, fromLongitude, toLatitude, toLongitude);
+    }
+
+    /**
+     * Computes the distance from one point to many others in one call. The other points are
+     * passed as two arrays of coordinates, so no location objects are needed per point.
+     *
+     * @param fromLatitude Latitude of the origin in degrees
+     * @param fromLongitude Longitude of the origin in degrees
+     * @param latitudes Latitudes of the other points in degrees
+     * @param longitudes Longitudes of the other points in degrees, as many as there are latitudes
+     * @param distances Receives the distance in metres to every point, at least as long as the latitudes
+     * @param precision How precise the distances have to be
+     */
+    public static void distances(double fromLatitude, double fromLongitude, double[] latitudes, double[] longitudes,
+                                 double[] distances, Precision precision) {
+        if (longitudes.length != latitudes.length || distances.length < latitudes.length) {
+            throw new IllegalArgumentException("Coordinate and distance arrays do not match");
+        }
+        if (precision == Precision.EXACT) {
+            for (int i = 0; i < latitudes.length; i++) {
+                distances[i] = haversine(fromLatitude, fromLongitude, latitudes[i], longitudes[i]);
+            }
+        } else {
+            for (int i = 0; i < latitudes.length; i++) {
+                distances[i] = equirectangular(fromLatitude, fromLongitude, latitudes[i], longitudes[i]);
+            }
+        }
+    }
+
+    /**
+     * Looks up the cosine of a latitude in a table with a step of a hundredth of a degree.
+     * Latitudes outside of [-90, 90] are clamped to the nearest pole.
+     *
+     * @param latitude The latitude in degrees
+     * @return The cosine of the latitude
+     */
+    public static double cosineOfLatitude(double latitude) {
+        int index = (int) Math.round((latitude + 90) * COSINE_STEPS_PER_DEGREE);
+        return COSINE_OF_LATITUDE[Math.max(0, Math.min(COSINE_OF_LATITUDE.length - 1, index))];
+    }
+
+    private static double haversine(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double latSine = Math.sin(Math.toRadians(toLatitude - fromLatitude) / 2);
+        double lonSine = Math.sin(Math.toRadians(toLongitude - fromLongitude) / 2);
+        double a = latSine * latSine
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude)) * lonSine * lonSine;
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(1, a)));
+    }
+
+    private static double equirectangular(double fromLatitude, double fromLongitude,
+                                          double toLatitude, double toLongitude) {
+        double latDifference = toLatitude - fromLatitude;
+        double lonDifference = toLongitude - fromLongitude;
+        // Take the short way around when the points lie on both sides of the antimeridian
+        if (lonDifference > 180) {
+            lonDifference -= 360;
+        } else if (lonDifference < -180) {
+            lonDifference += 360;
+        }
+        lonDifference *= cosineOfLatitude((fromLatitude + toLatitude) / 2);
+        return Math.sqrt(latDifference * latDifference + lonDifference * lonDifference) * METRES_PER_DEGREE;
+    }
+}
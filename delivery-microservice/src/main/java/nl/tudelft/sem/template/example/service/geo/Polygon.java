@@ -0,0 +1,100 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import java.util.List;
+import nl.tudelft.sem.template.model.Location;
+
+/**
+ * Polygon in latitude and longitude, treated as flat, which is accurate enough for an area the
+ * size of a city. The polygon is closed implicitly and may not cross the antimeridian. Points
+ * are tested by counting the edges a ray from the point crosses, after a check against the
+ * bounding box; the slope of every edge is computed once when the polygon is made.
+ */
+final class Polygon {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] slopes;
+
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double maxLatitude;
+    private final double maxLongitude;
+
+    /**
+     * Creates a polygon.
+     *
+     * @param vertices The vertices in order, at least three
+     * @throws IllegalArgumentException if there are too few vertices or a coordinate is missing or
+     *     out of range
+     */
+    Polygon(List<Location> vertices) {
+        if (vertices == null || vertices.size() < 3) {
+            throw new IllegalArgumentException("A polygon needs at least three vertices");
+        }
+        int count = vertices.size();
+        latitudes = new double[count];
+        longitudes = new double[count];
+        double minLat = Double.POSITIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            Location vertex = vertices.get(i);
+            if (vertex == null || vertex.getLatitude() == null || vertex.getLongitude() == null
+                    || Math.abs(vertex.getLatitude()) > 90 || Math.abs(vertex.getLongitude()) > 180) {
+                throw new IllegalArgumentException("Vertex " + i + " is not a valid location");
+            }
+            latitudes[i] = vertex.getLatitude();
+            longitudes[i] = vertex.getLongitude();
+            minLat = Math.min(minLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
+        }
+        minLatitude = minLat;
+        minLongitude = minLon;
+        maxLatitude = maxLat;
+        maxLongitude = maxLon;
+
+        // Longitude change per degree of latitude along the edge from vertex i - 1 to vertex i
+        slopes = new double[count];
+        for (int i = 0, previous = count - 1; i < count; previous = i++) {
+            double rise = latitudes[i] - latitudes[previous];
+            slopes[i] = rise == 0 ? 0 : (longitudes[i] - longitudes[previous]) / rise;
+        }
+    }
+
+    /**
+     * Checks whether a point lies inside the polygon. Points on an edge may fall on either side.
+     *
+     * @param latitude The latitude of the point
+     * @param longitude The longitude of the point
+     * @return true if the point is inside
+     */
+    boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, previous = latitudes.length - 1; i < latitudes.length; previous = i++) {
+            if ((latitudes[i] > latitude) != (latitudes[previous] > latitude)
+                    && longitude < longitudes[i] + (latitude - latitudes[i]) * slopes[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Writes the bounding box of the polygon into an array.
+     *
+     * @param boxes The array of boxes, four values per box
+     * @param index The position of the box in the array
+     */
+    void writeBoundingBox(double[] boxes, int index) {
+        boxes[index * 4] = minLatitude;
+        boxes[index * 4 + 1] = minLongitude;
+        boxes[index * 4 + 2] = maxLatitude;
+        boxes[index * 4 + 3] = maxLongitude;
+    }
+}
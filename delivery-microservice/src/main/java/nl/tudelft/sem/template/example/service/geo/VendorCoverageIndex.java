@@ -0,0 +1,189 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Vendor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spatial index of the delivery zones of the vendors, answering which vendors deliver to a
+ * location. Every zone is a circle around the vendor address that is registered in all cells
+ * of a uniform grid its bounding box touches, so a lookup only checks the vendors registered
+ * in the cell of the location instead of all vendors. The columns of the grid wrap around at
+ * the antimeridian, so a zone crossing it is registered in the cells on both sides.
+ */
+@Component
+public class VendorCoverageIndex {
+
+    /**
+     * Side of a grid cell in degrees, about 11 km in latitude.
+     */
+    public static final double CELL_SIZE = 0.1;
+
+    /**
+     * Number of columns of the grid around the globe.
+     */
+    static final long COLUMNS = Math.round(360 / CELL_SIZE);
+
+    /**
+     * Zones that would be registered in more cells than this are checked on every lookup instead.
+     */
+    static final int MAX_CELLS_PER_ZONE = 4_096;
+
+    private static final double METRES_PER_KILOMETRE = 1000;
+
+    private final VendorRepository vendorRepository;
+
+    private final Map<Long, Set<Long>> vendorsOfCell = new ConcurrentHashMap<>();
+
+    private final Map<Long, Zone> zoneOfVendor = new ConcurrentHashMap<>();
+
+    private final Set<Long> wideZones = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public VendorCoverageIndex(VendorRepository vendorRepository) {
+        this.vendorRepository = vendorRepository;
+    }
+
+    /**
+     * Rebuilds the index from the vendors stored in the database.
+     */
+    @PostConstruct
+    public void reload() {
+        rebuild(vendorRepository.findAll());
+    }
+
+    /**
+     * Replaces the content of the index with the zones of the given vendors.
+     *
+     * @param vendors The vendors to index
+     */
+    public synchronized void rebuild(Collection<Vendor> vendors) {
+        vendorsOfCell.clear();
+        zoneOfVendor.clear();
+        wideZones.clear();
+        vendors.forEach(this::update);
+    }
+
+    /**
+     * Adds the zone of a vendor, or moves it after its address or radius changed.
+     *
+     * @param vendor The vendor, with its address and delivery zone in kilometres
+     */
+    public synchronized void update(Vendor vendor) {
+        remove(vendor.getId());
+        Location address = vendor.getAddress();
+        if (address == null || vendor.getDeliveryZone() == null || vendor.getDeliveryZone() < 0) {
+            return;
+        }
+        Zone zone = new Zone(address.getLatitude(), address.getLongitude(),
+                vendor.getDeliveryZone() * METRES_PER_KILOMETRE);
+
+        double latitudeSpan = zone.radius / DistanceEngine.METRES_PER_DEGREE;
+        double furthestLatitude = Math.abs(zone.latitude) + latitudeSpan;
+        double longitudeSpan = furthestLatitude >= 90 ? 180
+                : latitudeSpan / DistanceEngine.cosineOfLatitude(furthestLatitude);
+        long firstRow = cell(zone.latitude - latitudeSpan);
+        long lastRow = cell(zone.latitude + latitudeSpan);
+        long firstColumn = cell(zone.longitude - longitudeSpan);
+        long lastColumn = Math.min(cell(zone.longitude + longitudeSpan), firstColumn + COLUMNS - 1);
+
+        zoneOfVendor.put(vendor.getId(), zone);
+        if ((lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) > MAX_CELLS_PER_ZONE) {
+            wideZones.add(vendor.getId());
+            return;
+        }
+        for (long row = firstRow; row <= lastRow; row++) {
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                long key = key(row, Math.floorMod(column, COLUMNS));
+                zone.cells.add(key);
+                vendorsOfCell.computeIfAbsent(key, cell -> ConcurrentHashMap.newKeySet()).add(vendor.getId());
+            }
+        }
+    }
+
+    /**
+     * Removes the zone of a vendor.
+     *
+     * @param vendorId The id of the vendor
+     */
+    public synchronized void remove(Long vendorId) {
+        Zone zone = zoneOfVendor.remove(vendorId);
+        if (zone == null) {
+            return;
+        }
+        wideZones.remove(vendorId);
+        for (Long key : zone.cells) {
+            vendorsOfCell.computeIfPresent(key, (cell, vendors) -> {
+                vendors.remove(vendorId);
+                return vendors.isEmpty() ? null : vendors;
+            });
+        }
+    }
+
+    /**
+     * Finds the vendors whose delivery zone contains the location.
+     *
+     * @param location The location to deliver to
+     * @return The ids of the vendors that deliver there, in no particular order
+     */
+    public List<Long> getVendorsServing(Location location) {
+        List<Long> vendors = new ArrayList<>();
+        Set<Long> candidates = vendorsOfCell.get(key(cell(location.getLatitude()),
+                Math.floorMod(cell(location.getLongitude()), COLUMNS)));
+        if (candidates != null) {
+            candidates.forEach(vendorId -> addIfServing(vendorId, location, vendors));
+        }
+        wideZones.forEach(vendorId -> addIfServing(vendorId, location, vendors));
+        return vendors;
+    }
+
+    /**
+     * Returns the number of vendors in the index.
+     *
+     * @return The number of indexed zones
+     */
+    public int size() {
+        return zoneOfVendor.size();
+    }
+
+    private void addIfServing(Long vendorId, Location location, List<Long> vendors) {
+        Zone zone = zoneOfVendor.get(vendorId);
+        if (zone != null && DistanceEngine.distance(zone.latitude, zone.longitude, location.getLatitude(),
+                location.getLongitude(), DistanceEngine.Precision.EXACT) <= zone.radius) {
+            vendors.add(vendorId);
+        }
+    }
+
+    private static long cell(double coordinate) {
+        return (long) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) ^ (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Delivery zone of one vendor, with the cells it is registered in.
+     */
+    private static final class Zone {
+        private final double latitude;
+        private final double longitude;
+        private final double radius;
+        private final List<Long> cells = new ArrayList<>();
+
+        private Zone(double latitude, double longitude, double radius) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radius = radius;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import java.util.Arrays;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+
+/**
+ * Fastest-path search over a {@link RoadGraph}, guided by the straight-line distance to the
+ * target covered at the highest speed of the graph. The arrays are sized to the graph once and
+ * reused by later searches: a search stamps the nodes it touches instead of clearing the arrays,
+ * so its cost depends on the part of the graph it explores and not on the size of the graph.
+ * An instance is not thread-safe, it is used by one query at a time.
+ */
+final class AStarSearch {
+
+    /**
+     * Scales the heuristic slightly down so the fast distance approximation never overestimates.
+     */
+    private static final double HEURISTIC_MARGIN = 0.99;
+
+    private final RoadGraph graph;
+    private final double secondsPerMetre;
+
+    private final double[] seconds;
+    private final int[] stampOfNode;
+    private int stamp;
+
+    private int[] heapNodes = new int[256];
+    private double[] heapKeys = new double[256];
+    private int heapSize;
+
+    AStarSearch(RoadGraph graph) {
+        this.graph = graph;
+        this.secondsPerMetre = graph.getMaxSpeed() > 0 ? HEURISTIC_MARGIN / graph.getMaxSpeed() : 0;
+        this.seconds = new double[graph.nodeCount()];
+        this.stampOfNode = new int[graph.nodeCount()];
+    }
+
+    RoadGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Computes the travel time of the fastest path between two nodes.
+     *
+     * @param source The start node
+     * @param target The end node
+     * @return The travel time in seconds, or infinity if the target cannot be reached
+     */
+    double travelTime(int source, int target) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stampOfNode, 0);
+            stamp = 1;
+        }
+        heapSize = 0;
+        double targetLatitude = graph.latitude(target);
+        double targetLongitude = graph.longitude(target);
+
+        reach(source, 0);
+        push(source, estimate(source, targetLatitude, targetLongitude));
+        while (heapSize > 0) {
+            double key = heapKeys[0];
+            int node = pop();
+            double time = seconds[node];
+            if (node == target) {
+                return time;
+            }
+            // Skip entries of nodes that were reached faster after they were queued
+            if (key > time + estimate(node, targetLatitude, targetLongitude) + 1e-9) {
+                continue;
+            }
+            for (int edge = graph.firstEdge(node); edge < graph.firstEdge(node + 1); edge++) {
+                int next = graph.edgeTarget(edge);
+                double candidate = time + graph.edgeSeconds(edge);
+                if (stampOfNode[next] != stamp || candidate < seconds[next]) {
+                    reach(next, candidate);
+                    push(next, candidate + estimate(next, targetLatitude, targetLongitude));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private void reach(int node, double time) {
+        stampOfNode[node] = stamp;
+        seconds[node] = time;
+    }
+
+    private double estimate(int node, double targetLatitude, double targetLongitude) {
+        return DistanceEngine.distance(graph.latitude(node), graph.longitude(node), targetLatitude, targetLongitude,
+                DistanceEngine.Precision.FAST) * secondsPerMetre;
+    }
+
+    private void push(int node, double key) {
+        if (heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        int index = heapSize++;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heapKeys[parent] <= key) {
+                break;
+            }
+            heapNodes[index] = heapNodes[parent];
+            heapKeys[index] = heapKeys[parent];
+            index = parent;
+        }
+        heapNodes[index] = node;
+        heapKeys[index] = key;
+    }
+
+    private int pop() {
+        int top = heapNodes[0];
+        int lastNode = heapNodes[--heapSize];
+        double lastKey = heapKeys[heapSize];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] >= lastKey) {
+                break;
+            }
+            heapNodes[index] = heapNodes[child];
+            heapKeys[index] = heapKeys[child];
+            index = child;
+        }
+        heapNodes[index] = lastNode;
+        heapKeys[index] = lastKey;
+        return top;
+    }
+}
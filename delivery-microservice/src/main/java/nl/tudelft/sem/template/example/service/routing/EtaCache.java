@@ -0,0 +1,167 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of travel times from a vendor to a destination. Destinations are grouped in
+ * grid cells and departures in buckets of the day, so every order of a vendor towards the same
+ * neighbourhood at about the same time shares one estimate. The least recently used estimate
+ * is evicted once the cache is full.
+ */
+@Component
+public class EtaCache {
+
+    private final int capacity;
+    private final double cellSize;
+    private final int bucketMinutes;
+
+    private final LinkedHashMap<Key, Duration> travelTimes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity Maximum number of cached estimates
+     * @param cellSize Side of a destination cell in degrees
+     * @param bucketMinutes Length of a bucket of the day in minutes
+     */
+    @Autowired
+    public EtaCache(@Value("${delivery.eta-cache.capacity:10000}") int capacity,
+                    @Value("${delivery.eta-cache.cell-size:0.005}") double cellSize,
+                    @Value("${delivery.eta-cache.bucket-minutes:15}") int bucketMinutes) {
+        if (capacity < 1 || !(cellSize > 0) || bucketMinutes < 1) {
+            throw new IllegalArgumentException("Capacity, cell size and bucket length must be positive");
+        }
+        this.capacity = capacity;
+        this.cellSize = cellSize;
+        this.bucketMinutes = bucketMinutes;
+        this.travelTimes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Duration> eldest) {
+                return size() > EtaCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached travel time for a departure from a vendor to a destination, or computes
+     * and caches it on a miss. The estimate is computed outside the lock, so two requests that
+     * miss at the same time may both compute it.
+     *
+     * @param vendorId The id of the vendor
+     * @param destination The destination of the order
+     * @param departure The time the courier leaves the vendor
+     * @param estimate Computes the travel time on a miss
+     * @return The travel time
+     */
+    public Duration getTravelTime(long vendorId, Location destination, OffsetDateTime departure,
+                                  Supplier<Duration> estimate) {
+        Key key = new Key(vendorId, cell(destination.getLatitude()), cell(destination.getLongitude()),
+                (departure.getHour() * 60 + departure.getMinute()) / bucketMinutes);
+        synchronized (this) {
+            Duration travelTime = travelTimes.get(key);
+            if (travelTime != null) {
+                hits++;
+                return travelTime;
+            }
+            misses++;
+        }
+        Duration travelTime = estimate.get();
+        synchronized (this) {
+            travelTimes.put(key, travelTime);
+        }
+        return travelTime;
+    }
+
+    /**
+     * Removes all estimates, for example after the travel times they are based on changed.
+     */
+    public synchronized void clear() {
+        travelTimes.clear();
+    }
+
+    /**
+     * Returns the number of cached estimates.
+     *
+     * @return The number of estimates
+     */
+    public synchronized int size() {
+        return travelTimes.size();
+    }
+
+    /**
+     * Returns how often an estimate was found in the cache.
+     *
+     * @return The number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns how often an estimate had to be computed.
+     *
+     * @return The number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of lookups that were answered from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 before the first lookup
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private long cell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Vendor, destination cell and bucket of the day that share an estimate.
+     */
+    private static final class Key {
+        private final long vendorId;
+        private final long row;
+        private final long column;
+        private final int bucket;
+
+        private Key(long vendorId, long row, long column, int bucket) {
+            this.vendorId = vendorId;
+            this.row = row;
+            this.column = column;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return vendorId == key.vendorId && row == key.row && column == key.column && bucket == key.bucket;
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = vendorId;
+            hash = 31 * hash + row;
+            hash = 31 * hash + column;
+            hash = 31 * hash + bucket;
+            return Long.hashCode(hash);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+
+/**
+ * Immutable road network in compressed sparse row form. The outgoing edges of node {@code n}
+ * are the entries {@code firstEdge[n]} up to {@code firstEdge[n + 1]} of the edge arrays, so a
+ * graph of a few million edges takes a few tens of megabytes and no object per node or edge.
+ * Nodes are additionally bucketed in a grid, sorted by cell, to snap a location to the road.
+ */
+public final class RoadGraph {
+
+    /**
+     * Side of a cell of the node grid in degrees, about 1 km in latitude.
+     */
+    static final double CELL_SIZE = 0.01;
+
+    private static final int MAX_SNAP_RINGS = 1_000;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] firstEdge;
+    private final int[] edgeTargets;
+    private final float[] edgeSeconds;
+    private final double maxSpeed;
+
+    private final long[] cellKeys;
+    private final int[] firstNodeOfCell;
+    private final int[] nodesByCell;
+
+    private RoadGraph(double[] latitudes, double[] longitudes, int[] firstEdge, int[] edgeTargets, float[] edgeSeconds,
+                      double maxSpeed) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.firstEdge = firstEdge;
+        this.edgeTargets = edgeTargets;
+        this.edgeSeconds = edgeSeconds;
+        this.maxSpeed = maxSpeed;
+
+        int nodes = latitudes.length;
+        long[] keyOfNode = new long[nodes];
+        for (int node = 0; node < nodes; node++) {
+            keyOfNode[node] = key(cell(latitudes[node]), cell(longitudes[node]));
+        }
+        long[] keys = keyOfNode.clone();
+        Arrays.sort(keys);
+        int cells = 0;
+        for (int i = 0; i < nodes; i++) {
+            if (cells == 0 || keys[cells - 1] != keys[i]) {
+                keys[cells++] = keys[i];
+            }
+        }
+        cellKeys = Arrays.copyOf(keys, cells);
+
+        // Counting sort of the nodes by cell
+        firstNodeOfCell = new int[cells + 1];
+        int[] cellOfNode = new int[nodes];
+        for (int node = 0; node < nodes; node++) {
+            cellOfNode[node] = Arrays.binarySearch(cellKeys, keyOfNode[node]);
+            firstNodeOfCell[cellOfNode[node] + 1]++;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            firstNodeOfCell[cell + 1] += firstNodeOfCell[cell];
+        }
+        int[] next = Arrays.copyOf(firstNodeOfCell, cells);
+        nodesByCell = new int[nodes];
+        for (int node = 0; node < nodes; node++) {
+            nodesByCell[next[cellOfNode[node]]++] = node;
+        }
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The number of nodes
+     */
+    public int nodeCount() {
+        return latitudes.length;
+    }
+
+    /**
+     * Returns the number of directed edges.
+     *
+     * @return The number of edges
+     */
+    public int edgeCount() {
+        return edgeTargets.length;
+    }
+
+    /**
+     * Returns the highest speed on any edge, which bounds how fast the remaining distance can be covered.
+     *
+     * @return The speed in metres per second
+     */
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    double latitude(int node) {
+        return latitudes[node];
+    }
+
+    double longitude(int node) {
+        return longitudes[node];
+    }
+
+    int firstEdge(int node) {
+        return firstEdge[node];
+    }
+
+    int edgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    float edgeSeconds(int edge) {
+        return edgeSeconds[edge];
+    }
+
+    /**
+     * Finds the node closest to a location.
+     *
+     * @param latitude Latitude of the location in degrees
+     * @param longitude Longitude of the location in degrees
+     * @param maxDistance Maximum distance to the node in metres
+     * @return The index of the closest node, or -1 if no node is within the maximum distance
+     */
+    public int nearestNode(double latitude, double longitude, double maxDistance) {
+        long row = cell(latitude);
+        long column = cell(longitude);
+        Snap snap = new Snap(latitude, longitude, maxDistance);
+        for (long ring = 0; ring <= MAX_SNAP_RINGS; ring++) {
+            for (long c = column - ring; c <= column + ring; c++) {
+                offerCell(row - ring, c, snap);
+                if (ring > 0) {
+                    offerCell(row + ring, c, snap);
+                }
+            }
+            for (long r = row - ring + 1; r <= row + ring - 1; r++) {
+                offerCell(r, column - ring, snap);
+                offerCell(r, column + ring, snap);
+            }
+            // Every node outside this ring is at least `ring` cells away in latitude or longitude
+            double furthestLatitude = Math.abs(latitude) + snap.distance / DistanceEngine.METRES_PER_DEGREE / 2;
+            double outside = ring * CELL_SIZE * DistanceEngine.METRES_PER_DEGREE
+                    * DistanceEngine.cosineOfLatitude(furthestLatitude);
+            if (outside > snap.distance) {
+                break;
+            }
+        }
+        return snap.node;
+    }
+
+    private void offerCell(long row, long column, Snap snap) {
+        int index = Arrays.binarySearch(cellKeys, key(row, column));
+        if (index < 0) {
+            return;
+        }
+        for (int i = firstNodeOfCell[index]; i < firstNodeOfCell[index + 1]; i++) {
+            int node = nodesByCell[i];
+            double distance = DistanceEngine.distance(latitudes[node], longitudes[node], snap.latitude, snap.longitude,
+                    DistanceEngine.Precision.FAST);
+            if (distance <= snap.distance) {
+                snap.distance = distance;
+                snap.node = node;
+            }
+        }
+    }
+
+    private static long cell(double coordinate) {
+        return (long) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) ^ (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Closest node found so far while snapping a location.
+     */
+    private static final class Snap {
+        private final double latitude;
+        private final double longitude;
+        private double distance;
+        private int node = -1;
+
+        private Snap(double latitude, double longitude, double maxDistance) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distance = maxDistance;
+        }
+    }
+
+    /**
+     * Collects nodes and edges and packs them into a {@link RoadGraph}.
+     */
+    public static final class Builder {
+        private final Map<Long, Integer> indexOfNode = new HashMap<>();
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+        private int nodes;
+
+        private int[] edgeSources = new int[1024];
+        private int[] edgeTargets = new int[1024];
+        private float[] edgeSeconds = new float[1024];
+        private int edges;
+        private double maxSpeed;
+
+        /**
+         * Adds a node.
+         *
+         * @param id The id of the node in the source data
+         * @param latitude Latitude in degrees
+         * @param longitude Longitude in degrees
+         * @return This builder
+         */
+        public Builder addNode(long id, double latitude, double longitude) {
+            if (indexOfNode.putIfAbsent(id, nodes) != null) {
+                throw new IllegalArgumentException("Duplicate node " + id);
+            }
+            if (nodes == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, nodes * 2);
+                longitudes = Arrays.copyOf(longitudes, nodes * 2);
+            }
+            latitudes[nodes] = latitude;
+            longitudes[nodes] = longitude;
+            nodes++;
+            return this;
+        }
+
+        /**
+         * Adds a road between two nodes that were added before. A length shorter than the
+         * straight line between the nodes is raised to it, so the straight line stays a lower
+         * bound on the travel time.
+         *
+         * @param from The id of the first node
+         * @param to The id of the second node
+         * @param length Length of the road in metres
+         * @param speed Speed on the road in metres per second
+         * @param oneWay Whether the road can only be travelled from the first to the second node
+         * @return This builder
+         */
+        public Builder addRoad(long from, long to, double length, double speed, boolean oneWay) {
+            Integer source = indexOfNode.get(from);
+            Integer target = indexOfNode.get(to);
+            if (source == null || target == null) {
+                throw new IllegalArgumentException("Road " + from + " -> " + to + " references an unknown node");
+            }
+            if (!(speed > 0) || !(length >= 0)) {
+                throw new IllegalArgumentException("Road " + from + " -> " + to + " has an invalid length or speed");
+            }
+            double straight = DistanceEngine.distance(latitudes[source], longitudes[source], latitudes[target],
+                    longitudes[target], DistanceEngine.Precision.FAST);
+            float seconds = (float) (Math.max(length, straight) / speed);
+            maxSpeed = Math.max(maxSpeed, speed);
+            addEdge(source, target, seconds);
+            if (!oneWay) {
+                addEdge(target, source, seconds);
+            }
+            return this;
+        }
+
+        private void addEdge(int source, int target, float seconds) {
+            if (edges == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, edges * 2);
+                edgeTargets = Arrays.copyOf(edgeTargets, edges * 2);
+                edgeSeconds = Arrays.copyOf(edgeSeconds, edges * 2);
+            }
+            edgeSources[edges] = source;
+            edgeTargets[edges] = target;
+            edgeSeconds[edges] = seconds;
+            edges++;
+        }
+
+        /**
+         * Packs the nodes and edges into a graph.
+         *
+         * @return The graph
+         */
+        public RoadGraph build() {
+            int[] firstEdge = new int[nodes + 1];
+            for (int edge = 0; edge < edges; edge++) {
+                firstEdge[edgeSources[edge] + 1]++;
+            }
+            for (int node = 0; node < nodes; node++) {
+                firstEdge[node + 1] += firstEdge[node];
+            }
+            int[] next = Arrays.copyOf(firstEdge, nodes);
+            int[] targets = new int[edges];
+            float[] seconds = new float[edges];
+            for (int edge = 0; edge < edges; edge++) {
+                int slot = next[edgeSources[edge]]++;
+                targets[slot] = edgeTargets[edge];
+                seconds[slot] = edgeSeconds[edge];
+            }
+            return new RoadGraph(Arrays.copyOf(latitudes, nodes), Arrays.copyOf(longitudes, nodes), firstEdge,
+                    targets, seconds, maxSpeed);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads a road graph from a text file, typically exported from OpenStreetMap. Every line holds
+ * one record with fields separated by whitespace; empty lines and lines starting with '#' are
+ * skipped. All nodes have to be listed before the roads that use them.
+ * <pre>
+ * node &lt;id&gt; &lt;latitude&gt; &lt;longitude&gt;
+ * road &lt;from id&gt; &lt;to id&gt; &lt;length in metres&gt; &lt;speed in km/h&gt; [oneway]
+ * </pre>
+ */
+public final class RoadGraphLoader {
+
+    private RoadGraphLoader() {
+    }
+
+    /**
+     * Loads a graph file.
+     *
+     * @param file The file to read
+     * @param maxSpeed Highest speed of the vehicle in km/h, faster roads are travelled at this speed
+     * @return The graph
+     * @throws IOException if the file cannot be read or holds an invalid record
+     */
+    public static RoadGraph load(Path file, double maxSpeed) throws IOException {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String record = line.strip();
+                if (record.isEmpty() || record.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    read(record.split("\\s+"), builder, maxSpeed);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void read(String[] fields, RoadGraph.Builder builder, double maxSpeed) {
+        switch (fields[0]) {
+            case "node" -> {
+                requireFields(fields, 4, 4);
+                builder.addNode(Long.parseLong(fields[1]), Double.parseDouble(fields[2]), Double.parseDouble(fields[3]));
+            }
+            case "road" -> {
+                requireFields(fields, 5, 6);
+                boolean oneWay = fields.length == 6;
+                if (oneWay && !fields[5].equals("oneway")) {
+                    throw new IllegalArgumentException("Unknown road flag " + fields[5]);
+                }
+                double speed = Math.min(Double.parseDouble(fields[4]), maxSpeed) / 3.6;
+                builder.addRoad(Long.parseLong(fields[1]), Long.parseLong(fields[2]), Double.parseDouble(fields[3]),
+                        speed, oneWay);
+            }
+            default -> throw new IllegalArgumentException("Unknown record " + fields[0]);
+        }
+    }
+
+    private static void requireFields(String[] fields, int min, int max) {
+        if (fields.length < min || fields.length > max) {
+            throw new IllegalArgumentException("Expected " + min + " to " + max + " fields but got " + fields.length);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Travel times of couriers over the road network. The graph is loaded once at startup from the
+ * configured file; locations are snapped to the closest road node and connected by the fastest
+ * path. Without a graph, or when a location is far from any road or no path exists, the time
+ * is estimated from the straight-line distance instead.
+ */
+@Component
+public class RoutingEngine {
+
+    /**
+     * Ratio between the length of a typical route and the straight line, used without a route.
+     */
+    static final double DETOUR_FACTOR = 1.3;
+
+    /**
+     * Locations further than this from any road node in metres are not snapped to the road.
+     */
+    static final double MAX_SNAP_DISTANCE = 1_000;
+
+    private final String graphFile;
+    private final double courierSpeed;
+
+    private volatile RoadGraph graph;
+
+    /**
+     * Searches that are not in use. A search holds arrays the size of the graph, so they are
+     * shared between requests instead of kept per thread.
+     */
+    private volatile Queue<AStarSearch> idleSearches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates the engine, the graph is loaded after construction.
+     *
+     * @param graphFile Path of the road graph file, empty to only use straight-line estimates
+     * @param courierSpeed Highest speed of a courier in km/h
+     */
+    @Autowired
+    public RoutingEngine(@Value("${delivery.routing.graph-file:}") String graphFile,
+                         @Value("${delivery.routing.courier-speed-kmh:20}") double courierSpeed) {
+        this.graphFile = graphFile;
+        this.courierSpeed = courierSpeed / 3.6;
+    }
+
+    /**
+     * Creates an engine on a graph that is already loaded.
+     *
+     * @param graph The road graph, or null to only use straight-line estimates
+     * @param courierSpeed Highest speed of a courier in km/h
+     */
+    public RoutingEngine(RoadGraph graph, double courierSpeed) {
+        this("", courierSpeed);
+        use(graph);
+    }
+
+    /**
+     * Loads the configured graph file, if any. A file that is configured but cannot be read
+     * stops the startup, because every estimate would silently fall back otherwise.
+     */
+    @PostConstruct
+    public void load() {
+        if (graphFile == null || graphFile.isBlank()) {
+            return;
+        }
+        try {
+            use(RoadGraphLoader.load(Path.of(graphFile), courierSpeed * 3.6));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load road graph " + graphFile, e);
+        }
+    }
+
+    private void use(RoadGraph roadGraph) {
+        idleSearches = new ConcurrentLinkedQueue<>();
+        graph = roadGraph;
+    }
+
+    /**
+     * Checks whether travel times follow the road network.
+     *
+     * @return true if a road graph is loaded
+     */
+    public boolean hasRoadGraph() {
+        return graph != null;
+    }
+
+    /**
+     * Computes how long a courier needs to travel between two locations.
+     *
+     * @param from The start location
+     * @param to The end location
+     * @return The travel time
+     */
+    public Duration travelTime(Location from, Location to) {
+        RoadGraph roadGraph = graph;
+        if (roadGraph != null) {
+            int source = roadGraph.nearestNode(from.getLatitude(), from.getLongitude(), MAX_SNAP_DISTANCE);
+            int target = roadGraph.nearestNode(to.getLatitude(), to.getLongitude(), MAX_SNAP_DISTANCE);
+            if (source != -1 && target != -1) {
+                double seconds = route(roadGraph, source, target);
+                if (seconds != Double.POSITIVE_INFINITY) {
+                    // Cover the way between the locations and the road at courier speed
+                    seconds += (distanceToNode(roadGraph, from, source) + distanceToNode(roadGraph, to, target))
+                            / courierSpeed;
+                    return toDuration(seconds);
+                }
+            }
+        }
+        double distance = DistanceEngine.distance(from, to, DistanceEngine.Precision.EXACT);
+        return toDuration(distance * DETOUR_FACTOR / courierSpeed);
+    }
+
+    private double route(RoadGraph roadGraph, int source, int target) {
+        Queue<AStarSearch> idle = idleSearches;
+        AStarSearch search = idle.poll();
+        if (search == null || search.getGraph() != roadGraph) {
+            search = new AStarSearch(roadGraph);
+        }
+        try {
+            return search.travelTime(source, target);
+        } finally {
+            idle.offer(search);
+        }
+    }
+
+    private static double distanceToNode(RoadGraph roadGraph, Location location, int node) {
+        return DistanceEngine.distance(location.getLatitude(), location.getLongitude(), roadGraph.latitude(node),
+                roadGraph.longitude(node), DistanceEngine.Precision.FAST);
+    }
+
+    private static Duration toDuration(double seconds) {
+        return Duration.ofMillis(Math.round(seconds * 1000));
+    }
+}
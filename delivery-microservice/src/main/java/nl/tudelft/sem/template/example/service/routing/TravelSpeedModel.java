@@ -0,0 +1,258 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Speeds of past deliveries per vendor and hour of the day, learned online. Every completed
+ * delivery adds the straight-line distance from the vendor to the destination divided by the
+ * time between pickup and delivery to a running mean and variance, so recording a delivery
+ * takes constant time and the deliveries are never scanned again. Hours are taken in UTC, so
+ * times with different offsets for the same instant fall in the same hour. The statistics are
+ * written to a snapshot file now and then and read back at startup.
+ */
+@Component
+public class TravelSpeedModel {
+
+    static final int HOURS = 24;
+
+    private static final int SNAPSHOT_MAGIC = 0x54534d31;
+
+    private final Path snapshotFile;
+    private final int minSamples;
+
+    private final Map<Long, VendorSpeeds> speedsOfVendor = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    /**
+     * Creates an empty model.
+     *
+     * @param snapshotFile Path of the snapshot file, empty to keep the model in memory only
+     * @param minSamples Number of deliveries in an hour of a vendor before the model is used for it
+     */
+    @Autowired
+    public TravelSpeedModel(@Value("${delivery.eta-model.snapshot-file:}") String snapshotFile,
+                            @Value("${delivery.eta-model.min-samples:5}") int minSamples) {
+        this.snapshotFile = snapshotFile == null || snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * Adds a completed delivery to the statistics of its vendor. Deliveries without both
+     * locations, without pickup and delivery time, or that took no time are skipped.
+     *
+     * @param delivery The delivered delivery
+     * @return true if the delivery was added
+     */
+    public boolean record(Delivery delivery) {
+        Order order = delivery.getOrder();
+        Time time = delivery.getTime();
+        if (order == null || order.getStatus() != Order.StatusEnum.DELIVERED || order.getVendor() == null
+                || order.getVendor().getId() == null || order.getVendor().getAddress() == null
+                || order.getDestination() == null || time == null || time.getPickUpTime() == null
+                || time.getDeliveredTime() == null) {
+            return false;
+        }
+        double seconds = Duration.between(time.getPickUpTime(), time.getDeliveredTime()).toMillis() / 1000.0;
+        if (!(seconds > 0)) {
+            return false;
+        }
+        double distance = DistanceEngine.distance(order.getVendor().getAddress(), order.getDestination(),
+                DistanceEngine.Precision.EXACT);
+        speedsOfVendor.computeIfAbsent(order.getVendor().getId(), id -> new VendorSpeeds())
+                .add(hourOf(time.getPickUpTime()), distance / seconds);
+        changed = true;
+        return true;
+    }
+
+    /**
+     * Estimates the travel time of a delivery from the speed of earlier deliveries of the vendor
+     * in the same hour of the day.
+     *
+     * @param vendorId The id of the vendor
+     * @param vendorLocation The address of the vendor
+     * @param destination The destination of the order
+     * @param departure The time the courier leaves the vendor
+     * @return The travel time, or null if the vendor has too few deliveries in that hour
+     */
+    public Duration estimate(long vendorId, Location vendorLocation, Location destination, OffsetDateTime departure) {
+        VendorSpeeds speeds = speedsOfVendor.get(vendorId);
+        if (speeds == null) {
+            return null;
+        }
+        double speed = speeds.meanIfAtLeast(hourOf(departure), minSamples);
+        if (!(speed > 0)) {
+            return null;
+        }
+        double distance = DistanceEngine.distance(vendorLocation, destination, DistanceEngine.Precision.EXACT);
+        return Duration.ofMillis(Math.round(distance / speed * 1000));
+    }
+
+    /**
+     * Returns the number of deliveries of a vendor in an hour of the day.
+     *
+     * @param vendorId The id of the vendor
+     * @param hour The hour of the day in UTC
+     * @return The number of deliveries
+     */
+    public long getSamples(long vendorId, int hour) {
+        VendorSpeeds speeds = speedsOfVendor.get(vendorId);
+        return speeds == null ? 0 : (long) speeds.statistics(hour)[0];
+    }
+
+    /**
+     * Returns the mean speed of the deliveries of a vendor in an hour of the day.
+     *
+     * @param vendorId The id of the vendor
+     * @param hour The hour of the day in UTC
+     * @return The mean speed in metres per second, or NaN without deliveries
+     */
+    public double getMeanSpeed(long vendorId, int hour) {
+        VendorSpeeds speeds = speedsOfVendor.get(vendorId);
+        return speeds == null ? Double.NaN : speeds.statistics(hour)[1];
+    }
+
+    /**
+     * Returns the sample variance of the speed of the deliveries of a vendor in an hour of the day.
+     *
+     * @param vendorId The id of the vendor
+     * @param hour The hour of the day in UTC
+     * @return The variance in square metres per square second, or NaN with fewer than two deliveries
+     */
+    public double getSpeedVariance(long vendorId, int hour) {
+        VendorSpeeds speeds = speedsOfVendor.get(vendorId);
+        if (speeds == null) {
+            return Double.NaN;
+        }
+        double[] statistics = speeds.statistics(hour);
+        return statistics[0] < 2 ? Double.NaN : statistics[2] / (statistics[0] - 1);
+    }
+
+    /**
+     * Returns the hour of the day in UTC of a time.
+     */
+    private static int hourOf(OffsetDateTime time) {
+        return time.withOffsetSameInstant(ZoneOffset.UTC).getHour();
+    }
+
+    /**
+     * Reads the snapshot file, if one is configured and exists.
+     */
+    @PostConstruct
+    public void load() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a travel speed snapshot");
+            }
+            int vendors = in.readInt();
+            speedsOfVendor.clear();
+            for (int i = 0; i < vendors; i++) {
+                long vendorId = in.readLong();
+                speedsOfVendor.put(vendorId, VendorSpeeds.read(in));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read travel speed snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Writes the statistics to the snapshot file if they changed since the last snapshot. The
+     * file is replaced at once, so a crash while writing leaves the previous snapshot intact.
+     */
+    @Scheduled(fixedDelayString = "${delivery.eta-model.snapshot-interval-ms:60000}")
+    @PreDestroy
+    public void snapshot() {
+        if (snapshotFile == null || !changed) {
+            return;
+        }
+        changed = false;
+        try {
+            Path directory = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                Map<Long, VendorSpeeds> vendors = Map.copyOf(speedsOfVendor);
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(vendors.size());
+                for (Map.Entry<Long, VendorSpeeds> entry : vendors.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    entry.getValue().write(out);
+                }
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            changed = true;
+            throw new UncheckedIOException("Could not write travel speed snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Running count, mean and sum of squared deviations of the speed per hour of the day
+     * (Welford's algorithm).
+     */
+    private static final class VendorSpeeds {
+        private final long[] counts = new long[HOURS];
+        private final double[] means = new double[HOURS];
+        private final double[] squaredDeviations = new double[HOURS];
+
+        private synchronized void add(int hour, double speed) {
+            long count = ++counts[hour];
+            double delta = speed - means[hour];
+            means[hour] += delta / count;
+            squaredDeviations[hour] += delta * (speed - means[hour]);
+        }
+
+        private synchronized double meanIfAtLeast(int hour, int samples) {
+            return counts[hour] >= samples ? means[hour] : Double.NaN;
+        }
+
+        private synchronized double[] statistics(int hour) {
+            return new double[] {counts[hour], counts[hour] == 0 ? Double.NaN : means[hour], squaredDeviations[hour]};
+        }
+
+        private synchronized void write(DataOutputStream out) throws IOException {
+            for (int hour = 0; hour < HOURS; hour++) {
+                out.writeLong(counts[hour]);
+                out.writeDouble(means[hour]);
+                out.writeDouble(squaredDeviations[hour]);
+            }
+        }
+
+        private static VendorSpeeds read(DataInputStream in) throws IOException {
+            VendorSpeeds speeds = new VendorSpeeds();
+            for (int hour = 0; hour < HOURS; hour++) {
+                speeds.counts[hour] = in.readLong();
+                speeds.means[hour] = in.readDouble();
+                speeds.squaredDeviations[hour] = in.readDouble();
+            }
+            return speeds;
+        }
+    }
+}
@@ -6,6 +6,13 @@ import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
 
 public interface AssignOrderStrategy {
 
+    /**
+     * Name under which the strategy can be selected.
+     *
+     * @return The name of the strategy
+     */
+    String getName();
+
     /**
      * Assigns order to courier based on the selected strategy.
      *
@@ -0,0 +1,66 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import nl.tudelft.sem.template.example.exception.UnknownStrategyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable lookup of the assignment strategy beans by name. The strategies are stateless
+ * (or thread-safe) singletons, so one registry can serve concurrent requests without
+ * allocating a strategy per call.
+ */
+@Component
+public class AssignOrderStrategyRegistry {
+    private final Map<String, AssignOrderStrategy> strategies;
+    private final AssignOrderStrategy defaultStrategy;
+
+    /**
+     * Constructor for handling dependency injection.
+     *
+     * @param strategies All strategy beans
+     * @param defaultStrategy Name of the strategy used when the request does not choose one
+     */
+    @Autowired
+    public AssignOrderStrategyRegistry(List<AssignOrderStrategy> strategies,
+                                       @Value("${delivery.dispatch.default-strategy:random}") String defaultStrategy) {
+        Map<String, AssignOrderStrategy> byName = new HashMap<>();
+        for (AssignOrderStrategy strategy : strategies) {
+            byName.put(strategy.getName(), strategy);
+        }
+        this.strategies = Map.copyOf(byName);
+        this.defaultStrategy = byName.get(defaultStrategy);
+        if (this.defaultStrategy == null) {
+            throw new IllegalArgumentException("Unknown default assignment strategy: " + defaultStrategy);
+        }
+    }
+
+    /**
+     * Retrieves a strategy by name.
+     *
+     * @param name The name of the strategy
+     * @return The strategy
+     * @throws UnknownStrategyException if no strategy has that name
+     */
+    public AssignOrderStrategy get(String name) throws UnknownStrategyException {
+        AssignOrderStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            throw new UnknownStrategyException("Unknown assignment strategy: " + name);
+        }
+        return strategy;
+    }
+
+    /**
+     * Retrieves a strategy by name, or the default strategy if no name is given.
+     *
+     * @param name The name of the strategy, may be null
+     * @return The strategy
+     * @throws UnknownStrategyException if no strategy has that name
+     */
+    public AssignOrderStrategy getOrDefault(String name) throws UnknownStrategyException {
+        return name == null ? defaultStrategy : get(name);
+    }
+}
@@ -0,0 +1,269 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.BatchAssignmentSolver;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Strategy that does not hand out an order right away, but puts the courier in a waiting pool.
+ * Every few seconds all waiting couriers are matched with all available orders at once, so
+ * that the total distance couriers travel to their pickups is as low as possible. A courier
+ * leaves the pool when it gets an order, when it got an order some other way in the meantime,
+ * or when it waited too long without getting one, so the pool only holds couriers that are
+ * still asking.
+ */
+@Service
+public class BatchDispatchStrategy implements AssignOrderStrategy {
+    public static final String NAME = "batch";
+
+    /**
+     * Cost in metres of a pair whose courier position or pickup is not known. It is farther than
+     * any two points on earth, so such pairs are only made when no pair with a known distance is left.
+     */
+    static final double UNKNOWN_DISTANCE = 1e9;
+
+    private final DeliveryRepository deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex;
+    private final CourierLocationRegistry courierLocationRegistry;
+    private final CourierLoadRegistry courierLoadRegistry;
+    private final long maxWait;
+    private final LongSupplier clock;
+
+    private final Map<Long, WaitingCourier> waitingCouriers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for handling dependency injection.
+     *
+     * @param deliveryRepository JPA repository holding the deliveries
+     * @param availableOrderIndex In-memory index of the orders that can still be picked up
+     * @param courierVendorIndex In-memory lookup of the vendor each courier belongs to
+     * @param courierLocationRegistry Last known positions of the couriers
+     * @param courierLoadRegistry Number of undelivered orders of every courier
+     * @param maxWait Time in milliseconds a courier stays in the pool without getting an order
+     */
+    @Autowired
+    public BatchDispatchStrategy(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                                 CourierVendorIndex courierVendorIndex, CourierLocationRegistry courierLocationRegistry,
+                                 CourierLoadRegistry courierLoadRegistry,
+                                 @Value("${delivery.dispatch.batch-max-wait-ms:60000}") long maxWait) {
+        this(deliveryRepository, availableOrderIndex, courierVendorIndex, courierLocationRegistry, courierLoadRegistry,
+                maxWait, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the strategy with a clock that gives the current time in milliseconds.
+     */
+    BatchDispatchStrategy(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                          CourierVendorIndex courierVendorIndex, CourierLocationRegistry courierLocationRegistry,
+                          CourierLoadRegistry courierLoadRegistry, long maxWait, LongSupplier clock) {
+        if (maxWait <= 0) {
+            throw new IllegalArgumentException("Maximum wait must be positive");
+        }
+        this.deliveryRepository = deliveryRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierVendorIndex = courierVendorIndex;
+        this.courierLocationRegistry = courierLocationRegistry;
+        this.courierLoadRegistry = courierLoadRegistry;
+        this.maxWait = maxWait;
+        this.clock = clock;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Adds the courier to the pool of couriers waiting for the next dispatch round. A courier
+     * that asks again while waiting starts waiting anew.
+     *
+     * @param courierId ID of courier
+     * @param orderId Ignored, the dispatcher picks the order
+     * @param availableOrders Ignored, the dispatcher looks at all available orders
+     */
+    @Override
+    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) {
+        waitingCouriers.put(courierId, new WaitingCourier(clock.getAsLong(), courierLoadRegistry.getLoad(courierId)));
+    }
+
+    /**
+     * Checks whether a courier is still waiting for an order.
+     *
+     * @param courierId ID of courier
+     * @return true if the courier is in the waiting pool
+     */
+    public boolean isWaiting(Long courierId) {
+        return waitingCouriers.containsKey(courierId);
+    }
+
+    /**
+     * Matches all waiting couriers with the available orders and stores the assignments in one
+     * transaction. Couriers of a vendor fleet only get orders of their vendor, other couriers only
+     * get orders of vendors without a fleet, so every group is solved on its own. Couriers that
+     * waited too long or got an order some other way are dropped from the pool first.
+     */
+    @Scheduled(fixedDelayString = "${delivery.dispatch.batch-interval-ms:3000}")
+    @Transactional
+    public void dispatch() {
+        dropStaleCouriers();
+        if (waitingCouriers.isEmpty() || availableOrderIndex.size() == 0) {
+            return;
+        }
+        Map<Long, List<Long>> couriersByVendor = new HashMap<>();
+        List<Long> freeCouriers = new ArrayList<>();
+        for (Long courierId : waitingCouriers.keySet()) {
+            Long vendorId = courierVendorIndex.getVendorOfCourier(courierId);
+            if (vendorId == null) {
+                freeCouriers.add(courierId);
+            } else {
+                couriersByVendor.computeIfAbsent(vendorId, id -> new ArrayList<>()).add(courierId);
+            }
+        }
+
+        Map<Long, List<Long>> ordersByVendor = availableOrderIndex.getOrdersByVendor();
+        Map<Long, Long> courierOfOrder = new HashMap<>();
+        couriersByVendor.forEach((vendorId, couriers) -> {
+            List<Long> orders = ordersByVendor.getOrDefault(vendorId, List.of());
+            List<Location> pickups = new ArrayList<>();
+            orders.forEach(orderId -> pickups.add(availableOrderIndex.getVendorLocation(vendorId)));
+            match(couriers, orders, pickups, courierOfOrder);
+        });
+
+        Set<Long> fleetVendors = courierVendorIndex.getVendorsWithOwnCouriers();
+        List<Long> freeOrders = new ArrayList<>();
+        List<Location> freePickups = new ArrayList<>();
+        ordersByVendor.forEach((vendorId, orders) -> {
+            if (!fleetVendors.contains(vendorId)) {
+                Location pickup = availableOrderIndex.getVendorLocation(vendorId);
+                for (Long orderId : orders) {
+                    freeOrders.add(orderId);
+                    freePickups.add(pickup);
+                }
+            }
+        });
+        match(freeCouriers, freeOrders, freePickups, courierOfOrder);
+
+        persist(courierOfOrder);
+    }
+
+    /**
+     * Removes the couriers that waited longer than the maximum wait, and the couriers whose load
+     * grew since they joined the pool because they were assigned an order some other way.
+     */
+    private void dropStaleCouriers() {
+        long now = clock.getAsLong();
+        waitingCouriers.entrySet().removeIf(entry -> now - entry.getValue().since >= maxWait
+                || courierLoadRegistry.getLoad(entry.getKey()) > entry.getValue().load);
+    }
+
+    /**
+     * Solves the assignment of one group of couriers and orders. Groups that are too large for a
+     * single round only match the first couriers, the others are served in the next round.
+     *
+     * @param couriers The waiting couriers of the group
+     * @param orders The available orders of the group
+     * @param pickups The pickup location of every order
+     * @param courierOfOrder Collects the courier chosen for every order
+     */
+    private void match(List<Long> couriers, List<Long> orders, List<Location> pickups, Map<Long, Long> courierOfOrder) {
+        if (couriers.isEmpty() || orders.isEmpty()) {
+            return;
+        }
+        int orderCount = Math.min(orders.size(), BatchAssignmentSolver.MAX_PAIRS);
+        int courierCount = Math.min(couriers.size(), BatchAssignmentSolver.MAX_PAIRS / orderCount);
+        double[] pickupLatitudes = new double[orderCount];
+        double[] pickupLongitudes = new double[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            Location pickup = pickups.get(i);
+            pickupLatitudes[i] = pickup == null ? Double.NaN : pickup.getLatitude();
+            pickupLongitudes[i] = pickup == null ? Double.NaN : pickup.getLongitude();
+        }
+
+        // Only the ranking of the pickups matters here, so the fast approximation is good enough
+        double[] costs = new double[courierCount * orderCount];
+        double[] row = new double[orderCount];
+        for (int i = 0; i < courierCount; i++) {
+            Location position = courierLocationRegistry.getLocation(couriers.get(i));
+            if (position == null) {
+                Arrays.fill(row, Double.NaN);
+            } else {
+                DistanceEngine.distances(position.getLatitude(), position.getLongitude(), pickupLatitudes,
+                        pickupLongitudes, row, DistanceEngine.Precision.FAST);
+            }
+            System.arraycopy(row, 0, costs, i * orderCount, orderCount);
+        }
+
+        int[] orderOfCourier = BatchAssignmentSolver.solve(courierCount, orderCount, (courier, order) -> {
+            double cost = costs[courier * orderCount + order];
+            return Double.isNaN(cost) ? UNKNOWN_DISTANCE : cost;
+        });
+        for (int i = 0; i < courierCount; i++) {
+            if (orderOfCourier[i] != -1) {
+                courierOfOrder.put(orders.get(orderOfCourier[i]), couriers.get(i));
+            }
+        }
+    }
+
+    /**
+     * Claims the matched orders and writes all assignments at once. Orders that another courier
+     * claimed in the meantime are skipped, their courier stays in the pool for the next round.
+     * If the transaction of the round rolls back, the claims are released again.
+     *
+     * @param courierOfOrder The courier chosen for every order
+     */
+    private void persist(Map<Long, Long> courierOfOrder) {
+        List<Long> claimed = new ArrayList<>();
+        for (Long orderId : courierOfOrder.keySet()) {
+            if (availableOrderIndex.tryClaim(orderId)) {
+                claimed.add(orderId);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<Delivery> deliveries = deliveryRepository.findByOrder_OrderIdIn(claimed);
+        List<Delivery> assigned = new ArrayList<>();
+        for (Delivery delivery : deliveries) {
+            if (delivery.getCourierId() == null) {
+                delivery.setCourierId(courierOfOrder.get(delivery.getOrder().getOrderId()));
+                assigned.add(delivery);
+            }
+        }
+        ClaimedOrders.saveAll(deliveryRepository, availableOrderIndex, courierLoadRegistry, assigned);
+        assigned.forEach(delivery -> waitingCouriers.remove(delivery.getCourierId()));
+    }
+
+    /**
+     * A courier in the pool, with the time it joined and its load at that time.
+     */
+    private static final class WaitingCourier {
+        private final long since;
+        private final int load;
+
+        private WaitingCourier(long since, int load) {
+            this.since = since;
+            this.load = load;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.dispatch.RoutePlanner;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Strategy that gives the courier a bundle of orders of one vendor whose destinations are close
+ * to each other, so the courier serves them in a single trip. The orders are visited in the
+ * order stored in {@link CourierRoutes}.
+ */
+@Service
+public class BundleOrderStrategy implements AssignOrderStrategy {
+    public static final String NAME = "bundle";
+
+    private final DeliveryRepository deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex;
+    private final CourierRoutes courierRoutes;
+    private final CourierLoadRegistry courierLoadRegistry;
+    private final int maxBundleSize;
+    private final double bundleRadius;
+
+    /**
+     * Constructor for handling dependency injection.
+     *
+     * @param deliveryRepository JPA repository holding the deliveries
+     * @param availableOrderIndex In-memory index of the orders that can still be picked up
+     * @param courierVendorIndex In-memory lookup of the vendor each courier belongs to
+     * @param courierRoutes Visiting order of the bundles of the couriers
+     * @param courierLoadRegistry Number of undelivered orders of every courier
+     * @param maxBundleSize Maximum number of orders in one bundle
+     * @param bundleRadius Maximum distance in metres between the destination of the first order and the others
+     */
+    @Autowired
+    public BundleOrderStrategy(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                               CourierVendorIndex courierVendorIndex, CourierRoutes courierRoutes,
+                               CourierLoadRegistry courierLoadRegistry,
+                               @Value("${delivery.dispatch.bundle-size:3}") int maxBundleSize,
+                               @Value("${delivery.dispatch.bundle-radius:2000}") double bundleRadius) {
+        this.deliveryRepository = deliveryRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierVendorIndex = courierVendorIndex;
+        this.courierRoutes = courierRoutes;
+        this.courierLoadRegistry = courierLoadRegistry;
+        this.maxBundleSize = maxBundleSize;
+        this.bundleRadius = bundleRadius;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Assigns a bundle of orders of one vendor to the courier and saves all of them at once.
+     * Couriers of a fleet bundle orders of their own vendor, other couriers bundle orders of
+     * the vendor of the first order in their list of available orders. If the transaction rolls
+     * back, the orders of the bundle become available again.
+     *
+     * @param courierId ID of courier
+     * @param orderId Ignored, the strategy picks the orders
+     * @param availableOrders List of available orders for the courier
+     * @throws NoAvailableOrdersException No available orders for courier with id `courierId`
+     */
+    @Override
+    @Transactional
+    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) throws NoAvailableOrdersException {
+        Long vendorId = courierVendorIndex.getVendorOfCourier(courierId);
+        for (int i = 0; vendorId == null && i < availableOrders.size(); i++) {
+            vendorId = availableOrderIndex.getVendorOfOrder(availableOrders.get(i));
+        }
+        if (vendorId == null) {
+            throw new NoAvailableOrdersException("No orders available for courier with id: " + courierId);
+        }
+
+        List<Long> orderIds = availableOrderIndex.getOrdersOfVendor(vendorId);
+        Map<Long, Delivery> deliveryOfOrder = new HashMap<>();
+        for (Delivery delivery : deliveryRepository.findByOrder_OrderIdIn(orderIds)) {
+            if (delivery.getCourierId() == null) {
+                deliveryOfOrder.put(delivery.getOrder().getOrderId(), delivery);
+            }
+        }
+        // Keep the dispatch order of the index: the order that is ready first seeds the bundle
+        List<Delivery> candidates = new ArrayList<>();
+        for (Long id : orderIds) {
+            Delivery delivery = deliveryOfOrder.get(id);
+            if (delivery != null) {
+                candidates.add(delivery);
+            }
+        }
+
+        List<Delivery> bundle = claimBundle(candidates);
+        if (bundle.isEmpty()) {
+            throw new NoAvailableOrdersException("No orders available for courier with id: " + courierId);
+        }
+        bundle.forEach(delivery -> delivery.setCourierId(courierId));
+        ClaimedOrders.saveAll(deliveryRepository, availableOrderIndex, courierLoadRegistry, bundle);
+        List<Long> route = visitingOrder(bundle);
+        courierRoutes.setRoute(courierId, route);
+        ClaimedOrders.onRollback(() -> route.forEach(id -> courierRoutes.removeOrder(courierId, id)));
+    }
+
+    /**
+     * Claims the order that is ready first and the orders with the closest destinations to it.
+     *
+     * @param candidates The unassigned deliveries of the vendor, the ones that are ready first come first
+     * @return The deliveries that were claimed
+     */
+    private List<Delivery> claimBundle(List<Delivery> candidates) {
+        List<Delivery> bundle = new ArrayList<>();
+        int seed = 0;
+        while (seed < candidates.size() && !availableOrderIndex.tryClaim(candidates.get(seed).getOrder().getOrderId())) {
+            seed++;
+        }
+        if (seed == candidates.size()) {
+            return bundle;
+        }
+        Delivery first = candidates.get(seed);
+        bundle.add(first);
+
+        Location center = first.getOrder().getDestination();
+        if (center == null) {
+            return bundle;
+        }
+        List<Delivery> nearby = new ArrayList<>();
+        for (Delivery candidate : candidates.subList(seed + 1, candidates.size())) {
+            Location destination = candidate.getOrder().getDestination();
+            if (destination != null && distance(center, destination) <= bundleRadius) {
+                nearby.add(candidate);
+            }
+        }
+        nearby.sort(Comparator.comparingDouble(delivery -> distance(center, delivery.getOrder().getDestination())));
+        for (Delivery candidate : nearby) {
+            if (bundle.size() >= maxBundleSize) {
+                break;
+            }
+            if (availableOrderIndex.tryClaim(candidate.getOrder().getOrderId())) {
+                bundle.add(candidate);
+            }
+        }
+        return bundle;
+    }
+
+    /**
+     * Computes the order in which the courier drops off the orders of a bundle.
+     *
+     * @param bundle The deliveries of the bundle
+     * @return The order ids in visiting order
+     */
+    private List<Long> visitingOrder(List<Delivery> bundle) {
+        if (bundle.size() == 1) {
+            return List.of(bundle.get(0).getOrder().getOrderId());
+        }
+        List<Location> destinations = new ArrayList<>();
+        bundle.forEach(delivery -> destinations.add(delivery.getOrder().getDestination()));
+        Location pickup = bundle.get(0).getOrder().getVendor().getAddress();
+        Location start = pickup == null ? destinations.get(0) : pickup;
+        int[] route = RoutePlanner.plan(start, destinations, BundleOrderStrategy::distance);
+        List<Long> orderIds = new ArrayList<>();
+        for (int stop : route) {
+            orderIds.add(bundle.get(stop).getOrder().getOrderId());
+        }
+        return orderIds;
+    }
+
+    /**
+     * Bundles only hold destinations a few kilometres apart, so the fast approximation is exact enough.
+     */
+    private static double distance(Location from, Location to) {
+        return DistanceEngine.distance(from, to, DistanceEngine.Precision.FAST);
+    }
+}
@@ -0,0 +1,111 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.model.Delivery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Shared helper of the strategies for storing an order that was claimed in the {@link AvailableOrderIndex}.
+ */
+final class ClaimedOrders {
+
+    private ClaimedOrders() {
+    }
+
+    /**
+     * Saves the courier of a claimed delivery and counts the order in the load of the courier.
+     *
+     * @param deliveryRepository The repository holding the deliveries
+     * @param availableOrderIndex The index in which the order was claimed
+     * @param courierLoadRegistry The number of undelivered orders of every courier
+     * @param delivery The delivery of the claimed order
+     * @param courierId The id of the courier that claimed the order
+     */
+    static void persist(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                        CourierLoadRegistry courierLoadRegistry, Delivery delivery, Long courierId) {
+        save(deliveryRepository, availableOrderIndex, delivery, courierId);
+        courierLoadRegistry.increment(courierId);
+    }
+
+    /**
+     * Saves the courier of a claimed delivery. If saving fails the claim is released,
+     * so the order does not silently disappear from the available orders.
+     *
+     * @param deliveryRepository The repository holding the deliveries
+     * @param availableOrderIndex The index in which the order was claimed
+     * @param delivery The delivery of the claimed order
+     * @param courierId The id of the courier that claimed the order
+     */
+    static void save(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                     Delivery delivery, Long courierId) {
+        delivery.setCourierId(courierId);
+        try {
+            deliveryRepository.save(delivery);
+        } catch (RuntimeException e) {
+            delivery.setCourierId(null);
+            availableOrderIndex.release(delivery);
+            throw e;
+        }
+    }
+
+    /**
+     * Saves the couriers of several claimed deliveries at once and counts the orders in the loads
+     * of their couriers. Inside a transaction, a failed flush or commit only shows after the
+     * caller returned, so the claims and loads are then undone when the transaction rolls back.
+     * Without a transaction they are undone right away if saving fails.
+     *
+     * @param deliveryRepository The repository holding the deliveries
+     * @param availableOrderIndex The index in which the orders were claimed
+     * @param courierLoadRegistry The number of undelivered orders of every courier
+     * @param deliveries The deliveries of the claimed orders, with their couriers set
+     */
+    static void saveAll(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                        CourierLoadRegistry courierLoadRegistry, List<Delivery> deliveries) {
+        try {
+            deliveryRepository.saveAll(deliveries);
+        } catch (RuntimeException e) {
+            deliveries.forEach(delivery -> release(availableOrderIndex, delivery));
+            throw e;
+        }
+        List<Delivery> saved = new ArrayList<>(deliveries);
+        List<Long> couriers = new ArrayList<>();
+        for (Delivery delivery : saved) {
+            couriers.add(delivery.getCourierId());
+            courierLoadRegistry.increment(delivery.getCourierId());
+        }
+        onRollback(() -> {
+            couriers.forEach(courierLoadRegistry::decrement);
+            saved.forEach(delivery -> release(availableOrderIndex, delivery));
+        });
+    }
+
+    /**
+     * Runs an action once the current transaction has rolled back. Does nothing outside a transaction.
+     *
+     * @param action The action undoing in-memory changes made during the transaction
+     */
+    static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static void release(AvailableOrderIndex availableOrderIndex, Delivery delivery) {
+        delivery.setCourierId(null);
+        availableOrderIndex.release(delivery);
+    }
+}
@@ -0,0 +1,163 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.model.Delivery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Strategy for vendors with their own couriers that spreads the orders over the fleet. No courier
+ * carries more than a configured number of undelivered orders. When pushing is enabled, new orders
+ * of a vendor are handed to the courier of its fleet with the fewest undelivered orders as soon as
+ * they become available, instead of waiting for a courier to ask for one.
+ */
+@Service
+public class LeastLoadedFleetStrategy implements AssignOrderStrategy {
+    public static final String NAME = "least-loaded";
+
+    private final DeliveryRepository deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex;
+    private final CourierLoadRegistry courierLoadRegistry;
+    private final int maxOrdersPerCourier;
+    private final boolean pushToFleet;
+
+    /**
+     * Constructor for handling dependency injection.
+     *
+     * @param deliveryRepository JPA repository holding the deliveries
+     * @param availableOrderIndex In-memory index of the orders that can still be picked up
+     * @param courierVendorIndex In-memory lookup of the couriers of every vendor
+     * @param courierLoadRegistry Number of undelivered orders of every courier
+     * @param maxOrdersPerCourier Maximum number of undelivered orders of one courier
+     * @param pushToFleet Whether new orders are pushed to the fleet of their vendor
+     */
+    @Autowired
+    public LeastLoadedFleetStrategy(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                                    CourierVendorIndex courierVendorIndex, CourierLoadRegistry courierLoadRegistry,
+                                    @Value("${delivery.dispatch.max-orders-per-courier:3}") int maxOrdersPerCourier,
+                                    @Value("${delivery.dispatch.push-to-fleet:false}") boolean pushToFleet) {
+        this.deliveryRepository = deliveryRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierVendorIndex = courierVendorIndex;
+        this.courierLoadRegistry = courierLoadRegistry;
+        this.maxOrdersPerCourier = maxOrdersPerCourier;
+        this.pushToFleet = pushToFleet;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Assigns the next order of the vendor of the courier, as long as the courier does not
+     * carry the maximum number of orders yet.
+     *
+     * @param courierId ID of courier
+     * @param orderId Ignored, the strategy picks the order
+     * @param availableOrders Ignored, only orders of the vendor of the courier are considered
+     * @throws NoAvailableOrdersException The courier is not part of a fleet, is full or there are no orders
+     */
+    @Override
+    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) throws NoAvailableOrdersException {
+        Long vendorId = courierVendorIndex.getVendorOfCourier(courierId);
+        if (vendorId == null) {
+            throw new NoAvailableOrdersException("Courier with id " + courierId + " does not belong to a vendor.");
+        }
+        if (!courierLoadRegistry.tryIncrement(courierId, maxOrdersPerCourier)) {
+            throw new NoAvailableOrdersException("Courier with id " + courierId
+                    + " already carries " + maxOrdersPerCourier + " orders.");
+        }
+        if (!assignReserved(courierId, availableOrderIndex.getOrdersOfVendor(vendorId).iterator())) {
+            throw new NoAvailableOrdersException("No orders available for courier with id: " + courierId);
+        }
+    }
+
+    /**
+     * Pushes the available orders of a vendor to the couriers of its fleet, every order to the
+     * courier with the fewest undelivered orders. Stops when all couriers are full.
+     * Does nothing unless pushing is enabled.
+     *
+     * @param vendorId The id of the vendor
+     * @return The number of orders that were assigned
+     */
+    public int dispatch(Long vendorId) {
+        if (!pushToFleet) {
+            return 0;
+        }
+        Set<Long> couriers = courierVendorIndex.getCouriersOfVendor(vendorId);
+        Iterator<Long> orders = availableOrderIndex.getOrdersOfVendor(vendorId).iterator();
+        int assigned = 0;
+        while (orders.hasNext()) {
+            Long courierId = reserveLeastLoaded(couriers);
+            if (courierId == null || !assignReserved(courierId, orders)) {
+                break;
+            }
+            assigned++;
+        }
+        return assigned;
+    }
+
+    /**
+     * Reserves a slot with the courier that carries the fewest orders.
+     *
+     * @param couriers The couriers to choose from
+     * @return The id of the courier whose load was increased, or null if every courier is full
+     */
+    private Long reserveLeastLoaded(Set<Long> couriers) {
+        while (true) {
+            Long leastLoaded = null;
+            int lowestLoad = maxOrdersPerCourier;
+            for (Long courierId : couriers) {
+                int load = courierLoadRegistry.getLoad(courierId);
+                if (load < lowestLoad) {
+                    leastLoaded = courierId;
+                    lowestLoad = load;
+                }
+            }
+            // Another dispatch may fill the courier in the meantime, the next pass then picks another one
+            if (leastLoaded == null || courierLoadRegistry.tryIncrement(leastLoaded, maxOrdersPerCourier)) {
+                return leastLoaded;
+            }
+        }
+    }
+
+    /**
+     * Assigns the first candidate that can still be claimed to a courier that already has a slot
+     * reserved in its load. The slot is given back if no candidate could be assigned.
+     *
+     * @param courierId ID of courier
+     * @param candidates The orders to try, consumed up to and including the assigned one
+     * @return true if an order was assigned
+     */
+    private boolean assignReserved(Long courierId, Iterator<Long> candidates) {
+        try {
+            while (candidates.hasNext()) {
+                Long candidate = candidates.next();
+                if (!availableOrderIndex.tryClaim(candidate)) {
+                    continue;
+                }
+                Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(candidate);
+                if (delivery == null || delivery.getCourierId() != null) {
+                    continue;
+                }
+                ClaimedOrders.save(deliveryRepository, availableOrderIndex, delivery, courierId);
+                return true;
+            }
+        } catch (RuntimeException e) {
+            courierLoadRegistry.decrement(courierId);
+            throw e;
+        }
+        courierLoadRegistry.decrement(courierId);
+        return false;
+    }
+}
@@ -0,0 +1,111 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Strategy that gives the courier an order of the vendor whose pickup point is closest to the
+ * courier. The closest vendor is looked up in the spatial index of the {@link AvailableOrderIndex},
+ * so the distance to every available order does not have to be computed.
+ */
+@Service
+public class NearestOrderStrategy implements AssignOrderStrategy {
+    public static final String NAME = "nearest";
+
+    private final DeliveryRepository deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex;
+    private final CourierLoadRegistry courierLoadRegistry;
+    private final CourierVendorIndex courierVendorIndex;
+    private final CourierLocationRegistry courierLocationRegistry;
+
+    /**
+     * Constructor for handling dependency injection.
+     *
+     * @param deliveryRepository JPA repository holding the deliveries
+     * @param availableOrderIndex In-memory index of the orders that can still be picked up
+     * @param courierVendorIndex In-memory lookup of the vendor each courier belongs to
+     * @param courierLocationRegistry Last known positions of the couriers
+     * @param courierLoadRegistry Number of undelivered orders of every courier
+     */
+    @Autowired
+    public NearestOrderStrategy(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                                CourierVendorIndex courierVendorIndex, CourierLocationRegistry courierLocationRegistry,
+                                CourierLoadRegistry courierLoadRegistry) {
+        this.deliveryRepository = deliveryRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierLoadRegistry = courierLoadRegistry;
+        this.courierVendorIndex = courierVendorIndex;
+        this.courierLocationRegistry = courierLocationRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Assigns the order with the closest pickup point to the courier and saves it in the repository.
+     * When the position of the courier is unknown the first available order is taken.
+     *
+     * @param courierId ID of courier
+     * @param orderId Ignored, the strategy picks the order
+     * @param availableOrders List of available orders for the courier
+     * @throws NoAvailableOrdersException No available orders for courier with id `courierId`
+     */
+    @Override
+    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) throws NoAvailableOrdersException {
+        Location position = courierLocationRegistry.getLocation(courierId);
+        if (position == null) {
+            for (Long candidate : availableOrders) {
+                if (claim(courierId, candidate)) {
+                    return;
+                }
+            }
+            throw new NoAvailableOrdersException("No orders available for courier with id: " + courierId);
+        }
+
+        Long ownVendor = courierVendorIndex.getVendorOfCourier(courierId);
+        Set<Long> fleetVendors = courierVendorIndex.getVendorsWithOwnCouriers();
+        Predicate<Long> eligible = ownVendor != null ? ownVendor::equals : vendorId -> !fleetVendors.contains(vendorId);
+        Long vendorId;
+        while ((vendorId = availableOrderIndex.findNearestVendor(position, eligible)) != null) {
+            // Other couriers may empty the bucket in the meantime, the next lookup then moves on
+            for (Long candidate : availableOrderIndex.getOrdersOfVendor(vendorId)) {
+                if (claim(courierId, candidate)) {
+                    return;
+                }
+            }
+        }
+        throw new NoAvailableOrdersException("No orders available for courier with id: " + courierId);
+    }
+
+    /**
+     * Claims an order for the courier and stores the assignment.
+     *
+     * @param courierId ID of courier
+     * @param orderId ID of the order to claim
+     * @return true if the order was assigned to the courier
+     */
+    private boolean claim(Long courierId, Long orderId) {
+        if (!availableOrderIndex.tryClaim(orderId)) {
+            return false;
+        }
+        Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
+        if (delivery == null || delivery.getCourierId() != null) {
+            return false;
+        }
+        ClaimedOrders.persist(deliveryRepository, availableOrderIndex, courierLoadRegistry, delivery, courierId);
+        return true;
+    }
+}
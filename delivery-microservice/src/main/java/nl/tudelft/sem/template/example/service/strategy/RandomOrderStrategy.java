@@ -2,10 +2,10 @@ package nl.tudelft.sem.template.example.service.strategy;
 
 
 import java.util.List;
-import java.util.Optional;
-import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
 import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
 import nl.tudelft.sem.template.model.Delivery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,41 +13,49 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class RandomOrderStrategy implements AssignOrderStrategy {
+    public static final String NAME = "random";
 
     private final DeliveryRepository deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex;
+    private final CourierLoadRegistry courierLoadRegistry;
 
     @Autowired
-    public RandomOrderStrategy(DeliveryRepository deliveryRepository) {
+    public RandomOrderStrategy(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                                   CourierLoadRegistry courierLoadRegistry) {
         this.deliveryRepository = deliveryRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierLoadRegistry = courierLoadRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
     }
 
     /**
-     * Assigns a random order to the courier and saves it in the repository.
+     * Assigns the first order from the list that can still be claimed to the courier and
+     * saves it in the repository. Orders that were taken by another courier in the meantime
+     * are skipped, so concurrent couriers never end up with the same order.
      *
      * @param courierId ID of courier
      * @param orderId ID of order
      * @param availableOrders List of available orders for the courier
-     * @throws DeliveryNotFoundException No delivery with id `orderId`
      * @throws NoAvailableOrdersException No available orders for courier with id `courierId`
      */
     @Override
-    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) throws DeliveryNotFoundException,
-            NoAvailableOrdersException {
-        if (availableOrders.isEmpty()) {
-            throw new NoAvailableOrdersException("No orders available for courier with id: " + courierId);
+    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) throws NoAvailableOrdersException {
+        for (Long candidate : availableOrders) {
+            if (!availableOrderIndex.tryClaim(candidate)) {
+                continue;
+            }
+            Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(candidate);
+            if (delivery == null || delivery.getCourierId() != null) {
+                continue;
+            }
+            ClaimedOrders.persist(deliveryRepository, availableOrderIndex, courierLoadRegistry, delivery, courierId);
+            return;
         }
-
-        orderId = availableOrders.get(0);
-        Delivery deliveryToUpdate = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
-        Optional<Delivery> deliveryOptional = deliveryRepository.findById(deliveryToUpdate.getId());
-
-        if (deliveryOptional.isEmpty()) {
-            throw new DeliveryNotFoundException("Delivery id not found");
-        }
-
-        Delivery delivery = deliveryOptional.get();
-        delivery.setCourierId(courierId);
-        deliveryRepository.save(delivery);
+        throw new NoAvailableOrdersException("No orders available for courier with id: " + courierId);
     }
 
 }
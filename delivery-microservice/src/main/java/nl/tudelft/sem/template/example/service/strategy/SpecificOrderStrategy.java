@@ -2,18 +2,33 @@ package nl.tudelft.sem.template.example.service.strategy;
 
 import java.util.List;
 import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
 import nl.tudelft.sem.template.model.Delivery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SpecificOrderStrategy implements AssignOrderStrategy {
+    public static final String NAME = "specific";
+
     private final DeliveryRepository deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex;
+    private final CourierLoadRegistry courierLoadRegistry;
 
     @Autowired
-    public SpecificOrderStrategy(DeliveryRepository deliveryRepository) {
+    public SpecificOrderStrategy(DeliveryRepository deliveryRepository, AvailableOrderIndex availableOrderIndex,
+                                     CourierLoadRegistry courierLoadRegistry) {
         this.deliveryRepository = deliveryRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierLoadRegistry = courierLoadRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
     }
 
     /**
@@ -21,18 +36,23 @@ public class SpecificOrderStrategy implements AssignOrderStrategy {
      *
      * @param courierId ID of courier
      * @param orderId ID of order
-     * @param availableOrders List of available orders for the courier
+     * @param availableOrders Ignored, only the requested order is considered
      * @throws DeliveryNotFoundException No delivery with id `orderId`
+     * @throws NoAvailableOrdersException The order was already claimed by another courier
      */
     @Override
-    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) throws DeliveryNotFoundException {
+    public void assignOrder(Long courierId, Long orderId, List<Long> availableOrders) throws DeliveryNotFoundException,
+            NoAvailableOrdersException {
         Delivery delivery = deliveryRepository.findDeliveryByOrder_OrderId(orderId);
 
         if (delivery == null) {
             throw new DeliveryNotFoundException("Delivery with order id " + orderId + " was not found.");
         }
 
-        delivery.setCourierId(courierId);
-        deliveryRepository.save(delivery);
+        if (delivery.getCourierId() != null || !availableOrderIndex.tryClaim(orderId)) {
+            throw new NoAvailableOrdersException("Order with id " + orderId + " is no longer available.");
+        }
+
+        ClaimedOrders.persist(deliveryRepository, availableOrderIndex, courierLoadRegistry, delivery, courierId);
     }
 }
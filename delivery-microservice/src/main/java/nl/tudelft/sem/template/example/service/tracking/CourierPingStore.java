@@ -0,0 +1,223 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recent GPS pings of every courier, kept in memory only. Each courier has a ring buffer of
+ * primitive arrays that is allocated once, so storing a ping creates no objects; once the
+ * buffer is full the oldest ping is overwritten. The track of a courier that stopped sending
+ * pings is dropped by a periodic sweep, so couriers that leave do not keep their buffers.
+ */
+@Component
+public class CourierPingStore {
+
+    /**
+     * Pings at most this long before the latest one are used to compute the heading and speed.
+     */
+    static final long VELOCITY_WINDOW_MS = 30_000;
+
+    private final CourierLocationRegistry courierLocationRegistry;
+    private final int capacity;
+    private final long staleAfter;
+    private final long maxExtrapolation;
+    private final long timeToLive;
+    private final LongSupplier clock;
+
+    private final Map<Long, Track> trackOfCourier = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty store.
+     *
+     * @param courierLocationRegistry The registry that gets the latest position of every courier
+     * @param capacity Number of pings kept per courier
+     * @param staleAfter Age in milliseconds after which the latest ping is extrapolated
+     * @param maxExtrapolation Maximum time in milliseconds a ping is extrapolated over
+     * @param timeToLive Age in milliseconds of the latest ping after which the track of a courier is dropped
+     */
+    @Autowired
+    public CourierPingStore(CourierLocationRegistry courierLocationRegistry,
+                            @Value("${delivery.tracking.pings-per-courier:32}") int capacity,
+                            @Value("${delivery.tracking.stale-after-ms:15000}") long staleAfter,
+                            @Value("${delivery.tracking.max-extrapolation-ms:60000}") long maxExtrapolation,
+                            @Value("${delivery.tracking.track-ttl-ms:3600000}") long timeToLive) {
+        this(courierLocationRegistry, capacity, staleAfter, maxExtrapolation, timeToLive, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates an empty store that reads the time from a clock.
+     */
+    CourierPingStore(CourierLocationRegistry courierLocationRegistry, int capacity, long staleAfter,
+                     long maxExtrapolation, long timeToLive, LongSupplier clock) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("At least two pings per courier are needed");
+        }
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        this.courierLocationRegistry = courierLocationRegistry;
+        this.capacity = capacity;
+        this.staleAfter = staleAfter;
+        this.maxExtrapolation = maxExtrapolation;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Stores a ping. Pings older than the latest ping of the courier arrive too late to
+     * matter and are dropped. The location registry is not updated, see {@link #publish(long)}.
+     *
+     * @param courierId The id of the courier
+     * @param latitude The latitude in degrees
+     * @param longitude The longitude in degrees
+     * @param timestamp The time of the fix in milliseconds since the epoch
+     * @return true if the ping was stored
+     */
+    public boolean record(long courierId, double latitude, double longitude, long timestamp) {
+        return trackOfCourier.computeIfAbsent(courierId, id -> new Track(capacity))
+                .add(latitude, longitude, timestamp);
+    }
+
+    /**
+     * Hands the latest ping of a courier to the location registry, so the dispatcher sees the
+     * courier where it is. Called once after a batch of pings instead of for every ping.
+     *
+     * @param courierId The id of the courier
+     */
+    public void publish(long courierId) {
+        Track track = trackOfCourier.get(courierId);
+        if (track != null) {
+            courierLocationRegistry.update(courierId, track.latest());
+        }
+    }
+
+    /**
+     * Returns where a courier is. A recent ping is returned as is; an older one is moved along
+     * the heading and speed of the pings before it, for at most the maximum extrapolation time.
+     *
+     * @param courierId The id of the courier
+     * @param now The current time in milliseconds since the epoch
+     * @return The position, or null if the courier never sent a ping
+     */
+    public Location getPosition(long courierId, long now) {
+        Track track = trackOfCourier.get(courierId);
+        return track == null ? null : track.position(now, staleAfter, maxExtrapolation);
+    }
+
+    /**
+     * Returns the time of the latest ping of a courier.
+     *
+     * @param courierId The id of the courier
+     * @return The time in milliseconds since the epoch, or {@link Long#MIN_VALUE} without pings
+     */
+    public long getLatestTimestamp(long courierId) {
+        Track track = trackOfCourier.get(courierId);
+        return track == null ? Long.MIN_VALUE : track.latestTimestamp();
+    }
+
+    /**
+     * Forgets the pings of a courier.
+     *
+     * @param courierId The id of the courier
+     */
+    public void remove(long courierId) {
+        trackOfCourier.remove(courierId);
+    }
+
+    /**
+     * Drops the tracks of the couriers whose latest ping is older than the time to live. A ping
+     * that arrives while its track is dropped may be lost; the next ping starts a new track.
+     */
+    @Scheduled(fixedDelayString = "${delivery.tracking.sweep-interval-ms:60000}")
+    public void sweep() {
+        long cutoff = clock.getAsLong() - timeToLive;
+        trackOfCourier.values().removeIf(track -> track.latestTimestamp() <= cutoff);
+    }
+
+    /**
+     * Returns the number of couriers with a track.
+     *
+     * @return The number of tracks
+     */
+    public int size() {
+        return trackOfCourier.size();
+    }
+
+    /**
+     * Ring buffer of the pings of one courier.
+     */
+    private static final class Track {
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final long[] timestamps;
+        private int latest = -1;
+        private int size;
+
+        private Track(int capacity) {
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            timestamps = new long[capacity];
+        }
+
+        private synchronized boolean add(double latitude, double longitude, long timestamp) {
+            if (size > 0 && timestamp < timestamps[latest]) {
+                return false;
+            }
+            latest = (latest + 1) % timestamps.length;
+            latitudes[latest] = latitude;
+            longitudes[latest] = longitude;
+            timestamps[latest] = timestamp;
+            size = Math.min(size + 1, timestamps.length);
+            return true;
+        }
+
+        private synchronized long latestTimestamp() {
+            return size == 0 ? Long.MIN_VALUE : timestamps[latest];
+        }
+
+        private synchronized Location latest() {
+            return size == 0 ? null : new Location(latitudes[latest], longitudes[latest]);
+        }
+
+        private synchronized Location position(long now, long staleAfter, long maxExtrapolation) {
+            if (size == 0) {
+                return null;
+            }
+            double latitude = latitudes[latest];
+            double longitude = longitudes[latest];
+            long age = now - timestamps[latest];
+            if (age <= staleAfter || maxExtrapolation <= 0 || size < 2) {
+                return new Location(latitude, longitude);
+            }
+            // The oldest ping within the velocity window, or else the previous ping, gives a
+            // heading that is less sensitive to GPS noise
+            int from = Math.floorMod(latest - 1, timestamps.length);
+            for (int i = 2; i < size; i++) {
+                int index = Math.floorMod(latest - i, timestamps.length);
+                if (timestamps[latest] - timestamps[index] > VELOCITY_WINDOW_MS) {
+                    break;
+                }
+                from = index;
+            }
+            long elapsed = timestamps[latest] - timestamps[from];
+            if (elapsed <= 0) {
+                return new Location(latitude, longitude);
+            }
+            double factor = (double) Math.min(age, maxExtrapolation) / elapsed;
+            double deltaLongitude = longitude - longitudes[from];
+            // Take the short way around the antimeridian
+            deltaLongitude -= 360 * Math.rint(deltaLongitude / 360);
+            double extrapolatedLatitude = Math.max(-90, Math.min(90, latitude + (latitude - latitudes[from]) * factor));
+            double extrapolatedLongitude = longitude + deltaLongitude * factor;
+            extrapolatedLongitude -= 360 * Math.rint(extrapolatedLongitude / 360);
+            return new Location(extrapolatedLatitude, extrapolatedLongitude);
+        }
+    }
+}
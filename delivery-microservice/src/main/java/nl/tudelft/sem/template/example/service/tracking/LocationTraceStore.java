@@ -0,0 +1,501 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Full location trace of the delivery of every order, from the moment the courier picks the
+ * order up until it is delivered, for auditing and analytics. Pings are encoded by
+ * {@link TraceCodec} into segments of a fixed number of bytes that are only appended to. The
+ * segment being filled lives outside the heap; a full segment is appended to the file of the
+ * trace, or, without a trace directory, kept outside the heap as well. Without a directory only
+ * the most recently finished traces are kept, and none survive a restart. A trace that stays open
+ * longer than any delivery takes, because its order was never delivered, is finished by a
+ * periodic sweep, which also deletes trace files that are past their retention.
+ */
+@Component
+public class LocationTraceStore {
+
+    /**
+     * File name extension of a trace on disk.
+     */
+    static final String FILE_EXTENSION = ".trace";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxFinishedTraces;
+    private final long maxOpenAge;
+    private final long retention;
+    private final LongSupplier clock;
+
+    private final Map<Long, Trace> openTraceOfOrder = new ConcurrentHashMap<>();
+    private final Map<Long, Trace[]> openTracesOfCourier = new ConcurrentHashMap<>();
+    private final Map<Long, Trace> finishedTraceOfOrder = new LinkedHashMap<>();
+
+    /**
+     * Creates an empty store.
+     *
+     * @param directory Directory that holds a file per trace, empty to keep the traces in memory
+     * @param segmentBytes Number of bytes of a segment
+     * @param maxFinishedTraces Number of finished traces kept when they are kept in memory
+     * @param maxOpenAge Time in milliseconds after its start at which an open trace is finished
+     * @param retention Time in milliseconds a trace file is kept after it was last written, 0 to keep it forever
+     */
+    @Autowired
+    public LocationTraceStore(@Value("${delivery.trace.directory:}") String directory,
+                              @Value("${delivery.trace.segment-bytes:4096}") int segmentBytes,
+                              @Value("${delivery.trace.max-finished-traces:1000}") int maxFinishedTraces,
+                              @Value("${delivery.trace.max-open-ms:14400000}") long maxOpenAge,
+                              @Value("${delivery.trace.retention-ms:2592000000}") long retention) {
+        this(directory, segmentBytes, maxFinishedTraces, maxOpenAge, retention, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates an empty store that reads the time from a clock.
+     *
+     * @param directory Directory that holds a file per trace, empty to keep the traces in memory
+     * @param segmentBytes Number of bytes of a segment
+     * @param maxFinishedTraces Number of finished traces kept when they are kept in memory
+     * @param maxOpenAge Time in milliseconds after its start at which an open trace is finished
+     * @param retention Time in milliseconds a trace file is kept after it was last written, 0 to keep it forever
+     * @param clock Gives the current time in milliseconds
+     */
+    LocationTraceStore(String directory, int segmentBytes, int maxFinishedTraces, long maxOpenAge, long retention,
+                       LongSupplier clock) {
+        if (segmentBytes < 2 * TraceCodec.MAX_PING_BYTES) {
+            throw new IllegalArgumentException("A segment needs room for at least two pings");
+        }
+        if (maxOpenAge <= 0 || retention < 0) {
+            throw new IllegalArgumentException("Open traces need a positive age and retention must not be negative");
+        }
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxFinishedTraces = Math.max(0, maxFinishedTraces);
+        this.maxOpenAge = maxOpenAge;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /**
+     * Receives the pings of a trace that is replayed.
+     */
+    @FunctionalInterface
+    public interface PingConsumer {
+
+        /**
+         * Receives a ping.
+         *
+         * @param timestamp The time of the ping in milliseconds since the epoch
+         * @param latitude The latitude in degrees
+         * @param longitude The longitude in degrees
+         */
+        void accept(long timestamp, double latitude, double longitude);
+    }
+
+    /**
+     * Starts tracing the delivery of an order, so every later ping of the courier is added to
+     * its trace. Pings are added to an existing trace of the order.
+     *
+     * @param orderId The id of the order
+     * @param courierId The id of the courier delivering it
+     */
+    public synchronized void start(long orderId, long courierId) {
+        Trace trace = openTraceOfOrder.get(orderId);
+        if (trace != null && trace.courierId == courierId) {
+            return;
+        }
+        if (trace != null) {
+            finish(orderId);
+        }
+        Trace finished = finishedTraceOfOrder.remove(orderId);
+        trace = new Trace(orderId, courierId, finished);
+        openTraceOfOrder.put(orderId, trace);
+        Trace[] traces = openTracesOfCourier.getOrDefault(courierId, new Trace[0]);
+        Trace[] updated = Arrays.copyOf(traces, traces.length + 1);
+        updated[traces.length] = trace;
+        openTracesOfCourier.put(courierId, updated);
+    }
+
+    /**
+     * Stops tracing the delivery of an order and writes out what is left of its trace.
+     *
+     * @param orderId The id of the order
+     */
+    public synchronized void finish(long orderId) {
+        Trace trace = openTraceOfOrder.remove(orderId);
+        if (trace == null) {
+            return;
+        }
+        Trace[] traces = openTracesOfCourier.get(trace.courierId);
+        Trace[] remaining = Arrays.stream(traces).filter(open -> open != trace).toArray(Trace[]::new);
+        if (remaining.length == 0) {
+            openTracesOfCourier.remove(trace.courierId);
+        } else {
+            openTracesOfCourier.put(trace.courierId, remaining);
+        }
+        trace.close();
+        if (directory == null && maxFinishedTraces > 0) {
+            finishedTraceOfOrder.put(orderId, trace);
+            if (finishedTraceOfOrder.size() > maxFinishedTraces) {
+                finishedTraceOfOrder.remove(finishedTraceOfOrder.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Adds a ping to the trace of every order the courier is delivering. A ping older than the
+     * latest ping of a trace is left out of that trace.
+     *
+     * @param courierId The id of the courier
+     * @param latitude The latitude in degrees
+     * @param longitude The longitude in degrees
+     * @param timestamp The time of the fix in milliseconds since the epoch
+     * @return The number of traces the ping was added to
+     */
+    public int append(long courierId, double latitude, double longitude, long timestamp) {
+        Trace[] traces = openTracesOfCourier.get(courierId);
+        if (traces == null) {
+            return 0;
+        }
+        int added = 0;
+        for (Trace trace : traces) {
+            if (trace.add(latitude, longitude, timestamp)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Opens a reader over the trace of an order as it is now.
+     *
+     * @param orderId The id of the order
+     * @return The reader, or null if there is no trace of the order
+     */
+    public TraceReader openReader(long orderId) {
+        Trace trace = find(orderId);
+        if (trace != null) {
+            return trace.reader();
+        }
+        Path file = fileOf(orderId);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        List<ByteBuffer> segments = new ArrayList<>();
+        readSegments(file, Long.MAX_VALUE, segments);
+        return new TraceReader(segments);
+    }
+
+    /**
+     * Passes the pings of the trace of an order to a consumer, from the oldest to the latest. A
+     * ping that follows the last passed ping within the minimum interval is skipped, except for
+     * the latest ping, so a long trace can be drawn with fewer points.
+     *
+     * @param orderId The id of the order
+     * @param minInterval Minimum time in milliseconds between two passed pings, 0 to pass all
+     * @param consumer Gets the pings
+     * @return The number of pings passed to the consumer
+     */
+    public int replay(long orderId, long minInterval, PingConsumer consumer) {
+        TraceReader reader = openReader(orderId);
+        if (reader == null) {
+            return 0;
+        }
+        int passed = 0;
+        long lastPassed = 0;
+        boolean skipped = false;
+        long timestamp = 0;
+        double latitude = 0;
+        double longitude = 0;
+        while (reader.next()) {
+            timestamp = reader.getTimestamp();
+            latitude = reader.getLatitude();
+            longitude = reader.getLongitude();
+            if (passed == 0 || timestamp - lastPassed >= minInterval) {
+                consumer.accept(timestamp, latitude, longitude);
+                lastPassed = timestamp;
+                passed++;
+                skipped = false;
+            } else {
+                skipped = true;
+            }
+        }
+        if (skipped) {
+            consumer.accept(timestamp, latitude, longitude);
+            passed++;
+        }
+        return passed;
+    }
+
+    /**
+     * Returns the number of bytes the trace of an order takes.
+     *
+     * @param orderId The id of the order
+     * @return The number of bytes, 0 if there is no trace of the order
+     */
+    public long getSize(long orderId) {
+        Trace trace = find(orderId);
+        if (trace != null) {
+            return trace.size();
+        }
+        Path file = fileOf(orderId);
+        try {
+            return file == null || !Files.exists(file) ? 0 : Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read location trace " + file, e);
+        }
+    }
+
+    /**
+     * Writes the segments that are being filled to disk, so no pings are lost when the
+     * application stops. Tracing goes on in new segments.
+     */
+    @PreDestroy
+    public void flush() {
+        if (directory == null) {
+            return;
+        }
+        for (Trace trace : openTraceOfOrder.values()) {
+            trace.seal();
+        }
+    }
+
+    /**
+     * Finishes the traces that are open for longer than the maximum age, so the segments of
+     * orders that are never delivered do not stay in memory, and deletes the trace files that
+     * were not written within the retention time.
+     */
+    @Scheduled(fixedDelayString = "${delivery.trace.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        List<Long> expired = new ArrayList<>();
+        for (Trace trace : openTraceOfOrder.values()) {
+            if (now - trace.startedAt >= maxOpenAge) {
+                expired.add(trace.orderId);
+            }
+        }
+        for (long orderId : expired) {
+            finish(orderId);
+        }
+        if (directory != null && retention > 0 && Files.isDirectory(directory)) {
+            deleteFilesOlderThan(now - retention);
+        }
+    }
+
+    private void deleteFilesOlderThan(long time) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < time) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete old location traces in " + directory, e);
+        }
+    }
+
+    private synchronized Trace find(long orderId) {
+        Trace trace = openTraceOfOrder.get(orderId);
+        return trace == null ? finishedTraceOfOrder.get(orderId) : trace;
+    }
+
+    private Path fileOf(long orderId) {
+        return directory == null ? null : directory.resolve(orderId + FILE_EXTENSION);
+    }
+
+    /**
+     * Reads the segments of a trace file one at a time, so a file of any length can be read. A
+     * segment on disk is preceded by its number of bytes; a segment that was cut off while it was
+     * written is left out.
+     *
+     * @param file The file of the trace
+     * @param length The number of bytes to read at most
+     * @param segments Gets the segments
+     */
+    private static void readSegments(Path file, long length, List<ByteBuffer> segments) {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            long end = Math.min(length, channel.size());
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            while (end - channel.position() >= Integer.BYTES) {
+                header.clear();
+                readFully(channel, header);
+                int size = header.flip().getInt();
+                if (size <= 0 || size > end - channel.position()) {
+                    break;
+                }
+                ByteBuffer segment = ByteBuffer.allocate(size);
+                readFully(channel, segment);
+                segments.add(segment.flip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read location trace " + file, e);
+        }
+    }
+
+    private static void readFully(SeekableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Location trace ended early");
+            }
+        }
+    }
+
+    /**
+     * The trace of one order. Its full segments are in its file, or in memory without a trace
+     * directory.
+     */
+    private final class Trace {
+        private final long orderId;
+        private final long courierId;
+        private final long startedAt;
+        private final List<ByteBuffer> sealed;
+        private long sealedBytes;
+
+        private ByteBuffer current;
+        private boolean closed;
+        private long latestTimestamp = Long.MIN_VALUE;
+        private long latitude;
+        private long longitude;
+
+        private Trace(long orderId, long courierId, Trace previous) {
+            this.orderId = orderId;
+            this.courierId = courierId;
+            this.startedAt = clock.getAsLong();
+            this.sealed = previous == null ? new ArrayList<>() : previous.sealed;
+            this.sealedBytes = previous == null ? 0 : previous.sealedBytes;
+            this.latestTimestamp = previous == null ? Long.MIN_VALUE : previous.latestTimestamp;
+        }
+
+        private synchronized boolean add(double latitudeDegrees, double longitudeDegrees, long timestamp) {
+            if (closed || timestamp < latestTimestamp) {
+                return false;
+            }
+            if (current == null) {
+                current = ByteBuffer.allocateDirect(segmentBytes);
+            } else if (current.remaining() < TraceCodec.MAX_PING_BYTES) {
+                seal();
+            }
+            long latitudeUnits = TraceCodec.toUnits(latitudeDegrees);
+            long longitudeUnits = TraceCodec.toUnits(longitudeDegrees);
+            if (current.position() == 0) {
+                TraceCodec.writeUnsigned(current, timestamp);
+                TraceCodec.writeSigned(current, latitudeUnits);
+                TraceCodec.writeSigned(current, longitudeUnits);
+            } else {
+                TraceCodec.writeUnsigned(current, timestamp - latestTimestamp);
+                TraceCodec.writeSigned(current, latitudeUnits - latitude);
+                TraceCodec.writeSigned(current, longitudeUnits - longitude);
+            }
+            latestTimestamp = timestamp;
+            latitude = latitudeUnits;
+            longitude = longitudeUnits;
+            return true;
+        }
+
+        /**
+         * Moves the segment being filled to the file, or to the full segments in memory, and
+         * starts a new segment.
+         */
+        private synchronized void seal() {
+            if (current == null || current.position() == 0) {
+                return;
+            }
+            current.flip();
+            int size = current.remaining();
+            try {
+                if (directory == null) {
+                    ByteBuffer segment = ByteBuffer.allocateDirect(size).put(current).flip();
+                    sealed.add(segment.asReadOnlyBuffer());
+                } else {
+                    write(size);
+                }
+                sealedBytes += size;
+            } finally {
+                current.clear();
+            }
+        }
+
+        private void write(int size) {
+            Path file = fileOf(orderId);
+            try {
+                Files.createDirectories(directory);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    ByteBuffer[] parts = {ByteBuffer.allocate(Integer.BYTES).putInt(size).flip(), current};
+                    while (current.hasRemaining()) {
+                        channel.write(parts);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write location trace " + file, e);
+            }
+        }
+
+        private synchronized void close() {
+            seal();
+            closed = true;
+            current = null;
+        }
+
+        private synchronized long size() {
+            long stored = directory == null ? sealedBytes : sealedFileBytes();
+            return stored + (current == null ? 0 : current.position());
+        }
+
+        private long sealedFileBytes() {
+            Path file = fileOf(orderId);
+            try {
+                return Files.exists(file) ? Files.size(file) : 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read location trace " + file, e);
+            }
+        }
+
+        /**
+         * Makes a reader over the full segments and a copy of the segment being filled. The file
+         * is read outside the lock up to the length it had, since it is only appended to.
+         */
+        private TraceReader reader() {
+            List<ByteBuffer> segments = new ArrayList<>();
+            long fileLength;
+            ByteBuffer filling = null;
+            synchronized (this) {
+                for (ByteBuffer segment : sealed) {
+                    segments.add(segment.duplicate());
+                }
+                fileLength = directory == null ? 0 : sealedFileBytes();
+                if (current != null && current.position() > 0) {
+                    filling = ByteBuffer.allocate(current.position());
+                    filling.put(current.duplicate().flip()).flip();
+                }
+            }
+            if (fileLength > 0) {
+                readSegments(fileOf(orderId), fileLength, segments);
+            }
+            if (filling != null) {
+                segments.add(filling);
+            }
+            return new TraceReader(segments);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.example.exception.CourierNotFoundException;
+import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.service.DeliveryService;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order.StatusEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the status, ETA and location of orders to the clients that subscribed to them. All
+ * subscribers of an order share one subscription, so an update is computed and serialized once
+ * and then written to every subscriber. Status changes are pushed when they happen; locations
+ * are checked at a fixed interval and only pushed when the courier reported a new position since
+ * the last push, so a courier sending many pings costs one event per interval at most. All
+ * events are written by a single sender thread and never by the request that caused them.
+ */
+@Component
+public class OrderUpdateBroadcaster {
+
+    static final String STATUS_EVENT = "status";
+    static final String LOCATION_EVENT = "location";
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderUpdateBroadcaster.class);
+
+    private final DeliveryService deliveryService;
+    private final CourierPingStore courierPingStore;
+    private final ObjectMapper objectMapper;
+    private final Executor sender;
+    private final ScheduledExecutorService scheduler;
+    private final long locationInterval;
+
+    private final Map<Long, Subscription> subscriptionOfOrder = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a broadcaster with its own sender thread.
+     *
+     * @param deliveryService Service computing the ETA and location of an order
+     * @param courierPingStore Store of the positions the couriers reported
+     * @param objectMapper Mapper serializing the events
+     * @param locationInterval Time in milliseconds between two checks for new locations
+     */
+    @Autowired
+    public OrderUpdateBroadcaster(DeliveryService deliveryService, CourierPingStore courierPingStore,
+                                  ObjectMapper objectMapper,
+                                  @Value("${delivery.stream.location-interval-ms:1000}") long locationInterval) {
+        this(deliveryService, courierPingStore, objectMapper, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-update-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        }), locationInterval);
+    }
+
+    private OrderUpdateBroadcaster(DeliveryService deliveryService, CourierPingStore courierPingStore,
+                                   ObjectMapper objectMapper, ScheduledExecutorService scheduler,
+                                   long locationInterval) {
+        this.deliveryService = deliveryService;
+        this.courierPingStore = courierPingStore;
+        this.objectMapper = objectMapper;
+        this.sender = scheduler;
+        this.scheduler = scheduler;
+        this.locationInterval = locationInterval;
+    }
+
+    /**
+     * Creates a broadcaster that sends on the given executor and does not check for new
+     * locations by itself.
+     */
+    OrderUpdateBroadcaster(DeliveryService deliveryService, CourierPingStore courierPingStore,
+                           ObjectMapper objectMapper, Executor sender) {
+        this.deliveryService = deliveryService;
+        this.courierPingStore = courierPingStore;
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+        this.scheduler = null;
+        this.locationInterval = 0;
+    }
+
+    /**
+     * Starts checking for new locations.
+     */
+    @PostConstruct
+    public void start() {
+        if (scheduler != null && locationInterval > 0) {
+            scheduler.scheduleWithFixedDelay(this::flushLocations, locationInterval, locationInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the sender thread and closes the streams of all subscribers.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Subscription subscription : subscriptionOfOrder.values()) {
+            subscription.emitters.forEach(SseEmitter::complete);
+        }
+        subscriptionOfOrder.clear();
+    }
+
+    /**
+     * Subscribes a client to the updates of an order. The client first gets the current status,
+     * ETA and location, and is unsubscribed once its stream is closed.
+     *
+     * @param orderId The id of the order
+     * @param status The current status of the order
+     * @param emitter The stream of the client
+     */
+    public void register(long orderId, StatusEnum status, SseEmitter emitter) {
+        // Added inside compute, so an unregister of the last subscriber cannot drop the subscription in between
+        Subscription subscription = subscriptionOfOrder.compute(orderId, (id, existing) -> {
+            Subscription joined = existing == null ? new Subscription() : existing;
+            joined.emitters.add(emitter);
+            return joined;
+        });
+        emitter.onCompletion(() -> unregister(orderId, emitter));
+        emitter.onTimeout(() -> unregister(orderId, emitter));
+        emitter.onError(error -> unregister(orderId, emitter));
+        sender.execute(() -> {
+            Update update = update(orderId, status);
+            remember(subscription, update);
+            send(orderId, List.of(emitter), STATUS_EVENT, update.statusPayload());
+            if (update.location != null) {
+                send(orderId, List.of(emitter), LOCATION_EVENT, update.location);
+            }
+            if (isFinal(status)) {
+                emitter.complete();
+            }
+        });
+    }
+
+    /**
+     * Pushes a new status of an order, with its ETA and location, to the subscribers of the
+     * order. The streams are closed once the order is delivered or rejected. Returns at once
+     * when nobody subscribed to the order.
+     *
+     * @param orderId The id of the order
+     * @param status The new status of the order
+     */
+    public void statusChanged(long orderId, StatusEnum status) {
+        if (!subscriptionOfOrder.containsKey(orderId)) {
+            return;
+        }
+        sender.execute(() -> {
+            Subscription subscription = subscriptionOfOrder.get(orderId);
+            if (subscription == null) {
+                return;
+            }
+            Update update = update(orderId, status);
+            remember(subscription, update);
+            send(orderId, subscription.emitters, STATUS_EVENT, update.statusPayload());
+            if (update.location != null) {
+                send(orderId, subscription.emitters, LOCATION_EVENT, update.location);
+            }
+            if (isFinal(status)) {
+                subscriptionOfOrder.remove(orderId);
+                subscription.emitters.forEach(SseEmitter::complete);
+            }
+        });
+    }
+
+    /**
+     * Pushes the position of the courier of every subscribed order that is on its way, if the
+     * courier reported a new position since the last push.
+     */
+    public void flushLocations() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Subscription> entry : subscriptionOfOrder.entrySet()) {
+            Subscription subscription = entry.getValue();
+            Long courierId = subscription.courierId;
+            if (courierId == null || (subscription.status != StatusEnum.GIVEN_TO_COURIER
+                    && subscription.status != StatusEnum.ON_TRANSIT)) {
+                continue;
+            }
+            long latest = courierPingStore.getLatestTimestamp(courierId);
+            if (latest == Long.MIN_VALUE || latest == subscription.lastPingSent) {
+                continue;
+            }
+            subscription.lastPingSent = latest;
+            Location position = courierPingStore.getPosition(courierId, now);
+            sender.execute(() -> send(entry.getKey(), subscription.emitters, LOCATION_EVENT, position));
+        }
+    }
+
+    /**
+     * Returns the number of clients subscribed to an order.
+     *
+     * @param orderId The id of the order
+     * @return The number of subscribers
+     */
+    public int getSubscriberCount(long orderId) {
+        Subscription subscription = subscriptionOfOrder.get(orderId);
+        return subscription == null ? 0 : subscription.emitters.size();
+    }
+
+    private void unregister(long orderId, SseEmitter emitter) {
+        subscriptionOfOrder.computeIfPresent(orderId, (id, subscription) -> {
+            subscription.emitters.remove(emitter);
+            return subscription.emitters.isEmpty() ? null : subscription;
+        });
+    }
+
+    /**
+     * Keeps what the subscribers of an order were told, so the next location is only pushed once
+     * the courier reports a newer position than the one in the update.
+     */
+    private void remember(Subscription subscription, Update update) {
+        subscription.status = update.status;
+        subscription.courierId = update.courierId;
+        subscription.lastPingSent = update.courierId == null
+                ? Long.MIN_VALUE : courierPingStore.getLatestTimestamp(update.courierId);
+    }
+
+    private Update update(long orderId, StatusEnum status) {
+        Update update = new Update(status);
+        try {
+            update.eta = deliveryService.getEta(orderId);
+            update.location = deliveryService.calculateLiveLocation(orderId);
+        } catch (OrderNotFoundException e) {
+            // The order has no delivery yet, so there is nothing to estimate
+        } catch (RuntimeException e) {
+            logger.warn("Could not estimate the ETA and location of order {}", orderId, e);
+        }
+        try {
+            update.courierId = deliveryService.getCourierFromOrder(Math.toIntExact(orderId));
+        } catch (OrderNotFoundException | CourierNotFoundException e) {
+            update.courierId = null;
+        } catch (RuntimeException e) {
+            logger.warn("Could not look up the courier of order {}", orderId, e);
+            update.courierId = null;
+        }
+        return update;
+    }
+
+    /**
+     * Serializes an event once and writes it to every given stream. A stream that cannot be
+     * written to is closed and unsubscribed.
+     */
+    private void send(long orderId, List<SseEmitter> emitters, String name, Object payload) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize the {} event of order {}", name, orderId, e);
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException | IllegalStateException e) {
+                unregister(orderId, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static boolean isFinal(StatusEnum status) {
+        return status == StatusEnum.DELIVERED || status == StatusEnum.REJECTED;
+    }
+
+    /**
+     * The subscribers of one order and what they were last told.
+     */
+    private static final class Subscription {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile StatusEnum status;
+        private volatile Long courierId;
+        private volatile long lastPingSent = Long.MIN_VALUE;
+    }
+
+    /**
+     * Status, ETA, location and courier of an order at one moment.
+     */
+    private static final class Update {
+        private final StatusEnum status;
+        private OffsetDateTime eta;
+        private Location location;
+        private Long courierId;
+
+        private Update(StatusEnum status) {
+            this.status = status;
+        }
+
+        private Map<String, Object> statusPayload() {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("status", status == null ? null : status.toString());
+            payload.put("eta", eta == null ? null : eta.toString());
+            return payload;
+        }
+    }
+}
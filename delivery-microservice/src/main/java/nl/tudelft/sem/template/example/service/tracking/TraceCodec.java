@@ -0,0 +1,102 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encoding of location traces. A trace is a list of segments; a segment is a list of pings of
+ * which the first holds the time, latitude and longitude as is and every next one the
+ * difference with the ping before it. Coordinates are stored as whole units of 10^-7 degrees,
+ * about a centimetre, and every number as a variable length integer, so a ping in a steady
+ * stream takes about six bytes. Because the first ping of a segment holds no differences, a
+ * segment can be read without the segments before it.
+ */
+final class TraceCodec {
+
+    /**
+     * Units of a stored coordinate per degree.
+     */
+    static final double UNITS_PER_DEGREE = 1e7;
+
+    /**
+     * The most bytes one ping can take: three numbers of at most ten bytes each.
+     */
+    static final int MAX_PING_BYTES = 30;
+
+    private TraceCodec() {
+    }
+
+    /**
+     * Converts a coordinate to whole units.
+     *
+     * @param degrees The coordinate in degrees
+     * @return The coordinate in units of 10^-7 degrees
+     */
+    static long toUnits(double degrees) {
+        return Math.round(degrees * UNITS_PER_DEGREE);
+    }
+
+    /**
+     * Converts a coordinate in whole units back to degrees.
+     *
+     * @param units The coordinate in units of 10^-7 degrees
+     * @return The coordinate in degrees
+     */
+    static double toDegrees(long units) {
+        return units / UNITS_PER_DEGREE;
+    }
+
+    /**
+     * Writes a number that may be negative, mapped so small negative numbers stay short.
+     *
+     * @param buffer The buffer to write to
+     * @param value The number
+     */
+    static void writeSigned(ByteBuffer buffer, long value) {
+        writeUnsigned(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads a number written by {@link #writeSigned(ByteBuffer, long)}.
+     *
+     * @param buffer The buffer to read from
+     * @return The number
+     */
+    static long readSigned(ByteBuffer buffer) {
+        long value = readUnsigned(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a number seven bits per byte, lowest bits first, with the high bit of a byte set
+     * when more bytes follow.
+     *
+     * @param buffer The buffer to write to
+     * @param value The number, treated as unsigned
+     */
+    static void writeUnsigned(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a number written by {@link #writeUnsigned(ByteBuffer, long)}.
+     *
+     * @param buffer The buffer to read from
+     * @return The number
+     * @throws IllegalStateException if the number does not end within ten bytes
+     */
+    static long readUnsigned(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed number in location trace");
+    }
+}
@@ -0,0 +1,80 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reads the pings of a location trace one by one, from the oldest to the latest. The reader
+ * decodes a ping only when it moves to it and keeps no list of pings, so a trace of any length
+ * is read in constant memory. It sees the trace as it was when the reader was made.
+ */
+public final class TraceReader {
+
+    private final List<ByteBuffer> segments;
+    private int segment;
+
+    private long timestamp;
+    private long latitude;
+    private long longitude;
+
+    /**
+     * Creates a reader.
+     *
+     * @param segments The segments of the trace in order, each buffer holding exactly one segment
+     */
+    TraceReader(List<ByteBuffer> segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Moves to the next ping.
+     *
+     * @return true if there was a next ping, false at the end of the trace
+     */
+    public boolean next() {
+        while (segment < segments.size() && !segments.get(segment).hasRemaining()) {
+            segment++;
+        }
+        if (segment == segments.size()) {
+            return false;
+        }
+        ByteBuffer buffer = segments.get(segment);
+        if (buffer.position() == 0) {
+            timestamp = TraceCodec.readUnsigned(buffer);
+            latitude = TraceCodec.readSigned(buffer);
+            longitude = TraceCodec.readSigned(buffer);
+        } else {
+            timestamp += TraceCodec.readUnsigned(buffer);
+            latitude += TraceCodec.readSigned(buffer);
+            longitude += TraceCodec.readSigned(buffer);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the time of the current ping.
+     *
+     * @return The time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the latitude of the current ping, rounded to 10^-7 degrees.
+     *
+     * @return The latitude in degrees
+     */
+    public double getLatitude() {
+        return TraceCodec.toDegrees(latitude);
+    }
+
+    /**
+     * Returns the longitude of the current ping, rounded to 10^-7 degrees.
+     *
+     * @return The longitude in degrees
+     */
+    public double getLongitude() {
+        return TraceCodec.toDegrees(longitude);
+    }
+}
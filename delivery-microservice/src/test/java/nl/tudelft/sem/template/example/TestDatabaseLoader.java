@@ -3,6 +3,10 @@ package nl.tudelft.sem.template.example;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.geo.VendorCoverageIndex;
 import nl.tudelft.sem.template.model.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -19,6 +23,14 @@ public class TestDatabaseLoader {
 
     private final VendorRepository vendorRepository;
 
+    private final AvailableOrderIndex availableOrderIndex;
+
+    private final CourierLoadRegistry courierLoadRegistry;
+
+    private final VendorCoverageIndex vendorCoverageIndex;
+
+    private final CourierVendorIndex courierVendorIndex;
+
     //the entities we will save in the database
     Vendor vendor1;
     Order order1;
@@ -29,10 +41,16 @@ public class TestDatabaseLoader {
     Delivery delivery2;
 
     @Autowired
-    public TestDatabaseLoader(DeliveryRepository deliveryRepository, OrderRepository orderRepository, VendorRepository vendorRepository){
+    public TestDatabaseLoader(DeliveryRepository deliveryRepository, OrderRepository orderRepository, VendorRepository vendorRepository,
+                              AvailableOrderIndex availableOrderIndex, CourierLoadRegistry courierLoadRegistry,
+                              VendorCoverageIndex vendorCoverageIndex, CourierVendorIndex courierVendorIndex){
         this.deliveryRepository = deliveryRepository;
         this.orderRepository = orderRepository;
         this.vendorRepository = vendorRepository;
+        this.availableOrderIndex = availableOrderIndex;
+        this.courierLoadRegistry = courierLoadRegistry;
+        this.vendorCoverageIndex = vendorCoverageIndex;
+        this.courierVendorIndex = courierVendorIndex;
     }
 
     public void loadTestData() {
@@ -54,6 +72,10 @@ public class TestDatabaseLoader {
 
     public void clearTestData() {
         deliveryRepository.deleteAll();
+        availableOrderIndex.reload();
+        courierLoadRegistry.reload();
+        vendorCoverageIndex.reload();
+        courierVendorIndex.reload();
     }
 
 
@@ -0,0 +1,115 @@
+package nl.tudelft.sem.template.example.configuration;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AsyncHttpClientTest {
+
+    private static final int CONCURRENT_CALLS = 20;
+
+    private final CountDownLatch arrived = new CountDownLatch(CONCURRENT_CALLS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/user/1", exchange -> {
+            byte[] body = "courier".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/user/2", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.createContext("/user/3", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            arrived.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void getReturnsBody() {
+        AsyncHttpClient client = new AsyncHttpClient(1_000, 5_000);
+
+        assertThat(client.get(baseUrl + "/user/1").join()).isEqualTo("courier");
+    }
+
+    @Test
+    void errorStatusesFailLikeRestTemplate() {
+        AsyncHttpClient client = new AsyncHttpClient(1_000, 5_000);
+
+        assertThatThrownBy(() -> client.get(baseUrl + "/user/2").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(HttpClientErrorException.NotFound.class);
+        assertThatThrownBy(() -> client.get(baseUrl + "/user/3").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(HttpServerErrorException.class);
+    }
+
+    @Test
+    void slowResponseTimesOut() {
+        AsyncHttpClient client = new AsyncHttpClient(1_000, 100);
+
+        assertThatThrownBy(() -> client.get(baseUrl + "/slow").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ResourceAccessException.class);
+    }
+
+    @Test
+    void callsAreInFlightTogether() throws Exception {
+        AsyncHttpClient client = new AsyncHttpClient(1_000, 5_000);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+            calls.add(client.get(baseUrl + "/slow"));
+        }
+
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(calls).noneMatch(CompletableFuture::isDone);
+        release.countDown();
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+    }
+}
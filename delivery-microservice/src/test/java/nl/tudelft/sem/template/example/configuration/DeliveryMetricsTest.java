@@ -0,0 +1,86 @@
+package nl.tudelft.sem.template.example.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
+import nl.tudelft.sem.template.example.external.CircuitBreaker;
+import nl.tudelft.sem.template.example.external.ServiceGuard;
+import nl.tudelft.sem.template.example.external.UserRoleCache;
+import nl.tudelft.sem.template.example.service.routing.EtaCache;
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DeliveryMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private HttpClientPool httpClientPool;
+    private EtaCache etaCache;
+    private UserRoleCache userRoleCache;
+    private ServiceGuard usersServiceGuard;
+    private ServiceGuard ordersServiceGuard;
+
+    @BeforeEach
+    void setUp() {
+        httpClientPool = new HttpClientPool(10, 5, 1_000, 1_000, 1_000, 30_000);
+        etaCache = new EtaCache(100, 0.005, 15);
+        userRoleCache = new UserRoleCache(300_000, 30_000, 100);
+        usersServiceGuard = new ServiceGuard("users", new CircuitBreaker(10, 1, 0.5, 2_000, 60_000, 1), 1, 0);
+        ordersServiceGuard = new ServiceGuard("orders", new CircuitBreaker(10, 1, 0.5, 2_000, 60_000, 1), 1, 0);
+        new DeliveryMetrics(httpClientPool, etaCache, userRoleCache, usersServiceGuard, ordersServiceGuard)
+                .bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClientPool.close();
+    }
+
+    @Test
+    void publishesConnectionPool() {
+        assertThat(registry.get("delivery.http.pool.saturation").gauge().value()).isZero();
+        assertThat(registry.get("delivery.http.pool.pending").gauge().value()).isZero();
+        assertThat(registry.get("delivery.http.pool.wait.average").gauge().value()).isZero();
+        assertThat(registry.get("delivery.http.pool.wait.max").gauge().value()).isZero();
+        assertThat(registry.get("delivery.http.pool.acquire.timeouts").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void publishesCacheHitRates() {
+        Location destination = new Location(52.0, 4.35);
+        OffsetDateTime departure = OffsetDateTime.parse("2024-01-15T18:05:00Z");
+        etaCache.getTravelTime(1L, destination, departure, () -> Duration.ofMinutes(10));
+        etaCache.getTravelTime(1L, destination, departure, () -> Duration.ofMinutes(10));
+        userRoleCache.getRole(1L, id -> Optional.of("courier"));
+
+        assertThat(registry.get("delivery.cache.hit.rate").tag("cache", "eta").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.get("delivery.cache.hit.rate").tag("cache", "user-role").gauge().value()).isZero();
+    }
+
+    @Test
+    void publishesServiceGuardCounters() {
+        assertThatThrownBy(() -> usersServiceGuard.call(() -> usersServiceGuard.call(() -> "admin")))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> ordersServiceGuard.call(() -> {
+            throw new ResourceAccessException("Connection refused");
+        })).isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> ordersServiceGuard.call(() -> "ok"))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        assertThat(registry.get("delivery.service.rejections").tag("service", "users").tag("reason", "bulkhead")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("delivery.service.rejections").tag("service", "orders").tag("reason", "breaker")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("delivery.service.failures").tag("service", "orders")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,104 @@
+package nl.tudelft.sem.template.example.configuration;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HttpClientPoolTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/user", exchange -> {
+            byte[] body = "courier".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void reusesKeptAliveConnection() {
+        HttpClientPool pool = new HttpClientPool(10, 5, 1_000, 1_000, 1_000, 30_000);
+        RestTemplate restTemplate = new RestTemplate(pool.getRequestFactory());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(restTemplate.getForObject(baseUrl + "/user", String.class)).isEqualTo("courier");
+        }
+
+        assertThat(pool.getLeaseCount()).isEqualTo(5);
+        assertThat(pool.getAvailableConnections()).isEqualTo(1);
+        assertThat(pool.getLeasedConnections()).isZero();
+        pool.close();
+    }
+
+    @Test
+    void slowResponseTimesOut() {
+        HttpClientPool pool = new HttpClientPool(10, 5, 1_000, 100, 1_000, 30_000);
+        RestTemplate restTemplate = new RestTemplate(pool.getRequestFactory());
+
+        assertThatThrownBy(() -> restTemplate.getForObject(baseUrl + "/slow", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        pool.close();
+    }
+
+    @Test
+    void waitForFreeConnectionIsBounded() throws Exception {
+        HttpClientPool pool = new HttpClientPool(1, 1, 1_000, 5_000, 50, 30_000);
+        RestTemplate restTemplate = new RestTemplate(pool.getRequestFactory());
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(
+                () -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+        while (pool.getLeasedConnections() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThat(pool.getSaturation()).isEqualTo(1.0);
+        assertThatThrownBy(() -> restTemplate.getForObject(baseUrl + "/user", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(pool.getAcquireTimeouts()).isEqualTo(1);
+        assertThat(pool.getMaxWaitMillis()).isGreaterThanOrEqualTo(40);
+
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        assertThat(restTemplate.getForObject(baseUrl + "/user", String.class)).isEqualTo("courier");
+        pool.close();
+    }
+}
@@ -6,6 +6,7 @@ import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationExcept
 import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
 import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
 import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.exception.UnknownStrategyException;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
 import nl.tudelft.sem.template.example.service.CourierService;
@@ -35,6 +36,13 @@ public class CourierControllerTest {
     private final AuthorizationService authorizationService = Mockito.mock(AuthorizationService.class);
     private final CourierController courierController = new CourierController(courierService, authorizationService);
 
+    private static LocationPing ping(Double latitude, Double longitude) {
+        LocationPing ping = new LocationPing();
+        ping.setLatitude(latitude);
+        ping.setLongitude(longitude);
+        return ping;
+    }
+
 
     @BeforeEach
     void setup() {
@@ -98,35 +106,45 @@ public class CourierControllerTest {
     }
 
     @Test
-    void testAssignCourierToRandomOrderSuccess() throws DeliveryNotFoundException, NoAvailableOrdersException, OrderNotFoundException, CourierNotFoundException {
+    void testAssignCourierToRandomOrderSuccess() throws DeliveryNotFoundException, NoAvailableOrdersException, UnknownStrategyException, CourierNotFoundException {
         Long courierId = 1L;
         Integer authorizationId = 1;
-        doNothing().when(courierService).assignCourierToRandomOrder(courierId);
+        doNothing().when(courierService).assignCourierToAnyOrder(courierId, null);
 
-        ResponseEntity<Void> response = courierController.courierDeliveryCourierIdAssignAnyOrderPut(courierId, authorizationId);
+        ResponseEntity<Void> response = courierController.courierDeliveryCourierIdAssignAnyOrderPut(courierId, authorizationId, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
-    void testAssignCourierToRandomOrderNoAvailableOrders() throws DeliveryNotFoundException, NoAvailableOrdersException, OrderNotFoundException, CourierNotFoundException {
+    void testAssignCourierToRandomOrderNoAvailableOrders() throws DeliveryNotFoundException, NoAvailableOrdersException, UnknownStrategyException, CourierNotFoundException {
         Long courierId = 1L;
         Integer authorizationId = 1;
-        doThrow(new NoAvailableOrdersException("No available orders")).when(courierService).assignCourierToRandomOrder(courierId);
+        doThrow(new NoAvailableOrdersException("No available orders")).when(courierService).assignCourierToAnyOrder(courierId, null);
 
-        ResponseEntity<Void> response = courierController.courierDeliveryCourierIdAssignAnyOrderPut(courierId, authorizationId);
+        ResponseEntity<Void> response = courierController.courierDeliveryCourierIdAssignAnyOrderPut(courierId, authorizationId, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
-    void testAssignCourierToRandomOrderDeliveryNotFound() throws DeliveryNotFoundException, NoAvailableOrdersException, OrderNotFoundException, CourierNotFoundException {
+    void testAssignCourierToRandomOrderDeliveryNotFound() throws DeliveryNotFoundException, NoAvailableOrdersException, UnknownStrategyException, CourierNotFoundException {
         Long courierId = 1L;
         Integer authorizationId = 1;
-        doThrow(new DeliveryNotFoundException("Delivery not found")).when(courierService).assignCourierToRandomOrder(courierId);
+        doThrow(new DeliveryNotFoundException("Delivery not found")).when(courierService).assignCourierToAnyOrder(courierId, null);
 
-        ResponseEntity<Void> response = courierController.courierDeliveryCourierIdAssignAnyOrderPut(courierId, authorizationId);
+        ResponseEntity<Void> response = courierController.courierDeliveryCourierIdAssignAnyOrderPut(courierId, authorizationId, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void testAssignCourierWithUnknownStrategy() throws DeliveryNotFoundException, NoAvailableOrdersException, UnknownStrategyException, CourierNotFoundException {
+        Long courierId = 1L;
+        Integer authorizationId = 1;
+        doThrow(new UnknownStrategyException("Unknown assignment strategy: fastest")).when(courierService).assignCourierToAnyOrder(courierId, "fastest");
+
+        ResponseEntity<Void> response = courierController.courierDeliveryCourierIdAssignAnyOrderPut(courierId, authorizationId, "fastest");
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
 
     @Test
     void assignCourierToSpecificOrderSuccessTest() throws OrderNotFoundException, CourierNotFoundException, DeliveryNotFoundException, NoAvailableOrdersException {
@@ -169,6 +187,24 @@ public class CourierControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void getAssignedOrdersTest() throws MicroserviceCommunicationException {
+        when(authorizationService.canViewCourierAnalytics(3L, 3L)).thenReturn(true);
+        when(courierService.getAssignedOrderIds(3L)).thenReturn(List.of(8L, 6L));
+
+        ResponseEntity<List<Long>> response = courierController.courierDeliveryCourierIdOrdersGet(3L, 3);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).containsExactly(8L, 6L);
+    }
+
+    @Test
+    void getAssignedOrdersUnauthorizedTest() throws MicroserviceCommunicationException {
+        when(authorizationService.canViewCourierAnalytics(1L, 3L)).thenReturn(false);
+
+        ResponseEntity<List<Long>> response = courierController.courierDeliveryCourierIdOrdersGet(3L, 1);
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
     @Test
     void getAvailableOrdersMiscommunicationTest() throws MicroserviceCommunicationException {
         when(authorizationService.canViewCourierAnalytics(10L, 2L)).thenThrow(MicroserviceCommunicationException.class);
@@ -184,4 +220,50 @@ public class CourierControllerTest {
         ResponseEntity<List<Long>> response = courierController.courierDeliveryCourierIdAvailableOrdersGet(2L, 1);
         Assertions.assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
     }
+
+    @Test
+    void locationPostStoresPings() throws MicroserviceCommunicationException {
+        List<LocationPing> pings = List.of(ping(52.0, 4.35), ping(52.001, 4.351));
+        when(authorizationService.canReportCourierLocation(7L, 7L)).thenReturn(true);
+        when(courierService.recordLocationPings(7L, pings)).thenReturn(2);
+
+        ResponseEntity<Integer> response = courierController.courierDeliveryCourierIdLocationPost(7L, 7, pings);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(2);
+    }
+
+    @Test
+    void locationPostOfOtherCourierIsForbidden() throws MicroserviceCommunicationException {
+        when(authorizationService.canReportCourierLocation(8L, 7L)).thenReturn(false);
+
+        ResponseEntity<Integer> response = courierController.courierDeliveryCourierIdLocationPost(7L, 8,
+                List.of(ping(52.0, 4.35)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        Mockito.verify(courierService, Mockito.never()).recordLocationPings(Mockito.anyLong(), Mockito.anyList());
+    }
+
+    @Test
+    void locationPostOfUnknownUserIsUnauthorized() throws MicroserviceCommunicationException {
+        when(authorizationService.canReportCourierLocation(9L, 7L)).thenThrow(new MicroserviceCommunicationException("Unknown"));
+
+        ResponseEntity<Integer> response = courierController.courierDeliveryCourierIdLocationPost(7L, 9,
+                List.of(ping(52.0, 4.35)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void locationPostRejectsInvalidPings() throws MicroserviceCommunicationException {
+        when(authorizationService.canReportCourierLocation(7L, 7L)).thenReturn(true);
+
+        assertThat(courierController.courierDeliveryCourierIdLocationPost(7L, 7, List.of()).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(courierController.courierDeliveryCourierIdLocationPost(7L, 7,
+                List.of(ping(52.0, 4.35), ping(91.0, 4.35))).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(courierController.courierDeliveryCourierIdLocationPost(7L, 7,
+                List.of(ping(52.0, null))).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Mockito.verify(courierService, Mockito.never()).recordLocationPings(Mockito.anyLong(), Mockito.anyList());
+    }
 }
@@ -11,9 +11,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -43,7 +49,7 @@ public class DeliveryControllerTest {
     OffsetDateTime time;
 
     @BeforeEach
-    void setup() throws MicroserviceCommunicationException {
+    void setup() throws MicroserviceCommunicationException, OrderNotFoundException {
         dummyDeliveryPostRequest =  new DeliveryPostRequest();
         dummyDeliveryPostRequest.setVendorId(1);
         dummyDeliveryPostRequest.setOrderId(123);
@@ -66,6 +72,8 @@ public class DeliveryControllerTest {
         delivery1 = new Delivery();
         delivery1.setId(44444L);
         delivery1.setOrder(order1);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenReturn(Optional.of(delivery1));
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenReturn(Optional.of(delivery1));
 
         Issue issue = new Issue("traffic", "There was an accident on the way, so the order will be delivered later");
         vendor2 = new Vendor(9L, 30L, new Location(2.0, 2.0), new ArrayList<>());
@@ -207,108 +215,108 @@ public class DeliveryControllerTest {
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimeGet_Success() throws Exception {
-        when(deliveryService.getReadyTime(123L)).thenReturn(time);
+        when(deliveryService.getReadyTime(delivery1)).thenReturn(time);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdReadyTimeGet(123, 1);
 
-        verify(deliveryService).getReadyTime(123L);
+        verify(deliveryService).getReadyTime(delivery1);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(time, response.getBody());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimeGet_Forbidden() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenReturn(false);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdReadyTimeGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService, never()).getReadyTime(anyLong());
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(deliveryService, never()).getReadyTime(any(Delivery.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimeGet_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdReadyTimeGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimeGet_NotFound() throws Exception {
-        when(deliveryService.getReadyTime(123L)).thenThrow(new OrderNotFoundException("Order not found"));
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong()))
+                .thenThrow(new OrderNotFoundException("Order not found"));
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdReadyTimeGet(123, 1);
 
-        verify(deliveryService).getReadyTime(123L);
+        verify(deliveryService, never()).getReadyTime(any(Delivery.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimeGet_NotFoundOnOrderNotFoundException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenReturn(true);
-        when(deliveryService.getReadyTime(123L)).thenThrow(OrderNotFoundException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenThrow(OrderNotFoundException.class);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdReadyTimeGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService).getReadyTime(123L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(deliveryService, never()).getReadyTime(any(Delivery.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimeGet_BadRequestOnIllegalArgumentException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenReturn(true);
-        when(deliveryService.getReadyTime(123L)).thenThrow(IllegalArgumentException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenReturn(Optional.of(delivery1));
+        when(deliveryService.getReadyTime(delivery1)).thenThrow(IllegalArgumentException.class);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdReadyTimeGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService).getReadyTime(123L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(deliveryService).getReadyTime(delivery1);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimePut_Success() throws Exception {
-        doNothing().when(deliveryService).updateReadyTime(123L, time);
+        doNothing().when(deliveryService).updateReadyTime(delivery1, time);
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdReadyTimePut(123, 1, time);
 
-        verify(deliveryService).updateReadyTime(123L, time);
+        verify(deliveryService).updateReadyTime(delivery1, time);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimePut_Forbidden() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canUpdateDeliveryDetails(anyLong(), anyLong())).thenReturn(false);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdReadyTimePut(123, 1, OffsetDateTime.now());
 
-        verify(authorizationService).canUpdateDeliveryDetails(1L, 123L);
-        verify(deliveryService, never()).updateReadyTime(anyLong(), any(OffsetDateTime.class));
+        verify(authorizationService).findUpdatableDelivery(1L, 123L);
+        verify(deliveryService, never()).updateReadyTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimePut_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canUpdateDeliveryDetails(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdReadyTimePut(123, 1, OffsetDateTime.now());
 
-        verify(authorizationService).canUpdateDeliveryDetails(1L, 123L);
+        verify(authorizationService).findUpdatableDelivery(1L, 123L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdReadyTimePut_BAD_REQUEST() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canUpdateDeliveryDetails(anyLong(), anyLong())).thenThrow(IllegalArgumentException.class);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenThrow(IllegalArgumentException.class);
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdReadyTimePut(123, 1, OffsetDateTime.now());
 
-        verify(authorizationService).canUpdateDeliveryDetails(1L, 123L);
+        verify(authorizationService).findUpdatableDelivery(1L, 123L);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
@@ -340,11 +348,12 @@ public class DeliveryControllerTest {
     @Test
     public void testDeliveryOrderOrderIdReadyTimePut_NotFound() throws Exception {
         OffsetDateTime newReadyTime = OffsetDateTime.now();
-        doThrow(new OrderNotFoundException("Order not found")).when(deliveryService).updateReadyTime(123L, newReadyTime);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong()))
+                .thenThrow(new OrderNotFoundException("Order not found"));
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdReadyTimePut(123, 1, newReadyTime);
 
-        verify(deliveryService).updateReadyTime(123L, newReadyTime);
+        verify(deliveryService, never()).updateReadyTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
@@ -352,43 +361,44 @@ public class DeliveryControllerTest {
     @Test
     public void testDeliveryOrderOrderIdPickupTimeGet_Success() throws Exception {
         OffsetDateTime pickupTime = OffsetDateTime.now();
-        when(deliveryService.getPickupTime(123L)).thenReturn(pickupTime);
+        when(deliveryService.getPickupTime(delivery1)).thenReturn(pickupTime);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdPickupTimeGet(123, 1);
 
-        verify(deliveryService).getPickupTime(123L);
+        verify(deliveryService).getPickupTime(delivery1);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(pickupTime, response.getBody());
     }
 
     @Test
     public void testDeliveryOrderOrderIdPickupTimeGet_Forbidden() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenReturn(false);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdPickupTimeGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService, never()).updateReadyTime(anyLong(), any(OffsetDateTime.class));
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(deliveryService, never()).updateReadyTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdPickupTimeGett_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdPickupTimeGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdPickupTimeGet_NotFound() throws Exception {
-        when(deliveryService.getPickupTime(123L)).thenThrow(new OrderNotFoundException("Order not found"));
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong()))
+                .thenThrow(new OrderNotFoundException("Order not found"));
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdPickupTimeGet(123, 1);
 
-        verify(deliveryService).getPickupTime(123L);
+        verify(deliveryService, never()).getPickupTime(any(Delivery.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
@@ -396,32 +406,32 @@ public class DeliveryControllerTest {
     @Test
     public void testDeliveryOrderOrderIdPickupTimePut_Success() throws Exception {
         OffsetDateTime newPickupTime = OffsetDateTime.now();
-        doNothing().when(deliveryService).updatePickupTime(123L, newPickupTime);
+        doNothing().when(deliveryService).updatePickupTime(delivery1, newPickupTime);
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdPickupTimePut(123, 1, newPickupTime);
 
-        verify(deliveryService).updatePickupTime(123L, newPickupTime);
+        verify(deliveryService).updatePickupTime(delivery1, newPickupTime);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdPickupTimePut_Forbidden() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canUpdateDeliveryDetails(anyLong(), anyLong())).thenReturn(false);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdPickupTimePut(123, 1, OffsetDateTime.now());
 
-        verify(authorizationService).canUpdateDeliveryDetails(1L, 123L);
-        verify(deliveryService, never()).updateReadyTime(anyLong(), any(OffsetDateTime.class));
+        verify(authorizationService).findUpdatableDelivery(1L, 123L);
+        verify(deliveryService, never()).updateReadyTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdPickupTimePut_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canUpdateDeliveryDetails(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdPickupTimePut(123, 1, OffsetDateTime.now());
 
-        verify(authorizationService).canUpdateDeliveryDetails(1L, 123L);
+        verify(authorizationService).findUpdatableDelivery(1L, 123L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
     @Test
@@ -458,54 +468,56 @@ public class DeliveryControllerTest {
     @Test
     public void testDeliveryOrderOrderIdPickupTimePut_NotFound() throws Exception {
         OffsetDateTime newPickupTime = OffsetDateTime.now();
-        doThrow(new OrderNotFoundException("Order not found")).when(deliveryService).updatePickupTime(123L, newPickupTime);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong()))
+                .thenThrow(new OrderNotFoundException("Order not found"));
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdPickupTimePut(123, 1, newPickupTime);
 
-        verify(deliveryService).updatePickupTime(123L, newPickupTime);
+        verify(deliveryService, never()).updatePickupTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdTodGet_Success() throws Exception {
         OffsetDateTime deliveredTime = OffsetDateTime.now();
-        when(deliveryService.getDeliveredTime(123L)).thenReturn(deliveredTime);
+        when(deliveryService.getDeliveredTime(delivery1)).thenReturn(deliveredTime);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdTodGet(123, 1);
 
-        verify(deliveryService).getDeliveredTime(123L);
+        verify(deliveryService).getDeliveredTime(delivery1);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(deliveredTime, response.getBody());
     }
 
     @Test
     public void testDeliveryOrderOrderIdTodGet_Forbidden() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenReturn(false);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdTodGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService, never()).updateReadyTime(anyLong(), any(OffsetDateTime.class));
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(deliveryService, never()).updateReadyTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdTodGet_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdTodGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdTodGet_NotFound() throws Exception {
-        when(deliveryService.getDeliveredTime(123L)).thenThrow(new OrderNotFoundException("Order not found"));
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong()))
+                .thenThrow(new OrderNotFoundException("Order not found"));
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdTodGet(123, 1);
 
-        verify(deliveryService).getDeliveredTime(123L);
+        verify(deliveryService, never()).getDeliveredTime(any(Delivery.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
@@ -513,42 +525,43 @@ public class DeliveryControllerTest {
     @Test
     public void testDeliveryOrderOrderIdTodPut_Success() throws Exception {
         OffsetDateTime newDeliveredTime = OffsetDateTime.now();
-        doNothing().when(deliveryService).updateDeliveredTime(123L, newDeliveredTime);
+        doNothing().when(deliveryService).updateDeliveredTime(delivery1, newDeliveredTime);
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdTodPut(123, 1, newDeliveredTime);
 
-        verify(deliveryService).updateDeliveredTime(123L, newDeliveredTime);
+        verify(deliveryService).updateDeliveredTime(delivery1, newDeliveredTime);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdTodPut_Forbidden() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canUpdateDeliveryDetails(anyLong(), anyLong())).thenReturn(false);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdTodPut(123, 1, OffsetDateTime.now());
 
-        verify(authorizationService).canUpdateDeliveryDetails(1L, 123L);
-        verify(deliveryService, never()).updateReadyTime(anyLong(), any(OffsetDateTime.class));
+        verify(authorizationService).findUpdatableDelivery(1L, 123L);
+        verify(deliveryService, never()).updateReadyTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdTodPut_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canUpdateDeliveryDetails(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdTodPut(123, 1, OffsetDateTime.now());
 
-        verify(authorizationService).canUpdateDeliveryDetails(1L, 123L);
+        verify(authorizationService).findUpdatableDelivery(1L, 123L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
     @Test
     public void testDeliveryOrderOrderIdTodPut_NotFound() throws Exception {
         OffsetDateTime newDeliveredTime = OffsetDateTime.now();
-        doThrow(new OrderNotFoundException("Order not found")).when(deliveryService).updateDeliveredTime(123L, newDeliveredTime);
+        when(authorizationService.findUpdatableDelivery(anyLong(), anyLong()))
+                .thenThrow(new OrderNotFoundException("Order not found"));
 
         ResponseEntity<Void> response = deliveryController.deliveryOrderOrderIdTodPut(123, 1, newDeliveredTime);
 
-        verify(deliveryService).updateDeliveredTime(123L, newDeliveredTime);
+        verify(deliveryService, never()).updateDeliveredTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
@@ -556,54 +569,55 @@ public class DeliveryControllerTest {
     public void testDeliveryOrderOrderIdEtaGet_Success() throws Exception {
         OffsetDateTime mockEta = OffsetDateTime.now();
 
-        when(deliveryService.getEta(123L)).thenReturn(mockEta);
+        when(deliveryService.getEta(delivery1)).thenReturn(mockEta);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdEtaGet(123,1 );
 
-        verify(deliveryService).getEta(123L);
+        verify(deliveryService).getEta(delivery1);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockEta, response.getBody());
     }
 
     @Test
     public void testDeliveryOrderOrderIdEtaGet_Forbidden() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenReturn(false);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdEtaGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService, never()).updateReadyTime(anyLong(), any(OffsetDateTime.class));
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(deliveryService, never()).updateReadyTime(any(Delivery.class), any(OffsetDateTime.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdEtaGet_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdEtaGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdEtaGet_OrderNotFound() throws Exception {
 
-        when(deliveryService.getEta(123L)).thenThrow(new OrderNotFoundException("Order not found"));
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong()))
+                .thenThrow(new OrderNotFoundException("Order not found"));
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdEtaGet(123, 1);
 
-        verify(deliveryService).getEta(123L);
+        verify(deliveryService, never()).getEta(any(Delivery.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdEtaGet_Exception() throws Exception {
-        when(deliveryService.getEta(123L)).thenThrow(new RuntimeException("Unexpected error"));
+        when(deliveryService.getEta(delivery1)).thenThrow(new RuntimeException("Unexpected error"));
 
         ResponseEntity<OffsetDateTime> response = deliveryController.deliveryOrderOrderIdEtaGet(123, 1);
 
-        verify(deliveryService).getEta(123L);
+        verify(deliveryService).getEta(delivery1);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
@@ -665,34 +679,34 @@ public class DeliveryControllerTest {
 
     @Test
     public void testDeliveryOrderOrderIdLocationGet_Success() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(deliveryService.getDeliveryIdByOrderId(123L)).thenReturn(456L);
         Location liveLocation = new Location(1.0, 2.0);
-        when(deliveryService.calculateLiveLocation(456L)).thenReturn(liveLocation);
+        when(deliveryService.calculateLiveLocation(delivery1)).thenReturn(liveLocation);
 
         ResponseEntity<Location> response = deliveryController.deliveryOrderOrderIdLocationGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService).getDeliveryIdByOrderId(123L);
-        verify(deliveryService).calculateLiveLocation(456L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(authorizationService, never()).getUserRole(anyLong());
+        verify(deliveryService, never()).getDeliveryIdByOrderId(anyLong());
+        verify(deliveryService).calculateLiveLocation(delivery1);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(liveLocation, response.getBody());
     }
 
     @Test
     public void testDeliveryOrderOrderIdLocationGet_Unauthorized() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.canViewDeliveryDetails(1L, 123L)).thenReturn(false);
+        when(authorizationService.findViewableDelivery(1L, 123L)).thenReturn(Optional.empty());
 
         ResponseEntity<Location> response = deliveryController.deliveryOrderOrderIdLocationGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
+        verify(authorizationService).findViewableDelivery(1L, 123L);
         verify(deliveryService, never()).getDeliveryIdByOrderId(anyLong());
-        verify(deliveryService, never()).calculateLiveLocation(anyLong());
+        verify(deliveryService, never()).calculateLiveLocation(any(Delivery.class));
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     public void testDeliveryOrderOrderIdLocationGet_InternalServerErrorOnMicroserviceCommunicationException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(authorizationService.getUserRole(anyLong())).thenThrow(MicroserviceCommunicationException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenThrow(MicroserviceCommunicationException.class);
 
         ResponseEntity<Location> response = deliveryController.deliveryOrderOrderIdLocationGet(123, 1);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -700,16 +714,55 @@ public class DeliveryControllerTest {
 
     @Test
     public void testDeliveryOrderOrderIdLocationGet_NotFoundOnOrderNotFoundException() throws MicroserviceCommunicationException, OrderNotFoundException {
-        when(deliveryService.getDeliveryIdByOrderId(123L)).thenThrow(OrderNotFoundException.class);
+        when(authorizationService.findViewableDelivery(anyLong(), anyLong())).thenThrow(OrderNotFoundException.class);
 
         ResponseEntity<Location> response = deliveryController.deliveryOrderOrderIdLocationGet(123, 1);
 
-        verify(authorizationService).canViewDeliveryDetails(1L, 123L);
-        verify(deliveryService).getDeliveryIdByOrderId(123L);
-        verify(deliveryService, never()).calculateLiveLocation(anyLong());
+        verify(authorizationService).findViewableDelivery(1L, 123L);
+        verify(deliveryService, never()).calculateLiveLocation(any(Delivery.class));
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    public void testDeliveryOrderLocationsPost_Success() throws MicroserviceCommunicationException {
+        List<Delivery> deliveries = List.of(delivery1, delivery2);
+        OrderLocation location = new OrderLocation();
+        location.setOrderId(1L);
+        location.setLocation(new Location(2.5, 2.5));
+        when(deliveryService.getDeliveriesOfOrders(Set.of(1234L, 1L))).thenReturn(deliveries);
+        when(authorizationService.filterViewableDeliveries(4L, deliveries)).thenReturn(List.of(delivery2));
+        when(deliveryService.calculateLiveLocations(List.of(delivery2))).thenReturn(List.of(location));
+
+        ResponseEntity<List<OrderLocation>> response = deliveryController.deliveryOrderLocationsPost(4,
+                List.of(1234L, 1L, 1L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(location), response.getBody());
+        verify(deliveryService).getDeliveriesOfOrders(Set.of(1234L, 1L));
+        verify(authorizationService, never()).canViewDeliveryDetails(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testDeliveryOrderLocationsPost_BadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, deliveryController.deliveryOrderLocationsPost(4, List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, deliveryController.deliveryOrderLocationsPost(4,
+                Collections.nCopies(DeliveryController.MAX_LOCATION_BATCH + 1, 1L)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, deliveryController.deliveryOrderLocationsPost(4,
+                Arrays.asList(1L, null)).getStatusCode());
+        verifyNoInteractions(deliveryService);
+    }
+
+    @Test
+    public void testDeliveryOrderLocationsPost_InternalServerErrorOnMicroserviceCommunicationException()
+            throws MicroserviceCommunicationException {
+        when(authorizationService.filterViewableDeliveries(anyLong(), any())).thenThrow(MicroserviceCommunicationException.class);
+
+        ResponseEntity<List<OrderLocation>> response = deliveryController.deliveryOrderLocationsPost(4, List.of(1L));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(deliveryService, never()).calculateLiveLocations(any());
+    }
+
     @Test
     public void deliveryOrderOrderIdCourierGetSuccessfulTest() throws OrderNotFoundException, CourierNotFoundException {
         when(deliveryService.getCourierFromOrder(1)).thenReturn(2L);
@@ -10,9 +10,20 @@ import nl.tudelft.sem.template.example.authorization.AuthorizationService;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
 
 import nl.tudelft.sem.template.example.external.OrdersMicroservice;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
+import nl.tudelft.sem.template.example.repository.VendorRepository;
 import nl.tudelft.sem.template.example.service.DeliveryService;
 import nl.tudelft.sem.template.example.service.OrderService;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.routing.TravelSpeedModel;
+import nl.tudelft.sem.template.example.service.strategy.LeastLoadedFleetStrategy;
+import nl.tudelft.sem.template.example.service.tracking.LocationTraceStore;
+import nl.tudelft.sem.template.example.service.tracking.OrderUpdateBroadcaster;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
 import nl.tudelft.sem.template.model.Vendor;
@@ -31,7 +42,26 @@ public class OrderControllerTest {
 
     private final OrdersMicroservice ordersMicroservice = Mockito.mock(OrdersMicroservice.class);
 
-    private final OrderService orderService = new OrderService(orderRepository, ordersMicroservice);
+    private final DeliveryRepository deliveryRepository = Mockito.mock(DeliveryRepository.class);
+
+    private final AvailableOrderIndex availableOrderIndex = new AvailableOrderIndex(deliveryRepository);
+
+    private final CourierLocationRegistry courierLocationRegistry = new CourierLocationRegistry();
+
+    private final CourierLoadRegistry courierLoadRegistry = new CourierLoadRegistry(deliveryRepository);
+
+    private final CourierVendorIndex courierVendorIndex = new CourierVendorIndex(Mockito.mock(VendorRepository.class));
+
+    private final LeastLoadedFleetStrategy leastLoadedFleetStrategy = new LeastLoadedFleetStrategy(deliveryRepository,
+            availableOrderIndex, courierVendorIndex, courierLoadRegistry, 3, false);
+
+    private final TravelSpeedModel travelSpeedModel = new TravelSpeedModel("", 1);
+
+    private final OrderUpdateBroadcaster orderUpdateBroadcaster = Mockito.mock(OrderUpdateBroadcaster.class);
+
+    private final OrderService orderService = new OrderService(orderRepository, ordersMicroservice,
+            deliveryRepository, availableOrderIndex, courierLocationRegistry, courierLoadRegistry, leastLoadedFleetStrategy,
+            travelSpeedModel, orderUpdateBroadcaster, Mockito.mock(LocationTraceStore.class), new CourierRoutes());
 
     private final DeliveryService deliveryService = Mockito.mock(DeliveryService.class);
 
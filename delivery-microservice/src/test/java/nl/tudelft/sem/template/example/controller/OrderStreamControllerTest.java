@@ -0,0 +1,71 @@
+package nl.tudelft.sem.template.example.controller;
+
+import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
+import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.service.OrderService;
+import nl.tudelft.sem.template.example.service.tracking.OrderUpdateBroadcaster;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class OrderStreamControllerTest {
+
+    private final OrderService orderService = Mockito.mock(OrderService.class);
+    private final AuthorizationService authorizationService = Mockito.mock(AuthorizationService.class);
+    private final OrderUpdateBroadcaster orderUpdateBroadcaster = Mockito.mock(OrderUpdateBroadcaster.class);
+    private final OrderStreamController orderStreamController = new OrderStreamController(orderService,
+            authorizationService, orderUpdateBroadcaster, 60_000);
+
+    @Test
+    void authorizedUserGetsStream() throws Exception {
+        when(authorizationService.canViewDeliveryDetails(5L, 1L)).thenReturn(true);
+        when(orderService.getOrderStatus(1)).thenReturn(Order.StatusEnum.ON_TRANSIT);
+
+        ResponseEntity<SseEmitter> response = orderStreamController.deliveryOrderOrderIdStreamGet(1, 5);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getTimeout()).isEqualTo(60_000L);
+        verify(orderUpdateBroadcaster).register(1L, Order.StatusEnum.ON_TRANSIT, response.getBody());
+        verify(authorizationService, times(1)).canViewDeliveryDetails(anyLong(), anyLong());
+    }
+
+    @Test
+    void unauthorizedUserIsForbidden() throws Exception {
+        when(authorizationService.canViewDeliveryDetails(5L, 1L)).thenReturn(false);
+
+        ResponseEntity<SseEmitter> response = orderStreamController.deliveryOrderOrderIdStreamGet(1, 5);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(orderUpdateBroadcaster);
+    }
+
+    @Test
+    void unknownOrderIsNotFound() throws Exception {
+        when(authorizationService.canViewDeliveryDetails(5L, 1L)).thenReturn(true);
+        when(orderService.getOrderStatus(1)).thenThrow(new OrderNotFoundException("Order id not found"));
+
+        ResponseEntity<SseEmitter> response = orderStreamController.deliveryOrderOrderIdStreamGet(1, 5);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        verify(orderUpdateBroadcaster, never()).register(anyLong(), any(), any());
+    }
+
+    @Test
+    void failingUsersMicroserviceGivesServerError() throws Exception {
+        when(authorizationService.canViewDeliveryDetails(5L, 1L))
+                .thenThrow(new MicroserviceCommunicationException("Users microservice unavailable"));
+
+        ResponseEntity<SseEmitter> response = orderStreamController.deliveryOrderOrderIdStreamGet(1, 5);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
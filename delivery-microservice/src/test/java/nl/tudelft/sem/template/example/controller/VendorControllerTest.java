@@ -229,4 +229,30 @@ public class VendorControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
+
+    @Test
+    void getVendorsServingTest() throws MicroserviceCommunicationException {
+        when(authorizationService.getUserRole(5L)).thenReturn("customer");
+        when(vendorService.getVendorsServing(new Location(52.0, 4.3))).thenReturn(List.of(2L, 3L));
+
+        ResponseEntity<List<Long>> response = vendorController.vendorDeliveryCoverageGet(5, 52.0, 4.3);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(2L, 3L), response.getBody());
+    }
+
+    @Test
+    void getVendorsServingInvalidLocationTest() throws MicroserviceCommunicationException {
+        when(authorizationService.getUserRole(5L)).thenReturn("customer");
+
+        assertEquals(HttpStatus.BAD_REQUEST, vendorController.vendorDeliveryCoverageGet(5, 91.0, 4.3).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, vendorController.vendorDeliveryCoverageGet(5, 52.0, null).getStatusCode());
+    }
+
+    @Test
+    void getVendorsServingUnknownUserTest() throws MicroserviceCommunicationException {
+        when(authorizationService.getUserRole(5L)).thenThrow(MicroserviceCommunicationException.class);
+
+        ResponseEntity<List<Long>> response = vendorController.vendorDeliveryCoverageGet(5, 52.0, 4.3);
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
 }
@@ -24,9 +24,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.times;
@@ -61,6 +64,9 @@ public class DeliveryControllerIntegrationTest {
     @BeforeEach
     public void setUp() {
         testDatabaseLoader.loadTestData();
+        // The non-blocking lookup answers like the blocking one stubbed in each test
+        doAnswer(invocation -> CompletableFuture.completedFuture(usersMicroservice.getUserType(invocation.getArgument(0))))
+                .when(usersMicroservice).getUserTypeAsync(anyLong());
     }
 
     @AfterEach
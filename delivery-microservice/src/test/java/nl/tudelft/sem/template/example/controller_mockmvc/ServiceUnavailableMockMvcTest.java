@@ -0,0 +1,113 @@
+package nl.tudelft.sem.template.example.controller_mockmvc;
+
+import nl.tudelft.sem.template.example.Application;
+import nl.tudelft.sem.template.example.TestDatabaseLoader;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
+import nl.tudelft.sem.template.example.external.OrdersMicroservice;
+import nl.tudelft.sem.template.example.external.UsersMicroservice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests that need the users microservice while it is unavailable are answered with 503 and a
+ * Retry-After header, whether the role is looked up by the authorization or by a service.
+ */
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = Application.class)
+public class ServiceUnavailableMockMvcTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TestDatabaseLoader testDatabaseLoader;
+
+    @MockBean
+    private UsersMicroservice usersMicroservice;
+
+    @MockBean
+    private OrdersMicroservice ordersMicroservice;
+
+    @BeforeEach
+    public void setUp() {
+        testDatabaseLoader.loadTestData();
+
+        ServiceUnavailableException unavailable = new ServiceUnavailableException("Circuit breaker is open");
+        when(usersMicroservice.getUserType(1010L)).thenReturn(Optional.of("admin"));
+        when(usersMicroservice.getUserType(4444L)).thenThrow(unavailable);
+        doReturn(CompletableFuture.failedFuture(unavailable)).when(usersMicroservice).getUserTypeAsync(anyLong());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        testDatabaseLoader.clearTestData();
+    }
+
+    @Test
+    void deliveryDetailsUnavailable() throws Exception {
+        mvc.perform(get("/delivery/order/1/ready-time")
+                        .header("authorizationId", 1010L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+    }
+
+    @Test
+    void etaUnavailable() throws Exception {
+        mvc.perform(get("/delivery/order/1/eta")
+                        .header("authorizationId", 1010L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+    }
+
+    @Test
+    void orderStreamUnavailable() throws Exception {
+        mvc.perform(get("/delivery/order/1/stream")
+                        .header("authorizationId", 1010L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+    }
+
+    @Test
+    void courierAssignmentUnavailable() throws Exception {
+        mvc.perform(put("/courier/delivery/4444/assign/1")
+                        .header("authorizationId", 4444L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+    }
+
+    @Test
+    void vendorAssignmentUnavailable() throws Exception {
+        mvc.perform(put("/vendor/delivery/5/assign/4444")
+                        .header("authorizationId", 1010L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+    }
+
+    @Test
+    void courierAnalyticsUnavailable() throws Exception {
+        mvc.perform(get("/analytics/courier/4444/deliveries-per-day")
+                        .header("authorizationId", 1010L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+    }
+}
@@ -23,8 +23,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -62,19 +64,22 @@ public class SystemMockMvcTest {
     @BeforeEach
     public void setUp() {
         testDatabaseLoader.loadTestData();
+        // The non-blocking lookup answers like the blocking one stubbed in each test
+        doAnswer(invocation -> CompletableFuture.completedFuture(usersMicroservice.getUserType(invocation.getArgument(0))))
+                .when(usersMicroservice).getUserTypeAsync(anyLong());
 
         Integer authorizationId = 5;
         dummyDeliveryPostRequest = new DeliveryPostRequest();
         dummyDeliveryPostRequest.setVendorId(55);
         dummyDeliveryPostRequest.setOrderId(66);
         dummyDeliveryPostRequest.setCustomerId(77);
-        dummyDeliveryPostRequest.setDestination(new Location(13.0, 13.0));
+        dummyDeliveryPostRequest.setDestination(new Location(2.1, 3.1));
 
         dummyDeliveryPostRequest2 = new DeliveryPostRequest();
         dummyDeliveryPostRequest2.setVendorId(111);
         dummyDeliveryPostRequest2.setOrderId(2020);
         dummyDeliveryPostRequest2.setCustomerId(712);
-        dummyDeliveryPostRequest2.setDestination(new Location(13.0, 13.0));
+        dummyDeliveryPostRequest2.setDestination(new Location(2.1, 3.1));
 
         when(usersMicroservice.getUserType(55L)).thenReturn(Optional.of("vendor"));
         when(usersMicroservice.getUserType(77L)).thenReturn(Optional.of("customer"));
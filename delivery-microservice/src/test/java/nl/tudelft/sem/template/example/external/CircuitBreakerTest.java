@@ -0,0 +1,102 @@
+package nl.tudelft.sem.template.example.external;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(4, 2, 0.5, 100, 5_000, 2, now::get);
+
+    private void call(boolean failed) {
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        circuitBreaker.record(10, failed);
+    }
+
+    @Test
+    void staysClosedBelowFailureRate() {
+        call(false);
+        call(false);
+        call(true);
+        call(false);
+        call(false);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getFailureRate()).isCloseTo(0.25, offset(1e-9));
+    }
+
+    @Test
+    void doesNotOpenBeforeMinimumCalls() {
+        call(true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensAtFailureRateAndRefusesCalls() {
+        call(false);
+        call(false);
+        call(true);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        call(true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void slowCallCountsAsFailure() {
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        circuitBreaker.record(101, false);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        circuitBreaker.record(100, false);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void closesAfterSuccessfulTrialCalls() {
+        call(true);
+        call(true);
+        now.addAndGet(5_000);
+
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        circuitBreaker.record(10, false);
+        circuitBreaker.record(10, false);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    void failedTrialCallOpensAgain() {
+        call(true);
+        call(true);
+        now.addAndGet(4_999);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        now.addAndGet(1);
+
+        call(true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new CircuitBreaker(0, 1, 0.5, 100, 5_000, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker(4, 5, 0.5, 100, 5_000, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker(4, 2, 0, 100, 5_000, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
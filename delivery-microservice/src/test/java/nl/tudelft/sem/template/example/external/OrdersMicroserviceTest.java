@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -18,7 +19,8 @@ public class OrdersMicroserviceTest {
     @BeforeEach
     public void setup() {
         this.restTemplate = Mockito.mock(RestTemplate.class);
-        ordersMicroservice = new OrdersMicroservice(restTemplate);
+        ordersMicroservice = new OrdersMicroservice(restTemplate,
+                new ServiceGuard("orders", new CircuitBreaker(4, 2, 0.5, 1_000, 60_000, 1), 2, 0));
     }
 
     @Test
@@ -37,4 +39,15 @@ public class OrdersMicroserviceTest {
         Mockito.verify(restTemplate).put(usersBaseUrl + "/order/1/status/1?status=Delivered", null);
     }
 
+    @Test
+    public void testPutOrderStatusUnavailable() {
+        Mockito.doThrow(new ResourceAccessException("Connection refused")).when(restTemplate)
+                .put(Mockito.anyString(), Mockito.any());
+
+        assertThat(ordersMicroservice.putOrderStatus(1L, 1L, "Delivered")).isFalse();
+        assertThat(ordersMicroservice.putOrderStatus(1L, 1L, "Delivered")).isFalse();
+        assertThat(ordersMicroservice.putOrderStatus(1L, 1L, "Delivered")).isFalse();
+        Mockito.verify(restTemplate, Mockito.times(2)).put(Mockito.anyString(), Mockito.any());
+    }
+
 }
@@ -0,0 +1,138 @@
+package nl.tudelft.sem.template.example.external;
+
+import com.sun.net.httpserver.HttpServer;
+import nl.tudelft.sem.template.example.configuration.HttpClientPool;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Calls a stub of a microservice that answers with errors or slowly.
+ */
+public class ServiceGuardTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile int status = 200;
+    private volatile long latency;
+    private HttpServer server;
+    private String baseUrl;
+    private HttpClientPool pool;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/user", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "courier".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/hanging", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        pool = new HttpClientPool(10, 5, 1_000, 2_000, 1_000, 30_000);
+        restTemplate = new RestTemplate(pool.getRequestFactory());
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        pool.close();
+        server.stop(0);
+    }
+
+    private String getUser(ServiceGuard serviceGuard) {
+        return serviceGuard.call(() -> restTemplate.getForObject(baseUrl + "/user", String.class));
+    }
+
+    @Test
+    void serverErrorsOpenBreakerAndCallsFailFast() {
+        ServiceGuard serviceGuard = new ServiceGuard("users", new CircuitBreaker(4, 4, 0.5, 1_000, 60_000, 1), 5, 0);
+        assertThat(getUser(serviceGuard)).isEqualTo("courier");
+        assertThat(getUser(serviceGuard)).isEqualTo("courier");
+        status = 500;
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> getUser(serviceGuard)).isInstanceOf(ServiceUnavailableException.class);
+        }
+
+        assertThat(requests.get()).isEqualTo(4);
+        assertThat(serviceGuard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(serviceGuard.getFailures()).isEqualTo(2);
+        assertThat(serviceGuard.getBreakerRejections()).isEqualTo(3);
+    }
+
+    @Test
+    void slowResponsesOpenBreaker() {
+        ServiceGuard serviceGuard = new ServiceGuard("users", new CircuitBreaker(2, 2, 1, 50, 60_000, 1), 5, 0);
+        latency = 100;
+        assertThat(getUser(serviceGuard)).isEqualTo("courier");
+        assertThat(getUser(serviceGuard)).isEqualTo("courier");
+
+        assertThatThrownBy(() -> getUser(serviceGuard)).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenBreaker() {
+        ServiceGuard serviceGuard = new ServiceGuard("users", new CircuitBreaker(2, 2, 0.5, 1_000, 60_000, 1), 5, 0);
+        status = 404;
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> getUser(serviceGuard)).isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(requests.get()).isEqualTo(3);
+        assertThat(serviceGuard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void fullBulkheadRejectsCalls() throws Exception {
+        ServiceGuard serviceGuard = new ServiceGuard("users", new CircuitBreaker(2, 2, 0.5, 10_000, 60_000, 1), 1, 20);
+        CompletableFuture<String> hanging = CompletableFuture.supplyAsync(() -> serviceGuard.call(
+                () -> restTemplate.getForObject(baseUrl + "/hanging", String.class)));
+        while (pool.getLeasedConnections() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> getUser(serviceGuard)).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(serviceGuard.getBulkheadRejections()).isEqualTo(1);
+        assertThat(requests.get()).isZero();
+
+        release.countDown();
+        hanging.get(5, TimeUnit.SECONDS);
+        assertThat(getUser(serviceGuard)).isEqualTo("courier");
+    }
+}
@@ -0,0 +1,92 @@
+package nl.tudelft.sem.template.example.external;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+public class UserRoleCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final List<Long> loaded = new ArrayList<>();
+    private final UserRoleCache userRoleCache = new UserRoleCache(60_000, 5_000, 2, now::get);
+
+    private Optional<String> load(long userId) {
+        loaded.add(userId);
+        return userId == 404L ? Optional.empty() : Optional.of("courier");
+    }
+
+    @Test
+    void loadsRoleOnceUntilItExpires() {
+        assertThat(userRoleCache.getRole(1L, this::load)).contains("courier");
+        now.addAndGet(59_999);
+        assertThat(userRoleCache.getRole(1L, this::load)).contains("courier");
+        now.addAndGet(1);
+        assertThat(userRoleCache.getRole(1L, this::load)).contains("courier");
+
+        assertThat(loaded).containsExactly(1L, 1L);
+        assertThat(userRoleCache.getHits()).isEqualTo(1);
+        assertThat(userRoleCache.getMisses()).isEqualTo(2);
+        assertThat(userRoleCache.getHitRate()).isCloseTo(1.0 / 3, offset(1e-9));
+    }
+
+    @Test
+    void cachesUnknownUserForShorterTime() {
+        assertThat(userRoleCache.getRole(404L, this::load)).isEmpty();
+        now.addAndGet(4_999);
+        assertThat(userRoleCache.getRole(404L, this::load)).isEmpty();
+        now.addAndGet(1);
+        assertThat(userRoleCache.getRole(404L, this::load)).isEmpty();
+
+        assertThat(loaded).containsExactly(404L, 404L);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUser() {
+        userRoleCache.getRole(1L, this::load);
+        userRoleCache.getRole(2L, this::load);
+        userRoleCache.getRole(1L, this::load);
+        userRoleCache.getRole(3L, this::load);
+        userRoleCache.getRole(1L, this::load);
+        userRoleCache.getRole(2L, this::load);
+
+        assertThat(loaded).containsExactly(1L, 2L, 3L, 2L);
+        assertThat(userRoleCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateForgetsRoles() {
+        userRoleCache.getRole(1L, this::load);
+        userRoleCache.getRole(2L, this::load);
+
+        userRoleCache.invalidate(1L);
+        userRoleCache.getRole(1L, this::load);
+        userRoleCache.getRole(2L, this::load);
+        userRoleCache.invalidateAll();
+
+        assertThat(loaded).containsExactly(1L, 2L, 1L);
+        assertThat(userRoleCache.size()).isZero();
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        assertThatThrownBy(() -> userRoleCache.getRole(1L, userId -> {
+            throw new IllegalStateException("Users microservice is down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(userRoleCache.getRole(1L, this::load)).contains("courier");
+        assertThat(loaded).containsExactly(1L);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new UserRoleCache(60_000, 5_000, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new UserRoleCache(-1, 5_000, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
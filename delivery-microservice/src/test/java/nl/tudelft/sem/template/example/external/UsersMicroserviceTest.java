@@ -1,18 +1,29 @@
 package nl.tudelft.sem.template.example.external;
 
 
+import nl.tudelft.sem.template.example.configuration.AsyncHttpClient;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
 import nl.tudelft.sem.template.model.Location;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UsersMicroserviceTest {
@@ -20,13 +31,22 @@ public class UsersMicroserviceTest {
 
     private RestTemplate restTemplate;
 
+    private AsyncHttpClient asyncHttpClient;
+
+    private UserRoleCache userRoleCache;
+
+    private ServiceGuard serviceGuard;
+
     private UsersMicroservice usersMicroservice;
     private final String usersBaseUrl = "http://localhost:8081";
 
     @BeforeEach
     public void setup() {
         this.restTemplate = Mockito.mock(RestTemplate.class);
-        usersMicroservice = new UsersMicroservice(restTemplate);
+        asyncHttpClient = Mockito.mock(AsyncHttpClient.class);
+        userRoleCache = new UserRoleCache(60_000, 10_000, 100);
+        serviceGuard = new ServiceGuard("users", new CircuitBreaker(4, 2, 0.5, 1_000, 60_000, 1), 2, 0);
+        usersMicroservice = new UsersMicroservice(restTemplate, asyncHttpClient, userRoleCache, serviceGuard);
     }
     @Test
     void testGetUserType() {
@@ -42,6 +62,125 @@ public class UsersMicroserviceTest {
         assertThat(usersMicroservice.getUserType(1L)).isEqualTo(Optional.empty());
     }
 
+    @Test
+    void testGetUserTypeIsCached() {
+        when(restTemplate.getForObject(usersBaseUrl + "/user/" + 1, String.class))
+                .thenReturn("admin");
+        usersMicroservice.getUserType(1L);
+        assertThat(usersMicroservice.getUserType(1L)).isEqualTo(Optional.of("admin"));
+        verify(restTemplate, times(1)).getForObject(usersBaseUrl + "/user/" + 1, String.class);
+        assertThat(userRoleCache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetUserTypeCachesUnknownUser() {
+        when(restTemplate.getForObject(usersBaseUrl + "/user/" + 1, String.class))
+                .thenThrow(HttpClientErrorException.NotFound.class);
+        usersMicroservice.getUserType(1L);
+        assertThat(usersMicroservice.getUserType(1L)).isEqualTo(Optional.empty());
+        verify(restTemplate, times(1)).getForObject(usersBaseUrl + "/user/" + 1, String.class);
+    }
+
+    @Test
+    void testGetUserTypeDoesNotCacheOtherErrors() {
+        when(restTemplate.getForObject(usersBaseUrl + "/user/" + 1, String.class))
+                .thenThrow(HttpClientErrorException.class);
+        usersMicroservice.getUserType(1L);
+        assertThat(usersMicroservice.getUserType(1L)).isEqualTo(Optional.empty());
+        verify(restTemplate, times(2)).getForObject(usersBaseUrl + "/user/" + 1, String.class);
+        assertThat(userRoleCache.size()).isZero();
+    }
+
+    @Test
+    void testGetUserTypeServesExpiredRoleWhileUnavailable() {
+        AtomicLong now = new AtomicLong();
+        userRoleCache = new UserRoleCache(1_000, 1_000, 100, now::get);
+        usersMicroservice = new UsersMicroservice(restTemplate, asyncHttpClient, userRoleCache, serviceGuard);
+        when(restTemplate.getForObject(usersBaseUrl + "/user/" + 1, String.class))
+                .thenReturn("courier")
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        usersMicroservice.getUserType(1L);
+        now.set(2_000);
+
+        assertThat(usersMicroservice.getUserType(1L)).isEqualTo(Optional.of("courier"));
+        assertThat(serviceGuard.getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetUserTypeUnavailableWithoutCachedRole() {
+        when(restTemplate.getForObject(usersBaseUrl + "/user/" + 1, String.class))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        assertThatThrownBy(() -> usersMicroservice.getUserType(1L))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(userRoleCache.size()).isZero();
+    }
+
+    @Test
+    void testOpenBreakerStopsCalls() {
+        when(restTemplate.getForObject(usersBaseUrl + "/user/" + 1, String.class))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> usersMicroservice.getUserType(1L))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        }
+
+        verify(restTemplate, times(2)).getForObject(usersBaseUrl + "/user/" + 1, String.class);
+        assertThat(serviceGuard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(serviceGuard.getBreakerRejections()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetUserTypeAsync() {
+        when(asyncHttpClient.get(usersBaseUrl + "/user/" + 1))
+                .thenReturn(CompletableFuture.completedFuture("admin"));
+        assertThat(usersMicroservice.getUserTypeAsync(1L).join()).isEqualTo(Optional.of("admin"));
+        assertThat(usersMicroservice.getUserTypeAsync(1L).join()).isEqualTo(Optional.of("admin"));
+        verify(asyncHttpClient, times(1)).get(usersBaseUrl + "/user/" + 1);
+    }
+
+    @Test
+    void testGetUserTypeAsyncSharesCacheWithBlockingLookup() {
+        when(restTemplate.getForObject(usersBaseUrl + "/user/" + 1, String.class))
+                .thenReturn("vendor");
+        usersMicroservice.getUserType(1L);
+        assertThat(usersMicroservice.getUserTypeAsync(1L).join()).isEqualTo(Optional.of("vendor"));
+        verify(asyncHttpClient, times(0)).get(Mockito.anyString());
+    }
+
+    @Test
+    void testGetUserTypeAsyncCachesUnknownUser() {
+        when(asyncHttpClient.get(usersBaseUrl + "/user/" + 1))
+                .thenReturn(CompletableFuture.failedFuture(HttpClientErrorException.create(HttpStatus.NOT_FOUND,
+                        "Not Found", new HttpHeaders(), new byte[0], null)));
+        assertThat(usersMicroservice.getUserTypeAsync(1L).join()).isEqualTo(Optional.empty());
+        assertThat(usersMicroservice.getUserTypeAsync(1L).join()).isEqualTo(Optional.empty());
+        verify(asyncHttpClient, times(1)).get(usersBaseUrl + "/user/" + 1);
+    }
+
+    @Test
+    void testGetUserTypeAsyncServesExpiredRoleWhileUnavailable() {
+        AtomicLong now = new AtomicLong();
+        userRoleCache = new UserRoleCache(1_000, 1_000, 100, now::get);
+        usersMicroservice = new UsersMicroservice(restTemplate, asyncHttpClient, userRoleCache, serviceGuard);
+        when(asyncHttpClient.get(usersBaseUrl + "/user/" + 1))
+                .thenReturn(CompletableFuture.completedFuture("courier"))
+                .thenReturn(CompletableFuture.failedFuture(new ResourceAccessException("Connection refused")));
+        usersMicroservice.getUserTypeAsync(1L).join();
+        now.set(2_000);
+
+        assertThat(usersMicroservice.getUserTypeAsync(1L).join()).isEqualTo(Optional.of("courier"));
+        assertThat(serviceGuard.getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetUserTypeAsyncUnavailableWithoutCachedRole() {
+        when(asyncHttpClient.get(usersBaseUrl + "/user/" + 1))
+                .thenReturn(CompletableFuture.failedFuture(new ResourceAccessException("Connection refused")));
+        assertThatThrownBy(() -> usersMicroservice.getUserTypeAsync(1L).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ServiceUnavailableException.class);
+    }
+
     @Test
     void testGetVendorLocation() {
         when(restTemplate.getForObject(usersBaseUrl + "/vendor/" + 1 + "/location", Location.class))
@@ -55,4 +194,11 @@ public class UsersMicroserviceTest {
                 .thenThrow(HttpClientErrorException.class);
         assertThat(usersMicroservice.getVendorLocation(1L)).isEqualTo(Optional.empty());
     }
+
+    @Test
+    void testGetVendorLocationUnavailable() {
+        when(restTemplate.getForObject(usersBaseUrl + "/vendor/" + 1 + "/location", Location.class))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+        assertThat(usersMicroservice.getVendorLocation(1L)).isEqualTo(Optional.empty());
+    }
 }
@@ -11,6 +11,12 @@ import nl.tudelft.sem.template.example.external.UsersMicroservice;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.routing.EtaCache;
+import nl.tudelft.sem.template.example.service.routing.RoutingEngine;
+import nl.tudelft.sem.template.example.service.routing.TravelSpeedModel;
+import nl.tudelft.sem.template.example.service.geo.DeliveryAreaIndex;
+import nl.tudelft.sem.template.example.service.tracking.CourierPingStore;
 import nl.tudelft.sem.template.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,7 +54,10 @@ public class AnalyticsServiceTest {
         vendorRepository = Mockito.mock(VendorRepository.class);
         orderRepository = Mockito.mock(OrderRepository.class);
         usersMicroservice = Mockito.mock(UsersMicroservice.class);
-        deliveryService = new DeliveryService(deliveryRepository, orderRepository, vendorRepository, Mockito.mock(VendorService.class), Mockito.mock(ConfigurationProperties.class));
+        deliveryService = new DeliveryService(deliveryRepository, orderRepository, vendorRepository, Mockito.mock(VendorService.class), Mockito.mock(ConfigurationProperties.class),
+                Mockito.mock(AvailableOrderIndex.class), Mockito.mock(RoutingEngine.class),
+                Mockito.mock(EtaCache.class), Mockito.mock(TravelSpeedModel.class),
+                Mockito.mock(CourierPingStore.class), Mockito.mock(DeliveryAreaIndex.class));
 
         analyticsService = new AnalyticsService(deliveryRepository, vendorRepository, orderRepository,
                 deliveryService, usersMicroservice);
@@ -244,7 +253,7 @@ public class AnalyticsServiceTest {
         when(deliveryRepository.findByCourierId(courierId)).thenReturn(deliveries);
         int result = analyticsService.getCourierEfficiency(courierId);
 
-        assertEquals(163, result);
+        assertEquals(13098, result);
     }
 
     @Test
@@ -279,7 +288,7 @@ public class AnalyticsServiceTest {
         when(deliveryRepository.findDeliveryByOrder_OrderId(3L)).thenReturn(deliveries.get(2));
 
         int result = analyticsService.getVendorAverage(1L);
-        assertEquals(5400, result);
+        assertEquals(480, result);
 
     }
 
@@ -300,13 +309,13 @@ public class AnalyticsServiceTest {
         order1.setOrderId(1L);
         order1.setStatus(Order.StatusEnum.DELIVERED);
         Vendor vendor1 = new Vendor();
-        vendor1.setAddress(new Location(0.0, 0.0));
+        vendor1.setAddress(new Location(52.0116, 4.3571));
         order1.setVendor(vendor1);
-        Location destination1 = new Location(5.0, 6.0);
+        Location destination1 = new Location(52.0, 4.37);
         order1.setDestination(destination1);
         Time time1 = new Time();
         time1.setPickUpTime(OffsetDateTime.parse("2024-01-01T10:00:00Z"));
-        time1.setDeliveredTime(OffsetDateTime.parse("2024-01-01T11:00:00Z"));
+        time1.setDeliveredTime(OffsetDateTime.parse("2024-01-01T10:06:00Z"));
         delivery1.setTime(time1);
         delivery1.setOrder(order1);
         deliveries.add(delivery1);
@@ -317,14 +326,13 @@ public class AnalyticsServiceTest {
         order2.setOrderId(2L);
         Vendor vendor2 = new Vendor();
         order2.setStatus(Order.StatusEnum.DELIVERED);
-        vendor2.setAddress(new Location(-2.0, -1.0));
+        vendor2.setAddress(new Location(51.998, 4.342));
         order2.setVendor(vendor2);
-        Location destination2 = new Location(5.0, 6.0);
-        destination2 = new Location(5.0, 6.0);
+        Location destination2 = new Location(52.0, 4.37);
         order2.setDestination(destination2);
         Time time2 = new Time();
         time2.setPickUpTime(OffsetDateTime.parse("2024-01-01T10:00:00Z"));
-        time2.setDeliveredTime(OffsetDateTime.parse("2024-01-01T12:00:00Z"));
+        time2.setDeliveredTime(OffsetDateTime.parse("2024-01-01T10:10:00Z"));
         delivery2.setTime(time2);
         delivery2.setOrder(order2);
         deliveries.add(delivery2);
@@ -335,13 +343,13 @@ public class AnalyticsServiceTest {
         order3.setOrderId(3L);
         order3.setStatus(Order.StatusEnum.ON_TRANSIT);
         Vendor vendor3 = new Vendor();
-        vendor3.setAddress(new Location(-1.0, -1.0));
+        vendor3.setAddress(new Location(52.005, 4.36));
         order3.setVendor(vendor3);
-        Location destination3 = new Location(5.0, 6.0);
+        Location destination3 = new Location(52.0, 4.37);
         order3.setDestination(destination3);
         Time time3 = new Time();
         time3.setPickUpTime(OffsetDateTime.parse("2024-01-01T10:00:00Z"));
-        time3.setDeliveredTime(OffsetDateTime.parse("2024-01-01T12:00:00Z"));
+        time3.setDeliveredTime(OffsetDateTime.parse("2024-01-01T10:30:00Z"));
         delivery3.setTime(time3);
         delivery3.setOrder(order3);
         deliveries.add(delivery3);
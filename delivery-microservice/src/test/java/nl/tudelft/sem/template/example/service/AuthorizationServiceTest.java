@@ -3,6 +3,8 @@ package nl.tudelft.sem.template.example.service;
 import nl.tudelft.sem.template.example.Application;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
+import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.exception.ServiceUnavailableException;
 import nl.tudelft.sem.template.example.external.UsersMicroservice;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.model.Delivery;
@@ -16,13 +18,21 @@ import org.junit.jupiter.api.TestInstance;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.transaction.Transactional;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Transactional
@@ -48,6 +58,10 @@ public class AuthorizationServiceTest {
 
     @BeforeEach
     void setup(){
+        // The non-blocking lookup answers like the blocking one stubbed in each test
+        Mockito.doAnswer(invocation -> CompletableFuture.completedFuture(
+                usersMicroservice.getUserType(invocation.getArgument(0)))).when(usersMicroservice).getUserTypeAsync(anyLong());
+        Mockito.clearInvocations(usersMicroservice);
         Vendor normalVendor = new Vendor(4L, 30L, new Location(3.0, 4.0), new ArrayList<>());
         Order firstOrder = new Order(1L, 7L, normalVendor, Order.StatusEnum.PENDING, new Location(5.0, 6.0));
         firstDelivery = new Delivery();
@@ -246,6 +260,94 @@ public class AuthorizationServiceTest {
                 .isInstanceOf(MicroserviceCommunicationException.class);
     }
 
+    @Test
+    void testGetUserRoleLooksUpOncePerRequest() throws MicroserviceCommunicationException {
+        when(usersMicroservice.getUserType(7L)).thenReturn(Optional.of("\"customer\""));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            assertThat(authorizationService.getUserRole(7L)).isEqualTo("customer");
+            assertThat(authorizationService.canViewDeliveryDetails(7L, 1L)).isTrue();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        verify(usersMicroservice, times(1)).getUserType(7L);
+    }
+
+    @Test
+    void testCanViewDeliveryDetailsReadsDeliveryWhileRoleIsRetrieved() throws MicroserviceCommunicationException {
+        CompletableFuture<Optional<String>> userType = new CompletableFuture<>();
+        Mockito.doReturn(userType).when(usersMicroservice).getUserTypeAsync(7L);
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+                .execute(() -> userType.complete(Optional.of("customer")));
+
+        assertThat(authorizationService.canViewDeliveryDetails(7L, 1L)).isTrue();
+        verify(usersMicroservice, times(0)).getUserType(7L);
+    }
+
+    @Test
+    void testCanViewDeliveryDetailsUsersMicroserviceUnavailable() {
+        Mockito.doReturn(CompletableFuture.failedFuture(new ServiceUnavailableException("Users microservice is down")))
+                .when(usersMicroservice).getUserTypeAsync(7L);
+
+        Assertions.assertThatThrownBy(() -> authorizationService.canViewDeliveryDetails(7L, 1L))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void testGetUserRoleOutsideRequestIsNotRemembered() throws MicroserviceCommunicationException {
+        // The Spring test context binds a mock request to the test thread, unbind it to be outside a request
+        RequestContextHolder.resetRequestAttributes();
+        when(usersMicroservice.getUserType(7L)).thenReturn(Optional.of("customer"));
+
+        authorizationService.getUserRole(7L);
+        authorizationService.getUserRole(7L);
+
+        verify(usersMicroservice, times(2)).getUserType(7L);
+    }
+
+    @Test
+    void testFilterViewableDeliveriesKeepsOwnOrdersOnly() throws MicroserviceCommunicationException {
+        Vendor otherVendor = new Vendor(5L, 30L, new Location(3.0, 4.0), new ArrayList<>());
+        Delivery otherDelivery = new Delivery();
+        otherDelivery.setOrder(new Order(2L, 8L, otherVendor, Order.StatusEnum.PENDING, new Location(5.0, 6.0)));
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("customer"));
+
+        List<Delivery> result = authorizationService.filterViewableDeliveries(7L, List.of(firstDelivery, otherDelivery));
+
+        Assertions.assertThat(result).containsExactly(firstDelivery);
+        verify(usersMicroservice, times(1)).getUserType(7L);
+    }
+
+    @Test
+    void testFilterViewableDeliveriesFaultyMicroserviceCommunication() {
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.empty());
+        Assertions.assertThatThrownBy(() -> authorizationService.filterViewableDeliveries(7L, List.of(firstDelivery)))
+                .isInstanceOf(MicroserviceCommunicationException.class);
+    }
+
+    @Test
+    void testIsInvolvedInDeliveryAsCourier() {
+        firstDelivery.setCourierId(55L);
+
+        assertThat(authorizationService.isInvolvedInDelivery(55L, "courier", firstDelivery)).isTrue();
+        assertThat(authorizationService.isInvolvedInDelivery(56L, "courier", firstDelivery)).isFalse();
+        assertThat(authorizationService.isInvolvedInDelivery(4L, "vendor", firstDelivery)).isTrue();
+    }
+
+    @Test
+    void testCanReportCourierLocationAsTheCourier() throws MicroserviceCommunicationException {
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("courier"));
+        assertThat(authorizationService.canReportCourierLocation(55L, 55L)).isTrue();
+        assertThat(authorizationService.canReportCourierLocation(55L, 77L)).isFalse();
+    }
+
+    @Test
+    void testCanReportCourierLocationAsAdmin() throws MicroserviceCommunicationException {
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("admin"));
+        assertThat(authorizationService.canReportCourierLocation(4L, 4L)).isFalse();
+    }
+
     @Test
     void testCanChangeOrderRating() throws MicroserviceCommunicationException {
         when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("customer"));
@@ -295,4 +397,37 @@ public class AuthorizationServiceTest {
 
         assertThat(result).isFalse();
     }
+
+    @Test
+    void testFindViewableDeliveryReturnsLoadedDelivery() throws Exception {
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("customer"));
+
+        Optional<Delivery> result = authorizationService.findViewableDelivery(7L, 1L);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getOrder().getOrderId()).isEqualTo(1L);
+        verify(usersMicroservice, times(1)).getUserTypeAsync(7L);
+    }
+
+    @Test
+    void testFindViewableDeliveryNotInvolved() throws Exception {
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("customer"));
+
+        assertThat(authorizationService.findViewableDelivery(9L, 1L)).isEmpty();
+    }
+
+    @Test
+    void testFindUpdatableDeliveryAsCustomer() throws Exception {
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("customer"));
+
+        assertThat(authorizationService.findUpdatableDelivery(7L, 1L)).isEmpty();
+    }
+
+    @Test
+    void testFindUpdatableDeliveryOrderNotFound() {
+        when(usersMicroservice.getUserType(anyLong())).thenReturn(Optional.of("admin"));
+
+        Assertions.assertThatThrownBy(() -> authorizationService.findUpdatableDelivery(1L, 999L))
+                .isInstanceOf(OrderNotFoundException.class);
+    }
 }
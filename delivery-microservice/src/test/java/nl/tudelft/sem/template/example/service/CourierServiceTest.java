@@ -4,10 +4,24 @@ import nl.tudelft.sem.template.example.exception.CourierNotFoundException;
 import nl.tudelft.sem.template.example.exception.DeliveryNotFoundException;
 import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
 import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
+import nl.tudelft.sem.template.example.exception.UnknownStrategyException;
 import nl.tudelft.sem.template.example.external.UsersMicroservice;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.strategy.AssignOrderStrategyRegistry;
+import nl.tudelft.sem.template.example.service.strategy.BatchDispatchStrategy;
+import nl.tudelft.sem.template.example.service.strategy.NearestOrderStrategy;
+import nl.tudelft.sem.template.example.service.strategy.RandomOrderStrategy;
+import nl.tudelft.sem.template.example.service.strategy.SpecificOrderStrategy;
+import nl.tudelft.sem.template.example.service.tracking.CourierPingStore;
+import nl.tudelft.sem.template.example.service.tracking.LocationTraceStore;
+import nl.tudelft.sem.template.example.service.tracking.TraceReader;
 import nl.tudelft.sem.template.model.*;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +30,11 @@ import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,7 +51,30 @@ public class CourierServiceTest {
 
     private final UsersMicroservice usersMicroservice = Mockito.mock(UsersMicroservice.class);
 
-    private final CourierService courierService = Mockito.spy(new CourierService(deliveryRepository, vendorRepository, usersMicroservice));
+    private final AvailableOrderIndex availableOrderIndex = new AvailableOrderIndex(deliveryRepository);
+
+    private final CourierVendorIndex courierVendorIndex = new CourierVendorIndex(vendorRepository);
+
+    private final CourierLocationRegistry courierLocationRegistry = new CourierLocationRegistry();
+
+    private final CourierLoadRegistry courierLoadRegistry = new CourierLoadRegistry(deliveryRepository);
+
+    private final BatchDispatchStrategy batchDispatchStrategy = new BatchDispatchStrategy(deliveryRepository, availableOrderIndex, courierVendorIndex, courierLocationRegistry, courierLoadRegistry, 60_000);
+
+    private final SpecificOrderStrategy specificOrderStrategy = new SpecificOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry);
+
+    private final AssignOrderStrategyRegistry strategyRegistry = new AssignOrderStrategyRegistry(List.of(specificOrderStrategy,
+            new RandomOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry),
+            new NearestOrderStrategy(deliveryRepository, availableOrderIndex, courierVendorIndex, courierLocationRegistry, courierLoadRegistry),
+            batchDispatchStrategy), RandomOrderStrategy.NAME);
+
+    private final CourierRoutes courierRoutes = new CourierRoutes();
+
+    private final CourierPingStore courierPingStore = new CourierPingStore(courierLocationRegistry, 4, 15_000, 60_000, 3_600_000);
+
+    private final LocationTraceStore locationTraceStore = new LocationTraceStore("", 4096, 10, Long.MAX_VALUE, 0);
+
+    private final CourierService courierService = Mockito.spy(new CourierService(deliveryRepository, usersMicroservice, availableOrderIndex, courierVendorIndex, specificOrderStrategy, strategyRegistry, courierRoutes, courierPingStore, locationTraceStore, 100));
 
     private final OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
     @BeforeEach
@@ -73,8 +115,10 @@ public class CourierServiceTest {
 
         when(deliveryRepository.findById(2L)).thenReturn(Optional.of(deliveryAssigning));
         when(deliveryRepository.findAll()).thenReturn(deliveryList);
-        when(deliveryRepository.findDeliveryByOrder_OrderId(5L)).thenReturn(deliveryAssigning);
+        availableOrderIndex.rebuild(deliveryList);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(5L)).thenReturn(deliveryList.get(0));
         when(vendorRepository.findAll()).thenReturn(vendors);
+        courierVendorIndex.rebuild(vendors);
 
         when(deliveryRepository.findDeliveryByOrder_OrderId(9L)).thenReturn(delivery);
         when(deliveryRepository.findById(2L)).thenReturn(Optional.of(delivery));
@@ -99,17 +143,39 @@ public class CourierServiceTest {
         Delivery deliveryNotAccepted = new Delivery(4L, new Order(9L, 3L, new Vendor(1L, 9L, new Location(5.0, 1.0), new ArrayList<>()), Order.StatusEnum.PENDING, new Location(5.0, 1.0)), null, new Rating(), new Time(), new Issue());
         List<Delivery> additionalDeliveries = Arrays.asList(deliveryWithCourier, deliveryNotAccepted);
         when(deliveryRepository.findAll()).thenReturn(additionalDeliveries);
+        availableOrderIndex.rebuild(additionalDeliveries);
         List<Long> orderIds = courierService.getAvailableOrderIds(1L);
         Assertions.assertThat(orderIds).doesNotContain(8L, 9L);
     }
 
 
+    @Test
+    void getAvailableOrdersDoesNotScanDeliveriesTest() {
+        courierService.getAvailableOrderIds(1L);
+        Mockito.verify(deliveryRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void assignedOrderIsNoLongerAvailableTest() throws DeliveryNotFoundException, OrderNotFoundException, CourierNotFoundException, NoAvailableOrdersException {
+        when(usersMicroservice.getUserType(8L)).thenReturn(Optional.of("courier"));
+        courierService.assignCourierToSpecificOrder(8L, 9L);
+
+        Assertions.assertThat(courierService.getAvailableOrderIds(8L)).isEmpty();
+    }
+
     @Test
     void checkIfCourierIsAssignedTest() throws CourierNotFoundException {
         Long vendorId = courierService.checkIfCourierIsAssignedToVendor(8L);
         assertThat(vendorId).isEqualTo(3L);
     }
 
+    @Test
+    void checkIfCourierIsAssignedDoesNotScanVendorsTest() throws CourierNotFoundException {
+        courierService.checkIfCourierIsAssignedToVendor(16L);
+        assertThrows(CourierNotFoundException.class, () -> courierService.checkIfCourierIsAssignedToVendor(1L));
+        Mockito.verify(vendorRepository, Mockito.never()).findAll();
+    }
+
     @Test
     void getVendorsWithCouriers() {
 
@@ -120,20 +186,100 @@ public class CourierServiceTest {
 
 
     @Test
-    void assignCourierToRandomOrderTest() throws DeliveryNotFoundException, NoAvailableOrdersException, OrderNotFoundException, CourierNotFoundException {
+    void assignCourierToRandomOrderTest() throws DeliveryNotFoundException, NoAvailableOrdersException, UnknownStrategyException, CourierNotFoundException {
         when(usersMicroservice.getUserType(1L)).thenReturn(Optional.of("courier"));
-        courierService.assignCourierToRandomOrder(1L);
+        courierService.assignCourierToAnyOrder(1L, null);
 
-        Long actual = deliveryRepository.findById(2L).get().getCourierId();
+        Long actual = deliveryRepository.findDeliveryByOrder_OrderId(5L).getCourierId();
         Assertions.assertThat(actual).isEqualTo(1L);
     }
 
+    @Test
+    void assignCourierToRandomOrderSkipsClaimedOrdersTest() throws NoAvailableOrdersException, DeliveryNotFoundException {
+        Vendor vendor = new Vendor(1L, 9L, new Location(5.0, 1.0), new ArrayList<>());
+        Order order = new Order(4L, 3L, vendor, Order.StatusEnum.ACCEPTED, new Location(5.0, 1.0));
+        Delivery delivery = new Delivery(7L, order, null, new Rating(), new Time(), new Issue());
+        when(deliveryRepository.findDeliveryByOrder_OrderId(4L)).thenReturn(delivery);
+        availableOrderIndex.add(order);
+        availableOrderIndex.tryClaim(4L);
+
+        new RandomOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry).assignOrder(1L, null, List.of(4L, 5L));
+
+        Assertions.assertThat(delivery.getCourierId()).isNull();
+        Assertions.assertThat(deliveryRepository.findDeliveryByOrder_OrderId(5L).getCourierId()).isEqualTo(1L);
+    }
+
+    @Test
+    void assignCourierToRandomOrderNothingLeftToClaimTest() {
+        availableOrderIndex.tryClaim(5L);
+
+        assertThrows(NoAvailableOrdersException.class, () ->
+                new RandomOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry).assignOrder(1L, null, List.of(5L)));
+        Mockito.verify(deliveryRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void failedSaveReleasesClaimTest() {
+        when(deliveryRepository.save(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () ->
+                new SpecificOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry).assignOrder(8L, 9L, List.of()));
+        Assertions.assertThat(availableOrderIndex.contains(9L)).isTrue();
+        Assertions.assertThat(deliveryRepository.findDeliveryByOrder_OrderId(9L).getCourierId()).isNull();
+    }
+
+    @Test
+    void assigningOrderRaisesCourierLoadTest() throws NoAvailableOrdersException, DeliveryNotFoundException {
+        new SpecificOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry).assignOrder(8L, 9L, List.of());
+
+        Assertions.assertThat(courierLoadRegistry.getLoad(8L)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCouriersNeverClaimTheSameOrderTest() throws InterruptedException {
+        SpecificOrderStrategy strategy = new SpecificOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry);
+        int couriers = 16;
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(couriers);
+        for (long courierId = 100; courierId < 100 + couriers; courierId++) {
+            long id = courierId;
+            executor.submit(() -> {
+                start.await();
+                try {
+                    strategy.assignOrder(id, 9L, List.of());
+                    winners.incrementAndGet();
+                } catch (NoAvailableOrdersException e) {
+                    // lost the race to another courier
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        Assertions.assertThat(winners.get()).isEqualTo(1);
+        Mockito.verify(deliveryRepository, Mockito.times(1)).save(any());
+    }
+
+    @Test
+    void assigningAlreadyClaimedOrderTest() throws DeliveryNotFoundException, OrderNotFoundException,
+            CourierNotFoundException, NoAvailableOrdersException {
+        when(usersMicroservice.getUserType(8L)).thenReturn(Optional.of("courier"));
+        courierService.assignCourierToSpecificOrder(8L, 9L);
+        Delivery claimed = deliveryRepository.findDeliveryByOrder_OrderId(9L);
+        claimed.setCourierId(null);
+
+        assertThrows(NoAvailableOrdersException.class, () -> courierService.assignCourierToSpecificOrder(8L, 9L));
+    }
+
     @Test
     void assignCourierToRandomOrderCourierNotFoundTest() throws CourierNotFoundException {
         when(usersMicroservice.getUserType(999L)).thenReturn(Optional.of("vendor"));
         Long nonExistentCourierId = 999L;
         Throwable exception = assertThrows(CourierNotFoundException.class, () -> {
-            courierService.assignCourierToRandomOrder(nonExistentCourierId);
+            courierService.assignCourierToAnyOrder(nonExistentCourierId, null);
         });
 
         assertThat(exception.getMessage()).isEqualTo("Courier with id " + nonExistentCourierId + " not found.");
@@ -148,6 +294,7 @@ public class CourierServiceTest {
 
         Long actualCourier = deliveryRepository.findById(2L).get().getCourierId();
         Assertions.assertThat(actualCourier).isEqualTo(5L);
+        Mockito.verify(courierService, Mockito.never()).getAvailableOrderIds(anyLong());
     }
 
     @Test
@@ -175,4 +322,105 @@ public class CourierServiceTest {
         assertThat(exception.getMessage()).isEqualTo("Delivery with order id " + nonExistentOrderId + " was not found.");
     }
 
+    @Test
+    void assignCourierToBatchedOrderQueuesCourierTest() throws DeliveryNotFoundException, NoAvailableOrdersException, CourierNotFoundException, UnknownStrategyException {
+        when(usersMicroservice.getUserType(1L)).thenReturn(Optional.of("courier"));
+        courierService.assignCourierToAnyOrder(1L, BatchDispatchStrategy.NAME);
+
+        Assertions.assertThat(batchDispatchStrategy.isWaiting(1L)).isTrue();
+        Mockito.verify(deliveryRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void assignCourierToNearestOrderTest() throws DeliveryNotFoundException, NoAvailableOrdersException, CourierNotFoundException, UnknownStrategyException {
+        when(usersMicroservice.getUserType(1L)).thenReturn(Optional.of("courier"));
+        courierLocationRegistry.update(1L, new Location(5.0, 1.5));
+        courierService.assignCourierToAnyOrder(1L, NearestOrderStrategy.NAME);
+
+        Assertions.assertThat(deliveryRepository.findDeliveryByOrder_OrderId(5L).getCourierId()).isEqualTo(1L);
+    }
+
+    @Test
+    void assignCourierWithUnknownStrategyTest() {
+        when(usersMicroservice.getUserType(1L)).thenReturn(Optional.of("courier"));
+
+        assertThrows(UnknownStrategyException.class, () -> courierService.assignCourierToAnyOrder(1L, "fastest"));
+        Mockito.verify(deliveryRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void getAssignedOrdersFollowsRouteTest() {
+        Vendor vendor = new Vendor(1L, 9L, new Location(5.0, 1.0), new ArrayList<>());
+        List<Delivery> assigned = new ArrayList<>();
+        for (long orderId : List.of(11L, 12L, 13L, 14L)) {
+            Order order = new Order(orderId, 3L, vendor, Order.StatusEnum.GIVEN_TO_COURIER, new Location(5.0, 2.0));
+            assigned.add(new Delivery(orderId, order, 4L, new Rating(), new Time(), new Issue()));
+        }
+        assigned.get(3).getOrder().setStatus(Order.StatusEnum.DELIVERED);
+        when(deliveryRepository.findByCourierId(4L)).thenReturn(assigned);
+        courierRoutes.setRoute(4L, List.of(13L, 11L));
+
+        Assertions.assertThat(courierService.getAssignedOrderIds(4L)).containsExactly(13L, 11L, 12L);
+    }
+
+    @Test
+    void recordLocationPingsTest() {
+        long now = System.currentTimeMillis();
+        LocationPing first = new LocationPing();
+        first.setLatitude(52.0);
+        first.setLongitude(4.35);
+        first.setTimestamp(now - 10_000);
+        LocationPing second = new LocationPing();
+        second.setLatitude(52.001);
+        second.setLongitude(4.351);
+        second.setTimestamp(now - 5_000);
+        LocationPing late = new LocationPing();
+        late.setLatitude(51.0);
+        late.setLongitude(4.0);
+        late.setTimestamp(now - 20_000);
+
+        assertEquals(2, courierService.recordLocationPings(7L, List.of(first, second, late)));
+
+        Location position = courierLocationRegistry.getLocation(7L);
+        assertEquals(52.001, position.getLatitude());
+        assertEquals(4.351, position.getLongitude());
+        assertEquals(now - 5_000, courierPingStore.getLatestTimestamp(7L));
+    }
+
+    @Test
+    void recordLocationPingsAddsToTraceOfDeliveryTest() {
+        long now = System.currentTimeMillis();
+        LocationPing ping = new LocationPing();
+        ping.setLatitude(52.0);
+        ping.setLongitude(4.35);
+        ping.setTimestamp(now - 1_000);
+        locationTraceStore.start(99L, 9L);
+
+        courierService.recordLocationPings(9L, List.of(ping));
+
+        TraceReader reader = locationTraceStore.openReader(99L);
+        assertThat(reader.next()).isTrue();
+        assertEquals(52.0, reader.getLatitude());
+        assertEquals(now - 1_000, reader.getTimestamp());
+        assertThat(reader.next()).isFalse();
+    }
+
+    @Test
+    void recordLocationPingWithoutTimeUsesArrivalTest() {
+        LocationPing ping = new LocationPing();
+        ping.setLatitude(52.0);
+        ping.setLongitude(4.35);
+        long before = System.currentTimeMillis();
+
+        assertEquals(1, courierService.recordLocationPings(8L, List.of(ping)));
+
+        assertThat(courierPingStore.getLatestTimestamp(8L)).isBetween(before, System.currentTimeMillis());
+    }
+
+    @Test
+    void unknownDefaultStrategyIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AssignOrderStrategyRegistry(List.of(specificOrderStrategy), "fastest"));
+    }
+
 }
@@ -2,20 +2,32 @@ package nl.tudelft.sem.template.example.service;
 
 import nl.tudelft.sem.template.example.configuration.ConfigurationProperties;
 import nl.tudelft.sem.template.example.exception.*;
+import nl.tudelft.sem.template.example.repository.DeliveryAreaRepository;
 import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.geo.DeliveryAreaIndex;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.example.service.routing.EtaCache;
+import nl.tudelft.sem.template.example.service.routing.RoutingEngine;
+import nl.tudelft.sem.template.example.service.routing.TravelSpeedModel;
+import nl.tudelft.sem.template.example.service.tracking.CourierPingStore;
 import nl.tudelft.sem.template.model.*;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -32,6 +44,18 @@ public class DeliveryServiceTest {
 
     private DeliveryService deliveryService;
 
+    private AvailableOrderIndex availableOrderIndex;
+
+    private RoutingEngine routingEngine;
+
+    private EtaCache etaCache;
+
+    private TravelSpeedModel travelSpeedModel;
+
+    private CourierPingStore courierPingStore;
+
+    private DeliveryAreaIndex deliveryAreaIndex;
+
     DeliveryPostRequest dummyDeliveryPostRequest;
 
     ConfigurationProperties configurationProperties;
@@ -60,7 +84,16 @@ public class DeliveryServiceTest {
         orderRepository = Mockito.mock(OrderRepository.class);
         vendorService = Mockito.mock(VendorService.class);
 
-        this.deliveryService = new DeliveryService(deliveryRepository, orderRepository, vendorRepository, vendorService, configurationProperties);
+        availableOrderIndex = new AvailableOrderIndex(deliveryRepository);
+        routingEngine = Mockito.mock(RoutingEngine.class);
+        etaCache = new EtaCache(100, 0.005, 15);
+        travelSpeedModel = new TravelSpeedModel("", 1);
+        courierPingStore = new CourierPingStore(new CourierLocationRegistry(), 4, 15_000, 60_000, 3_600_000);
+        deliveryAreaIndex = new DeliveryAreaIndex(Mockito.mock(DeliveryAreaRepository.class));
+
+        this.deliveryService = new DeliveryService(deliveryRepository, orderRepository, vendorRepository, vendorService,
+                configurationProperties, availableOrderIndex, routingEngine, etaCache, travelSpeedModel,
+                courierPingStore, deliveryAreaIndex);
 
 
         orderId = 123L;
@@ -73,8 +106,8 @@ public class DeliveryServiceTest {
 
         Order mockOrder = new Order();
         Vendor mockVendor = new Vendor();
-        Location vendorLocation = new Location(0.0, 0.0);
-        Location destination = new Location(10.0, 10.0);
+        Location vendorLocation = new Location(52.0, 4.35);
+        Location destination = new Location(52.03, 4.37); // about 3.6 km, 15 minutes by courier
         mockVendor.setAddress(vendorLocation);
         mockOrder.setVendor(mockVendor);
         mockOrder.setDestination(destination);
@@ -222,6 +255,23 @@ public class DeliveryServiceTest {
         assertEquals(newReadyTime, mockDelivery.getTime().getReadyTime());
     }
 
+    @Test
+    void testUpdateReadyTimeReordersAvailableOrders() throws OrderNotFoundException {
+        OffsetDateTime now = OffsetDateTime.now();
+        Order first = new Order(1L, 2L, vendor, Order.StatusEnum.ACCEPTED, new Location(4.0, 5.0));
+        Order second = new Order(2L, 2L, vendor, Order.StatusEnum.PREPARING, new Location(4.0, 5.0));
+        availableOrderIndex.add(first, now.plusMinutes(5));
+        availableOrderIndex.add(second, now.plusMinutes(10));
+
+        Delivery delivery = new Delivery();
+        delivery.setOrder(second);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(2L)).thenReturn(delivery);
+
+        deliveryService.updateReadyTime(2L, now);
+
+        Assertions.assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(2L, 1L);
+    }
+
     @Test
     void testPickUpTimeSuccessTimeIsNull() throws OrderNotFoundException {
         OffsetDateTime newPickUpTime = OffsetDateTime.now();
@@ -342,6 +392,43 @@ public class DeliveryServiceTest {
         assertEquals(newDeliveredTime, mockDelivery.getTime().getDeliveredTime());
     }
 
+    @Test
+    void testUpdateDeliveredTimeLearnsTravelSpeedOnce() throws OrderNotFoundException {
+        OffsetDateTime pickUpTime = OffsetDateTime.now().minusMinutes(30);
+        Vendor vendor1 = new Vendor(7L, 10L, new Location(52.0, 4.35), new ArrayList<>());
+        Order order1 = new Order(orderId, 1L, vendor1, Order.StatusEnum.DELIVERED, new Location(52.01, 4.36));
+        mockTime.setPickUpTime(pickUpTime);
+        mockDelivery.setOrder(order1);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(orderId)).thenReturn(mockDelivery);
+
+        deliveryService.updateDeliveredTime(orderId, pickUpTime.plusMinutes(10));
+        deliveryService.updateDeliveredTime(orderId, pickUpTime.plusMinutes(12));
+
+        assertEquals(1, travelSpeedModel.getSamples(7L, pickUpTime.getHour()));
+        double distance = DistanceEngine.distance(vendor1.getAddress(), order1.getDestination(),
+                DistanceEngine.Precision.EXACT);
+        assertEquals(distance / 600, travelSpeedModel.getMeanSpeed(7L, pickUpTime.getHour()), 1e-9);
+    }
+
+    @Test
+    void testGetEtaUsesLearnedTravelSpeed() throws OrderNotFoundException {
+        Vendor vendor1 = new Vendor(7L, 10L, new Location(52.0, 4.35), new ArrayList<>());
+        Order delivered = new Order(1L, 1L, vendor1, Order.StatusEnum.DELIVERED, new Location(52.01, 4.36));
+        Time time = new Time();
+        time.setPickUpTime(OffsetDateTime.now());
+        time.setDeliveredTime(time.getPickUpTime().plusMinutes(10));
+        travelSpeedModel.record(new Delivery(1L, delivered, 3L, null, time, null));
+
+        Order order2 = new Order(2L, 1L, vendor1, Order.StatusEnum.ACCEPTED, new Location(52.01, 4.36));
+        when(deliveryRepository.findDeliveryByOrder_OrderId(2L)).thenReturn(new Delivery(2L, order2, null, null,
+                null, null));
+        OffsetDateTime estimatedTime = OffsetDateTime.now().plusMinutes(10);
+
+        OffsetDateTime eta = deliveryService.getEta(2L);
+        assertThat(eta).isBetween(estimatedTime.minusSeconds(2), estimatedTime.plusSeconds(2));
+        verify(routingEngine, never()).travelTime(any(), any());
+    }
+
     @Test
     void testUpdateDeliveredTimeOrderNotFound() {
         OffsetDateTime newDeliveredTime = OffsetDateTime.now().plusHours(2);
@@ -398,12 +485,49 @@ public class DeliveryServiceTest {
         delivery1.setOrder(order1);
 
         when(deliveryRepository.findDeliveryByOrder_OrderId(orderId)).thenReturn(delivery1);
-        OffsetDateTime estimatedTime = OffsetDateTime.now().plusMinutes(30);
+        when(routingEngine.travelTime(new Location(0.0, 0.0), destination1)).thenReturn(Duration.ofMinutes(42));
+        OffsetDateTime estimatedTime = OffsetDateTime.now().plusMinutes(42);
 
         OffsetDateTime eta = deliveryService.getEta(orderId);
         assertThat(eta).isBetween(estimatedTime.minusSeconds(2), estimatedTime.plusSeconds(2));
     }
 
+    @Test
+    void testGetEtaReusesTravelTimeOfVendor() throws OrderNotFoundException {
+        Vendor vendor1 = new Vendor(7L, 10L, new Location(52.0, 4.35), new ArrayList<>());
+        Order order1 = new Order(1L, 1L, vendor1, Order.StatusEnum.ACCEPTED, new Location(52.0101, 4.3601));
+        Order order2 = new Order(2L, 1L, vendor1, Order.StatusEnum.ACCEPTED, new Location(52.0102, 4.3602));
+        Delivery delivery1 = new Delivery(1L, order1, null, null, null, null);
+        Delivery delivery2 = new Delivery(2L, order2, null, null, null, null);
+
+        when(deliveryRepository.findDeliveryByOrder_OrderId(1L)).thenReturn(delivery1);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(2L)).thenReturn(delivery2);
+        when(routingEngine.travelTime(any(), any())).thenReturn(Duration.ofMinutes(12));
+        OffsetDateTime estimatedTime = OffsetDateTime.now().plusMinutes(12);
+
+        assertThat(deliveryService.getEta(1L)).isBetween(estimatedTime.minusSeconds(2), estimatedTime.plusSeconds(2));
+        assertThat(deliveryService.getEta(1L)).isBetween(estimatedTime.minusSeconds(2), estimatedTime.plusSeconds(2));
+        assertThat(deliveryService.getEta(2L)).isBetween(estimatedTime.minusSeconds(2), estimatedTime.plusSeconds(2));
+        verify(routingEngine, times(1)).travelTime(any(), any());
+        assertEquals(2, etaCache.getHits());
+    }
+
+    @Test
+    void testGetEtaWithoutVendorAddressUsesDefault() throws OrderNotFoundException {
+        Order order1 = new Order();
+        order1.setVendor(new Vendor());
+        order1.setDestination(new Location(5.0, 6.0));
+        Delivery delivery1 = new Delivery();
+        delivery1.setOrder(order1);
+
+        when(deliveryRepository.findDeliveryByOrder_OrderId(1L)).thenReturn(delivery1);
+        OffsetDateTime estimatedTime = OffsetDateTime.now().plusMinutes(30);
+
+        OffsetDateTime eta = deliveryService.getEta(1L);
+        assertThat(eta).isBetween(estimatedTime.minusSeconds(2), estimatedTime.plusSeconds(2));
+        verify(routingEngine, never()).travelTime(any(), any());
+    }
+
     @Test
     void testGetEtaOrderNotFound() {
         Long orderId = 456L;
@@ -413,6 +537,65 @@ public class DeliveryServiceTest {
                 () -> deliveryService.getEta(orderId));
         assertEquals("Order with ID: " + orderId + " not found.", exception.getMessage());
     }
+    @Test
+    void calculateLiveLocationUsesReportedPositionTest() throws OrderNotFoundException {
+        Vendor vendor1 = new Vendor(7L, 10L, new Location(52.0, 4.35), new ArrayList<>());
+        Order order1 = new Order(orderId, 1L, vendor1, Order.StatusEnum.ON_TRANSIT, new Location(52.1, 4.45));
+        Delivery delivery1 = new Delivery(1L, order1, 21L, null, new Time(OffsetDateTime.now().minusMinutes(5), null,
+                null), null);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(orderId)).thenReturn(delivery1);
+        courierPingStore.record(21L, 52.03, 4.38, System.currentTimeMillis());
+
+        Location result = deliveryService.calculateLiveLocation(orderId);
+
+        assertEquals(52.03, result.getLatitude());
+        assertEquals(4.38, result.getLongitude());
+    }
+
+    @Test
+    void calculateLiveLocationIgnoresPingsOfDeliveredOrderTest() throws OrderNotFoundException {
+        Vendor vendor1 = new Vendor(7L, 10L, new Location(52.0, 4.35), new ArrayList<>());
+        Order order1 = new Order(orderId, 1L, vendor1, Order.StatusEnum.DELIVERED, new Location(52.1, 4.45));
+        Delivery delivery1 = new Delivery(1L, order1, 21L, null, new Time(OffsetDateTime.now().minusDays(1), null,
+                null), null);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(orderId)).thenReturn(delivery1);
+        courierPingStore.record(21L, 52.03, 4.38, System.currentTimeMillis());
+
+        Location result = deliveryService.calculateLiveLocation(orderId);
+
+        assertEquals(52.1, result.getLatitude(), 1e-4);
+        assertEquals(4.45, result.getLongitude(), 1e-4);
+    }
+
+    @Test
+    void calculateLiveLocationsOfManyOrdersTest() {
+        Vendor vendor1 = new Vendor(7L, 10L, new Location(52.0, 4.35), new ArrayList<>());
+        Order reported = new Order(1L, 1L, vendor1, Order.StatusEnum.ON_TRANSIT, new Location(52.1, 4.45));
+        Order waiting = new Order(2L, 1L, vendor1, Order.StatusEnum.PREPARING, new Location(52.1, 4.45));
+        Order withoutDestination = new Order(3L, 1L, vendor1, Order.StatusEnum.PENDING, null);
+        Delivery delivery1 = new Delivery(1L, reported, 21L, null, new Time(OffsetDateTime.now().minusMinutes(5), null,
+                null), null);
+        Delivery delivery2 = new Delivery(2L, waiting, null, null, null, null);
+        Delivery delivery3 = new Delivery(3L, withoutDestination, null, null, null, null);
+        courierPingStore.record(21L, 52.03, 4.38, System.currentTimeMillis());
+
+        List<OrderLocation> result = deliveryService.calculateLiveLocations(List.of(delivery1, delivery2, delivery3));
+
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(0).getOrderId());
+        assertEquals(52.03, result.get(0).getLocation().getLatitude());
+        assertEquals(2L, result.get(1).getOrderId());
+        assertEquals(vendor1.getAddress(), result.get(1).getLocation());
+        verify(deliveryRepository, never()).findDeliveryByOrder_OrderId(anyLong());
+    }
+
+    @Test
+    void getDeliveriesOfOrdersTest() {
+        when(deliveryRepository.findByOrder_OrderIdIn(List.of(1L, 2L))).thenReturn(List.of(mockDelivery));
+
+        assertEquals(List.of(mockDelivery), deliveryService.getDeliveriesOfOrders(List.of(1L, 2L)));
+    }
+
     @Test
     void testCalculateLiveLocationOrderNotFound() {
         when(deliveryRepository.findDeliveryByOrder_OrderId(anyLong())).thenReturn(null);
@@ -434,7 +617,7 @@ public class DeliveryServiceTest {
 
     @Test
     void calculateLiveLocationEnRouteTest() throws OrderNotFoundException {
-        OffsetDateTime pickupTime = OffsetDateTime.now().minusHours(1);
+        OffsetDateTime pickupTime = OffsetDateTime.now().minusMinutes(5);
         OffsetDateTime currentTime = OffsetDateTime.now();
         mockDelivery.getTime().setPickUpTime(pickupTime);
 
@@ -448,7 +631,7 @@ public class DeliveryServiceTest {
 
     @Test
     void calculateLiveLocationAtDestinationTest() throws OrderNotFoundException {
-        OffsetDateTime pickupTime = OffsetDateTime.now().minusHours(2);
+        OffsetDateTime pickupTime = OffsetDateTime.now().minusMinutes(30);
         OffsetDateTime currentTime = OffsetDateTime.now();
         mockDelivery.getTime().setPickUpTime(pickupTime);
 
@@ -456,7 +639,7 @@ public class DeliveryServiceTest {
 
         Location result = deliveryService.calculateLiveLocation(orderId);
 
-        double tolerance = 0.2;
+        double tolerance = 1e-4;
 
         assertEquals(mockDelivery.getOrder().getDestination().getLatitude(), result.getLatitude(), tolerance);
         assertEquals(mockDelivery.getOrder().getDestination().getLongitude(), result.getLongitude(), tolerance);
@@ -505,14 +688,14 @@ public class DeliveryServiceTest {
     @Test
     void testEstimatePositionMidway() {
         Location start = new Location(0.0, 0.0);
-        Location end = new Location(0.0, 3600.0); // 3600 meters away
-        OffsetDateTime pickupTime = OffsetDateTime.now().minusMinutes(30); // 30 minutes ago
+        Location end = new Location(0.0, 7200.0 / DistanceEngine.METRES_PER_DEGREE); // 7200 meters away
         OffsetDateTime currentTime = OffsetDateTime.now();
+        OffsetDateTime pickupTime = currentTime.minusMinutes(15); // 15 minutes ago, half of the 30 minute trip
 
         Location result = deliveryService.estimatePosition(start, end, pickupTime, currentTime);
 
         assertEquals(0.0, result.getLatitude());
-        assertEquals(1800.0, result.getLongitude());
+        assertEquals(end.getLongitude() / 2, result.getLongitude(), 1e-6);
     }
 
     @Test
@@ -535,5 +718,45 @@ public class DeliveryServiceTest {
         assertEquals(Order.StatusEnum.REJECTED, result.getOrder().getStatus());
     }
 
+    @Test
+    void testDeliveryZoneIsInKilometres() throws Exception {
+        Mockito.when(vendorService.findVendorOrCreate(anyLong())).thenReturn(vendor);
+        Mockito.when(orderRepository.existsById(123L)).thenReturn(false);
+        Mockito.when(deliveryRepository.save(any(Delivery.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // About 8 km from the vendor, within its zone of 10 km
+        dummyDeliveryPostRequest.setDestination(new Location(1.05, 2.05));
+        assertEquals(Order.StatusEnum.PENDING, deliveryService.createDelivery(dummyDeliveryPostRequest).getOrder().getStatus());
+
+        // About 16 km from the vendor
+        dummyDeliveryPostRequest.setDestination(new Location(1.1, 2.1));
+        assertEquals(Order.StatusEnum.REJECTED, deliveryService.createDelivery(dummyDeliveryPostRequest).getOrder().getStatus());
+    }
+
+    @Test
+    void testDeliveryAreaReplacesDeliveryZone() throws Exception {
+        Mockito.when(vendorService.findVendorOrCreate(anyLong())).thenReturn(vendor);
+        Mockito.when(orderRepository.existsById(123L)).thenReturn(false);
+        Mockito.when(deliveryRepository.save(any(Delivery.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // A narrow strip east of the vendor, reaching further than its zone of 10 km
+        deliveryAreaIndex.update(new DeliveryArea(1L, List.of(new Location(0.99, 2.0), new Location(1.01, 2.0),
+                new Location(1.01, 2.5), new Location(0.99, 2.5))));
+
+        // About 44 km east of the vendor, outside its zone but inside the strip
+        dummyDeliveryPostRequest.setDestination(new Location(1.0, 2.4));
+        assertEquals(Order.StatusEnum.PENDING, deliveryService.createDelivery(dummyDeliveryPostRequest).getOrder().getStatus());
+
+        // About 5.5 km north of the vendor, inside its zone but outside the strip
+        dummyDeliveryPostRequest.setDestination(new Location(1.05, 2.0));
+        assertEquals(Order.StatusEnum.REJECTED, deliveryService.createDelivery(dummyDeliveryPostRequest).getOrder().getStatus());
+    }
+
+    @Test
+    void testCalculateDistanceInMetres() {
+        double distance = deliveryService.calculateDistance(new Location(0.0, 0.0), new Location(0.0, 1.0));
+
+        assertEquals(111_195.0, distance, 1.0);
+    }
+
 
 }
@@ -5,16 +5,32 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import nl.tudelft.sem.template.example.exception.IllegalOrderStatusException;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
 import nl.tudelft.sem.template.example.exception.OrderNotFoundException;
 import nl.tudelft.sem.template.example.external.OrdersMicroservice;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
 import nl.tudelft.sem.template.example.repository.OrderRepository;
+import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.routing.TravelSpeedModel;
+import nl.tudelft.sem.template.example.service.strategy.LeastLoadedFleetStrategy;
+import nl.tudelft.sem.template.example.service.tracking.LocationTraceStore;
+import nl.tudelft.sem.template.example.service.tracking.OrderUpdateBroadcaster;
+import nl.tudelft.sem.template.model.Delivery;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
 import nl.tudelft.sem.template.model.Vendor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,7 +47,30 @@ public class OrderServiceTest {
 
     private final OrdersMicroservice ordersMicroservice = Mockito.mock(OrdersMicroservice.class);
 
-    private final OrderService orderService = new OrderService(orderRepository, ordersMicroservice);
+    private final DeliveryRepository deliveryRepository = Mockito.mock(DeliveryRepository.class);
+
+    private final AvailableOrderIndex availableOrderIndex = new AvailableOrderIndex(deliveryRepository);
+
+    private final CourierLocationRegistry courierLocationRegistry = new CourierLocationRegistry();
+
+    private final CourierLoadRegistry courierLoadRegistry = new CourierLoadRegistry(deliveryRepository);
+
+    private final CourierVendorIndex courierVendorIndex = new CourierVendorIndex(Mockito.mock(VendorRepository.class));
+
+    private final LeastLoadedFleetStrategy leastLoadedFleetStrategy = new LeastLoadedFleetStrategy(deliveryRepository,
+            availableOrderIndex, courierVendorIndex, courierLoadRegistry, 2, true);
+
+    private final TravelSpeedModel travelSpeedModel = new TravelSpeedModel("", 1);
+
+    private final OrderUpdateBroadcaster orderUpdateBroadcaster = Mockito.mock(OrderUpdateBroadcaster.class);
+
+    private final LocationTraceStore locationTraceStore = new LocationTraceStore("", 4096, 10, Long.MAX_VALUE, 0);
+
+    private final CourierRoutes courierRoutes = new CourierRoutes();
+
+    private final OrderService orderService = new OrderService(orderRepository, ordersMicroservice,
+            deliveryRepository, availableOrderIndex, courierLocationRegistry, courierLoadRegistry, leastLoadedFleetStrategy,
+            travelSpeedModel, orderUpdateBroadcaster, locationTraceStore, courierRoutes);
 
     Order order1, order2, order3, order4, order5, order6, order7;
 
@@ -97,6 +136,51 @@ public class OrderServiceTest {
         verify(orderRepository).save(order1);
     }
 
+    @Test
+    public void setOrderStatus_pendingToAccepted_makesOrderAvailable() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order1);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(1L)).thenReturn(delivery);
+
+        orderService.setOrderStatus(1, 11,"Accepted");
+
+        assertThat(availableOrderIndex.getOrdersOfVendor(3L)).containsExactly(1L);
+    }
+
+    @Test
+    public void setOrderStatus_pendingToAccepted_alreadyClaimedOrderStaysUnavailable() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order1);
+        delivery.setCourierId(42L);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(1L)).thenReturn(delivery);
+
+        orderService.setOrderStatus(1, 11,"Accepted");
+
+        assertThat(availableOrderIndex.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void setOrderStatus_acceptedToPreparing_keepsAvailableOrder() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        availableOrderIndex.add(order2);
+
+        orderService.setOrderStatus(2, 12,"Preparing");
+
+        assertThat(availableOrderIndex.contains(2L)).isTrue();
+    }
+
+    @Test
+    public void setOrderStatus_preparingToGivenToCourier_removesAvailableOrder() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        availableOrderIndex.add(order4);
+
+        orderService.setOrderStatus(4, 14,"Given_To_Courier");
+
+        assertThat(availableOrderIndex.contains(4L)).isFalse();
+    }
+
     @Test
     public void setOrderStatus_pendingToRejected_validTransition() throws Exception {
         when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
@@ -124,6 +208,103 @@ public class OrderServiceTest {
         verify(orderRepository).save(order4);
     }
 
+    @Test
+    public void setOrderStatus_givenToCourier_movesCourierToVendor() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order4);
+        delivery.setCourierId(21L);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(4L)).thenReturn(delivery);
+
+        orderService.setOrderStatus(4, 14,"Given_To_Courier");
+
+        assertThat(courierLocationRegistry.getLocation(21L)).isEqualTo(order4.getVendor().getAddress());
+    }
+
+    @Test
+    public void setOrderStatus_tracesDeliveryFromPickupUntilDelivered() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order4);
+        delivery.setCourierId(21L);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(4L)).thenReturn(delivery);
+
+        orderService.setOrderStatus(4, 14,"Given_To_Courier");
+        assertThat(locationTraceStore.append(21L, 52.0, 4.35, 1_000L)).isEqualTo(1);
+        orderService.setOrderStatus(4, 14,"On_Transit");
+        orderService.setOrderStatus(4, 14,"Delivered");
+
+        assertThat(locationTraceStore.append(21L, 52.1, 4.35, 2_000L)).isZero();
+        assertThat(locationTraceStore.replay(4L, 0, (timestamp, latitude, longitude) -> { })).isEqualTo(1);
+    }
+
+    @Test
+    public void setOrderStatus_delivered_movesCourierToDestination() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order6);
+        delivery.setCourierId(21L);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(6L)).thenReturn(delivery);
+
+        orderService.setOrderStatus(6, 15,"Delivered");
+
+        assertThat(courierLocationRegistry.getLocation(21L)).isEqualTo(order6.getDestination());
+    }
+
+    @Test
+    public void setOrderStatus_delivered_lowersCourierLoad() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order6);
+        delivery.setCourierId(21L);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(6L)).thenReturn(delivery);
+        courierLoadRegistry.increment(21L);
+        courierLoadRegistry.increment(21L);
+
+        orderService.setOrderStatus(6, 15,"Delivered");
+
+        assertThat(courierLoadRegistry.getLoad(21L)).isEqualTo(1);
+    }
+
+    @Test
+    public void setOrderStatus_pendingToAccepted_pushesToLeastLoadedFleetCourier() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order1);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(1L)).thenReturn(delivery);
+        courierVendorIndex.assign(30L, 3L);
+        courierVendorIndex.assign(31L, 3L);
+        courierLoadRegistry.increment(30L);
+
+        orderService.setOrderStatus(1, 11,"Accepted");
+
+        assertThat(delivery.getCourierId()).isEqualTo(31L);
+        assertThat(courierLoadRegistry.getLoad(31L)).isEqualTo(1);
+        assertThat(availableOrderIndex.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void setOrderStatus_delivered_pushesWaitingOrderToFreedCourier() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        Delivery delivered = new Delivery();
+        delivered.setOrder(order6);
+        delivered.setCourierId(21L);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(6L)).thenReturn(delivered);
+        Order waiting = new Order(8L, 5L, order6.getVendor(), Order.StatusEnum.ACCEPTED, new Location(1.0, 9.0));
+        Delivery waitingDelivery = new Delivery();
+        waitingDelivery.setOrder(waiting);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(8L)).thenReturn(waitingDelivery);
+        availableOrderIndex.add(waiting);
+        courierVendorIndex.assign(21L, 11L);
+        courierLoadRegistry.increment(21L);
+        courierLoadRegistry.increment(21L);
+
+        orderService.setOrderStatus(6, 15,"Delivered");
+
+        assertThat(waitingDelivery.getCourierId()).isEqualTo(21L);
+        assertThat(courierLoadRegistry.getLoad(21L)).isEqualTo(2);
+    }
+
     @Test
     public void setOrderStatus_givenToCourierToOnTransit_validTransition() throws Exception {
         when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
@@ -142,6 +323,56 @@ public class OrderServiceTest {
         verify(orderRepository).save(order6);
     }
 
+    @Test
+    public void setOrderStatus_delivered_leavesRoute() throws Exception {
+        when(deliveryRepository.findDeliveryByOrder_OrderId(6L)).thenReturn(new Delivery(6L, order6, 21L, null,
+                new Time(), null));
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        courierRoutes.setRoute(21L, List.of(6L, 9L));
+        courierRoutes.setRoute(22L, List.of(6L));
+
+        orderService.setOrderStatus(6, 15, "Delivered");
+
+        assertThat(courierRoutes.getRoute(21L)).containsExactly(9L);
+        assertThat(courierRoutes.getRoute(22L)).containsExactly(6L);
+
+        courierRoutes.removeOrder(21L, 9L);
+        assertThat(courierRoutes.getRoute(21L)).isEmpty();
+    }
+
+    @Test
+    public void setOrderStatus_delivered_learnsTravelSpeed() throws Exception {
+        Time time = new Time();
+        time.setPickUpTime(OffsetDateTime.of(2024, 1, 15, 18, 0, 0, 0, ZoneOffset.UTC));
+        time.setDeliveredTime(time.getPickUpTime().plusMinutes(20));
+        order6.setDestination(new Location(1.0, 8.1));
+        Delivery delivery = new Delivery(6L, order6, 21L, null, time, null);
+        when(deliveryRepository.findDeliveryByOrder_OrderId(6L)).thenReturn(delivery);
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+
+        orderService.setOrderStatus(6, 15, "Delivered");
+
+        assertThat(travelSpeedModel.getSamples(11L, 18)).isEqualTo(1);
+        assertThat(travelSpeedModel.getMeanSpeed(11L, 18)).isGreaterThan(0);
+    }
+
+    @Test
+    public void setOrderStatus_pushesStatusToStreams() throws Exception {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        orderService.setOrderStatus(1, 11, "Accepted");
+
+        verify(orderUpdateBroadcaster).statusChanged(1L, Order.StatusEnum.ACCEPTED);
+    }
+
+    @Test
+    public void setOrderStatus_invalidTransition_doesNotPushStatus() {
+        when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
+        assertThatThrownBy(() -> orderService.setOrderStatus(1, 6, "Preparing"))
+                .isInstanceOf(IllegalOrderStatusException.class);
+
+        verifyNoInteractions(orderUpdateBroadcaster);
+    }
+
     @Test
     public void setOrderStatus_invalidTransition_throwsException() {
         when(ordersMicroservice.putOrderStatus(anyLong(), anyLong(), anyString())).thenReturn(true);
@@ -6,7 +6,12 @@ import nl.tudelft.sem.template.example.exception.VendorHasNoCouriersException;
 import nl.tudelft.sem.template.example.exception.VendorNotFoundException;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
 import nl.tudelft.sem.template.example.external.UsersMicroservice;
+import nl.tudelft.sem.template.example.repository.DeliveryAreaRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.geo.DeliveryAreaIndex;
+import nl.tudelft.sem.template.example.service.geo.VendorCoverageIndex;
+import nl.tudelft.sem.template.model.DeliveryArea;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Vendor;
 import org.assertj.core.api.Assertions;
@@ -31,7 +36,10 @@ public class VendorServiceTest {
     private UsersMicroservice usersMicroservice;
 
     private VendorService vendorService;
-    private CourierService courierService;
+    private CourierVendorIndex courierVendorIndex;
+    private VendorCoverageIndex vendorCoverageIndex;
+    private DeliveryAreaRepository deliveryAreaRepository;
+    private DeliveryAreaIndex deliveryAreaIndex;
 
 
     Vendor vendor;
@@ -41,8 +49,12 @@ public class VendorServiceTest {
         vendorRepository = Mockito.mock(VendorRepository.class);
         configurationProperties = new ConfigurationProperties();
         usersMicroservice = Mockito.mock(UsersMicroservice.class);
-        courierService = Mockito.mock(CourierService.class);
-        vendorService = new VendorService(vendorRepository, configurationProperties, usersMicroservice, courierService);
+        courierVendorIndex = new CourierVendorIndex(vendorRepository);
+        vendorCoverageIndex = new VendorCoverageIndex(vendorRepository);
+        deliveryAreaRepository = Mockito.mock(DeliveryAreaRepository.class);
+        deliveryAreaIndex = new DeliveryAreaIndex(deliveryAreaRepository);
+        vendorService = new VendorService(vendorRepository, configurationProperties, usersMicroservice, courierVendorIndex,
+                vendorCoverageIndex, deliveryAreaRepository, deliveryAreaIndex);
 
         Location address = new Location(0.0,0.0);
         vendor = new Vendor(1L, configurationProperties.getDefaultDeliveryZone(), address, new ArrayList<>());
@@ -84,6 +96,7 @@ public class VendorServiceTest {
 
         verify(vendorRepository, times(1)).save(any());
         assertNotNull(resultingVendor);
+        assertEquals(List.of(1L), vendorService.getVendorsServing(new Location(4.0, 5.0)));
     }
 
     @Test
@@ -119,6 +132,18 @@ public class VendorServiceTest {
         assertEquals(address, updated.getAddress());
     }
 
+    @Test
+    void updateDeliveryZoneMovesCoverageTest() throws VendorNotFoundException, VendorHasNoCouriersException {
+        // About 8.9 km north of the vendor at (0, 0)
+        Location destination = new Location(0.08, 0.0);
+
+        vendorService.updateDeliveryZone(3L, 5L);
+        assertTrue(vendorService.getVendorsServing(destination).isEmpty());
+
+        vendorService.updateDeliveryZone(3L, 10L);
+        assertEquals(List.of(3L), vendorService.getVendorsServing(destination));
+    }
+
     @Test
     void updateDeliveryZoneNoCouriersTest() throws VendorNotFoundException, VendorHasNoCouriersException {
         Long vendorId = 1L;
@@ -165,9 +190,8 @@ public class VendorServiceTest {
         couriers.add(2L);
         updated = vendorService.assignCourierToVendor(33L, 2L);
         assertEquals(couriers, updated.getCouriers());
-
-
-
+        assertEquals(33L, courierVendorIndex.getVendorOfCourier(2L));
+        assertTrue(courierVendorIndex.getVendorsWithOwnCouriers().contains(33L));
     }
 
     @Test
@@ -195,6 +219,67 @@ public class VendorServiceTest {
         assertThrows(VendorNotFoundException.class, () -> vendorService.getAssignedCouriers(2L));
     }
 
+    @Test
+    void updateDeliveryAreaTest() throws Exception {
+        List<Location> vertices = List.of(new Location(0.0, 0.0), new Location(0.1, 0.0), new Location(0.1, 0.1));
+
+        assertEquals(vertices, vendorService.updateDeliveryArea(3L, vertices));
+
+        verify(deliveryAreaRepository).save(any(DeliveryArea.class));
+        assertTrue(deliveryAreaIndex.hasArea(3L));
+        assertTrue(deliveryAreaIndex.contains(3L, new Location(0.08, 0.02)));
+    }
+
+    @Test
+    void updateDeliveryAreaEmptyRemovesAreaTest() throws Exception {
+        vendorService.updateDeliveryArea(3L, List.of(new Location(0.0, 0.0), new Location(0.1, 0.0),
+                new Location(0.1, 0.1)));
+        when(deliveryAreaRepository.existsById(3L)).thenReturn(true);
+
+        assertEquals(List.of(), vendorService.updateDeliveryArea(3L, List.of()));
+
+        verify(deliveryAreaRepository).deleteById(3L);
+        assertFalse(deliveryAreaIndex.hasArea(3L));
+    }
+
+    @Test
+    void updateDeliveryAreaInvalidPolygonTest() {
+        assertThrows(IllegalArgumentException.class, () -> vendorService.updateDeliveryArea(3L,
+                List.of(new Location(0.0, 0.0), new Location(0.1, 0.0))));
+        verify(deliveryAreaRepository, never()).save(any());
+        assertFalse(deliveryAreaIndex.hasArea(3L));
+    }
+
+    @Test
+    void updateDeliveryAreaWithoutCouriersTest() {
+        assertThrows(VendorHasNoCouriersException.class, () -> vendorService.updateDeliveryArea(11L,
+                List.of(new Location(0.0, 0.0), new Location(0.1, 0.0), new Location(0.1, 0.1))));
+        assertThrows(VendorNotFoundException.class, () -> vendorService.updateDeliveryArea(2L, List.of()));
+    }
+
+    @Test
+    void getDeliveryAreaTest() throws VendorNotFoundException {
+        List<Location> vertices = List.of(new Location(0.0, 0.0), new Location(0.1, 0.0), new Location(0.1, 0.1));
+        when(deliveryAreaRepository.findById(3L)).thenReturn(Optional.of(new DeliveryArea(3L, vertices)));
+
+        assertEquals(vertices, vendorService.getDeliveryArea(3L));
+        assertEquals(List.of(), vendorService.getDeliveryArea(1L));
+        assertThrows(VendorNotFoundException.class, () -> vendorService.getDeliveryArea(2L));
+    }
+
+    @Test
+    void getVendorsServingPrefersDeliveryAreaTest() throws Exception {
+        vendorCoverageIndex.rebuild(List.of(new Vendor(3L, 7L, new Location(0.0, 0.0), List.of(2L)),
+                new Vendor(11L, 7L, new Location(0.0, 0.0), new ArrayList<>())));
+        // Vendor 3 only delivers to the north-east of its address
+        vendorService.updateDeliveryArea(3L, List.of(new Location(0.0, 0.0), new Location(0.2, 0.0),
+                new Location(0.2, 0.2), new Location(0.0, 0.2)));
+
+        assertEquals(List.of(3L, 11L), vendorService.getVendorsServing(new Location(0.01, 0.01)));
+        assertEquals(List.of(11L), vendorService.getVendorsServing(new Location(-0.01, -0.01)));
+        assertEquals(List.of(3L), vendorService.getVendorsServing(new Location(0.15, 0.15)));
+    }
+
     @Test
     void testFindVendorAddressWorks() throws VendorNotFoundException, MicroserviceCommunicationException {
         when(vendorRepository.findById(any())).thenReturn(Optional.of(vendor));
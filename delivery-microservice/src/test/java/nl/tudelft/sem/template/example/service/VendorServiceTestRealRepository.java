@@ -4,7 +4,11 @@ import nl.tudelft.sem.template.example.Application;
 import nl.tudelft.sem.template.example.configuration.ConfigurationProperties;
 import nl.tudelft.sem.template.example.exception.MicroserviceCommunicationException;
 import nl.tudelft.sem.template.example.external.UsersMicroservice;
+import nl.tudelft.sem.template.example.repository.DeliveryAreaRepository;
 import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.geo.DeliveryAreaIndex;
+import nl.tudelft.sem.template.example.service.geo.VendorCoverageIndex;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Vendor;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,17 +35,20 @@ public class VendorServiceTestRealRepository {
     private final VendorRepository vendorRepository;
 
     private final VendorService vendorService;
-    private final CourierService courierService;
+    private final CourierVendorIndex courierVendorIndex;
 
     private final ConfigurationProperties configurationProperties;
 
     @Autowired
-    public VendorServiceTestRealRepository(VendorRepository vendorRepository, ConfigurationProperties configurationProperties, CourierService courierService){
+    public VendorServiceTestRealRepository(VendorRepository vendorRepository, ConfigurationProperties configurationProperties, CourierVendorIndex courierVendorIndex,
+                                           VendorCoverageIndex vendorCoverageIndex, DeliveryAreaRepository deliveryAreaRepository,
+                                           DeliveryAreaIndex deliveryAreaIndex){
         this.vendorRepository = vendorRepository;
         this.usersMicroservice = Mockito.mock(UsersMicroservice.class);
         this.configurationProperties = configurationProperties;
-        this.courierService = courierService;
-        this.vendorService = new VendorService(vendorRepository, configurationProperties, usersMicroservice, courierService);
+        this.courierVendorIndex = courierVendorIndex;
+        this.vendorService = new VendorService(vendorRepository, configurationProperties, usersMicroservice, courierVendorIndex, vendorCoverageIndex,
+                deliveryAreaRepository, deliveryAreaIndex);
     }
 
     @BeforeEach
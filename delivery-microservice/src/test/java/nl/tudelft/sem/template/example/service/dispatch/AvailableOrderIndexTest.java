@@ -0,0 +1,144 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class AvailableOrderIndexTest {
+
+    private final DeliveryRepository deliveryRepository = Mockito.mock(DeliveryRepository.class);
+
+    private final AvailableOrderIndex availableOrderIndex = new AvailableOrderIndex(deliveryRepository);
+
+    private Vendor vendor1;
+    private Vendor vendor2;
+
+    @BeforeEach
+    void setup() {
+        vendor1 = new Vendor(1L, 9L, new Location(5.0, 1.0), new ArrayList<>());
+        vendor2 = new Vendor(2L, 9L, new Location(6.0, 1.0), List.of(16L));
+
+        List<Delivery> deliveries = List.of(
+                delivery(new Order(10L, 3L, vendor1, Order.StatusEnum.ACCEPTED, new Location(1.0, 1.0)), null),
+                delivery(new Order(4L, 3L, vendor1, Order.StatusEnum.ACCEPTED, new Location(1.0, 1.0)), null),
+                delivery(new Order(5L, 3L, vendor1, Order.StatusEnum.PENDING, new Location(1.0, 1.0)), null),
+                delivery(new Order(8L, 3L, vendor1, Order.StatusEnum.GIVEN_TO_COURIER, new Location(1.0, 1.0)), null),
+                delivery(new Order(6L, 3L, vendor2, Order.StatusEnum.ACCEPTED, new Location(1.0, 1.0)), 7L),
+                delivery(new Order(7L, 3L, vendor2, Order.StatusEnum.ACCEPTED, new Location(1.0, 1.0)), null)
+        );
+        availableOrderIndex.rebuild(deliveries);
+    }
+
+    private Delivery delivery(Order order, Long courierId) {
+        return new Delivery(order.getOrderId(), order, courierId, new Rating(), new Time(), new Issue());
+    }
+
+    @Test
+    void rebuildOnlyKeepsAvailableUnassignedOrders() {
+        assertThat(availableOrderIndex.size()).isEqualTo(3);
+        assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(4L, 10L);
+        assertThat(availableOrderIndex.getOrdersOfVendor(2L)).containsExactly(7L);
+    }
+
+    @Test
+    void excludedVendorsAreSkipped() {
+        assertThat(availableOrderIndex.getOrdersExcludingVendors(Set.of(2L), 10)).containsExactly(4L, 10L);
+        assertThat(availableOrderIndex.getOrdersExcludingVendors(Set.of(), 10)).containsExactly(4L, 7L, 10L);
+    }
+
+    @Test
+    void excludingVendorsStopsAtLimit() {
+        assertThat(availableOrderIndex.getOrdersExcludingVendors(Set.of(), 2)).containsExactly(4L, 7L);
+        assertThat(availableOrderIndex.getOrdersExcludingVendors(Set.of(2L), 2)).containsExactly(4L, 10L);
+        assertThat(availableOrderIndex.getOrdersExcludingVendors(Set.of(), 0)).isEmpty();
+    }
+
+    @Test
+    void removeDropsOrderFromItsBucket() {
+        assertThat(availableOrderIndex.remove(7L)).isTrue();
+        assertThat(availableOrderIndex.remove(7L)).isFalse();
+        assertThat(availableOrderIndex.getOrdersOfVendor(2L)).isEmpty();
+        assertThat(availableOrderIndex.contains(7L)).isFalse();
+    }
+
+    @Test
+    void addPutsOrderInVendorBucket() {
+        availableOrderIndex.add(new Order(1L, 3L, vendor2, Order.StatusEnum.ACCEPTED, new Location(1.0, 1.0)));
+        assertThat(availableOrderIndex.getOrdersOfVendor(2L)).containsExactly(1L, 7L);
+    }
+
+    @Test
+    void reloadQueriesOnlyUnassignedAvailableDeliveries() {
+        when(deliveryRepository.findByCourierIdIsNullAndOrder_StatusIn(any()))
+                .thenReturn(List.of(
+                        delivery(new Order(3L, 3L, vendor1, Order.StatusEnum.ACCEPTED, null), null),
+                        delivery(new Order(8L, 3L, vendor1, Order.StatusEnum.PREPARING, null), null)));
+
+        availableOrderIndex.reload();
+
+        assertThat(availableOrderIndex.size()).isEqualTo(2);
+        assertThat(availableOrderIndex.contains(3L)).isTrue();
+        assertThat(availableOrderIndex.contains(8L)).isTrue();
+    }
+
+    @Test
+    void ordersThatAreReadyFirstComeFirst() {
+        OffsetDateTime now = OffsetDateTime.now();
+        availableOrderIndex.add(new Order(20L, 3L, vendor1, Order.StatusEnum.PREPARING, null), now.plusMinutes(10));
+        availableOrderIndex.add(new Order(21L, 3L, vendor1, Order.StatusEnum.PREPARING, null), now.plusMinutes(5));
+        availableOrderIndex.add(new Order(22L, 3L, vendor2, Order.StatusEnum.ACCEPTED, null), now.plusMinutes(7));
+
+        assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(21L, 20L, 4L, 10L);
+        assertThat(availableOrderIndex.getOrdersExcludingVendors(Set.of(), 10)).containsExactly(21L, 22L, 20L, 4L, 7L, 10L);
+        assertThat(availableOrderIndex.getOrdersByVendor().get(2L)).containsExactly(22L, 7L);
+    }
+
+    @Test
+    void updateReadyTimeMovesOrder() {
+        OffsetDateTime now = OffsetDateTime.now();
+        availableOrderIndex.updateReadyTime(10L, now);
+        assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(10L, 4L);
+
+        availableOrderIndex.updateReadyTime(4L, now.minusMinutes(1));
+        assertThat(availableOrderIndex.getOrdersExcludingVendors(Set.of(), 10)).containsExactly(4L, 10L, 7L);
+        assertThat(availableOrderIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void updateReadyTimeIgnoresUnavailableOrders() {
+        availableOrderIndex.updateReadyTime(5L, OffsetDateTime.now());
+
+        assertThat(availableOrderIndex.contains(5L)).isFalse();
+        assertThat(availableOrderIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void ordersWithoutIdAreNeverPresent() {
+        availableOrderIndex.updateReadyTime(null, OffsetDateTime.now());
+
+        assertThat(availableOrderIndex.remove(null)).isFalse();
+        assertThat(availableOrderIndex.contains(null)).isFalse();
+        assertThat(availableOrderIndex.getVendorOfOrder(null)).isNull();
+        assertThat(availableOrderIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void addingAnOrderTwiceKeepsOneEntry() {
+        Order order = new Order(4L, 3L, vendor1, Order.StatusEnum.PREPARING, null);
+        availableOrderIndex.add(order, OffsetDateTime.now());
+
+        assertThat(availableOrderIndex.size()).isEqualTo(3);
+        assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(4L, 10L);
+    }
+}
@@ -0,0 +1,47 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BatchAssignmentSolverTest {
+
+    @Test
+    void swapFixesGreedyChoice() {
+        double[][] cost = {{1, 2}, {2, 100}};
+        int[] result = BatchAssignmentSolver.solve(2, 2, (courier, order) -> cost[courier][order]);
+        assertThat(result).containsExactly(1, 0);
+    }
+
+    @Test
+    void moreCouriersThanOrders() {
+        double[][] cost = {{5}, {1}, {3}};
+        int[] result = BatchAssignmentSolver.solve(3, 1, (courier, order) -> cost[courier][order]);
+        assertThat(result).containsExactly(-1, 0, -1);
+    }
+
+    @Test
+    void emptyGroups() {
+        assertThat(BatchAssignmentSolver.solve(0, 4, (courier, order) -> 1)).isEmpty();
+        assertThat(BatchAssignmentSolver.solve(2, 0, (courier, order) -> 1)).containsExactly(-1, -1);
+    }
+
+    @Test
+    void tooManyPairs() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchAssignmentSolver.solve(BatchAssignmentSolver.MAX_PAIRS, 2, (courier, order) -> 1));
+    }
+
+    @Test
+    void thousandsOfPairsAreMatchedOnce() {
+        int size = 1500;
+        int[] result = BatchAssignmentSolver.solve(size, size, (courier, order) -> Math.abs(courier - order));
+        assertThat(Arrays.stream(result).distinct().count()).isEqualTo(size);
+        for (int courier = 0; courier < size; courier++) {
+            assertThat(result[courier]).isEqualTo(courier);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.model.*;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class CourierLoadRegistryTest {
+
+    private final DeliveryRepository deliveryRepository = Mockito.mock(DeliveryRepository.class);
+
+    private final CourierLoadRegistry courierLoadRegistry = new CourierLoadRegistry(deliveryRepository);
+
+    private Delivery delivery(long orderId, Order.StatusEnum status, Long courierId) {
+        Vendor vendor = new Vendor(1L, 30L, new Location(0.0, 0.0), new ArrayList<>());
+        Order order = new Order(orderId, 5L, vendor, status, new Location(1.0, 1.0));
+        return new Delivery(orderId, order, courierId, new Rating(), new Time(), new Issue());
+    }
+
+    @Test
+    void reloadCountsUndeliveredOrders() {
+        when(deliveryRepository.findByCourierIdIsNotNullAndOrder_StatusNot(Order.StatusEnum.DELIVERED))
+                .thenReturn(List.of(
+                        delivery(1L, Order.StatusEnum.ACCEPTED, 7L),
+                        delivery(2L, Order.StatusEnum.ON_TRANSIT, 7L),
+                        delivery(3L, Order.StatusEnum.PREPARING, 8L)));
+
+        courierLoadRegistry.reload();
+
+        assertThat(courierLoadRegistry.getLoad(7L)).isEqualTo(2);
+        assertThat(courierLoadRegistry.getLoad(8L)).isEqualTo(1);
+        assertThat(courierLoadRegistry.getLoad(9L)).isZero();
+    }
+
+    @Test
+    void rebuildSkipsDeliveredAndUnassignedOrders() {
+        courierLoadRegistry.rebuild(List.of(
+                delivery(1L, Order.StatusEnum.DELIVERED, 7L),
+                delivery(2L, Order.StatusEnum.ACCEPTED, null),
+                delivery(3L, Order.StatusEnum.GIVEN_TO_COURIER, 7L)));
+
+        assertThat(courierLoadRegistry.getLoad(7L)).isEqualTo(1);
+    }
+
+    @Test
+    void tryIncrementStopsAtMaximum() {
+        assertThat(courierLoadRegistry.tryIncrement(7L, 2)).isTrue();
+        assertThat(courierLoadRegistry.tryIncrement(7L, 2)).isTrue();
+        assertThat(courierLoadRegistry.tryIncrement(7L, 2)).isFalse();
+        assertThat(courierLoadRegistry.getLoad(7L)).isEqualTo(2);
+    }
+
+    @Test
+    void decrementDoesNotGoBelowZero() {
+        courierLoadRegistry.increment(7L);
+        courierLoadRegistry.decrement(7L);
+        courierLoadRegistry.decrement(7L);
+        courierLoadRegistry.decrement(8L);
+
+        assertThat(courierLoadRegistry.getLoad(7L)).isZero();
+        assertThat(courierLoadRegistry.getLoad(8L)).isZero();
+    }
+
+    @Test
+    void concurrentIncrementsNeverExceedMaximum() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger accepted = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                if (courierLoadRegistry.tryIncrement(7L, 50)) {
+                    accepted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(accepted.get()).isEqualTo(50);
+        assertThat(courierLoadRegistry.getLoad(7L)).isEqualTo(50);
+    }
+}
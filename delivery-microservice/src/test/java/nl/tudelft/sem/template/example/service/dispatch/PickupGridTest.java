@@ -0,0 +1,77 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PickupGridTest {
+
+    private final PickupGrid pickupGrid = new PickupGrid(1.0);
+
+    @Test
+    void emptyGridHasNoNearest() {
+        assertThat(pickupGrid.findNearest(new Location(0.0, 0.0), vendorId -> true)).isNull();
+    }
+
+    @Test
+    void findsClosestVendor() {
+        pickupGrid.add(1L, new Location(0.5, 0.5));
+        pickupGrid.add(2L, new Location(3.5, 3.5));
+        pickupGrid.add(3L, new Location(-4.0, 2.0));
+
+        assertThat(pickupGrid.findNearest(new Location(3.0, 3.0), vendorId -> true)).isEqualTo(2L);
+        assertThat(pickupGrid.findNearest(new Location(-3.0, 1.0), vendorId -> true)).isEqualTo(3L);
+    }
+
+    @Test
+    void skipsIneligibleAndRemovedVendors() {
+        pickupGrid.add(1L, new Location(0.5, 0.5));
+        pickupGrid.add(2L, new Location(3.5, 3.5));
+        pickupGrid.add(3L, new Location(9.0, 9.0));
+
+        assertThat(pickupGrid.findNearest(new Location(0.0, 0.0), vendorId -> vendorId != 1L)).isEqualTo(2L);
+        pickupGrid.remove(2L);
+        assertThat(pickupGrid.findNearest(new Location(0.0, 0.0), vendorId -> vendorId != 1L)).isEqualTo(3L);
+        assertThat(pickupGrid.size()).isEqualTo(2);
+    }
+
+    @Test
+    void comparesDistancesInMetres() {
+        // Far from the equator a degree of longitude is much shorter than a degree of latitude
+        pickupGrid.add(1L, new Location(60.8, 10.0));
+        pickupGrid.add(2L, new Location(60.0, 11.5));
+
+        assertThat(pickupGrid.findNearest(new Location(60.0, 10.0), vendorId -> true)).isEqualTo(2L);
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        Map<Long, Location> locations = new HashMap<>();
+        for (long vendorId = 0; vendorId < 20_000; vendorId++) {
+            Location location = new Location(random.nextDouble() * 140 - 70, random.nextDouble() * 100);
+            locations.put(vendorId, location);
+            pickupGrid.add(vendorId, location);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            Location origin = new Location(random.nextDouble() * 160 - 80, random.nextDouble() * 120 - 10);
+            Long expected = null;
+            double best = Double.MAX_VALUE;
+            for (Map.Entry<Long, Location> entry : locations.entrySet()) {
+                double distance = DistanceEngine.distance(origin, entry.getValue(), DistanceEngine.Precision.FAST);
+                if (distance < best) {
+                    best = distance;
+                    expected = entry.getKey();
+                }
+            }
+            assertThat(pickupGrid.findNearest(origin, vendorId -> true)).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package nl.tudelft.sem.template.example.service.dispatch;
+
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.ToDoubleBiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoutePlannerTest {
+
+    private final ToDoubleBiFunction<Location, Location> distance = (a, b) ->
+            Math.hypot(a.getLatitude() - b.getLatitude(), a.getLongitude() - b.getLongitude());
+
+    @Test
+    void visitsStopsAlongTheWay() {
+        List<Location> stops = List.of(new Location(3.0, 0.0), new Location(1.0, 0.0), new Location(2.0, 0.0));
+
+        int[] route = RoutePlanner.plan(new Location(0.0, 0.0), stops, distance);
+
+        assertThat(route).containsExactly(1, 2, 0);
+    }
+
+    @Test
+    void twoOptRemovesCrossing() {
+        // Nearest neighbour goes to (1,0) first and then has to cross back over the route
+        List<Location> stops = List.of(new Location(1.0, 0.0), new Location(-1.1, 0.0), new Location(4.0, 0.0));
+
+        int[] route = RoutePlanner.plan(new Location(0.0, 0.0), stops, distance);
+
+        assertThat(route).containsExactly(1, 0, 2);
+    }
+
+    @Test
+    void emptyRoute() {
+        assertThat(RoutePlanner.plan(new Location(0.0, 0.0), List.of(), distance)).isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundingBoxTreeTest {
+
+    @Test
+    void emptyTreeFindsNothing() {
+        BoundingBoxTree tree = new BoundingBoxTree(new double[0]);
+        List<Integer> found = new ArrayList<>();
+
+        tree.search(52.0, 4.35, found::add);
+
+        assertThat(found).isEmpty();
+        assertThat(tree.size()).isZero();
+    }
+
+    @Test
+    void findsBoxesContainingPoint() {
+        BoundingBoxTree tree = new BoundingBoxTree(new double[] {
+            52.0, 4.3, 52.1, 4.4,
+            52.05, 4.35, 52.2, 4.5,
+            51.0, 3.0, 51.5, 3.5});
+        List<Integer> found = new ArrayList<>();
+
+        tree.search(52.07, 4.37, found::add);
+
+        assertThat(found).containsExactlyInAnyOrder(0, 1);
+        assertThat(tree.size()).isEqualTo(3);
+    }
+
+    @Test
+    void matchesLinearScanOverManyBoxes() {
+        Random random = new Random(42);
+        int count = 5_000;
+        double[] boxes = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            double latitude = 50 + random.nextDouble() * 4;
+            double longitude = 3 + random.nextDouble() * 4;
+            boxes[i * 4] = latitude;
+            boxes[i * 4 + 1] = longitude;
+            boxes[i * 4 + 2] = latitude + random.nextDouble() * 0.3;
+            boxes[i * 4 + 3] = longitude + random.nextDouble() * 0.3;
+        }
+        BoundingBoxTree tree = new BoundingBoxTree(boxes);
+
+        for (int query = 0; query < 500; query++) {
+            double latitude = 50 + random.nextDouble() * 4.3;
+            double longitude = 3 + random.nextDouble() * 4.3;
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (latitude >= boxes[i * 4] && longitude >= boxes[i * 4 + 1]
+                        && latitude <= boxes[i * 4 + 2] && longitude <= boxes[i * 4 + 3]) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> found = new ArrayList<>();
+
+            tree.search(latitude, longitude, found::add);
+
+            assertThat(found).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
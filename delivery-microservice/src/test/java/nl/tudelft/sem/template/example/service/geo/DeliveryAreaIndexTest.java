@@ -0,0 +1,120 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import nl.tudelft.sem.template.example.repository.DeliveryAreaRepository;
+import nl.tudelft.sem.template.model.DeliveryArea;
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+public class DeliveryAreaIndexTest {
+
+    private final DeliveryAreaRepository deliveryAreaRepository = Mockito.mock(DeliveryAreaRepository.class);
+    private final DeliveryAreaIndex deliveryAreaIndex = new DeliveryAreaIndex(deliveryAreaRepository);
+
+    /**
+     * An L-shaped area: a block of 0.1 by 0.1 degrees with its north-east quarter cut out.
+     */
+    private static DeliveryArea lShape(long vendorId, double latitude, double longitude) {
+        return new DeliveryArea(vendorId, List.of(
+                new Location(latitude, longitude),
+                new Location(latitude + 0.1, longitude),
+                new Location(latitude + 0.1, longitude + 0.05),
+                new Location(latitude + 0.05, longitude + 0.05),
+                new Location(latitude + 0.05, longitude + 0.1),
+                new Location(latitude, longitude + 0.1)));
+    }
+
+    @Test
+    void containsFollowsConcavePolygon() {
+        deliveryAreaIndex.update(lShape(1L, 52.0, 4.3));
+
+        assertThat(deliveryAreaIndex.contains(1L, new Location(52.02, 4.32))).isTrue();
+        assertThat(deliveryAreaIndex.contains(1L, new Location(52.08, 4.32))).isTrue();
+        assertThat(deliveryAreaIndex.contains(1L, new Location(52.02, 4.38))).isTrue();
+        // Inside the bounding box, but in the part that was cut out
+        assertThat(deliveryAreaIndex.contains(1L, new Location(52.08, 4.38))).isFalse();
+        assertThat(deliveryAreaIndex.contains(1L, new Location(51.9, 4.32))).isFalse();
+        assertThat(deliveryAreaIndex.contains(2L, new Location(52.02, 4.32))).isFalse();
+    }
+
+    @Test
+    void findsVendorsWhoseAreaContainsTheLocation() {
+        deliveryAreaIndex.rebuild(List.of(lShape(1L, 52.0, 4.3), lShape(2L, 52.06, 4.36), lShape(3L, 51.0, 3.0)));
+
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(52.02, 4.32))).containsExactly(1L);
+        // In the cut-out corner of vendor 1 and the south-west corner of vendor 2
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(52.07, 4.37))).containsExactly(2L);
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(52.03, 4.37)))
+                .containsExactlyInAnyOrder(1L);
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(10.0, 10.0))).isEmpty();
+        assertThat(deliveryAreaIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void updateAndRemoveReplaceTheArea() {
+        deliveryAreaIndex.update(lShape(1L, 52.0, 4.3));
+        deliveryAreaIndex.update(lShape(1L, 53.0, 5.3));
+
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(52.02, 4.32))).isEmpty();
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(53.02, 5.32))).containsExactly(1L);
+
+        deliveryAreaIndex.remove(1L);
+
+        assertThat(deliveryAreaIndex.hasArea(1L)).isFalse();
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(53.02, 5.32))).isEmpty();
+        assertThat(deliveryAreaIndex.size()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidPolygons() {
+        assertThatThrownBy(() -> DeliveryAreaIndex.validate(List.of(new Location(52.0, 4.3), new Location(52.1, 4.3))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DeliveryAreaIndex.validate(List.of(new Location(52.0, 4.3),
+                new Location(52.1, 4.3), new Location(95.0, 4.4))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> deliveryAreaIndex.update(new DeliveryArea(1L, List.of(new Location(52.0, 4.3),
+                new Location(52.1, null), new Location(52.1, 4.4)))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(deliveryAreaIndex.hasArea(1L)).isFalse();
+    }
+
+    @Test
+    void reloadReadsRepository() {
+        when(deliveryAreaRepository.findAll()).thenReturn(List.of(lShape(4L, 52.0, 4.3)));
+
+        deliveryAreaIndex.reload();
+
+        assertThat(deliveryAreaIndex.hasArea(4L)).isTrue();
+        assertThat(deliveryAreaIndex.getVendorsServing(new Location(52.02, 4.32))).containsExactly(4L);
+    }
+
+    @Test
+    void matchesLinearScanOverManyAreas() {
+        Random random = new Random(7);
+        List<DeliveryArea> areas = new ArrayList<>();
+        for (long vendorId = 0; vendorId < 2_000; vendorId++) {
+            areas.add(lShape(vendorId, 50 + random.nextDouble() * 2, 3 + random.nextDouble() * 2));
+        }
+        deliveryAreaIndex.rebuild(areas);
+
+        for (int query = 0; query < 300; query++) {
+            Location location = new Location(50 + random.nextDouble() * 2.1, 3 + random.nextDouble() * 2.1);
+            List<Long> expected = new ArrayList<>();
+            for (DeliveryArea area : areas) {
+                if (deliveryAreaIndex.contains(area.getVendorId(), location)) {
+                    expected.add(area.getVendorId());
+                }
+            }
+
+            assertThat(deliveryAreaIndex.getVendorsServing(location)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
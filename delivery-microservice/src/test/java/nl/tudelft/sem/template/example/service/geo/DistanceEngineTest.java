@@ -0,0 +1,91 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DistanceEngineTest {
+
+    private static final Location DELFT = new Location(52.0116, 4.3571);
+    private static final Location AMSTERDAM = new Location(52.3676, 4.9041);
+
+    @Test
+    void exactDistanceBetweenCities() {
+        double distance = DistanceEngine.distance(DELFT, AMSTERDAM, DistanceEngine.Precision.EXACT);
+
+        assertThat(distance).isCloseTo(54_400.0, within(500.0));
+    }
+
+    @Test
+    void oneDegreeAlongTheEquator() {
+        double distance = DistanceEngine.distance(0.0, 0.0, 0.0, 1.0, DistanceEngine.Precision.EXACT);
+
+        assertThat(distance).isCloseTo(DistanceEngine.METRES_PER_DEGREE, within(1e-6));
+    }
+
+    @Test
+    void degreeOfLongitudeShrinksTowardsThePoles() {
+        double atEquator = DistanceEngine.distance(0.0, 0.0, 0.0, 1.0, DistanceEngine.Precision.FAST);
+        double atSixty = DistanceEngine.distance(60.0, 0.0, 60.0, 1.0, DistanceEngine.Precision.FAST);
+
+        assertThat(atSixty).isCloseTo(atEquator / 2, within(atEquator * 1e-4));
+    }
+
+    @Test
+    void fastModeStaysCloseWithinACity() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            double latitude = DELFT.getLatitude() + random.nextDouble() * 0.3 - 0.15;
+            double longitude = DELFT.getLongitude() + random.nextDouble() * 0.3 - 0.15;
+            double exact = DistanceEngine.distance(DELFT.getLatitude(), DELFT.getLongitude(), latitude, longitude,
+                    DistanceEngine.Precision.EXACT);
+            double fast = DistanceEngine.distance(DELFT.getLatitude(), DELFT.getLongitude(), latitude, longitude,
+                    DistanceEngine.Precision.FAST);
+
+            assertThat(fast).isCloseTo(exact, within(exact * 1e-3 + 1e-6));
+        }
+    }
+
+    @Test
+    void fastModeTakesTheShortWayAcrossTheAntimeridian() {
+        double distance = DistanceEngine.distance(0.0, 179.5, 0.0, -179.5, DistanceEngine.Precision.FAST);
+
+        assertThat(distance).isCloseTo(DistanceEngine.METRES_PER_DEGREE, within(1.0));
+    }
+
+    @Test
+    void batchMatchesSingleDistances() {
+        double[] latitudes = {52.0, 52.1, 51.9, 0.0};
+        double[] longitudes = {4.3, 4.4, 4.5, 0.0};
+        double[] distances = new double[latitudes.length];
+
+        for (DistanceEngine.Precision precision : DistanceEngine.Precision.values()) {
+            DistanceEngine.distances(DELFT.getLatitude(), DELFT.getLongitude(), latitudes, longitudes, distances, precision);
+
+            for (int i = 0; i < latitudes.length; i++) {
+                assertThat(distances[i]).isEqualTo(DistanceEngine.distance(DELFT.getLatitude(), DELFT.getLongitude(),
+                        latitudes[i], longitudes[i], precision));
+            }
+        }
+    }
+
+    @Test
+    void batchRejectsMismatchedArrays() {
+        assertThrows(IllegalArgumentException.class, () -> DistanceEngine.distances(0.0, 0.0, new double[2],
+                new double[1], new double[2], DistanceEngine.Precision.FAST));
+        assertThrows(IllegalArgumentException.class, () -> DistanceEngine.distances(0.0, 0.0, new double[2],
+                new double[2], new double[1], DistanceEngine.Precision.FAST));
+    }
+
+    @Test
+    void cosineTableIsClampedAtThePoles() {
+        assertThat(DistanceEngine.cosineOfLatitude(0.0)).isEqualTo(1.0);
+        assertThat(DistanceEngine.cosineOfLatitude(95.0)).isCloseTo(0.0, within(1e-12));
+        assertThat(DistanceEngine.cosineOfLatitude(52.0)).isCloseTo(Math.cos(Math.toRadians(52.0)), within(1e-4));
+    }
+}
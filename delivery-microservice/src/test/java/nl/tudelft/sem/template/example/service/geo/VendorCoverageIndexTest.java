@@ -0,0 +1,115 @@
+package nl.tudelft.sem.template.example.service.geo;
+
+import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class VendorCoverageIndexTest {
+
+    private final VendorRepository vendorRepository = Mockito.mock(VendorRepository.class);
+    private final VendorCoverageIndex vendorCoverageIndex = new VendorCoverageIndex(vendorRepository);
+
+    private static Vendor vendor(long id, long deliveryZone, Location address) {
+        return new Vendor(id, deliveryZone, address, new ArrayList<>());
+    }
+
+    @Test
+    void findsVendorsWhoseZoneContainsTheLocation() {
+        vendorCoverageIndex.rebuild(List.of(
+                vendor(1L, 5L, new Location(52.0, 4.35)),
+                vendor(2L, 15L, new Location(52.2, 4.4)),
+                vendor(3L, 2L, new Location(52.1, 4.3))));
+
+        // About 3.3 km from vendor 1, 19 km from vendor 2 and 8.5 km from vendor 3
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(52.03, 4.35))).containsExactly(1L);
+        // About 11 km from vendor 1, 12 km from vendor 2 and 1.4 km from vendor 3
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(52.1, 4.32)))
+                .containsExactlyInAnyOrder(2L, 3L);
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(10.0, 10.0))).isEmpty();
+    }
+
+    @Test
+    void updateMovesAndRemoveDropsZone() {
+        Location destination = new Location(0.0, 0.15);
+        vendorCoverageIndex.update(vendor(1L, 10L, new Location(0.0, 0.0)));
+        assertThat(vendorCoverageIndex.getVendorsServing(destination)).isEmpty();
+
+        vendorCoverageIndex.update(vendor(1L, 20L, new Location(0.0, 0.0)));
+        assertThat(vendorCoverageIndex.getVendorsServing(destination)).containsExactly(1L);
+        assertThat(vendorCoverageIndex.size()).isEqualTo(1);
+
+        vendorCoverageIndex.remove(1L);
+        assertThat(vendorCoverageIndex.getVendorsServing(destination)).isEmpty();
+        assertThat(vendorCoverageIndex.size()).isZero();
+    }
+
+    @Test
+    void skipsVendorsWithoutAddress() {
+        vendorCoverageIndex.update(vendor(1L, 30L, null));
+
+        assertThat(vendorCoverageIndex.size()).isZero();
+    }
+
+    @Test
+    void wideZonesAreStillFound() {
+        vendorCoverageIndex.update(vendor(1L, 5_000L, new Location(40.0, -100.0)));
+
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(20.0, -80.0))).containsExactly(1L);
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(40.0, 20.0))).isEmpty();
+    }
+
+    @Test
+    void zonesWrapAroundTheAntimeridian() {
+        vendorCoverageIndex.update(vendor(1L, 20L, new Location(-17.0, 179.95)));
+        vendorCoverageIndex.update(vendor(2L, 20L, new Location(-17.0, -179.95)));
+
+        // The vendor on the other side of the antimeridian is about 10.6 km away
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(-17.0, -179.95)))
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(-17.0, 179.95)))
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(-17.0, 180.0)))
+                .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void reloadReadsVendorsFromRepository() {
+        when(vendorRepository.findAll()).thenReturn(List.of(vendor(4L, 1L, new Location(1.0, 1.0))));
+
+        vendorCoverageIndex.reload();
+
+        assertThat(vendorCoverageIndex.getVendorsServing(new Location(1.0, 1.005))).containsExactly(4L);
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        List<Vendor> vendors = new ArrayList<>();
+        for (long vendorId = 0; vendorId < 2_000; vendorId++) {
+            vendors.add(vendor(vendorId, 1 + random.nextInt(40),
+                    new Location(random.nextDouble() * 140 - 70, random.nextDouble() * 2 - 1)));
+        }
+        vendorCoverageIndex.rebuild(vendors);
+
+        for (int query = 0; query < 500; query++) {
+            Location location = new Location(random.nextDouble() * 140 - 70, random.nextDouble() * 2 - 1);
+            List<Long> expected = new ArrayList<>();
+            for (Vendor vendor : vendors) {
+                if (DistanceEngine.distance(vendor.getAddress(), location, DistanceEngine.Precision.EXACT)
+                        <= vendor.getDeliveryZone() * 1000) {
+                    expected.add(vendor.getId());
+                }
+            }
+            assertThat(vendorCoverageIndex.getVendorsServing(location)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EtaCacheTest {
+
+    private static final OffsetDateTime NOON = OffsetDateTime.of(2024, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private final AtomicInteger computed = new AtomicInteger();
+
+    private Supplier<Duration> estimate(long minutes) {
+        return () -> {
+            computed.incrementAndGet();
+            return Duration.ofMinutes(minutes);
+        };
+    }
+
+    @Test
+    void sharesEstimateWithinCellAndBucket() {
+        EtaCache etaCache = new EtaCache(10, 0.01, 15);
+
+        assertThat(etaCache.getTravelTime(1L, new Location(52.001, 4.001), NOON, estimate(20)))
+                .isEqualTo(Duration.ofMinutes(20));
+        assertThat(etaCache.getTravelTime(1L, new Location(52.009, 4.009), NOON.plusMinutes(14), estimate(25)))
+                .isEqualTo(Duration.ofMinutes(20));
+
+        assertThat(computed.get()).isEqualTo(1);
+        assertThat(etaCache.getHits()).isEqualTo(1);
+        assertThat(etaCache.getMisses()).isEqualTo(1);
+        assertThat(etaCache.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void separatesVendorsCellsAndBuckets() {
+        EtaCache etaCache = new EtaCache(10, 0.01, 15);
+
+        etaCache.getTravelTime(1L, new Location(52.001, 4.001), NOON, estimate(20));
+        etaCache.getTravelTime(2L, new Location(52.001, 4.001), NOON, estimate(20));
+        etaCache.getTravelTime(1L, new Location(52.011, 4.001), NOON, estimate(20));
+        etaCache.getTravelTime(1L, new Location(52.001, 4.001), NOON.plusMinutes(15), estimate(20));
+
+        assertThat(computed.get()).isEqualTo(4);
+        assertThat(etaCache.size()).isEqualTo(4);
+        assertThat(etaCache.getHits()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        EtaCache etaCache = new EtaCache(2, 0.01, 15);
+        Location destination = new Location(52.0, 4.0);
+
+        etaCache.getTravelTime(1L, destination, NOON, estimate(10));
+        etaCache.getTravelTime(2L, destination, NOON, estimate(20));
+        // Using vendor 1 again makes vendor 2 the least recently used
+        etaCache.getTravelTime(1L, destination, NOON, estimate(10));
+        etaCache.getTravelTime(3L, destination, NOON, estimate(30));
+
+        assertThat(etaCache.size()).isEqualTo(2);
+        etaCache.getTravelTime(1L, destination, NOON, estimate(10));
+        assertThat(computed.get()).isEqualTo(3);
+        etaCache.getTravelTime(2L, destination, NOON, estimate(20));
+        assertThat(computed.get()).isEqualTo(4);
+    }
+
+    @Test
+    void clearDropsEstimates() {
+        EtaCache etaCache = new EtaCache(10, 0.01, 15);
+        etaCache.getTravelTime(1L, new Location(52.0, 4.0), NOON, estimate(10));
+
+        etaCache.clear();
+
+        assertThat(etaCache.size()).isZero();
+        assertThat(etaCache.getHitRate()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new EtaCache(0, 0.01, 15)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new EtaCache(10, 0, 15)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new EtaCache(10, 0.01, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
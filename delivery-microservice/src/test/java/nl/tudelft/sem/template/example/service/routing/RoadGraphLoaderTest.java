@@ -0,0 +1,59 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RoadGraphLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(directory.resolve("roads.txt"), List.of(lines));
+    }
+
+    @Test
+    void readsNodesAndRoads() throws IOException {
+        Path file = write(
+                "# Two streets",
+                "node 1 52.0 4.0",
+                "node 2 52.0 4.01",
+                "",
+                "node 3 52.01 4.01",
+                "road 1 2 700 30",
+                "road 2 3 1200 50 oneway");
+
+        RoadGraph graph = RoadGraphLoader.load(file, 36);
+
+        assertThat(graph.nodeCount()).isEqualTo(3);
+        assertThat(graph.edgeCount()).isEqualTo(3);
+        // 50 km/h is capped at the vehicle speed of 36 km/h
+        assertThat(graph.getMaxSpeed()).isEqualTo(10);
+    }
+
+    @Test
+    void reportsLineOfInvalidRecord() throws IOException {
+        Path file = write("node 1 52.0 4.0", "road 1 2 100 30");
+
+        assertThatThrownBy(() -> RoadGraphLoader.load(file, 20))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("roads.txt:2");
+    }
+
+    @Test
+    void rejectsMalformedRecords() throws IOException {
+        assertThatThrownBy(() -> RoadGraphLoader.load(write("node 1 52.0"), 20)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> RoadGraphLoader.load(write("node 1 north 4.0"), 20)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> RoadGraphLoader.load(write("way 1 2"), 20)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> RoadGraphLoader.load(write("node 1 0 0", "node 2 0 1", "road 1 2 10 20 twoway"), 20))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,108 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+public class RoadGraphTest {
+
+    @Test
+    void packsEdgesByNode() {
+        RoadGraph graph = new RoadGraph.Builder()
+                .addNode(10L, 52.0, 4.0)
+                .addNode(20L, 52.0, 4.01)
+                .addNode(30L, 52.01, 4.01)
+                .addRoad(10L, 20L, 1_000, 10, false)
+                .addRoad(20L, 30L, 2_000, 20, true)
+                .build();
+
+        assertThat(graph.nodeCount()).isEqualTo(3);
+        assertThat(graph.edgeCount()).isEqualTo(3);
+        assertThat(graph.getMaxSpeed()).isEqualTo(20);
+        assertThat(graph.firstEdge(1) - graph.firstEdge(0)).isEqualTo(1);
+        assertThat(graph.firstEdge(2) - graph.firstEdge(1)).isEqualTo(2);
+        assertThat(graph.firstEdge(3) - graph.firstEdge(2)).isZero();
+        assertThat(graph.edgeTarget(graph.firstEdge(0))).isEqualTo(1);
+        assertThat(graph.edgeSeconds(graph.firstEdge(0))).isEqualTo(100f);
+    }
+
+    @Test
+    void raisesLengthToStraightLine() {
+        RoadGraph graph = new RoadGraph.Builder()
+                .addNode(1L, 0.0, 0.0)
+                .addNode(2L, 0.0, 0.01)
+                .addRoad(1L, 2L, 1, 1, true)
+                .build();
+
+        double straight = DistanceEngine.distance(0.0, 0.0, 0.0, 0.01, DistanceEngine.Precision.FAST);
+        assertThat((double) graph.edgeSeconds(0)).isCloseTo(straight, offset(0.01));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        RoadGraph.Builder builder = new RoadGraph.Builder().addNode(1L, 0.0, 0.0).addNode(2L, 0.0, 0.01);
+
+        assertThatThrownBy(() -> builder.addNode(1L, 1.0, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.addRoad(1L, 3L, 10, 10, false)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.addRoad(1L, 2L, 10, 0, false)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.addRoad(1L, 2L, Double.NaN, 10, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nearestNodeRespectsMaximumDistance() {
+        RoadGraph graph = new RoadGraph.Builder()
+                .addNode(1L, 52.0, 4.0)
+                .addNode(2L, 52.0, 4.05)
+                .build();
+
+        assertThat(graph.nearestNode(52.0, 4.001, 1_000)).isEqualTo(0);
+        assertThat(graph.nearestNode(52.0, 4.04, 1_000)).isEqualTo(1);
+        assertThat(graph.nearestNode(52.0, 4.025, 1_000)).isEqualTo(-1);
+        assertThat(graph.nearestNode(52.0, 4.026, 5_000)).isEqualTo(1);
+        assertThat(new RoadGraph.Builder().build().nearestNode(0.0, 0.0, 1_000)).isEqualTo(-1);
+    }
+
+    @Test
+    void nearestNodeMatchesLinearScan() {
+        Random random = new Random(7);
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        int nodes = 3_000;
+        double[] latitudes = new double[nodes];
+        double[] longitudes = new double[nodes];
+        for (int node = 0; node < nodes; node++) {
+            latitudes[node] = 52 + random.nextDouble() * 0.5;
+            longitudes[node] = 4 + random.nextDouble() * 0.5;
+            builder.addNode(node, latitudes[node], longitudes[node]);
+        }
+        RoadGraph graph = builder.build();
+
+        for (int query = 0; query < 500; query++) {
+            double latitude = 51.9 + random.nextDouble() * 0.7;
+            double longitude = 3.9 + random.nextDouble() * 0.7;
+            double best = 3_000;
+            int expected = -1;
+            for (int node = 0; node < nodes; node++) {
+                double distance = DistanceEngine.distance(latitudes[node], longitudes[node], latitude, longitude,
+                        DistanceEngine.Precision.FAST);
+                if (distance <= best) {
+                    best = distance;
+                    expected = node;
+                }
+            }
+            int actual = graph.nearestNode(latitude, longitude, 3_000);
+            if (expected == -1) {
+                assertThat(actual).isEqualTo(-1);
+            } else {
+                double distance = DistanceEngine.distance(graph.latitude(actual), graph.longitude(actual), latitude,
+                        longitude, DistanceEngine.Precision.FAST);
+                assertThat(distance).isEqualTo(best);
+            }
+        }
+    }
+}
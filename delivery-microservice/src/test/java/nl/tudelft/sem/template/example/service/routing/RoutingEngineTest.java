@@ -0,0 +1,161 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+public class RoutingEngineTest {
+
+    private static final double STEP = 0.005;
+
+    /**
+     * Builds a grid of streets with random lengths and speeds, some of them one way.
+     */
+    private static RoadGraph grid(int size, Random random) {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                builder.addNode((long) row * size + column, 52 + row * STEP, 4 + column * STEP);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                long node = (long) row * size + column;
+                if (column + 1 < size) {
+                    builder.addRoad(node, node + 1, 300 + random.nextInt(400), 3 + random.nextInt(12),
+                            random.nextInt(5) == 0);
+                }
+                if (row + 1 < size) {
+                    builder.addRoad(node, node + size, 500 + random.nextInt(400), 3 + random.nextInt(12),
+                            random.nextInt(5) == 0);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static double dijkstra(RoadGraph graph, int source, int target) {
+        double[] seconds = new double[graph.nodeCount()];
+        Arrays.fill(seconds, Double.POSITIVE_INFINITY);
+        seconds[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[] {0, source});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int node = (int) entry[1];
+            if (entry[0] > seconds[node]) {
+                continue;
+            }
+            for (int edge = graph.firstEdge(node); edge < graph.firstEdge(node + 1); edge++) {
+                double candidate = entry[0] + graph.edgeSeconds(edge);
+                if (candidate < seconds[graph.edgeTarget(edge)]) {
+                    seconds[graph.edgeTarget(edge)] = candidate;
+                    queue.add(new double[] {candidate, graph.edgeTarget(edge)});
+                }
+            }
+        }
+        return seconds[target];
+    }
+
+    @Test
+    void searchMatchesDijkstra() {
+        Random random = new Random(3);
+        RoadGraph graph = grid(30, random);
+        AStarSearch search = new AStarSearch(graph);
+
+        for (int query = 0; query < 300; query++) {
+            int source = random.nextInt(graph.nodeCount());
+            int target = random.nextInt(graph.nodeCount());
+            double expected = dijkstra(graph, source, target);
+            double actual = search.travelTime(source, target);
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertThat(actual).isEqualTo(Double.POSITIVE_INFINITY);
+            } else {
+                assertThat(actual).isCloseTo(expected, offset(1e-6));
+            }
+        }
+    }
+
+    @Test
+    void oneWayRoadsAreOnlyTravelledForward() {
+        RoadGraph graph = new RoadGraph.Builder()
+                .addNode(1L, 52.0, 4.0)
+                .addNode(2L, 52.0, 4.01)
+                .addRoad(1L, 2L, 1_000, 10, true)
+                .build();
+        AStarSearch search = new AStarSearch(graph);
+
+        assertThat(search.travelTime(0, 1)).isEqualTo(100.0);
+        assertThat(search.travelTime(1, 0)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(search.travelTime(1, 1)).isZero();
+    }
+
+    @Test
+    void travelTimeFollowsRoadAndSnapLegs() {
+        RoadGraph graph = new RoadGraph.Builder()
+                .addNode(1L, 52.0, 4.0)
+                .addNode(2L, 52.0, 4.1)
+                .addRoad(1L, 2L, 10_000, 5, false)
+                .build();
+        RoutingEngine routingEngine = new RoutingEngine(graph, 18);
+
+        Location from = new Location(52.001, 4.0);
+        Duration duration = routingEngine.travelTime(from, new Location(52.0, 4.1));
+
+        double snap = DistanceEngine.distance(52.001, 4.0, 52.0, 4.0, DistanceEngine.Precision.FAST);
+        assertThat(routingEngine.hasRoadGraph()).isTrue();
+        assertThat(duration.toMillis() / 1000.0).isCloseTo(2_000 + snap / 5, offset(0.01));
+    }
+
+    @Test
+    void fallsBackToStraightLineWithoutRoute() {
+        RoadGraph graph = new RoadGraph.Builder()
+                .addNode(1L, 52.0, 4.0)
+                .addNode(2L, 52.0, 4.1)
+                .addRoad(1L, 2L, 10_000, 5, true)
+                .build();
+        RoutingEngine routingEngine = new RoutingEngine(graph, 18);
+        RoutingEngine withoutGraph = new RoutingEngine((RoadGraph) null, 18);
+
+        Location vendor = new Location(52.0, 4.1);
+        Location destination = new Location(52.0, 4.0);
+        double straight = DistanceEngine.distance(vendor, destination, DistanceEngine.Precision.EXACT);
+        double expected = straight * RoutingEngine.DETOUR_FACTOR / 5;
+
+        // The only road is one way in the other direction
+        assertThat(routingEngine.travelTime(vendor, destination).toMillis() / 1000.0).isCloseTo(expected, offset(0.01));
+        // The destination is far from any road
+        Location remote = new Location(53.0, 4.0);
+        double remoteExpected = DistanceEngine.distance(vendor, remote, DistanceEngine.Precision.EXACT)
+                * RoutingEngine.DETOUR_FACTOR / 5;
+        assertThat(routingEngine.travelTime(vendor, remote).toMillis() / 1000.0).isCloseTo(remoteExpected, offset(0.01));
+        assertThat(withoutGraph.hasRoadGraph()).isFalse();
+        assertThat(withoutGraph.travelTime(vendor, destination).toMillis() / 1000.0).isCloseTo(expected, offset(0.01));
+    }
+
+    @Test
+    void loadWithoutFileKeepsStraightLineEstimates() {
+        RoutingEngine routingEngine = new RoutingEngine("", 20);
+
+        routingEngine.load();
+
+        assertThat(routingEngine.hasRoadGraph()).isFalse();
+    }
+
+    @Test
+    void loadFailsOnMissingFile() {
+        RoutingEngine routingEngine = new RoutingEngine("does-not-exist.txt", 20);
+
+        assertThatThrownBy(routingEngine::load).isInstanceOf(UncheckedIOException.class);
+    }
+}
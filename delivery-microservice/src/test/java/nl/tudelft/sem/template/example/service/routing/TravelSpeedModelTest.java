@@ -0,0 +1,128 @@
+package nl.tudelft.sem.template.example.service.routing;
+
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+public class TravelSpeedModelTest {
+
+    private static final OffsetDateTime EVENING = OffsetDateTime.of(2024, 1, 15, 18, 5, 0, 0, ZoneOffset.UTC);
+    private static final Location VENDOR = new Location(52.0, 4.35);
+    private static final Location DESTINATION = new Location(52.02, 4.35);
+
+    @TempDir
+    Path directory;
+
+    private static Delivery delivered(long vendorId, OffsetDateTime pickUpTime, long minutes) {
+        Vendor vendor = new Vendor(vendorId, 10L, VENDOR, new ArrayList<>());
+        Order order = new Order(1L, 1L, vendor, Order.StatusEnum.DELIVERED, DESTINATION);
+        Time time = new Time();
+        time.setPickUpTime(pickUpTime);
+        time.setDeliveredTime(pickUpTime == null ? null : pickUpTime.plusMinutes(minutes));
+        return new Delivery(1L, order, 2L, null, time, null);
+    }
+
+    @Test
+    void keepsRunningMeanAndVariance() {
+        TravelSpeedModel model = new TravelSpeedModel("", 1);
+        double distance = DistanceEngine.distance(VENDOR, DESTINATION, DistanceEngine.Precision.EXACT);
+
+        assertThat(model.record(delivered(1L, EVENING, 5))).isTrue();
+        assertThat(model.record(delivered(1L, EVENING, 10))).isTrue();
+        assertThat(model.record(delivered(1L, EVENING, 20))).isTrue();
+
+        double[] speeds = {distance / 300, distance / 600, distance / 1200};
+        double mean = (speeds[0] + speeds[1] + speeds[2]) / 3;
+        double variance = 0;
+        for (double speed : speeds) {
+            variance += (speed - mean) * (speed - mean) / 2;
+        }
+        assertThat(model.getSamples(1L, 18)).isEqualTo(3);
+        assertThat(model.getMeanSpeed(1L, 18)).isCloseTo(mean, offset(1e-9));
+        assertThat(model.getSpeedVariance(1L, 18)).isCloseTo(variance, offset(1e-9));
+        assertThat(model.getSamples(1L, 19)).isZero();
+        assertThat(model.getMeanSpeed(2L, 18)).isNaN();
+    }
+
+    @Test
+    void skipsIncompleteDeliveries() {
+        TravelSpeedModel model = new TravelSpeedModel("", 1);
+        Delivery notDelivered = delivered(1L, EVENING, 10);
+        notDelivered.getOrder().setStatus(Order.StatusEnum.ON_TRANSIT);
+
+        assertThat(model.record(notDelivered)).isFalse();
+        assertThat(model.record(delivered(1L, null, 10))).isFalse();
+        assertThat(model.record(delivered(1L, EVENING, 0))).isFalse();
+        assertThat(model.record(new Delivery())).isFalse();
+        assertThat(model.getSamples(1L, 18)).isZero();
+    }
+
+    @Test
+    void estimatesOnlyWithEnoughSamples() {
+        TravelSpeedModel model = new TravelSpeedModel("", 2);
+        model.record(delivered(1L, EVENING, 10));
+
+        assertThat(model.estimate(1L, VENDOR, DESTINATION, EVENING)).isNull();
+        model.record(delivered(1L, EVENING.plusMinutes(30), 10));
+        assertThat(model.estimate(1L, VENDOR, DESTINATION, EVENING)).isEqualTo(Duration.ofMinutes(10));
+        assertThat(model.estimate(1L, VENDOR, DESTINATION, EVENING.plusHours(1))).isNull();
+        assertThat(model.estimate(2L, VENDOR, DESTINATION, EVENING)).isNull();
+    }
+
+    @Test
+    void bucketsHoursInUtc() {
+        TravelSpeedModel model = new TravelSpeedModel("", 1);
+        model.record(delivered(1L, EVENING.withOffsetSameInstant(ZoneOffset.ofHours(2)), 10));
+
+        assertThat(model.getSamples(1L, 18)).isEqualTo(1);
+        assertThat(model.getSamples(1L, 20)).isZero();
+        assertThat(model.estimate(1L, VENDOR, DESTINATION, EVENING)).isEqualTo(Duration.ofMinutes(10));
+        assertThat(model.estimate(1L, VENDOR, DESTINATION, EVENING.withOffsetSameLocal(ZoneOffset.ofHours(2))))
+                .isNull();
+    }
+
+    @Test
+    void snapshotSurvivesRestart() {
+        String file = directory.resolve("model/speeds.bin").toString();
+        TravelSpeedModel model = new TravelSpeedModel(file, 1);
+        model.load();
+        model.record(delivered(1L, EVENING, 10));
+        model.record(delivered(1L, EVENING, 20));
+        model.record(delivered(4L, EVENING.minusHours(10), 15));
+        model.snapshot();
+
+        TravelSpeedModel restarted = new TravelSpeedModel(file, 1);
+        restarted.load();
+
+        assertThat(restarted.getSamples(1L, 18)).isEqualTo(2);
+        assertThat(restarted.getMeanSpeed(1L, 18)).isEqualTo(model.getMeanSpeed(1L, 18));
+        assertThat(restarted.getSpeedVariance(1L, 18)).isEqualTo(model.getSpeedVariance(1L, 18));
+        assertThat(restarted.getSamples(4L, 8)).isEqualTo(1);
+    }
+
+    @Test
+    void loadRejectsForeignFile() throws IOException {
+        Path file = Files.writeString(directory.resolve("speeds.bin"), "not a snapshot");
+        TravelSpeedModel model = new TravelSpeedModel(file.toString(), 1);
+
+        assertThatThrownBy(model::load).isInstanceOf(UncheckedIOException.class);
+    }
+}
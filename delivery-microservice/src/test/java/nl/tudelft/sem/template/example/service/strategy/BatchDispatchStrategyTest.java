@@ -0,0 +1,193 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static nl.tudelft.sem.template.example.service.strategy.StrategyFixture.order;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class BatchDispatchStrategyTest {
+
+    private final StrategyFixture fixture = new StrategyFixture();
+    private final DeliveryRepository deliveryRepository = fixture.deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex = fixture.availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex = fixture.courierVendorIndex;
+    private final CourierLoadRegistry courierLoadRegistry = fixture.courierLoadRegistry;
+    private final Map<Long, Delivery> deliveries = fixture.deliveries;
+    private final CourierLocationRegistry courierLocationRegistry = new CourierLocationRegistry();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final BatchDispatchStrategy strategy = new BatchDispatchStrategy(deliveryRepository, availableOrderIndex,
+            courierVendorIndex, courierLocationRegistry, courierLoadRegistry, 60_000, clock::get);
+
+    @BeforeEach
+    void setup() {
+        Vendor nearOrigin = new Vendor(1L, 30L, new Location(0.0, 0.0), new ArrayList<>());
+        Vendor farAway = new Vendor(2L, 30L, new Location(10.0, 10.0), new ArrayList<>());
+        Vendor withFleet = new Vendor(3L, 30L, new Location(20.0, 20.0), List.of(20L));
+        fixture.load(List.of(nearOrigin, farAway, withFleet), List.of(
+                order(1L, nearOrigin, new Location(0.0, 1.0)),
+                order(2L, farAway, new Location(10.0, 11.0)),
+                order(3L, withFleet, new Location(20.0, 21.0))));
+
+        courierLocationRegistry.update(7L, new Location(9.0, 9.0));
+        courierLocationRegistry.update(8L, new Location(1.0, 1.0));
+    }
+
+    @Test
+    void assignOrderOnlyQueuesCourier() {
+        strategy.assignOrder(7L, null, List.of());
+
+        assertThat(strategy.isWaiting(7L)).isTrue();
+        Mockito.verify(deliveryRepository, Mockito.never()).saveAll(any());
+    }
+
+    @Test
+    void dispatchMatchesCouriersWithClosestOrders() {
+        strategy.assignOrder(7L, null, List.of());
+        strategy.assignOrder(8L, null, List.of());
+        strategy.assignOrder(20L, null, List.of());
+
+        strategy.dispatch();
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(8L);
+        assertThat(deliveries.get(2L).getCourierId()).isEqualTo(7L);
+        assertThat(deliveries.get(3L).getCourierId()).isEqualTo(20L);
+        assertThat(availableOrderIndex.size()).isEqualTo(0);
+        assertThat(strategy.isWaiting(7L) || strategy.isWaiting(8L) || strategy.isWaiting(20L)).isFalse();
+        Mockito.verify(deliveryRepository, Mockito.times(1)).saveAll(any());
+    }
+
+    @Test
+    void freeCouriersDoNotGetFleetOrders() {
+        availableOrderIndex.tryClaim(1L);
+        availableOrderIndex.tryClaim(2L);
+        strategy.assignOrder(8L, null, List.of());
+
+        strategy.dispatch();
+
+        assertThat(deliveries.get(3L).getCourierId()).isNull();
+        assertThat(strategy.isWaiting(8L)).isTrue();
+    }
+
+    @Test
+    void claimedOrderKeepsCourierWaiting() {
+        strategy.assignOrder(8L, null, List.of());
+        deliveries.get(1L).setCourierId(99L);
+        deliveries.get(2L).setCourierId(99L);
+
+        strategy.dispatch();
+
+        assertThat(strategy.isWaiting(8L)).isTrue();
+    }
+
+    @Test
+    void courierWaitingTooLongLeavesPool() {
+        availableOrderIndex.tryClaim(1L);
+        availableOrderIndex.tryClaim(2L);
+        strategy.assignOrder(8L, null, List.of());
+        clock.set(30_000);
+        strategy.assignOrder(7L, null, List.of());
+
+        clock.set(60_000);
+        strategy.dispatch();
+
+        assertThat(strategy.isWaiting(8L)).isFalse();
+        assertThat(strategy.isWaiting(7L)).isTrue();
+    }
+
+    @Test
+    void courierAssignedElsewhereLeavesPool() {
+        strategy.assignOrder(8L, null, List.of());
+        courierLoadRegistry.increment(8L);
+        availableOrderIndex.tryClaim(2L);
+
+        strategy.dispatch();
+
+        assertThat(strategy.isWaiting(8L)).isFalse();
+        assertThat(deliveries.get(1L).getCourierId()).isNull();
+        assertThat(availableOrderIndex.contains(1L)).isTrue();
+    }
+
+    @Test
+    void loadedCourierStaysWaitingUntilAssignedMore() {
+        courierLoadRegistry.increment(8L);
+        strategy.assignOrder(8L, null, List.of());
+
+        strategy.dispatch();
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(8L);
+        assertThat(courierLoadRegistry.getLoad(8L)).isEqualTo(2);
+    }
+
+    @Test
+    void courierWithoutPositionComesAfterCourierAtPickup() {
+        availableOrderIndex.tryClaim(2L);
+        strategy.assignOrder(9L, null, List.of());
+        strategy.assignOrder(8L, null, List.of());
+
+        strategy.dispatch();
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(8L);
+        assertThat(strategy.isWaiting(9L)).isTrue();
+    }
+
+    @Test
+    void courierWithoutPositionStillGetsLeftoverOrder() {
+        strategy.assignOrder(9L, null, List.of());
+        strategy.assignOrder(8L, null, List.of());
+
+        strategy.dispatch();
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(8L);
+        assertThat(deliveries.get(2L).getCourierId()).isEqualTo(9L);
+    }
+
+    @Test
+    void failedWriteReleasesOrders() {
+        when(deliveryRepository.saveAll(any())).thenThrow(new IllegalStateException("database down"));
+        strategy.assignOrder(8L, null, List.of());
+
+        assertThrows(IllegalStateException.class, strategy::dispatch);
+
+        assertThat(availableOrderIndex.contains(1L)).isTrue();
+        assertThat(deliveries.get(1L).getCourierId()).isNull();
+        assertThat(strategy.isWaiting(8L)).isTrue();
+    }
+
+    @Test
+    void rolledBackRoundReleasesOrders() {
+        strategy.assignOrder(8L, null, List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            strategy.dispatch();
+            assertThat(availableOrderIndex.contains(1L)).isFalse();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(availableOrderIndex.contains(1L)).isTrue();
+        assertThat(deliveries.get(1L).getCourierId()).isNull();
+        assertThat(courierLoadRegistry.getLoad(8L)).isZero();
+    }
+}
@@ -0,0 +1,129 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static nl.tudelft.sem.template.example.service.strategy.StrategyFixture.order;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class BundleOrderStrategyTest {
+
+    private final StrategyFixture fixture = new StrategyFixture();
+    private final DeliveryRepository deliveryRepository = fixture.deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex = fixture.availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex = fixture.courierVendorIndex;
+    private final CourierLoadRegistry courierLoadRegistry = fixture.courierLoadRegistry;
+    private final Map<Long, Delivery> deliveries = fixture.deliveries;
+    private final CourierRoutes courierRoutes = new CourierRoutes();
+
+    private final BundleOrderStrategy strategy = new BundleOrderStrategy(deliveryRepository, availableOrderIndex,
+            courierVendorIndex, courierRoutes, courierLoadRegistry, 3, 230_000);
+
+    @BeforeEach
+    void setup() {
+        Vendor vendor = new Vendor(1L, 30L, new Location(0.0, 0.0), new ArrayList<>());
+        Vendor other = new Vendor(2L, 30L, new Location(50.0, 50.0), List.of(20L));
+        fixture.load(List.of(vendor, other), List.of(
+                order(1L, vendor, new Location(3.0, 0.0)),
+                order(2L, vendor, new Location(20.0, 20.0)),
+                order(3L, vendor, new Location(1.0, 0.0)),
+                order(4L, vendor, new Location(2.0, 0.0)),
+                order(5L, vendor, new Location(2.5, 0.0)),
+                order(6L, other, new Location(50.0, 51.0))));
+    }
+
+    @Test
+    void bundlesClosestDestinationsOfOneVendor() throws NoAvailableOrdersException {
+        strategy.assignOrder(7L, null, List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(7L);
+        assertThat(deliveries.get(5L).getCourierId()).isEqualTo(7L);
+        assertThat(deliveries.get(4L).getCourierId()).isEqualTo(7L);
+        assertThat(deliveries.get(3L).getCourierId()).isNull();
+        assertThat(deliveries.get(2L).getCourierId()).isNull();
+        assertThat(courierRoutes.getRoute(7L)).containsExactly(4L, 5L, 1L);
+        Mockito.verify(deliveryRepository, Mockito.times(1)).saveAll(any());
+        Mockito.verify(deliveryRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void fleetCourierBundlesOwnVendor() throws NoAvailableOrdersException {
+        strategy.assignOrder(20L, null, List.of(6L));
+
+        assertThat(deliveries.get(6L).getCourierId()).isEqualTo(20L);
+        assertThat(courierRoutes.getRoute(20L)).containsExactly(6L);
+    }
+
+    @Test
+    void farDestinationIsNotBundled() throws NoAvailableOrdersException {
+        availableOrderIndex.tryClaim(1L);
+
+        strategy.assignOrder(7L, null, List.of(2L, 3L, 4L, 5L));
+
+        assertThat(deliveries.get(2L).getCourierId()).isEqualTo(7L);
+        assertThat(courierRoutes.getRoute(7L)).containsExactly(2L);
+    }
+
+    @Test
+    void orderThatIsReadyFirstSeedsBundle() throws NoAvailableOrdersException {
+        availableOrderIndex.updateReadyTime(2L, OffsetDateTime.now());
+
+        strategy.assignOrder(7L, null, List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertThat(deliveries.get(2L).getCourierId()).isEqualTo(7L);
+        assertThat(deliveries.get(1L).getCourierId()).isNull();
+        assertThat(courierRoutes.getRoute(7L)).containsExactly(2L);
+    }
+
+    @Test
+    void nothingToBundle() {
+        assertThrows(NoAvailableOrdersException.class, () -> strategy.assignOrder(7L, null, List.of()));
+    }
+
+    @Test
+    void failedWriteReleasesBundle() {
+        when(deliveryRepository.saveAll(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> strategy.assignOrder(7L, null, List.of(1L)));
+
+        assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(deliveries.get(1L).getCourierId()).isNull();
+    }
+
+    @Test
+    void rolledBackTransactionReleasesBundle() throws NoAvailableOrdersException {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            strategy.assignOrder(7L, null, List.of(1L, 2L, 3L, 4L, 5L));
+            assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(2L, 3L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(deliveries.get(1L).getCourierId()).isNull();
+        assertThat(courierLoadRegistry.getLoad(7L)).isZero();
+        assertThat(courierRoutes.getRoute(7L)).isEmpty();
+    }
+}
@@ -0,0 +1,119 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static nl.tudelft.sem.template.example.service.strategy.StrategyFixture.order;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class LeastLoadedFleetStrategyTest {
+
+    private final StrategyFixture fixture = new StrategyFixture();
+    private final DeliveryRepository deliveryRepository = fixture.deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex = fixture.availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex = fixture.courierVendorIndex;
+    private final CourierLoadRegistry courierLoadRegistry = fixture.courierLoadRegistry;
+    private final Map<Long, Delivery> deliveries = fixture.deliveries;
+
+    private final LeastLoadedFleetStrategy strategy = new LeastLoadedFleetStrategy(deliveryRepository,
+            availableOrderIndex, courierVendorIndex, courierLoadRegistry, 2, true);
+
+    @BeforeEach
+    void setup() {
+        Vendor withFleet = new Vendor(1L, 30L, new Location(0.0, 0.0), List.of(20L, 21L));
+        Vendor withoutFleet = new Vendor(2L, 30L, new Location(5.0, 5.0), new ArrayList<>());
+        fixture.load(List.of(withFleet, withoutFleet), List.of(
+                order(1L, withFleet, new Location(1.0, 1.0)),
+                order(2L, withFleet, new Location(1.0, 2.0)),
+                order(3L, withFleet, new Location(1.0, 3.0)),
+                order(4L, withFleet, new Location(1.0, 4.0)),
+                order(5L, withFleet, new Location(1.0, 5.0)),
+                order(6L, withoutFleet, new Location(6.0, 6.0))));
+    }
+
+    @Test
+    void fleetCourierGetsOrderOfOwnVendor() throws NoAvailableOrdersException {
+        strategy.assignOrder(20L, null, List.of(6L));
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(20L);
+        assertThat(deliveries.get(6L).getCourierId()).isNull();
+        assertThat(courierLoadRegistry.getLoad(20L)).isEqualTo(1);
+    }
+
+    @Test
+    void fullCourierGetsNoOrder() {
+        courierLoadRegistry.increment(20L);
+        courierLoadRegistry.increment(20L);
+
+        assertThrows(NoAvailableOrdersException.class, () -> strategy.assignOrder(20L, null, List.of()));
+        assertThat(availableOrderIndex.size()).isEqualTo(6);
+        assertThat(courierLoadRegistry.getLoad(20L)).isEqualTo(2);
+    }
+
+    @Test
+    void courierWithoutFleetGetsNoOrder() {
+        assertThrows(NoAvailableOrdersException.class, () -> strategy.assignOrder(7L, null, List.of(6L)));
+        assertThat(courierLoadRegistry.getLoad(7L)).isZero();
+    }
+
+    @Test
+    void noOrdersLeftReleasesReservedSlot() {
+        List.of(1L, 2L, 3L, 4L, 5L).forEach(availableOrderIndex::tryClaim);
+
+        assertThrows(NoAvailableOrdersException.class, () -> strategy.assignOrder(20L, null, List.of()));
+        assertThat(courierLoadRegistry.getLoad(20L)).isZero();
+    }
+
+    @Test
+    void dispatchSpreadsOrdersOverFleetUntilFull() {
+        courierLoadRegistry.increment(20L);
+
+        int assigned = strategy.dispatch(1L);
+
+        assertThat(assigned).isEqualTo(3);
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(21L);
+        assertThat(deliveries.get(2L).getCourierId()).isIn(20L, 21L);
+        assertThat(deliveries.get(3L).getCourierId()).isIn(20L, 21L);
+        assertThat(courierLoadRegistry.getLoad(20L)).isEqualTo(2);
+        assertThat(courierLoadRegistry.getLoad(21L)).isEqualTo(2);
+        assertThat(availableOrderIndex.getOrdersOfVendor(1L)).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void dispatchIgnoresVendorWithoutFleet() {
+        assertThat(strategy.dispatch(2L)).isZero();
+        assertThat(availableOrderIndex.contains(6L)).isTrue();
+    }
+
+    @Test
+    void dispatchDoesNothingWhenPushIsDisabled() {
+        LeastLoadedFleetStrategy pull = new LeastLoadedFleetStrategy(deliveryRepository, availableOrderIndex,
+                courierVendorIndex, courierLoadRegistry, 2, false);
+
+        assertThat(pull.dispatch(1L)).isZero();
+        assertThat(availableOrderIndex.size()).isEqualTo(6);
+    }
+
+    @Test
+    void failedWriteGivesBackSlotAndOrder() {
+        when(deliveryRepository.save(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> strategy.assignOrder(20L, null, List.of()));
+
+        assertThat(courierLoadRegistry.getLoad(20L)).isZero();
+        assertThat(availableOrderIndex.contains(1L)).isTrue();
+    }
+}
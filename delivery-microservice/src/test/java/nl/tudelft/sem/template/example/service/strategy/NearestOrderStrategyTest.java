@@ -0,0 +1,82 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static nl.tudelft.sem.template.example.service.strategy.StrategyFixture.order;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NearestOrderStrategyTest {
+
+    private final StrategyFixture fixture = new StrategyFixture();
+    private final DeliveryRepository deliveryRepository = fixture.deliveryRepository;
+    private final AvailableOrderIndex availableOrderIndex = fixture.availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex = fixture.courierVendorIndex;
+    private final CourierLoadRegistry courierLoadRegistry = fixture.courierLoadRegistry;
+    private final Map<Long, Delivery> deliveries = fixture.deliveries;
+    private final CourierLocationRegistry courierLocationRegistry = new CourierLocationRegistry();
+
+    private final NearestOrderStrategy strategy = new NearestOrderStrategy(deliveryRepository, availableOrderIndex,
+            courierVendorIndex, courierLocationRegistry, courierLoadRegistry);
+
+    @BeforeEach
+    void setup() {
+        Vendor near = new Vendor(1L, 30L, new Location(1.0, 1.0), new ArrayList<>());
+        Vendor far = new Vendor(2L, 30L, new Location(8.0, 8.0), new ArrayList<>());
+        Vendor withFleet = new Vendor(3L, 30L, new Location(0.0, 0.0), List.of(20L));
+        fixture.load(List.of(near, far, withFleet), List.of(
+                order(1L, far, new Location(9.0, 9.0)),
+                order(2L, near, new Location(2.0, 2.0)),
+                order(3L, withFleet, new Location(0.0, 1.0))));
+    }
+
+    @Test
+    void freeCourierGetsClosestNonFleetOrder() throws NoAvailableOrdersException {
+        courierLocationRegistry.update(7L, new Location(0.0, 0.0));
+
+        strategy.assignOrder(7L, null, List.of(1L, 2L));
+
+        assertThat(deliveries.get(2L).getCourierId()).isEqualTo(7L);
+        assertThat(deliveries.get(3L).getCourierId()).isNull();
+        assertThat(availableOrderIndex.contains(2L)).isFalse();
+    }
+
+    @Test
+    void nextClosestVendorAfterBucketIsEmpty() throws NoAvailableOrdersException {
+        courierLocationRegistry.update(7L, new Location(0.0, 0.0));
+        availableOrderIndex.tryClaim(2L);
+
+        strategy.assignOrder(7L, null, List.of(1L));
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(7L);
+    }
+
+    @Test
+    void fleetCourierOnlyGetsOwnVendor() throws NoAvailableOrdersException {
+        courierLocationRegistry.update(20L, new Location(8.0, 8.0));
+
+        strategy.assignOrder(20L, null, List.of(3L));
+
+        assertThat(deliveries.get(3L).getCourierId()).isEqualTo(20L);
+        assertThrows(NoAvailableOrdersException.class, () -> strategy.assignOrder(20L, null, List.of()));
+    }
+
+    @Test
+    void unknownPositionTakesFirstAvailableOrder() throws NoAvailableOrdersException {
+        strategy.assignOrder(7L, null, List.of(1L, 2L));
+
+        assertThat(deliveries.get(1L).getCourierId()).isEqualTo(7L);
+    }
+}
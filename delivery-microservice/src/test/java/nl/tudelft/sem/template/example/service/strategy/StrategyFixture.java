@@ -0,0 +1,66 @@
+package nl.tudelft.sem.template.example.service.strategy;
+
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.model.*;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shared setup of the strategy tests: a mocked delivery repository that answers lookups from a
+ * map of deliveries, and the real indexes the strategies work on.
+ */
+final class StrategyFixture {
+
+    final DeliveryRepository deliveryRepository = Mockito.mock(DeliveryRepository.class);
+    final AvailableOrderIndex availableOrderIndex = new AvailableOrderIndex(deliveryRepository);
+    final CourierVendorIndex courierVendorIndex = new CourierVendorIndex(Mockito.mock(VendorRepository.class));
+    final CourierLoadRegistry courierLoadRegistry = new CourierLoadRegistry(deliveryRepository);
+    final Map<Long, Delivery> deliveries = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    StrategyFixture() {
+        when(deliveryRepository.findDeliveryByOrder_OrderId(anyLong()))
+                .thenAnswer(invocation -> deliveries.get(invocation.<Long>getArgument(0)));
+        when(deliveryRepository.findByOrder_OrderIdIn(any())).thenAnswer(invocation -> {
+            List<Delivery> result = new ArrayList<>();
+            for (Long orderId : (Collection<Long>) invocation.getArgument(0)) {
+                result.add(deliveries.get(orderId));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Indexes the couriers of the vendors and makes the orders available, each with an unassigned delivery.
+     */
+    void load(List<Vendor> vendors, List<Order> orders) {
+        courierVendorIndex.rebuild(vendors);
+        List<Delivery> available = new ArrayList<>();
+        for (Order order : orders) {
+            Delivery delivery = new Delivery(order.getOrderId(), order, null, new Rating(), new Time(), new Issue());
+            deliveries.put(order.getOrderId(), delivery);
+            available.add(delivery);
+        }
+        availableOrderIndex.rebuild(available);
+    }
+
+    /**
+     * Creates an accepted order of a vendor.
+     */
+    static Order order(long orderId, Vendor vendor, Location destination) {
+        return new Order(orderId, 5L, vendor, Order.StatusEnum.ACCEPTED, destination);
+    }
+}
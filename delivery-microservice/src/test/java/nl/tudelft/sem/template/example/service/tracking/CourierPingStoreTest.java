@@ -0,0 +1,116 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+public class CourierPingStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final CourierLocationRegistry courierLocationRegistry = new CourierLocationRegistry();
+    private final CourierPingStore courierPingStore = new CourierPingStore(courierLocationRegistry, 4, 15_000, 60_000,
+            3_600_000, () -> NOW);
+
+    @Test
+    void returnsRecentPingAsIs() {
+        courierPingStore.record(1L, 52.0, 4.35, NOW - 10_000);
+        courierPingStore.record(1L, 52.001, 4.35, NOW - 5_000);
+
+        Location position = courierPingStore.getPosition(1L, NOW);
+
+        assertThat(position.getLatitude()).isEqualTo(52.001);
+        assertThat(position.getLongitude()).isEqualTo(4.35);
+        assertThat(courierPingStore.getPosition(2L, NOW)).isNull();
+    }
+
+    @Test
+    void extrapolatesStalePing() {
+        // Heading north at 0.001 degrees every 10 seconds
+        courierPingStore.record(1L, 52.000, 4.35, NOW - 40_000);
+        courierPingStore.record(1L, 52.001, 4.35, NOW - 30_000);
+        courierPingStore.record(1L, 52.002, 4.35, NOW - 20_000);
+
+        Location position = courierPingStore.getPosition(1L, NOW);
+
+        assertThat(position.getLatitude()).isCloseTo(52.004, offset(1e-9));
+        assertThat(position.getLongitude()).isCloseTo(4.35, offset(1e-9));
+    }
+
+    @Test
+    void capsExtrapolation() {
+        courierPingStore.record(1L, 52.000, 4.35, NOW - 610_000);
+        courierPingStore.record(1L, 52.001, 4.35, NOW - 600_000);
+
+        Location position = courierPingStore.getPosition(1L, NOW);
+
+        // Moved on for 60 seconds only
+        assertThat(position.getLatitude()).isCloseTo(52.007, offset(1e-9));
+    }
+
+    @Test
+    void singleStalePingIsNotMoved() {
+        courierPingStore.record(1L, 52.0, 4.35, NOW - 100_000);
+
+        assertThat(courierPingStore.getPosition(1L, NOW).getLatitude()).isEqualTo(52.0);
+    }
+
+    @Test
+    void extrapolatesAcrossAntimeridian() {
+        courierPingStore.record(1L, 0.0, 179.998, NOW - 30_000);
+        courierPingStore.record(1L, 0.0, 179.999, NOW - 20_000);
+
+        Location position = courierPingStore.getPosition(1L, NOW);
+
+        assertThat(position.getLongitude()).isCloseTo(-179.999, offset(1e-9));
+    }
+
+    @Test
+    void dropsLatePingsAndOverwritesOldest() {
+        for (int i = 0; i < 6; i++) {
+            assertThat(courierPingStore.record(1L, 52 + i * 0.001, 4.35, NOW - 60_000 + i * 1_000)).isTrue();
+        }
+        assertThat(courierPingStore.record(1L, 51.0, 4.0, NOW - 60_000)).isFalse();
+
+        assertThat(courierPingStore.getLatestTimestamp(1L)).isEqualTo(NOW - 55_000);
+        // Only the last four pings are kept, so the heading uses the ping of NOW - 58 s
+        Location position = courierPingStore.getPosition(1L, NOW - 54_000);
+        assertThat(position.getLatitude()).isCloseTo(52.005, offset(1e-9));
+        position = courierPingStore.getPosition(1L, NOW - 25_000);
+        assertThat(position.getLatitude()).isCloseTo(52.035, offset(1e-9));
+    }
+
+    @Test
+    void publishUpdatesRegistry() {
+        courierPingStore.record(1L, 52.0, 4.35, NOW);
+        assertThat(courierLocationRegistry.getLocation(1L)).isNull();
+
+        courierPingStore.publish(1L);
+
+        assertThat(courierLocationRegistry.getLocation(1L).getLatitude()).isEqualTo(52.0);
+        courierPingStore.remove(1L);
+        assertThat(courierPingStore.getLatestTimestamp(1L)).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void sweepDropsSilentCouriers() {
+        courierPingStore.record(1L, 52.0, 4.35, NOW - 3_600_000);
+        courierPingStore.record(2L, 52.0, 4.35, NOW - 3_599_999);
+
+        courierPingStore.sweep();
+
+        assertThat(courierPingStore.size()).isEqualTo(1);
+        assertThat(courierPingStore.getLatestTimestamp(1L)).isEqualTo(Long.MIN_VALUE);
+        assertThat(courierPingStore.getLatestTimestamp(2L)).isEqualTo(NOW - 3_599_999);
+    }
+
+    @Test
+    void needsRoomForTwoPings() {
+        assertThatThrownBy(() -> new CourierPingStore(courierLocationRegistry, 1, 15_000, 60_000, 3_600_000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,184 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+public class LocationTraceStoreTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final LocationTraceStore locationTraceStore = new LocationTraceStore("", 64, 2, Long.MAX_VALUE, 0);
+
+    private static List<double[]> read(TraceReader reader) {
+        List<double[]> pings = new ArrayList<>();
+        while (reader.next()) {
+            pings.add(new double[] {reader.getTimestamp(), reader.getLatitude(), reader.getLongitude()});
+        }
+        return pings;
+    }
+
+    @Test
+    void readsBackPingsAcrossSegments() {
+        Random random = new Random(3);
+        List<double[]> written = new ArrayList<>();
+        locationTraceStore.start(1L, 7L);
+        double latitude = -33.9;
+        double longitude = 179.9999;
+        long timestamp = START;
+        for (int i = 0; i < 200; i++) {
+            written.add(new double[] {timestamp, latitude, longitude});
+            assertThat(locationTraceStore.append(7L, latitude, longitude, timestamp)).isEqualTo(1);
+            latitude += (random.nextDouble() - 0.5) * 0.001;
+            // Crosses the antimeridian and back
+            longitude = longitude + (random.nextDouble() - 0.5) * 0.001;
+            longitude = longitude > 180 ? longitude - 360 : longitude;
+            timestamp += random.nextInt(5_000);
+        }
+
+        List<double[]> pings = read(locationTraceStore.openReader(1L));
+
+        assertThat(pings).hasSize(written.size());
+        for (int i = 0; i < pings.size(); i++) {
+            assertThat(pings.get(i)[0]).isEqualTo(written.get(i)[0]);
+            assertThat(pings.get(i)[1]).isCloseTo(written.get(i)[1], offset(1e-7));
+            assertThat(pings.get(i)[2]).isCloseTo(written.get(i)[2], offset(1e-7));
+        }
+    }
+
+    @Test
+    void takesFewBytesPerPing() {
+        LocationTraceStore store = new LocationTraceStore("", 4096, 2, Long.MAX_VALUE, 0);
+        store.start(1L, 7L);
+        for (int i = 0; i < 1_000; i++) {
+            // About five metres every two seconds
+            store.append(7L, 52.0 + i * 0.00003, 4.35 + i * 0.00004, START + i * 2_000L);
+        }
+
+        store.finish(1L);
+
+        // Two doubles of a location alone take 16 bytes
+        assertThat(store.getSize(1L)).isLessThan(8_000);
+    }
+
+    @Test
+    void replayDownsamplesButKeepsLatestPing() {
+        locationTraceStore.start(1L, 7L);
+        for (int second = 0; second < 60; second++) {
+            locationTraceStore.append(7L, 52.0 + second * 0.0001, 4.35, START + second * 1_000L);
+        }
+        List<Long> timestamps = new ArrayList<>();
+
+        int passed = locationTraceStore.replay(1L, 10_000, (timestamp, latitude, longitude) -> timestamps.add(timestamp));
+
+        assertThat(passed).isEqualTo(7);
+        assertThat(timestamps).containsExactly(START, START + 10_000, START + 20_000, START + 30_000,
+                START + 40_000, START + 50_000, START + 59_000);
+        assertThat(locationTraceStore.replay(1L, 0, (timestamp, latitude, longitude) -> { })).isEqualTo(60);
+        assertThat(locationTraceStore.replay(2L, 0, (timestamp, latitude, longitude) -> { })).isZero();
+    }
+
+    @Test
+    void tracesOnlyBetweenStartAndFinish() {
+        assertThat(locationTraceStore.append(7L, 52.0, 4.35, START)).isZero();
+
+        locationTraceStore.start(1L, 7L);
+        locationTraceStore.start(2L, 7L);
+        assertThat(locationTraceStore.append(7L, 52.0, 4.35, START + 1_000)).isEqualTo(2);
+        assertThat(locationTraceStore.append(7L, 52.1, 4.35, START)).isZero();
+        locationTraceStore.finish(1L);
+        assertThat(locationTraceStore.append(7L, 52.2, 4.35, START + 2_000)).isEqualTo(1);
+
+        assertThat(read(locationTraceStore.openReader(1L))).hasSize(1);
+        assertThat(read(locationTraceStore.openReader(2L))).hasSize(2);
+        assertThat(locationTraceStore.openReader(3L)).isNull();
+    }
+
+    @Test
+    void keepsOnlyLatestFinishedTracesInMemory() {
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            locationTraceStore.start(orderId, 7L);
+            locationTraceStore.append(7L, 52.0, 4.35, START + orderId);
+            locationTraceStore.finish(orderId);
+        }
+
+        assertThat(locationTraceStore.openReader(1L)).isNull();
+        assertThat(locationTraceStore.openReader(2L)).isNotNull();
+        assertThat(locationTraceStore.openReader(3L)).isNotNull();
+    }
+
+    @Test
+    void appendsTraceToFile(@TempDir Path directory) {
+        LocationTraceStore store = new LocationTraceStore(directory.toString(), 64, 2, Long.MAX_VALUE, 0);
+        store.start(1L, 7L);
+        for (int i = 0; i < 50; i++) {
+            store.append(7L, 52.0 + i * 0.0001, 4.35, START + i * 1_000L);
+        }
+
+        // Full segments come from the file, the rest from memory
+        assertThat(Files.exists(directory.resolve("1" + LocationTraceStore.FILE_EXTENSION))).isTrue();
+        assertThat(read(store.openReader(1L))).hasSize(50);
+
+        store.finish(1L);
+        LocationTraceStore restarted = new LocationTraceStore(directory.toString(), 64, 2, Long.MAX_VALUE, 0);
+        List<double[]> pings = read(restarted.openReader(1L));
+
+        assertThat(pings).hasSize(50);
+        assertThat(pings.get(49)[1]).isCloseTo(52.0049, offset(1e-7));
+        assertThat(restarted.getSize(1L)).isEqualTo(store.getSize(1L));
+    }
+
+    @Test
+    void sweepFinishesTracesOpenTooLong() {
+        AtomicLong now = new AtomicLong(START);
+        LocationTraceStore store = new LocationTraceStore("", 64, 2, 60_000, 0, now::get);
+        store.start(1L, 7L);
+        now.addAndGet(30_000);
+        store.start(2L, 7L);
+        store.append(7L, 52.0, 4.35, START);
+
+        now.addAndGet(30_000);
+        store.sweep();
+
+        // The expired trace keeps its pings but gets no new ones
+        assertThat(store.append(7L, 52.1, 4.35, START + 1_000)).isEqualTo(1);
+        assertThat(read(store.openReader(1L))).hasSize(1);
+        assertThat(read(store.openReader(2L))).hasSize(2);
+    }
+
+    @Test
+    void sweepDeletesFilesPastRetention(@TempDir Path directory) throws Exception {
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        LocationTraceStore store = new LocationTraceStore(directory.toString(), 64, 2, Long.MAX_VALUE, 60_000,
+                now::get);
+        for (long orderId = 1; orderId <= 2; orderId++) {
+            store.start(orderId, 7L);
+            store.append(7L, 52.0, 4.35, START);
+            store.finish(orderId);
+        }
+        Path old = directory.resolve("1" + LocationTraceStore.FILE_EXTENSION);
+        Files.setLastModifiedTime(old, FileTime.fromMillis(now.get() - 120_000));
+
+        store.sweep();
+
+        assertThat(Files.exists(old)).isFalse();
+        assertThat(store.openReader(1L)).isNull();
+        assertThat(read(store.openReader(2L))).hasSize(1);
+    }
+
+    @Test
+    void rejectsTinySegments() {
+        assertThatThrownBy(() -> new LocationTraceStore("", 32, 2, Long.MAX_VALUE, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,213 @@
+package nl.tudelft.sem.template.example.service.tracking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.tudelft.sem.template.example.exception.CourierNotFoundException;
+import nl.tudelft.sem.template.example.service.DeliveryService;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order.StatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class OrderUpdateBroadcasterTest {
+
+    private final DeliveryService deliveryService = Mockito.mock(DeliveryService.class);
+    private final CourierPingStore courierPingStore = new CourierPingStore(new CourierLocationRegistry(), 4,
+            15_000, 60_000, 3_600_000);
+    private final OrderUpdateBroadcaster broadcaster = new OrderUpdateBroadcaster(deliveryService, courierPingStore,
+            new ObjectMapper(), Runnable::run);
+
+    /**
+     * Emitter that keeps the events written to it instead of sending them.
+     */
+    private static class CapturingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean completed;
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Connection reset");
+            }
+            events.add(builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            completed = true;
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        when(deliveryService.getEta(anyLong())).thenReturn(OffsetDateTime.parse("2024-01-01T12:30:00Z"));
+        when(deliveryService.calculateLiveLocation(anyLong())).thenReturn(new Location(52.0, 4.35));
+        when(deliveryService.getCourierFromOrder(anyInt())).thenReturn(7L);
+    }
+
+    @Test
+    void registerSendsCurrentStatusAndLocation() {
+        CapturingEmitter emitter = new CapturingEmitter();
+
+        broadcaster.register(1L, StatusEnum.ON_TRANSIT, emitter);
+
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(0)).startsWith("event:status\ndata:")
+                .contains("\"status\":\"On_Transit\"").contains("2024-01-01T12:30Z");
+        assertThat(emitter.events.get(1)).startsWith("event:location\ndata:").contains("52.0").contains("4.35");
+        assertThat(emitter.completed).isFalse();
+        assertThat(broadcaster.getSubscriberCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void statusChangeIsSentToEverySubscriberOfTheOrder() throws Exception {
+        CapturingEmitter first = new CapturingEmitter();
+        CapturingEmitter second = new CapturingEmitter();
+        CapturingEmitter other = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.PREPARING, first);
+        broadcaster.register(1L, StatusEnum.PREPARING, second);
+        broadcaster.register(2L, StatusEnum.PREPARING, other);
+
+        broadcaster.statusChanged(1L, StatusEnum.GIVEN_TO_COURIER);
+
+        assertThat(first.events).hasSize(4);
+        assertThat(first.events.get(2)).contains("\"status\":\"Given_To_Courier\"");
+        assertThat(second.events).isEqualTo(first.events);
+        assertThat(other.events).hasSize(2);
+        // The ETA and location are computed once for both subscribers
+        verify(deliveryService, times(3)).getEta(1L);
+    }
+
+    @Test
+    void statusChangeWithoutSubscribersDoesNothing() {
+        broadcaster.statusChanged(1L, StatusEnum.ACCEPTED);
+
+        verifyNoInteractions(deliveryService);
+    }
+
+    @Test
+    void deliveredOrderClosesStreams() {
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.ON_TRANSIT, emitter);
+
+        broadcaster.statusChanged(1L, StatusEnum.DELIVERED);
+
+        assertThat(emitter.events.get(2)).contains("\"status\":\"Delivered\"");
+        assertThat(emitter.completed).isTrue();
+        assertThat(broadcaster.getSubscriberCount(1L)).isZero();
+    }
+
+    @Test
+    void flushSendsLocationOnlyAfterNewPing() {
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.ON_TRANSIT, emitter);
+        long now = System.currentTimeMillis();
+
+        broadcaster.flushLocations();
+        assertThat(emitter.events).hasSize(2);
+
+        courierPingStore.record(7L, 52.01, 4.36, now);
+        broadcaster.flushLocations();
+        broadcaster.flushLocations();
+
+        assertThat(emitter.events).hasSize(3);
+        assertThat(emitter.events.get(2)).startsWith("event:location\ndata:").contains("52.01").contains("4.36");
+    }
+
+    @Test
+    void flushSkipsOrdersThatAreNotOnTheirWay() throws Exception {
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.PREPARING, emitter);
+        courierPingStore.record(7L, 52.01, 4.36, System.currentTimeMillis());
+
+        broadcaster.flushLocations();
+
+        assertThat(emitter.events).hasSize(2);
+    }
+
+    @Test
+    void flushSkipsOrdersWithoutCourier() throws Exception {
+        when(deliveryService.getCourierFromOrder(anyInt())).thenThrow(new CourierNotFoundException("No courier"));
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.ON_TRANSIT, emitter);
+        courierPingStore.record(7L, 52.01, 4.36, System.currentTimeMillis());
+
+        broadcaster.flushLocations();
+
+        assertThat(emitter.events).hasSize(2);
+    }
+
+    @Test
+    void failingSubscriberIsRemoved() {
+        CapturingEmitter healthy = new CapturingEmitter();
+        CapturingEmitter broken = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.PREPARING, healthy);
+        broadcaster.register(1L, StatusEnum.PREPARING, broken);
+        broken.failing = true;
+
+        broadcaster.statusChanged(1L, StatusEnum.GIVEN_TO_COURIER);
+
+        assertThat(broken.completed).isTrue();
+        assertThat(healthy.events).hasSize(4);
+        assertThat(broadcaster.getSubscriberCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void failedEstimateStillSendsStatus() throws Exception {
+        when(deliveryService.getEta(anyLong())).thenThrow(new IllegalStateException("No vendor address"));
+        CapturingEmitter emitter = new CapturingEmitter();
+
+        broadcaster.register(1L, StatusEnum.ACCEPTED, emitter);
+
+        assertThat(emitter.events).hasSize(1);
+        assertThat(emitter.events.get(0)).contains("\"status\":\"Accepted\"").contains("\"eta\":null");
+    }
+
+    @Test
+    void subscriberAfterLastOneLeftIsRegistered() {
+        CapturingEmitter broken = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.PREPARING, broken);
+        broken.failing = true;
+        broadcaster.statusChanged(1L, StatusEnum.GIVEN_TO_COURIER);
+        assertThat(broadcaster.getSubscriberCount(1L)).isZero();
+
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.GIVEN_TO_COURIER, emitter);
+        broadcaster.statusChanged(1L, StatusEnum.ON_TRANSIT);
+
+        assertThat(broadcaster.getSubscriberCount(1L)).isEqualTo(1);
+        assertThat(emitter.events).hasSize(4);
+    }
+
+    @Test
+    void stopClosesAllStreams() {
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.register(1L, StatusEnum.PREPARING, emitter);
+
+        broadcaster.stop();
+
+        assertThat(emitter.completed).isTrue();
+        assertThat(broadcaster.getSubscriberCount(1L)).isZero();
+    }
+}
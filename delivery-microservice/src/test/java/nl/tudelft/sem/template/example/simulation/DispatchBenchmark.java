@@ -0,0 +1,35 @@
+package nl.tudelft.sem.template.example.simulation;
+
+import nl.tudelft.sem.template.example.service.strategy.BatchDispatchStrategy;
+import nl.tudelft.sem.template.example.service.strategy.BundleOrderStrategy;
+import nl.tudelft.sem.template.example.service.strategy.LeastLoadedFleetStrategy;
+import nl.tudelft.sem.template.example.service.strategy.NearestOrderStrategy;
+import nl.tudelft.sem.template.example.service.strategy.RandomOrderStrategy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the assignment strategies in the dispatch simulation. Excluded from the regular test
+ * run; start it with {@code ./gradlew dispatchBenchmark}.
+ */
+@Tag("benchmark")
+public class DispatchBenchmark {
+
+    @Test
+    void compareStrategies() throws Exception {
+        SimulationSettings settings = SimulationSettings.fromSystemProperties();
+        System.out.println("Dispatch simulation: " + settings);
+        System.out.println(SimulationResult.HEADER);
+        for (String strategy : List.of(RandomOrderStrategy.NAME, NearestOrderStrategy.NAME, BatchDispatchStrategy.NAME,
+                BundleOrderStrategy.NAME, LeastLoadedFleetStrategy.NAME)) {
+            SimulationResult result = new DispatchSimulation(settings, strategy).run();
+            System.out.println(result.format());
+
+            assertThat(result.doubleAssignments).isZero();
+        }
+    }
+}
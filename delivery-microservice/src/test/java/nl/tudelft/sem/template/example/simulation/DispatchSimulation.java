@@ -0,0 +1,251 @@
+package nl.tudelft.sem.template.example.simulation;
+
+import nl.tudelft.sem.template.example.exception.NoAvailableOrdersException;
+import nl.tudelft.sem.template.example.external.UsersMicroservice;
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.example.repository.VendorRepository;
+import nl.tudelft.sem.template.example.service.CourierService;
+import nl.tudelft.sem.template.example.service.dispatch.AvailableOrderIndex;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLoadRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierLocationRegistry;
+import nl.tudelft.sem.template.example.service.dispatch.CourierRoutes;
+import nl.tudelft.sem.template.example.service.dispatch.CourierVendorIndex;
+import nl.tudelft.sem.template.example.service.geo.DistanceEngine;
+import nl.tudelft.sem.template.example.service.strategy.*;
+import nl.tudelft.sem.template.example.service.tracking.CourierPingStore;
+import nl.tudelft.sem.template.example.service.tracking.LocationTraceStore;
+import nl.tudelft.sem.template.model.Delivery;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one assignment strategy against a simulated city. Orders arrive following the curve of
+ * the {@link SimulationDataLoader} while a pool of threads plays the couriers: every courier asks
+ * for the available orders, asks for an order with the strategy and delivers it right away, so the
+ * dispatch code runs at the highest rate it can sustain. Everything runs in-process on the real
+ * services and strategies; only the database and the users microservice are replaced.
+ */
+public class DispatchSimulation {
+    private static final Optional<String> COURIER = Optional.of("courier");
+
+    private final SimulationSettings settings;
+    private final String strategyName;
+
+    private final SimulatedDeliveries deliveries = new SimulatedDeliveries();
+    private final AvailableOrderIndex availableOrderIndex;
+    private final CourierVendorIndex courierVendorIndex;
+    private final CourierLocationRegistry courierLocationRegistry = new CourierLocationRegistry();
+    private final CourierLoadRegistry courierLoadRegistry;
+    private final BatchDispatchStrategy batchDispatchStrategy;
+    private final CourierService courierService;
+    private final SimulationDataLoader loader;
+
+    private volatile boolean stopped;
+    private final AtomicLong lastAssignment = new AtomicLong();
+
+    DispatchSimulation(SimulationSettings settings, String strategyName) {
+        this.settings = settings;
+        this.strategyName = strategyName;
+
+        DeliveryRepository deliveryRepository = deliveries.repository();
+        availableOrderIndex = new AvailableOrderIndex(deliveryRepository);
+        courierVendorIndex = new CourierVendorIndex(Mockito.mock(VendorRepository.class));
+        courierLoadRegistry = new CourierLoadRegistry(deliveryRepository);
+        CourierRoutes courierRoutes = new CourierRoutes();
+        UsersMicroservice usersMicroservice = new UsersMicroservice(null, null, null, null) {
+            @Override
+            public Optional<String> getUserType(Long userId) {
+                return COURIER;
+            }
+        };
+
+        SpecificOrderStrategy specificOrderStrategy =
+                new SpecificOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry);
+        batchDispatchStrategy = new BatchDispatchStrategy(deliveryRepository, availableOrderIndex, courierVendorIndex,
+                courierLocationRegistry, courierLoadRegistry, Long.MAX_VALUE);
+        List<AssignOrderStrategy> strategies = List.of(specificOrderStrategy,
+                new RandomOrderStrategy(deliveryRepository, availableOrderIndex, courierLoadRegistry),
+                new NearestOrderStrategy(deliveryRepository, availableOrderIndex, courierVendorIndex,
+                        courierLocationRegistry, courierLoadRegistry),
+                batchDispatchStrategy,
+                new BundleOrderStrategy(deliveryRepository, availableOrderIndex, courierVendorIndex, courierRoutes,
+                        courierLoadRegistry, settings.bundleSize, settings.bundleRadius),
+                new LeastLoadedFleetStrategy(deliveryRepository, availableOrderIndex, courierVendorIndex,
+                        courierLoadRegistry, settings.maxOrdersPerCourier, false));
+        courierService = new CourierService(deliveryRepository, usersMicroservice, availableOrderIndex,
+                courierVendorIndex, specificOrderStrategy, new AssignOrderStrategyRegistry(strategies, strategyName),
+                courierRoutes, new CourierPingStore(courierLocationRegistry, 32, 15_000, 60_000, 3_600_000),
+                new LocationTraceStore("", 4096, 0, Long.MAX_VALUE, 0), 100);
+
+        loader = new SimulationDataLoader(deliveryRepository, settings.seed);
+        loader.loadCity(settings.vendors, settings.couriers, settings.fleetShare);
+        loader.loadOrders(settings.orders, settings.ticks);
+        courierVendorIndex.rebuild(loader.getVendors());
+        for (Long courierId : loader.getCouriers()) {
+            courierLocationRegistry.update(courierId, loader.getStartOfCourier(courierId));
+        }
+    }
+
+    /**
+     * Runs the simulation until all orders arrived and were assigned, or until the drain time
+     * after the last arrival is over.
+     *
+     * @return The measurements of the run
+     * @throws Exception if one of the simulated couriers failed
+     */
+    SimulationResult run() throws Exception {
+        List<Long> couriers = loader.getCouriers();
+        List<CourierWorker> workers = new ArrayList<>();
+        for (int i = 0; i < settings.threads; i++) {
+            workers.add(new CourierWorker(couriers.subList(
+                    i * couriers.size() / settings.threads, (i + 1) * couriers.size() / settings.threads)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads + 1);
+        long start = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>();
+        workers.forEach(worker -> running.add(executor.submit(worker)));
+        if (BatchDispatchStrategy.NAME.equals(strategyName)) {
+            running.add(executor.submit(this::runBatchDispatcher));
+        }
+
+        for (int tick = 0; tick < settings.ticks; tick++) {
+            for (Delivery delivery : loader.getArrivals(tick)) {
+                delivery.getOrder().setStatus(Order.StatusEnum.ACCEPTED);
+                availableOrderIndex.add(delivery);
+            }
+            Thread.sleep(settings.tickMillis);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.drainMillis);
+        while (availableOrderIndex.size() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        stopped = true;
+        executor.shutdown();
+        for (Future<?> future : running) {
+            future.get();
+        }
+
+        Latencies polls = new Latencies();
+        Latencies assignments = new Latencies();
+        double pickupDistance = 0;
+        long trips = 0;
+        for (CourierWorker worker : workers) {
+            polls.addAll(worker.polls);
+            assignments.addAll(worker.assignments);
+            pickupDistance += worker.pickupDistance;
+            trips += worker.trips;
+        }
+        long end = Math.max(lastAssignment.get(), start + 1);
+        return new SimulationResult(strategyName, deliveries.getAssignedOrders(), settings.orders,
+                deliveries.getAssignedOrders() / ((end - start) / 1e9), polls, assignments,
+                deliveries.getDoubleAssignments(), trips == 0 ? 0 : pickupDistance / trips);
+    }
+
+    private void runBatchDispatcher() {
+        while (!stopped) {
+            batchDispatchStrategy.dispatch();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(settings.batchIntervalMillis));
+        }
+    }
+
+    /**
+     * Plays a slice of the couriers, one after the other, until the simulation stops.
+     */
+    private final class CourierWorker implements Runnable {
+        private final List<Long> couriers;
+        private final long[] waitingSince;
+        private final Latencies polls = new Latencies();
+        private final Latencies assignments = new Latencies();
+        private double pickupDistance;
+        private long trips;
+
+        private CourierWorker(List<Long> couriers) {
+            this.couriers = couriers;
+            this.waitingSince = new long[couriers.size()];
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                boolean busy = false;
+                for (int i = 0; i < couriers.size() && !stopped; i++) {
+                    busy |= step(i);
+                }
+                if (!busy) {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+        }
+
+        /**
+         * Lets a courier ask for an order, or check whether the batch dispatcher gave it one.
+         *
+         * @return true if the courier got an order
+         */
+        private boolean step(int index) {
+            Long courierId = couriers.get(index);
+            if (waitingSince[index] != 0) {
+                return collect(courierId, index, waitingSince[index]);
+            }
+
+            long pollStart = System.nanoTime();
+            List<Long> available = courierService.getAvailableOrderIds(courierId);
+            polls.add(System.nanoTime() - pollStart);
+            if (available.isEmpty()) {
+                return false;
+            }
+            long assignStart = System.nanoTime();
+            try {
+                courierService.assignCourierToAnyOrder(courierId, strategyName);
+            } catch (NoAvailableOrdersException e) {
+                return false;
+            } catch (Exception e) {
+                throw new IllegalStateException("Courier " + courierId + " failed", e);
+            }
+            return collect(courierId, index, assignStart);
+        }
+
+        /**
+         * Picks up and delivers the orders the courier got since the request started.
+         */
+        private boolean collect(Long courierId, int index, long requestStart) {
+            Long orderId = deliveries.nextNewOrder(courierId);
+            if (orderId == null) {
+                // The batch dispatcher assigns asynchronously, check again on the next pass
+                waitingSince[index] = requestStart;
+                return false;
+            }
+            long now = System.nanoTime();
+            assignments.add(now - requestStart);
+            lastAssignment.accumulateAndGet(now, Math::max);
+            waitingSince[index] = 0;
+
+            Location position = courierLocationRegistry.getLocation(courierId);
+            Location pickup = null;
+            Location destination = null;
+            for (; orderId != null; orderId = deliveries.nextNewOrder(courierId)) {
+                Order order = deliveries.repository().findDeliveryByOrder_OrderId(orderId).getOrder();
+                pickup = order.getVendor().getAddress();
+                destination = order.getDestination();
+                order.setStatus(Order.StatusEnum.DELIVERED);
+                courierLoadRegistry.decrement(courierId);
+            }
+            pickupDistance += DistanceEngine.distance(position, pickup, DistanceEngine.Precision.EXACT);
+            trips++;
+            courierLocationRegistry.update(courierId, destination);
+            return true;
+        }
+    }
+}
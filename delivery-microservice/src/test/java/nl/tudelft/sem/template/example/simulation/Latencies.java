@@ -0,0 +1,45 @@
+package nl.tudelft.sem.template.example.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Latency samples of one simulation thread, in nanoseconds. Every thread records into its own
+ * instance so measuring does not add contention; the instances are merged at the end.
+ */
+final class Latencies {
+    private long[] samples = new long[1024];
+    private int size;
+
+    void add(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    void addAll(Latencies other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.samples[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Computes a percentile with the nearest-rank method.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency in microseconds, 0 if there are no samples
+     */
+    double percentileMicros(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * size);
+        return sorted[Math.max(rank, 1) - 1] / 1_000.0;
+    }
+}
@@ -0,0 +1,110 @@
+package nl.tudelft.sem.template.example.simulation;
+
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.model.Delivery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stand-in for the delivery table of the simulation. It implements the queries the
+ * dispatch code uses without locks (a Mockito mock would serialize all concurrent calls) and
+ * returns a copy on every read, like separate JPA transactions do. Every write that gives an
+ * order a courier is checked against the earlier ones, which counts orders handed out twice.
+ */
+final class SimulatedDeliveries implements InvocationHandler {
+    private final Map<Long, Delivery> deliveryOfOrder = new ConcurrentHashMap<>();
+    private final Map<Long, Long> courierOfOrder = new ConcurrentHashMap<>();
+    private final Map<Long, Queue<Long>> newOrdersOfCourier = new ConcurrentHashMap<>();
+    private final AtomicInteger doubleAssignments = new AtomicInteger();
+
+    private final DeliveryRepository repository = (DeliveryRepository) Proxy.newProxyInstance(
+            DeliveryRepository.class.getClassLoader(), new Class<?>[] {DeliveryRepository.class}, this);
+
+    DeliveryRepository repository() {
+        return repository;
+    }
+
+    /**
+     * Takes the next order that was assigned to the courier since the last call.
+     *
+     * @return The id of the order, or null if the courier got no new order
+     */
+    Long nextNewOrder(Long courierId) {
+        Queue<Long> orders = newOrdersOfCourier.get(courierId);
+        return orders == null ? null : orders.poll();
+    }
+
+    int getAssignedOrders() {
+        return courierOfOrder.size();
+    }
+
+    int getDoubleAssignments() {
+        return doubleAssignments.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "save" -> save((Delivery) args[0]);
+            case "saveAll" -> saveAll((Iterable<Delivery>) args[0]);
+            case "findDeliveryByOrder_OrderId" -> copy(deliveryOfOrder.get((Long) args[0]));
+            case "findByOrder_OrderIdIn" -> findByOrderIds((Collection<Long>) args[0]);
+            case "findByCourierIdIsNullAndOrder_StatusIn", "findByCourierIdIsNotNullAndOrder_StatusNot" -> List.of();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> getClass().getSimpleName();
+            default -> throw new UnsupportedOperationException("Not simulated: " + method.getName());
+        };
+    }
+
+    private Delivery save(Delivery delivery) {
+        Long orderId = delivery.getOrder().getOrderId();
+        Long courierId = delivery.getCourierId();
+        if (courierId != null) {
+            Long previous = courierOfOrder.putIfAbsent(orderId, courierId);
+            if (previous == null) {
+                newOrdersOfCourier.computeIfAbsent(courierId, id -> new ConcurrentLinkedQueue<>()).add(orderId);
+            } else if (!previous.equals(courierId)) {
+                doubleAssignments.incrementAndGet();
+            }
+        }
+        deliveryOfOrder.put(orderId, copy(delivery));
+        return delivery;
+    }
+
+    private List<Delivery> saveAll(Iterable<Delivery> deliveries) {
+        List<Delivery> saved = new ArrayList<>();
+        deliveries.forEach(delivery -> saved.add(save(delivery)));
+        return saved;
+    }
+
+    private List<Delivery> findByOrderIds(Collection<Long> orderIds) {
+        List<Delivery> found = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            Delivery delivery = deliveryOfOrder.get(orderId);
+            if (delivery != null) {
+                found.add(copy(delivery));
+            }
+        }
+        return found;
+    }
+
+    private static Delivery copy(Delivery delivery) {
+        if (delivery == null) {
+            return null;
+        }
+        return new Delivery(delivery.getId(), delivery.getOrder(), delivery.getCourierId(), delivery.getRating(),
+                delivery.getTime(), delivery.getIssue());
+    }
+}
@@ -0,0 +1,132 @@
+package nl.tudelft.sem.template.example.simulation;
+
+import nl.tudelft.sem.template.example.repository.DeliveryRepository;
+import nl.tudelft.sem.template.model.*;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates a city of vendors, couriers and orders for the dispatch simulation. Like the
+ * TestDatabaseLoader it creates the entities and saves them in the repository, but in bulk
+ * and from a fixed seed, so every strategy is run against the same city.
+ */
+public class SimulationDataLoader {
+    private static final double CITY_LATITUDE = 52.0;
+    private static final double CITY_LONGITUDE = 4.35;
+    private static final double CITY_RADIUS = 0.15;
+    private static final int HOTSPOTS = 6;
+    private static final long FIRST_COURIER_ID = 1_000_000L;
+    private static final OffsetDateTime OPENING = OffsetDateTime.of(2024, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private final DeliveryRepository deliveryRepository;
+    private final Random random;
+
+    private final List<Location> hotspots = new ArrayList<>();
+    private final List<Vendor> vendors = new ArrayList<>();
+    private final List<Long> couriers = new ArrayList<>();
+    private final Map<Long, Location> startOfCourier = new HashMap<>();
+    private final List<List<Delivery>> arrivals = new ArrayList<>();
+
+    public SimulationDataLoader(DeliveryRepository deliveryRepository, long seed) {
+        this.deliveryRepository = deliveryRepository;
+        this.random = new Random(seed);
+        for (int i = 0; i < HOTSPOTS; i++) {
+            hotspots.add(anywhereInCity());
+        }
+    }
+
+    /**
+     * Creates the vendors and couriers. Vendors are clustered around a few busy streets,
+     * couriers start anywhere in the city. Some vendors employ a fleet of 2 to 4 couriers.
+     */
+    public void loadCity(int vendorCount, int courierCount, double fleetShare) {
+        for (int i = 0; i < courierCount; i++) {
+            long courierId = FIRST_COURIER_ID + i;
+            couriers.add(courierId);
+            startOfCourier.put(courierId, anywhereInCity());
+        }
+        int nextCourier = 0;
+        for (long vendorId = 1; vendorId <= vendorCount; vendorId++) {
+            List<Long> fleet = new ArrayList<>();
+            if (random.nextDouble() < fleetShare) {
+                int size = 2 + random.nextInt(3);
+                for (int i = 0; i < size && nextCourier < courierCount; i++) {
+                    fleet.add(couriers.get(nextCourier++));
+                }
+            }
+            Location hotspot = hotspots.get(random.nextInt(HOTSPOTS));
+            vendors.add(new Vendor(vendorId, 30L, near(hotspot, 0.02), fleet));
+        }
+    }
+
+    /**
+     * Creates the orders and spreads their arrival over the ticks of the simulation with a lunch
+     * and a (larger) dinner peak. Popular vendors get more orders than others. The orders are
+     * saved as PENDING, the simulation accepts them when they arrive.
+     */
+    public void loadOrders(int orderCount, int ticks) {
+        double[] weights = new double[ticks];
+        double total = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            double x = (tick + 0.5) / ticks;
+            weights[tick] = 0.2 + peak(x, 0.3, 0.06) + 1.5 * peak(x, 0.75, 0.08);
+            total += weights[tick];
+        }
+
+        long orderId = 1;
+        double cumulative = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            cumulative += weights[tick];
+            int until = (int) Math.round(orderCount * cumulative / total);
+            List<Delivery> arriving = new ArrayList<>();
+            for (; orderId <= until; orderId++) {
+                Vendor vendor = vendors.get((int) (vendors.size() * Math.pow(random.nextDouble(), 2)));
+                Order order = new Order(orderId, 1L + random.nextInt(100_000), vendor, Order.StatusEnum.PENDING,
+                        near(vendor.getAddress(), 0.03));
+                Time time = new Time();
+                time.setReadyTime(OPENING.plusMinutes(tick).plusSeconds(600 + random.nextInt(900)));
+                Delivery delivery = new Delivery(orderId, order, null, new Rating(), time, new Issue());
+                deliveryRepository.save(delivery);
+                arriving.add(delivery);
+            }
+            arrivals.add(arriving);
+        }
+    }
+
+    public List<Vendor> getVendors() {
+        return vendors;
+    }
+
+    public List<Long> getCouriers() {
+        return couriers;
+    }
+
+    public Location getStartOfCourier(Long courierId) {
+        return startOfCourier.get(courierId);
+    }
+
+    public List<Delivery> getArrivals(int tick) {
+        return arrivals.get(tick);
+    }
+
+    private static double peak(double x, double center, double width) {
+        double distance = (x - center) / width;
+        return Math.exp(-distance * distance);
+    }
+
+    private Location anywhereInCity() {
+        return new Location(CITY_LATITUDE + (2 * random.nextDouble() - 1) * CITY_RADIUS,
+                CITY_LONGITUDE + (2 * random.nextDouble() - 1) * CITY_RADIUS);
+    }
+
+    private Location near(Location center, double spread) {
+        return new Location(center.getLatitude() + random.nextGaussian() * spread,
+                center.getLongitude() + random.nextGaussian() * spread);
+    }
+}
@@ -0,0 +1,42 @@
+package nl.tudelft.sem.template.example.simulation;
+
+/**
+ * Measurements of one simulation run.
+ */
+final class SimulationResult {
+    static final String HEADER = String.format("%-13s %15s %10s %12s %12s %14s %14s %7s %10s",
+            "strategy", "assigned", "orders/s", "poll p50 us", "poll p99 us", "assign p50 us", "assign p99 us",
+            "double", "pickup");
+
+    final String strategy;
+    final int assigned;
+    final int orders;
+    final double throughput;
+    final Latencies polls;
+    final Latencies assignments;
+    final int doubleAssignments;
+    final double averagePickupDistance;
+
+    SimulationResult(String strategy, int assigned, int orders, double throughput, Latencies polls,
+                     Latencies assignments, int doubleAssignments, double averagePickupDistance) {
+        this.strategy = strategy;
+        this.assigned = assigned;
+        this.orders = orders;
+        this.throughput = throughput;
+        this.polls = polls;
+        this.assignments = assignments;
+        this.doubleAssignments = doubleAssignments;
+        this.averagePickupDistance = averagePickupDistance;
+    }
+
+    /**
+     * Formats the result as a row below {@link #HEADER}. The pickup column is the average
+     * distance from a courier to the vendor of the order(s) it got, in metres.
+     */
+    String format() {
+        return String.format("%-13s %7d/%-7d %10.0f %12.1f %12.1f %14.1f %14.1f %7d %10.0f",
+                strategy, assigned, orders, throughput, polls.percentileMicros(50), polls.percentileMicros(99),
+                assignments.percentileMicros(50), assignments.percentileMicros(99), doubleAssignments,
+                averagePickupDistance);
+    }
+}
@@ -0,0 +1,48 @@
+package nl.tudelft.sem.template.example.simulation;
+
+/**
+ * Size and timing of a dispatch simulation. Every value can be overridden with a system
+ * property, e.g. {@code -Dsimulation.orders=200000}.
+ */
+final class SimulationSettings {
+    final long seed;
+    final int vendors;
+    final int couriers;
+    final int orders;
+    final double fleetShare;
+    final int threads;
+    final int ticks;
+    final long tickMillis;
+    final long drainMillis;
+    final long batchIntervalMillis;
+    final int bundleSize;
+    final double bundleRadius;
+    final int maxOrdersPerCourier;
+
+    private SimulationSettings() {
+        seed = Long.getLong("simulation.seed", 42L);
+        vendors = Integer.getInteger("simulation.vendors", 2_000);
+        couriers = Integer.getInteger("simulation.couriers", 3_000);
+        orders = Integer.getInteger("simulation.orders", 50_000);
+        fleetShare = Double.parseDouble(System.getProperty("simulation.fleet-share", "0.1"));
+        threads = Integer.getInteger("simulation.threads", 32);
+        ticks = Integer.getInteger("simulation.ticks", 240);
+        tickMillis = Long.getLong("simulation.tick-ms", 10L);
+        drainMillis = Long.getLong("simulation.drain-ms", 3_000L);
+        batchIntervalMillis = Long.getLong("simulation.batch-interval-ms", 20L);
+        bundleSize = Integer.getInteger("simulation.bundle-size", 3);
+        bundleRadius = Double.parseDouble(System.getProperty("simulation.bundle-radius", "2000"));
+        maxOrdersPerCourier = Integer.getInteger("simulation.max-orders-per-courier", 3);
+    }
+
+    static SimulationSettings fromSystemProperties() {
+        return new SimulationSettings();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d vendors, %d couriers (%.0f%% of vendors with a fleet), %d orders over %d ticks of %d ms,"
+                        + " %d threads, seed %d", vendors, couriers, fleetShare * 100, orders, ticks, tickMillis,
+                threads, seed);
+    }
+}